@@ -0,0 +1,109 @@
+package building;
+
+import building.enums.AdmissionPolicy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits on the backlog of hall calls waiting in a building, and the policy that decides
+ * what happens to a call that would go past them. One limit applies to the calls waiting at
+ * each floor, in both directions together, and one to every call in the building.
+ */
+public final class AdmissionControl {
+  /************************************************************************
+   * No limits: every valid call is accepted.
+   ************************************************************************/
+  public static final AdmissionControl UNLIMITED =
+      new AdmissionControl(Integer.MAX_VALUE, Integer.MAX_VALUE, AdmissionPolicy.REJECT);
+
+  private final int maxPerFloor;
+  private final int maxTotal;
+  private final AdmissionPolicy policy;
+  private final long blockTimeoutNanos;
+
+  /**
+   * Create limits whose policy does not block.
+   *
+   * @param maxPerFloor the most calls that may wait at one floor, at least 1.
+   * @param maxTotal    the most calls that may wait in the building, at least 1.
+   * @param policy      what to do with a call that would go past a limit.
+   * @throws IllegalArgumentException if a limit is less than 1 or the policy is null.
+   */
+  public AdmissionControl(int maxPerFloor, int maxTotal, AdmissionPolicy policy) {
+    this(maxPerFloor, maxTotal, policy, 0, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Create limits.
+   *
+   * @param maxPerFloor  the most calls that may wait at one floor, at least 1.
+   * @param maxTotal     the most calls that may wait in the building, at least 1.
+   * @param policy       what to do with a call that would go past a limit.
+   * @param blockTimeout how long a blocked submission waits for room, under BLOCK.
+   * @param unit         the unit of the timeout.
+   * @throws IllegalArgumentException if a limit is less than 1, the timeout is negative, or
+   *                                  the policy or unit is null.
+   */
+  public AdmissionControl(int maxPerFloor, int maxTotal, AdmissionPolicy policy,
+                          long blockTimeout, TimeUnit unit) {
+    if (maxPerFloor < 1 || maxTotal < 1) {
+      throw new IllegalArgumentException("Backlog limits must be at least 1.");
+    }
+    if (policy == null || unit == null) {
+      throw new IllegalArgumentException("policy and unit cannot be null");
+    }
+    if (blockTimeout < 0) {
+      throw new IllegalArgumentException("blockTimeout cannot be negative");
+    }
+    this.maxPerFloor = maxPerFloor;
+    this.maxTotal = maxTotal;
+    this.policy = policy;
+    this.blockTimeoutNanos = unit.toNanos(blockTimeout);
+  }
+
+  /**
+   * Get the most calls that may wait at one floor.
+   *
+   * @return the per-floor limit.
+   */
+  public int getMaxPerFloor() {
+    return this.maxPerFloor;
+  }
+
+  /**
+   * Get the most calls that may wait in the building.
+   *
+   * @return the building's limit.
+   */
+  public int getMaxTotal() {
+    return this.maxTotal;
+  }
+
+  /**
+   * Get what happens to a call that would go past a limit.
+   *
+   * @return the policy.
+   */
+  public AdmissionPolicy getPolicy() {
+    return this.policy;
+  }
+
+  /**
+   * Get how long a blocked submission waits for room.
+   *
+   * @return the timeout, in nanoseconds.
+   */
+  public long getBlockTimeoutNanos() {
+    return this.blockTimeoutNanos;
+  }
+
+  /**
+   * toString implementation.
+   *
+   * @return string representation of the limits.
+   */
+  @Override
+  public String toString() {
+    return String.format("AdmissionControl[per floor <= %d, total <= %d, %s]",
+        this.maxPerFloor, this.maxTotal, this.policy);
+  }
+}
@@ -0,0 +1,124 @@
+package building;
+
+import building.enums.Direction;
+import elevator.FloorRequestSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The backlog of a building as seen by threads whose submissions block under the BLOCK
+ * admission policy: the hall calls waiting in the building and at each floor at the end of
+ * the last step, and the blocked submissions let through since, which wait in the building's
+ * submission inbox. A submission is let through only while both the building and its start
+ * floor have room for it.
+ * <p></p>
+ * The thread that steps the building publishes the backlog and counts submissions out as it
+ * admits them; any thread may wait to be let through.
+ */
+final class BacklogGate {
+  /************************************************************************
+   * How often a blocked submission checks for room in the backlog.
+   ************************************************************************/
+  private static final long POLL_NANOS = 100_000;
+
+  private final AtomicIntegerArray floorBacklogs;
+  private final AtomicIntegerArray floorBlocked;
+  private final AtomicInteger blocked;
+  private final FloorRequestSet published;
+  private volatile int backlog;
+  private volatile boolean open;
+
+  /**
+   * Create a gate with nothing waiting.
+   *
+   * @param numberOfFloors the number of floors in the building.
+   */
+  BacklogGate(int numberOfFloors) {
+    this.floorBacklogs = new AtomicIntegerArray(numberOfFloors);
+    this.floorBlocked = new AtomicIntegerArray(numberOfFloors);
+    this.blocked = new AtomicInteger();
+    this.published = new FloorRequestSet(numberOfFloors);
+  }
+
+  /**
+   * Wait until a submission from a floor fits under both backlog limits, and count it in,
+   * or until the gate is opened.
+   *
+   * @param floor  the start floor of the submission.
+   * @param limits the limits and the timeout.
+   * @return true if the submission was let through; false if it timed out.
+   */
+  boolean enter(int floor, AdmissionControl limits) {
+    long deadline = System.nanoTime() + limits.getBlockTimeoutNanos();
+    while (true) {
+      if (this.open) {
+        return true;
+      }
+      int total = this.blocked.get();
+      int atFloor = this.floorBlocked.get(floor);
+      if (total + this.backlog < limits.getMaxTotal()
+          && atFloor + this.floorBacklogs.get(floor) < limits.getMaxPerFloor()) {
+        if (this.floorBlocked.compareAndSet(floor, atFloor, atFloor + 1)) {
+          if (this.blocked.compareAndSet(total, total + 1)) {
+            return true;
+          }
+          this.floorBlocked.decrementAndGet(floor);
+        }
+        continue;
+      }
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return false;
+      }
+      LockSupport.parkNanos(this, Math.min(remaining, POLL_NANOS));
+    }
+  }
+
+  /**
+   * Let every waiting and later submission through, once the building no longer blocks.
+   */
+  void open() {
+    this.open = true;
+  }
+
+  /**
+   * Count out a submission the stepping thread has taken from the inbox, counting it in the
+   * floor's backlog until the next publish so that its room is not given away twice.
+   *
+   * @param floor the start floor of the submission.
+   */
+  void drained(int floor) {
+    this.floorBacklogs.incrementAndGet(floor);
+    this.published.add(floor);
+    this.backlog = this.backlog + 1;
+    // Only blocked submissions were counted in, but the policy may have changed since, so
+    // never count out more than are counted.
+    this.floorBlocked.getAndUpdate(floor, n -> Math.max(0, n - 1));
+    this.blocked.getAndUpdate(n -> Math.max(0, n - 1));
+  }
+
+  /**
+   * Publish the backlog of the building and of every floor whose backlog changed. Only the
+   * thread that steps the building may publish.
+   *
+   * @param calls the waiting hall calls.
+   */
+  void publish(HallCallIndex calls) {
+    for (int floor = this.published.nextAbove(-1); floor != -1;
+         floor = this.published.nextAbove(floor)) {
+      if (calls.countAt(floor) == 0) {
+        this.floorBacklogs.set(floor, 0);
+        this.published.remove(floor);
+      }
+    }
+    for (Direction direction : new Direction[] {Direction.UP, Direction.DOWN}) {
+      for (int floor = calls.nextFloorAbove(direction, -1); floor != -1;
+           floor = calls.nextFloorAbove(direction, floor)) {
+        this.floorBacklogs.set(floor, calls.countAt(floor));
+        this.published.add(floor);
+      }
+    }
+    this.backlog = calls.size();
+  }
+}
@@ -1,11 +1,32 @@
 package building;
 
+import building.dispatch.Assignment;
+import building.dispatch.DispatchStrategies;
+import building.dispatch.DispatchStrategy;
+import building.dispatch.FleetView;
+import building.dispatch.Lookahead;
+import building.enums.AdmissionPolicy;
+import building.enums.Direction;
 import building.enums.ElevatorSystemStatus;
+import building.enums.RequestStatus;
+import building.enums.SweepMode;
 import elevator.Elevator;
 import elevator.ElevatorInterface;
 import elevator.ElevatorReport;
-import java.util.ArrayList;
+import elevator.FleetLimits;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import scanerzus.Request;
 
 
@@ -13,14 +34,38 @@ import scanerzus.Request;
  * This class represents a building.
  */
 public class Building implements BuildingInterface {
+  /************************************************************************
+   * The most steps stepElevatorSystem(int) takes without checking for steps to skip.
+   ************************************************************************/
+  private static final int MAX_SKIP_BACKOFF = 7;
+
+  /************************************************************************
+   * The number of elevators one parallel task steps on its own.
+   ************************************************************************/
+  private static final int PARALLEL_STEP_CHUNK = 32;
 
   private final ElevatorInterface[] elevators;
+  private final boolean[] shared;
   private ElevatorSystemStatus elevatorsStatus;
   private final int numberOfFloors;
   private final int elevatorCapacity;
   private final int numberOfElevators;
-  private final List<Request> upRequests = new ArrayList();
-  private final List<Request> downRequests = new ArrayList();
+  private final FleetLimits limits;
+  private final DispatchStrategy dispatchStrategy;
+  private final FleetView fleetView;
+  private final PickupTracker pickups;
+  private long currentTick;
+  private ForkJoinPool stepPool;
+  private final HallCallIndex hallCalls;
+  private final RequestInbox submissions;
+  private long rejectedSubmissions;
+  private volatile AdmissionControl admission;
+  private volatile BacklogGate backlogGate;
+  private final LongAdder timedOutSubmissions;
+  private boolean coalescing;
+  private long shedCalls;
+  private long rejectedCalls;
+  private long coalescedCalls;
 
   /**
    * The constructor for the building.
@@ -31,12 +76,49 @@ public class Building implements BuildingInterface {
    */
   public Building(int numberOfFloors, int numberOfElevators, int elevatorCapacity)
       throws IllegalArgumentException {
+    this(numberOfFloors, numberOfElevators, elevatorCapacity, FleetLimits.STANDARD);
+  }
+
+  /**
+   * The constructor for a building with the given limits on its size.
+   * Use FleetLimits.HIGH_RISE for buildings with hundreds of floors and elevators.
+   *
+   * @param numberOfFloors the number of floors in the building.
+   * @param numberOfElevators the number of elevators in the building.
+   * @param elevatorCapacity the capacity of the elevators in the building.
+   * @param limits the limits on the number of floors and elevators.
+   */
+  public Building(int numberOfFloors, int numberOfElevators, int elevatorCapacity,
+                  FleetLimits limits) throws IllegalArgumentException {
+    this(numberOfFloors, numberOfElevators, elevatorCapacity, limits,
+        DispatchStrategies.defaultStrategy());
+  }
+
+  /**
+   * The constructor for a building that assigns hall calls with the given strategy.
+   *
+   * @param numberOfFloors the number of floors in the building.
+   * @param numberOfElevators the number of elevators in the building.
+   * @param elevatorCapacity the capacity of the elevators in the building.
+   * @param limits the limits on the number of floors and elevators.
+   * @param dispatchStrategy the strategy that assigns hall calls to elevators.
+   */
+  public Building(int numberOfFloors, int numberOfElevators, int elevatorCapacity,
+                  FleetLimits limits, DispatchStrategy dispatchStrategy)
+      throws IllegalArgumentException {
+    if (limits == null) {
+      throw new IllegalArgumentException("limits cannot be null.");
+    }
+    if (dispatchStrategy == null) {
+      throw new IllegalArgumentException("dispatchStrategy cannot be null.");
+    }
     if (numberOfFloors < 2) {
       throw new IllegalArgumentException("Number of floors must be larger than 2.");
     }
-    if (numberOfElevators < 1 || numberOfElevators > 10) {
+    if (numberOfElevators < 1 || numberOfElevators > limits.getMaxElevators()) {
       throw new IllegalArgumentException(
-          "numberOfElevators must be greater than 0 and smaller or equal than 10."
+          "numberOfElevators must be greater than 0 and smaller or equal than "
+              + limits.getMaxElevators() + "."
       );
     }
     if (elevatorCapacity < 1) {
@@ -46,15 +128,58 @@ public class Building implements BuildingInterface {
     this.numberOfFloors = numberOfFloors;
     this.numberOfElevators = numberOfElevators;
     this.elevatorCapacity = elevatorCapacity;
+    this.limits = limits;
+    this.dispatchStrategy = dispatchStrategy;
+    this.fleetView = new BuildingFleetView();
     this.elevators = new Elevator[numberOfElevators];
+    this.shared = new boolean[numberOfElevators];
+    this.hallCalls = new HallCallIndex(numberOfFloors);
+    this.pickups = new PickupTracker(numberOfElevators);
+    this.submissions = new RequestInbox();
+    this.admission = AdmissionControl.UNLIMITED;
+    this.timedOutSubmissions = new LongAdder();
+    this.currentTick = 0;
 
     for (int i = 0; i < numberOfElevators; i++) {
-      this.elevators[i] = new Elevator(numberOfFloors, this.elevatorCapacity);
+      this.elevators[i] = new Elevator(i, numberOfFloors, this.elevatorCapacity, limits);
     }
     // Initialize the status of the elevator to outOfService
     this.elevatorsStatus = ElevatorSystemStatus.outOfService;
   }
 
+  /**
+   * The constructor for a fork of a building, sharing every elevator with it.
+   *
+   * @param parent the building to fork.
+   * @param dispatchStrategy the strategy that assigns hall calls to elevators in the fork.
+   */
+  private Building(Building parent, DispatchStrategy dispatchStrategy) {
+    this.numberOfFloors = parent.numberOfFloors;
+    this.numberOfElevators = parent.numberOfElevators;
+    this.elevatorCapacity = parent.elevatorCapacity;
+    this.limits = parent.limits;
+    this.dispatchStrategy = dispatchStrategy;
+    this.fleetView = new BuildingFleetView();
+    this.elevators = parent.elevators.clone();
+    this.shared = new boolean[this.numberOfElevators];
+    Arrays.fill(this.shared, true);
+    this.hallCalls = parent.hallCalls.copy();
+    this.pickups = parent.pickups.copy();
+    this.submissions = new RequestInbox(1);
+    this.admission = parent.admission;
+    if (this.admission.getPolicy() == AdmissionPolicy.BLOCK) {
+      this.backlogGate = new BacklogGate(this.numberOfFloors);
+      this.backlogGate.publish(this.hallCalls);
+    }
+    this.coalescing = parent.coalescing;
+    this.timedOutSubmissions = new LongAdder();
+    this.shedCalls = parent.shedCalls;
+    this.rejectedCalls = parent.rejectedCalls;
+    this.coalescedCalls = parent.coalescedCalls;
+    this.currentTick = parent.currentTick;
+    this.elevatorsStatus = parent.elevatorsStatus;
+  }
+
   /**
    * Retrieves the total number of floors in the building.
    *
@@ -73,6 +198,89 @@ public class Building implements BuildingInterface {
     return this.numberOfElevators;
   }
 
+  /**
+   * Retrieves the limits the building was configured with.
+   *
+   * @return The limits on the number of floors and elevators.
+   */
+  public FleetLimits getLimits() {
+    return this.limits;
+  }
+
+  /**
+   * Retrieves the strategy that assigns hall calls to elevators.
+   *
+   * @return The dispatch strategy.
+   */
+  public DispatchStrategy getDispatchStrategy() {
+    return this.dispatchStrategy;
+  }
+
+  /**
+   * Sets how every elevator decides where a run ends.
+   * LOOK elevators turn around once there are no stops ahead and park, taking requests,
+   * where their last stop was, instead of always running to the top or bottom floor.
+   *
+   * @param sweepMode The sweep mode for all elevators.
+   * @throws IllegalArgumentException if the mode is null.
+   */
+  public void setSweepMode(SweepMode sweepMode) {
+    if (sweepMode == null) {
+      throw new IllegalArgumentException("sweepMode cannot be null");
+    }
+    for (int i = 0; i < this.elevators.length; i++) {
+      this.owned(i).setSweepMode(sweepMode);
+    }
+  }
+
+  /**
+   * Retrieves how the elevators decide where a run ends.
+   *
+   * @return The sweep mode of the elevators.
+   */
+  public SweepMode getSweepMode() {
+    return this.elevators[0].getSweepMode();
+  }
+
+  /**
+   * Sets the pool the elevators are stepped on. Once dispatch has run, each elevator's step
+   * only touches that elevator, so with a pool the fleet is split into chunks stepped in
+   * parallel. The result is identical to stepping them one after another; only the time
+   * taken differs. Fleets smaller than two chunks are always stepped on the calling thread.
+   *
+   * @param stepPool The pool to step on, or null to step on the calling thread.
+   */
+  public void setStepPool(ForkJoinPool stepPool) {
+    this.stepPool = stepPool;
+  }
+
+  /**
+   * Retrieves the pool the elevators are stepped on.
+   *
+   * @return The pool, or null if the elevators are stepped on the calling thread.
+   */
+  public ForkJoinPool getStepPool() {
+    return this.stepPool;
+  }
+
+  /**
+   * Retrieves the number of times the elevator system has been stepped.
+   *
+   * @return The current step.
+   */
+  public long getCurrentTick() {
+    return this.currentTick;
+  }
+
+  /**
+   * Retrieves how long the hall calls picked up so far waited for their elevator.
+   *
+   * @return A copy of the wait time statistics.
+   */
+  public WaitTimeStatistics getWaitTimeStatistics() {
+    return this.pickups.getStatistics().copy();
+  }
+
   /**
    * Retrieves the maximum capacity of the elevators in the building.
    * Assumes all elevators have the same capacity.
@@ -83,11 +291,211 @@ public class Building implements BuildingInterface {
     return this.elevatorCapacity;
   }
 
+  /**
+   * Captures the complete state of the building, so that it can be restored later, in this
+   * or another process, and carry on exactly as this building would. The step pool is not
+   * captured. Requests already submitted from other threads are admitted first, as the next
+   * step would admit them; those submitted while the snapshot is taken wait for the next
+   * step of this building and are not in the snapshot.
+   *
+   * @return A snapshot of the building.
+   */
+  public BuildingSnapshot snapshot() {
+    this.drainSubmissions();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(BuildingSnapshot.MAGIC);
+      out.writeShort(BuildingSnapshot.VERSION);
+      out.writeInt(this.numberOfFloors);
+      out.writeInt(this.numberOfElevators);
+      out.writeInt(this.elevatorCapacity);
+      out.writeInt(this.limits.getMaxFloors());
+      out.writeInt(this.limits.getMaxElevators());
+      out.writeUTF(this.dispatchStrategy.getName());
+      out.writeLong(this.currentTick);
+
+      ByteArrayOutputStream strategyState = new ByteArrayOutputStream();
+      this.dispatchStrategy.writeState(new DataOutputStream(strategyState));
+      out.writeInt(strategyState.size());
+      strategyState.writeTo(out);
+      out.writeByte(this.elevatorsStatus.ordinal());
+      out.writeBoolean(this.coalescing);
+      AdmissionControl limits = this.admission;
+      out.writeInt(limits.getMaxPerFloor());
+      out.writeInt(limits.getMaxTotal());
+      out.writeByte(limits.getPolicy().ordinal());
+      out.writeLong(limits.getBlockTimeoutNanos());
+      out.writeLong(this.shedCalls);
+      out.writeLong(this.rejectedCalls);
+      out.writeLong(this.coalescedCalls);
+      this.hallCalls.writeTo(out);
+      this.pickups.writeTo(out);
+      for (ElevatorInterface elevator : this.elevators) {
+        elevator.writeState(out);
+      }
+    } catch (IOException e) {
+      // Writing to memory does not fail.
+      throw new UncheckedIOException(e);
+    }
+    return new BuildingSnapshot(bytes.toByteArray());
+  }
+
+  /**
+   * Creates a building from a snapshot, with a new instance of the dispatch strategy the
+   * snapshot was taken with.
+   *
+   * @param snapshot The snapshot to restore.
+   * @return A new building in the state the snapshot was taken in.
+   * @throws IllegalArgumentException if the snapshot is null or its strategy is not
+   *         registered.
+   * @throws IllegalStateException if the snapshot is not valid.
+   */
+  public static Building restore(BuildingSnapshot snapshot) {
+    if (snapshot == null) {
+      throw new IllegalArgumentException("snapshot cannot be null");
+    }
+    return restore(snapshot, DispatchStrategies.byName(snapshot.getDispatchStrategyName()));
+  }
+
+  /**
+   * Creates a building from a snapshot that assigns hall calls with the given strategy, to
+   * branch a what-if run from a warmed-up state. The strategy takes the state captured in the
+   * snapshot only if it has the same name as the strategy the snapshot was taken with.
+   *
+   * @param snapshot The snapshot to restore.
+   * @param dispatchStrategy The strategy the new building assigns hall calls with.
+   * @return A new building in the state the snapshot was taken in.
+   * @throws IllegalArgumentException if the snapshot or the strategy is null.
+   * @throws IllegalStateException if the snapshot is not valid.
+   */
+  public static Building restore(BuildingSnapshot snapshot, DispatchStrategy dispatchStrategy) {
+    if (snapshot == null) {
+      throw new IllegalArgumentException("snapshot cannot be null");
+    }
+    if (dispatchStrategy == null) {
+      throw new IllegalArgumentException("dispatchStrategy cannot be null.");
+    }
+    Building building;
+    try {
+      building = new Building(snapshot.getNumberOfFloors(), snapshot.getNumberOfElevators(),
+          snapshot.getElevatorCapacity(), limitsOf(snapshot), dispatchStrategy);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalStateException("Snapshot has an invalid configuration.", e);
+    }
+
+    try (DataInputStream in = snapshot.openBody()) {
+      byte[] strategyState = new byte[in.readInt()];
+      in.readFully(strategyState);
+      if (dispatchStrategy.getName().equals(snapshot.getDispatchStrategyName())) {
+        dispatchStrategy.readState(new DataInputStream(new ByteArrayInputStream(strategyState)));
+      }
+      int status = in.readUnsignedByte();
+      if (status >= ElevatorSystemStatus.values().length) {
+        throw new IllegalStateException("Snapshot has an invalid status.");
+      }
+      building.elevatorsStatus = ElevatorSystemStatus.values()[status];
+      building.currentTick = snapshot.getCurrentTick();
+      int version = snapshot.getVersion();
+      building.coalescing = version >= 2 && in.readBoolean();
+      AdmissionControl admission = AdmissionControl.UNLIMITED;
+      if (version >= 4) {
+        admission = readAdmissionControl(in);
+        building.shedCalls = in.readLong();
+        building.rejectedCalls = in.readLong();
+        building.coalescedCalls = in.readLong();
+      }
+      building.hallCalls.readFrom(in, version);
+      // Set once the calls are in, so that a BLOCK gate publishes them.
+      building.setAdmissionControl(admission);
+      building.pickups.readFrom(in, version);
+      for (ElevatorInterface elevator : building.elevators) {
+        elevator.readState(in, version);
+      }
+      if (in.read() != -1) {
+        throw new IllegalStateException("Snapshot has trailing bytes.");
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Snapshot is truncated.", e);
+    }
+    return building;
+  }
+
+  /**
+   * Read the admission control written by snapshot, reusing UNLIMITED when it matches.
+   */
+  private static AdmissionControl readAdmissionControl(DataInputStream in) throws IOException {
+    int maxPerFloor = in.readInt();
+    int maxTotal = in.readInt();
+    int policy = in.readUnsignedByte();
+    long blockTimeoutNanos = in.readLong();
+    if (policy >= AdmissionPolicy.values().length) {
+      throw new IllegalStateException("Snapshot has an invalid admission policy.");
+    }
+    AdmissionControl unlimited = AdmissionControl.UNLIMITED;
+    if (maxPerFloor == unlimited.getMaxPerFloor() && maxTotal == unlimited.getMaxTotal()
+        && policy == unlimited.getPolicy().ordinal()
+        && blockTimeoutNanos == unlimited.getBlockTimeoutNanos()) {
+      return unlimited;
+    }
+    try {
+      return new AdmissionControl(maxPerFloor, maxTotal, AdmissionPolicy.values()[policy],
+          blockTimeoutNanos, TimeUnit.NANOSECONDS);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalStateException("Snapshot has invalid admission control.", e);
+    }
+  }
+
+  /**
+   * Reuse the shared limits when the snapshot's match one of them.
+   */
+  private static FleetLimits limitsOf(BuildingSnapshot snapshot) {
+    for (FleetLimits limits : new FleetLimits[] {FleetLimits.STANDARD, FleetLimits.HIGH_RISE}) {
+      if (limits.getMaxFloors() == snapshot.getMaxFloors()
+          && limits.getMaxElevators() == snapshot.getMaxElevators()) {
+        return limits;
+      }
+    }
+    return new FleetLimits(snapshot.getMaxFloors(), snapshot.getMaxElevators());
+  }
+
+  /**
+   * Creates a fork of the building: a building in the same state that then runs on its own,
+   * for looking ahead at what would happen. Forking is cheap. The fork copies the waiting hall
+   * calls and pending pickups, but shares every elevator with this building until one of the
+   * two changes it; only then is that elevator copied, for the one changing it. Idle elevators
+   * are never copied. The fork dispatches with a fork of this building's strategy and steps
+   * its elevators on the calling thread.
+   *
+   * @return The fork.
+   */
+  public Building fork() {
+    return this.fork(this.dispatchStrategy.fork());
+  }
+
+  /**
+   * Creates a fork of the building that assigns hall calls with the given strategy, for
+   * example one that tries a particular assignment. See fork().
+   *
+   * @param dispatchStrategy The strategy the fork assigns hall calls with.
+   * @return The fork.
+   * @throws IllegalArgumentException if the strategy is null.
+   */
+  public Building fork(DispatchStrategy dispatchStrategy) {
+    if (dispatchStrategy == null) {
+      throw new IllegalArgumentException("dispatchStrategy cannot be null.");
+    }
+    Building fork = new Building(this, dispatchStrategy);
+    // This building's elevators are now shared too, so it copies them before changing them.
+    Arrays.fill(this.shared, true);
+    return fork;
+  }
+
   /**
    * Adds a request to the elevator system.
    *
    * @param request The request to be added.
-   * @return true if the request was successfully added; false if not.
+   * @return true if the request was successfully added or coalesced into a waiting call;
+   *         false if admission control turned it away.
    * @throws IllegalStateException if the system is not currently accepting requests due to
    *         being out of service or stopping.
    * @throws IllegalArgumentException if the request is null, the start and end floors are the
@@ -105,16 +513,364 @@ public class Building implements BuildingInterface {
     }
 
     int startFloor = request.getStartFloor();
-    int endFloor = getEndFloor(request, startFloor);
+    getEndFloor(request, startFloor);
 
-    if (startFloor < endFloor) {
-      this.upRequests.add(request);
-    } else {
-      this.downRequests.add(request);
+    return this.admit(request).isAdmitted();
+  }
+
+  /**
+   * Offers a request to the elevator system, reporting what became of it instead of throwing
+   * when the system is not accepting requests or the backlog is full.
+   *
+   * @param request The request to be offered.
+   * @return ACCEPTED, COALESCED, REJECTED or NOT_ACCEPTING.
+   * @throws IllegalArgumentException if the request is null, the start and end floors are the
+   *         same, or if the floors are outside the valid range of the building.
+   */
+  public RequestStatus offerRequest(Request request) {
+    if (request == null) {
+      throw new IllegalArgumentException("Request cannot be null");
     }
+    getEndFloor(request, request.getStartFloor());
+    if (!this.isAcceptingRequests()) {
+      return RequestStatus.NOT_ACCEPTING;
+    }
+    return this.admit(request);
+  }
 
-    // Return true if the request was successfully added.
-    return true;
+  /**
+   * Adds many requests at once without throwing: each is validated and admitted in turn, and
+   * its fate is reported in the matching slot of the result. Invalid requests are skipped,
+   * which makes this the cheap way to load data that may hold bad requests.
+   *
+   * @param requests The requests to add, which may include null or invalid requests.
+   * @return The status of each request, in order.
+   * @throws IllegalArgumentException if requests is null.
+   */
+  public RequestStatus[] addRequests(Request[] requests) {
+    if (requests == null) {
+      throw new IllegalArgumentException("requests cannot be null.");
+    }
+    RequestStatus[] statuses = new RequestStatus[requests.length];
+    for (int i = 0; i < requests.length; i++) {
+      statuses[i] = this.tryAddRequest(requests[i]);
+    }
+    return statuses;
+  }
+
+  /**
+   * Adds many requests at once without throwing, as addRequests(Request[]) does.
+   *
+   * @param requests The requests to add, which may include null or invalid requests.
+   * @return The status of each request, in iteration order.
+   * @throws IllegalArgumentException if requests is null.
+   */
+  public RequestStatus[] addRequests(Collection<Request> requests) {
+    if (requests == null) {
+      throw new IllegalArgumentException("requests cannot be null.");
+    }
+    RequestStatus[] statuses = new RequestStatus[requests.size()];
+    int i = 0;
+    for (Request request : requests) {
+      statuses[i++] = this.tryAddRequest(request);
+    }
+    return statuses;
+  }
+
+  /**
+   * Helper function: Validates and admits one request of a bulk add.
+   */
+  private RequestStatus tryAddRequest(Request request) {
+    RequestStatus invalid = this.validate(request);
+    if (invalid != null) {
+      return invalid;
+    }
+    if (!this.isAcceptingRequests()) {
+      return RequestStatus.NOT_ACCEPTING;
+    }
+    return this.admit(request);
+  }
+
+  /**
+   * Helper function: Checks a request as getEndFloor does, but reports what is wrong
+   * instead of throwing.
+   *
+   * @return null if the request is valid for the building.
+   */
+  private RequestStatus validate(Request request) {
+    if (request == null) {
+      return RequestStatus.NULL_REQUEST;
+    }
+    int startFloor = request.getStartFloor();
+    int endFloor = request.getEndFloor();
+    if (startFloor < 0 || startFloor >= this.numberOfFloors) {
+      return RequestStatus.INVALID_START_FLOOR;
+    }
+    if (endFloor < 0 || endFloor >= this.numberOfFloors) {
+      return RequestStatus.INVALID_END_FLOOR;
+    }
+    if (startFloor == endFloor) {
+      return RequestStatus.SAME_FLOOR;
+    }
+    return null;
+  }
+
+  /**
+   * Sets the limits on the backlog of waiting hall calls and what happens to calls past them.
+   * Calls already waiting are kept even if they are past the new limits.
+   *
+   * @param admission The limits, or AdmissionControl.UNLIMITED to accept every call.
+   * @throws IllegalArgumentException if admission is null.
+   */
+  public void setAdmissionControl(AdmissionControl admission) {
+    if (admission == null) {
+      throw new IllegalArgumentException("admission cannot be null.");
+    }
+    // Submitting threads look for the gate once they see the BLOCK policy, so it comes first,
+    // and goes only once the policy has changed.
+    BacklogGate gate = this.backlogGate;
+    boolean block = admission.getPolicy() == AdmissionPolicy.BLOCK;
+    if (block && gate == null) {
+      gate = new BacklogGate(this.numberOfFloors);
+      gate.publish(this.hallCalls);
+      this.backlogGate = gate;
+    }
+    this.admission = admission;
+    if (!block && gate != null) {
+      this.backlogGate = null;
+      gate.open();
+    }
+  }
+
+  /**
+   * Retrieves the limits on the backlog of waiting hall calls.
+   *
+   * @return The limits.
+   */
+  public AdmissionControl getAdmissionControl() {
+    return this.admission;
+  }
+
+  /**
+   * Retrieves the number of hall calls waiting to be assigned.
+   *
+   * @return The backlog.
+   */
+  public int getBacklog() {
+    return this.hallCalls.size();
+  }
+
+  /**
+   * Retrieves the number of hall calls waiting to be assigned at a floor, in both directions.
+   *
+   * @param floor The floor.
+   * @return The floor's backlog.
+   * @throws IllegalArgumentException if the floor is outside the building.
+   */
+  public int getBacklog(int floor) {
+    if (floor < 0 || floor >= this.numberOfFloors) {
+      throw new IllegalArgumentException(
+          "Floor must be between 0 and " + (this.numberOfFloors - 1));
+    }
+    return this.hallCalls.countAt(floor);
+  }
+
+  /**
+   * Sets whether hall calls are coalesced. When they are, a request from the same floor to
+   * the same destination as a waiting call joins that call as another passenger instead of
+   * waiting as a call of its own, so the backlog grows with the floors and destinations
+   * people want rather than the number of people. A call holds at most an elevator's
+   * capacity of passengers; the next passenger starts a new call. The dispatch strategy sees
+   * one call, whose passengers each take a place in the elevator it is given to, and the wait
+   * time statistics count every passenger. Calls already waiting are left as they are.
+   *
+   * @param coalescing true to coalesce hall calls.
+   */
+  public void setHallCallCoalescing(boolean coalescing) {
+    this.coalescing = coalescing;
+  }
+
+  /**
+   * Retrieves whether hall calls are coalesced.
+   *
+   * @return true if hall calls are coalesced.
+   */
+  public boolean isHallCallCoalescing() {
+    return this.coalescing;
+  }
+
+  /**
+   * Retrieves the number of passengers of the hall calls waiting to be assigned.
+   *
+   * @return The number of waiting passengers.
+   */
+  public long getWaitingPassengers() {
+    return this.hallCalls.passengerCount();
+  }
+
+  /**
+   * Retrieves the number of waiting hall calls dropped to make room for newer ones.
+   *
+   * @return The number of shed calls.
+   */
+  public long getShedCalls() {
+    return this.shedCalls;
+  }
+
+  /**
+   * Retrieves the number of hall calls turned away because the backlog was full.
+   *
+   * @return The number of rejected calls.
+   */
+  public long getRejectedCalls() {
+    return this.rejectedCalls;
+  }
+
+  /**
+   * Retrieves the number of requests that joined a hall call already waiting, by coalescing
+   * or under the COALESCE admission policy.
+   *
+   * @return The number of coalesced calls.
+   */
+  public long getCoalescedCalls() {
+    return this.coalescedCalls;
+  }
+
+  /**
+   * Retrieves the number of blocked submissions that gave up waiting for room. Safe to call
+   * from any thread.
+   *
+   * @return The number of timed out submissions.
+   */
+  public long getTimedOutSubmissions() {
+    return this.timedOutSubmissions.sum();
+  }
+
+  /**
+   * Helper function: Is the system taking new requests.
+   */
+  private boolean isAcceptingRequests() {
+    return this.elevatorsStatus != ElevatorSystemStatus.outOfService
+        && this.elevatorsStatus != ElevatorSystemStatus.stopping;
+  }
+
+  /**
+   * Helper function: Adds a validated request as a hall call, unless it would take the
+   * backlog past its limits, in which case the admission policy decides.
+   */
+  private RequestStatus admit(Request request) {
+    // A request that joins a waiting call does not grow the backlog.
+    if (this.coalescing
+        && this.hallCalls.coalesce(request, this.currentTick, this.elevatorCapacity)) {
+      this.coalescedCalls++;
+      return RequestStatus.COALESCED;
+    }
+    AdmissionControl limits = this.admission;
+    int floor = request.getStartFloor();
+    boolean floorFull = this.hallCalls.countAt(floor) >= limits.getMaxPerFloor();
+    boolean buildingFull = this.hallCalls.size() >= limits.getMaxTotal();
+    if (floorFull || buildingFull) {
+      switch (limits.getPolicy()) {
+        case SHED_OLDEST:
+          // Shedding at a full floor also makes room in the building.
+          if (floorFull) {
+            this.hallCalls.pollOldestAt(floor);
+          } else {
+            this.hallCalls.pollOldest();
+          }
+          this.shedCalls++;
+          break;
+        case COALESCE:
+          if (this.hallCalls.coalesce(request, this.currentTick, this.elevatorCapacity)) {
+            this.coalescedCalls++;
+            return RequestStatus.COALESCED;
+          }
+          this.rejectedCalls++;
+          return RequestStatus.REJECTED;
+        default:
+          this.rejectedCalls++;
+          return RequestStatus.REJECTED;
+      }
+    }
+    this.hallCalls.add(request, this.currentTick);
+    return RequestStatus.ACCEPTED;
+  }
+
+  /**
+   * Submits a request from any thread, without locking, while another thread steps the
+   * building. Submitted requests are admitted at the start of the next step, in the order
+   * each thread submitted them; those that arrive while the system is out of service or
+   * stopping are dropped and counted by getRejectedSubmissions. Every other method must still
+   * only be called by the thread that steps the building, unless it says otherwise.
+   * <p></p>
+   * Under the BLOCK admission policy the calling thread waits, up to the policy's timeout,
+   * until the calls waiting and submitted are fewer than both the building's backlog limit
+   * and the limit of the request's start floor. The backlog it sees is the one at the end of
+   * the last step, so a submission let through is only turned away if calls were added on
+   * the stepping thread since.
+   *
+   * @param request The request to be submitted.
+   * @return SUBMITTED, or TIMED_OUT if the backlog stayed full for the whole timeout.
+   * @throws IllegalArgumentException if the request is null, the start and end floors are the
+   *         same, or if the floors are outside the valid range of the building.
+   */
+  public RequestStatus submitRequest(Request request) {
+    if (request == null) {
+      throw new IllegalArgumentException("Request cannot be null");
+    }
+    getEndFloor(request, request.getStartFloor());
+    AdmissionControl limits = this.admission;
+    // The gate is gone if the policy changed since it was read.
+    BacklogGate gate = limits.getPolicy() == AdmissionPolicy.BLOCK ? this.backlogGate : null;
+    if (gate != null && !gate.enter(request.getStartFloor(), limits)) {
+      this.timedOutSubmissions.increment();
+      return RequestStatus.TIMED_OUT;
+    }
+    this.submissions.add(request);
+    return RequestStatus.SUBMITTED;
+  }
+
+  /**
+   * Helper function: Lets the submitting threads see the backlog.
+   */
+  private void publishBacklog() {
+    BacklogGate gate = this.backlogGate;
+    if (gate != null) {
+      gate.publish(this.hallCalls);
+    }
+  }
+
+  /**
+   * Retrieves the number of submitted requests dropped because they arrived while the system
+   * was out of service or stopping.
+   *
+   * @return The number of dropped submissions.
+   */
+  public long getRejectedSubmissions() {
+    return this.rejectedSubmissions;
+  }
+
+  /**
+   * Helper function: Adds the submitted requests as hall calls arriving at the current step.
+   */
+  private void drainSubmissions() {
+    if (this.submissions.isEmpty()) {
+      return;
+    }
+    BacklogGate gate = this.backlogGate;
+    boolean accepting = this.isAcceptingRequests();
+    int drained = this.submissions.drain(request -> {
+      if (accepting) {
+        this.admit(request);
+      }
+      if (gate != null) {
+        gate.drained(request.getStartFloor());
+      }
+    });
+    if (!accepting) {
+      this.rejectedSubmissions += drained;
+    }
+    this.publishBacklog();
   }
 
   /**
@@ -175,8 +931,8 @@ public class Building implements BuildingInterface {
     }
 
     // Start the elevator system.
-    for (ElevatorInterface elevator : this.elevators) {
-      elevator.start();
+    for (int i = 0; i < this.elevators.length; i++) {
+      this.owned(i).start();
     }
 
     this.elevatorsStatus = ElevatorSystemStatus.running;
@@ -198,9 +954,10 @@ public class Building implements BuildingInterface {
       throw new IllegalStateException("System is already stopping or out of service.");
     }
 
-    for (ElevatorInterface elevator : this.elevators) {
-      elevator.takeOutOfService();
+    for (int i = 0; i < this.elevators.length; i++) {
+      this.owned(i).takeOutOfService();
     }
+    this.pickups.clear();
 
     this.elevatorsStatus = ElevatorSystemStatus.outOfService;
   }
@@ -222,8 +979,8 @@ public class Building implements BuildingInterface {
         this.numberOfElevators,
         this.elevatorCapacity,
         elevatorReports,
-        this.upRequests,
-        this.downRequests,
+        this.hallCalls.toList(Direction.UP),
+        this.hallCalls.toList(Direction.DOWN),
         this.elevatorsStatus);
     return report;
   }
@@ -232,6 +989,7 @@ public class Building implements BuildingInterface {
    * Steps the elevator system through its operations based on the current status.
    */
   public void stepElevatorSystem() {
+    this.drainSubmissions();
     // Only proceed if the elevator is not out of service
     if (this.elevatorsStatus != ElevatorSystemStatus.outOfService) {
       // Pass requests unless the system is stopping
@@ -240,9 +998,10 @@ public class Building implements BuildingInterface {
       }
 
       // Step each elevator in the system
-      for (ElevatorInterface elevator : this.elevators) {
-        elevator.step();
-      }
+      this.stepElevators();
+      this.currentTick++;
+      this.recordPickups();
+      this.publishBacklog();
 
       // If the system is stopping, check if all elevators are on the ground floor
       if (this.elevatorsStatus == ElevatorSystemStatus.stopping) {
@@ -259,48 +1018,357 @@ public class Building implements BuildingInterface {
           this.elevatorsStatus = ElevatorSystemStatus.outOfService;
         }
       }
+    } else {
+      this.currentTick++;
+    }
+  }
+
+  /**
+   * Retrieves how many steps can be taken at once with advanceElevatorSystem. Steps can be
+   * skipped while no hall calls are waiting or submitted, until the next step at which an
+   * elevator does more than count a timer down or move a floor.
+   *
+   * @return The number of steps, 0 if the next step must be taken with stepElevatorSystem,
+   *         or Long.MAX_VALUE if nothing will change until a request is added.
+   */
+  public long getSkippableSteps() {
+    if (!this.submissions.isEmpty()) {
+      return 0;
+    }
+    if (this.elevatorsStatus == ElevatorSystemStatus.outOfService) {
+      return Long.MAX_VALUE;
+    }
+    if (this.elevatorsStatus == ElevatorSystemStatus.stopping || !this.hallCalls.isEmpty()) {
+      return 0;
+    }
+    long steps = Long.MAX_VALUE;
+    for (int i = 0; i < this.elevators.length && steps > 0; i++) {
+      steps = Math.min(steps, this.elevators[i].stepsUntilNextEvent());
+    }
+    return steps;
+  }
+
+  /**
+   * Takes several steps at once. The building ends in the same state as after calling
+   * stepElevatorSystem that many times, in time independent of the number of steps.
+   *
+   * @param steps The number of steps, at most getSkippableSteps.
+   * @throws IllegalArgumentException if steps is negative or more than getSkippableSteps.
+   */
+  public void advanceElevatorSystem(long steps) {
+    if (steps < 0 || steps > this.getSkippableSteps()) {
+      throw new IllegalArgumentException("Cannot skip " + steps + " steps.");
+    }
+    this.skipSteps(steps);
+  }
+
+  /**
+   * Helper function: Takes steps known to be skippable in one jump.
+   */
+  private void skipSteps(long steps) {
+    if (this.elevatorsStatus != ElevatorSystemStatus.outOfService) {
+      for (int i = 0; i < this.elevators.length; i++) {
+        if (!this.isSharedAndIdle(i)) {
+          this.owned(i).advance(steps);
+        }
+      }
+    }
+    this.currentTick += steps;
+  }
+
+  /**
+   * Retrieves the number of steps before an elevator next does more than count a timer down
+   * or move a floor.
+   *
+   * @param elevator The elevator number.
+   * @return The number of steps, or Long.MAX_VALUE if it is idle.
+   */
+  long stepsUntilNextEvent(int elevator) {
+    return this.elevators[elevator].stepsUntilNextEvent();
+  }
+
+  /**
+   * Is any hall call waiting to be assigned.
+   *
+   * @return true if calls are waiting.
+   */
+  boolean hasWaitingCalls() {
+    return !this.hallCalls.isEmpty();
+  }
+
+  /**
+   * Steps the elevator system several times. Runs of steps in which no hall calls are waiting
+   * and the elevators only count timers down or move a floor (doors open, waits at the top or
+   * bottom, runs between stops, the descent when out of service) are taken in one jump, and
+   * the dispatch strategy is only asked for assignments on steps with calls waiting.
+   * The building ends in the same state as after calling stepElevatorSystem that many times.
+   *
+   * @param ticks The number of steps to take.
+   * @throws IllegalArgumentException if ticks is negative.
+   */
+  @Override
+  public void stepElevatorSystem(int ticks) {
+    if (ticks < 0) {
+      throw new IllegalArgumentException("ticks cannot be negative");
+    }
+    long remaining = ticks;
+    // In busy periods most steps cannot be skipped, so after a check that finds little to
+    // skip the next few steps are taken one at a time without checking. Taking a step that
+    // could have been skipped gives the same result, only more slowly.
+    int backoff = 0;
+    int unchecked = 0;
+    while (remaining > 0) {
+      long skip = 0;
+      if (unchecked > 0) {
+        unchecked--;
+      } else {
+        skip = Math.min(remaining, this.getSkippableSteps());
+        backoff = skip > 1 ? 0 : Math.min(2 * backoff + 1, MAX_SKIP_BACKOFF);
+        unchecked = backoff;
+      }
+      if (skip > 0) {
+        this.skipSteps(skip);
+        remaining -= skip;
+      } else {
+        this.stepElevatorSystem();
+        remaining--;
+      }
+    }
+  }
+
+  /**
+   * Helper function: Steps every elevator, in parallel if a step pool is set.
+   */
+  private void stepElevators() {
+    if (this.stepPool == null || this.elevators.length < 2 * PARALLEL_STEP_CHUNK) {
+      for (int i = 0; i < this.elevators.length; i++) {
+        this.stepElevator(i);
+      }
+      return;
+    }
+    this.stepPool.invoke(new StepElevators(0, this.elevators.length));
+  }
+
+  /**
+   * Helper function: Steps one elevator. An idle elevator's step changes nothing, so one
+   * shared with a fork is left shared.
+   */
+  private void stepElevator(int i) {
+    if (!this.isSharedAndIdle(i)) {
+      this.owned(i).step();
+    }
+  }
+
+  /**
+   * Helper function: Is an elevator shared with a fork and idle.
+   */
+  private boolean isSharedAndIdle(int i) {
+    return this.shared[i] && this.elevators[i].stepsUntilNextEvent() == Long.MAX_VALUE;
+  }
+
+  /**
+   * Helper function: Retrieves an elevator to change, first replacing it with a copy of its
+   * own if it is shared with a fork.
+   */
+  private ElevatorInterface owned(int i) {
+    if (this.shared[i]) {
+      this.elevators[i] = this.elevators[i].copy();
+      this.shared[i] = false;
+    }
+    return this.elevators[i];
+  }
+
+  /**
+   * Steps a range of elevators, splitting it in half until it is one chunk. Tasks are never
+   * serialized.
+   */
+  @SuppressWarnings("serial")
+  private class StepElevators extends RecursiveAction {
+    private final int from;
+    private final int to;
+
+    StepElevators(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.to - this.from <= PARALLEL_STEP_CHUNK) {
+        for (int i = this.from; i < this.to; i++) {
+          stepElevator(i);
+        }
+        return;
+      }
+      int middle = (this.from + this.to) >>> 1;
+      invokeAll(new StepElevators(this.from, middle), new StepElevators(middle, this.to));
+    }
+  }
+
+  /**
+   * Helper function: Records the pickups of elevators whose doors are open.
+   */
+  private void recordPickups() {
+    for (int i = 0; i < this.elevators.length; i++) {
+      if (this.pickups.hasPickups(i) && !this.elevators[i].isDoorClosed()) {
+        this.pickups.doorsOpenAt(i, this.elevators[i].getCurrentFloor(), this.currentTick);
+      }
     }
   }
 
   /**
-   * Helper function: Retrieves the requests for an elevator based on its current position.
+   * Helper function: Asks the dispatch strategy to assign the waiting hall calls and hands
+   * each batch to its elevator.
+   *
+   * @throws IllegalStateException if the strategy assigns a call that is not waiting, names
+   *         an elevator that does not exist or gives an elevator more passengers than it
+   *         holds besides the riders it already has.
    */
   private void distributeRequests() {
     // Proceed only if there are requests to distribute
-    if (!this.upRequests.isEmpty() || !this.downRequests.isEmpty()) {
-      for (ElevatorInterface elevator : this.elevators) {
-        // Check if the elevator is accepting requests
-        if (elevator.isTakingRequests()) {
-          List<Request> requestsForElevator;
-          // Assign up requests to the elevator if it's on the ground floor
-          if (elevator.getCurrentFloor() == 0) {
-            requestsForElevator = this.sendRequests(this.upRequests);
-            elevator.processRequests(requestsForElevator);
-          } else if (elevator.getCurrentFloor() == this.numberOfFloors - 1) {
-            requestsForElevator = this.sendRequests(this.downRequests);
-            elevator.processRequests(requestsForElevator);
-          }
+    if (this.hallCalls.isEmpty()) {
+      return;
+    }
+
+    List<Assignment> assignments = this.dispatchStrategy.dispatch(this.hallCalls, this.fleetView);
+    for (Assignment assignment : assignments) {
+      if (assignment.getElevator() >= this.elevators.length) {
+        throw new IllegalStateException(
+            "Dispatch strategy assigned requests to elevator " + assignment.getElevator());
+      }
+      ElevatorInterface elevator = this.owned(assignment.getElevator());
+      int[] riders = new int[assignment.getRequests().size()];
+      // The riders the elevator already has keep their places.
+      int passengers = elevator.getCommittedRiders();
+      for (int i = 0; i < riders.length; i++) {
+        Request request = assignment.getRequests().get(i);
+        long arrivalTick = this.hallCalls.remove(request);
+        if (arrivalTick < 0) {
+          throw new IllegalStateException(
+              "Dispatch strategy assigned a request that is not waiting: " + request);
+        }
+        riders[i] = this.hallCalls.getRemovedPassengers();
+        passengers += riders[i];
+        if (passengers > this.elevatorCapacity) {
+          throw new IllegalStateException("Dispatch strategy gave elevator "
+              + assignment.getElevator() + " more than " + this.elevatorCapacity
+              + " passengers, counting its committed riders");
         }
+        this.pickups.assigned(assignment.getElevator(), request.getStartFloor(), arrivalTick,
+            this.hallCalls.getRemovedPassengers(), this.hallCalls.getRemovedArrivalSum());
       }
+
+      // Waiting elevators start a new run; moving elevators add the calls to their stops.
+      elevator.mergeRequests(assignment.getRequests(), riders);
     }
+    this.recordPickups();
   }
 
   /**
-   * Sends a specific number of requests from the given list, based on the elevator's capacity.
-   *
-   * @param requests The list of elevator requests.
-   * @return A list of requests that have been selected for an elevator to process.
+   * The read-only view of the elevators given to the dispatch strategy.
+   */
+  private class BuildingFleetView implements FleetView {
+    @Override
+    public int getNumberOfFloors() {
+      return numberOfFloors;
+    }
+
+    @Override
+    public int getNumberOfElevators() {
+      return numberOfElevators;
+    }
+
+    @Override
+    public int getElevatorCapacity() {
+      return elevatorCapacity;
+    }
+
+    @Override
+    public int getDoorOpenTime() {
+      return elevators[0].getDoorOpenTimeTotal();
+    }
+
+    @Override
+    public int getStopWaitTime() {
+      return elevators[0].getStopWaitTimeTotal();
+    }
+
+    @Override
+    public long getCurrentTick() {
+      return currentTick;
+    }
+
+    @Override
+    public boolean canAcceptRequest(int elevator, Request request) {
+      return elevators[elevator].canAcceptRequest(request);
+    }
+
+    @Override
+    public int getCurrentFloor(int elevator) {
+      return elevators[elevator].getCurrentFloor();
+    }
+
+    @Override
+    public Direction getDirection(int elevator) {
+      return elevators[elevator].getDirection();
+    }
+
+    @Override
+    public boolean isTakingRequests(int elevator) {
+      return elevators[elevator].isTakingRequests();
+    }
+
+    @Override
+    public SweepMode getSweepMode(int elevator) {
+      return elevators[elevator].getSweepMode();
+    }
+
+    @Override
+    public int getNextStop(int elevator) {
+      return elevators[elevator].getNextStop();
+    }
+
+    @Override
+    public ElevatorReport getElevatorStatus(int elevator) {
+      return elevators[elevator].getElevatorStatus();
+    }
+
+    @Override
+    public Lookahead fork(DispatchStrategy strategy) {
+      return new BuildingLookahead(Building.this.fork(strategy));
+    }
+  }
+
+  /**
+   * A fork of the building, as seen by a dispatch strategy running ahead on it.
    */
-  private List<Request> sendRequests(List<Request> requests) {
-    List<Request> selectedRequests = new ArrayList<>();
+  private static final class BuildingLookahead implements Lookahead {
+    private final Building building;
+
+    BuildingLookahead(Building building) {
+      this.building = building;
+    }
+
+    @Override
+    public boolean addRequest(Request request) {
+      return this.building.addRequest(request);
+    }
+
+    @Override
+    public void stepElevatorSystem() {
+      this.building.stepElevatorSystem();
+    }
+
+    @Override
+    public long getCurrentTick() {
+      return this.building.currentTick;
+    }
 
-    // Continue selecting requests until reaching the elevator's capacity or no requests left
-    while (!requests.isEmpty() && selectedRequests.size() < this.elevatorCapacity) {
-      // Retrieve and remove the first request from the list of requests
-      Request requestToProcess = requests.remove(0);
-      // Add the removed request to the list of selected requests
-      selectedRequests.add(requestToProcess);
+    @Override
+    public long getTotalWait() {
+      Building b = this.building;
+      return b.pickups.getStatistics().getTotalWait() + b.pickups.waitedUntil(b.currentTick)
+          + b.hallCalls.waitedUntil(b.currentTick);
     }
-    return selectedRequests;
   }
 }
@@ -65,4 +65,12 @@ public interface BuildingInterface {
    * Steps the elevator system through its operations based on the current status.
    */
   void stepElevatorSystem();
+
+  /**
+   * Steps the elevator system several times, ending in the same state as calling
+   * stepElevatorSystem that many times.
+   *
+   * @param ticks The number of steps to take.
+   */
+  void stepElevatorSystem(int ticks);
 }
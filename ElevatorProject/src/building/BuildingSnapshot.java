@@ -0,0 +1,208 @@
+package building;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * The complete state of a building at one step, taken with Building.snapshot and turned back
+ * into a building with Building.restore.
+ * <p></p>
+ * A snapshot holds everything the building needs to carry on exactly as it would have: the
+ * configuration, the system status and step, the admission control and the calls it turned
+ * away or coalesced, the waiting hall calls with their arrival steps, the pickups each
+ * elevator owes and the wait statistics so far, the dispatch strategy's own state, and every
+ * elevator's floor, direction, timers, stops and riders. The pool the elevators are stepped
+ * on is not part of it.
+ * <p></p>
+ * The bytes start with the magic number "ELVS" and a format version, followed by a header of
+ * the configuration, the strategy name and the step. Readers reject versions they
+ * do not know; a later version must still read every earlier one. Snapshots are immutable and
+ * can be restored any number of times, so many what-if runs can branch from one warmed-up
+ * state.
+ */
+public final class BuildingSnapshot {
+  /************************************************************************
+   * The first four bytes of every snapshot: "ELVS".
+   ************************************************************************/
+  static final int MAGIC = 0x454C5653;
+
+  /************************************************************************
+   * The version of the format Building.snapshot writes. Version 2 added
+   * hall call coalescing and the passengers of each call, version 3 the
+   * riders each elevator has been given and not yet dropped off, and
+   * version 4 the admission control and the calls it shed, rejected and
+   * coalesced.
+   ************************************************************************/
+  static final int VERSION = 4;
+
+  private final byte[] bytes;
+  private final int version;
+  private final int numberOfFloors;
+  private final int numberOfElevators;
+  private final int elevatorCapacity;
+  private final int maxFloors;
+  private final int maxElevators;
+  private final String dispatchStrategyName;
+  private final long currentTick;
+  private final int bodyOffset;
+
+  /**
+   * Parse the header of a snapshot, keeping the bytes without copying them.
+   */
+  BuildingSnapshot(byte[] bytes) {
+    this.bytes = bytes;
+    ByteArrayInputStream stream = new ByteArrayInputStream(bytes);
+    try (DataInputStream in = new DataInputStream(stream)) {
+      if (in.readInt() != MAGIC) {
+        throw new IllegalStateException("Not a building snapshot.");
+      }
+      this.version = in.readUnsignedShort();
+      if (this.version < 1 || this.version > VERSION) {
+        throw new IllegalStateException("Unsupported snapshot version " + this.version + ".");
+      }
+      this.numberOfFloors = in.readInt();
+      this.numberOfElevators = in.readInt();
+      this.elevatorCapacity = in.readInt();
+      this.maxFloors = in.readInt();
+      this.maxElevators = in.readInt();
+      this.dispatchStrategyName = in.readUTF();
+      this.currentTick = in.readLong();
+      this.bodyOffset = bytes.length - stream.available();
+    } catch (IOException e) {
+      throw new IllegalStateException("Snapshot is truncated.", e);
+    }
+  }
+
+  /**
+   * Create a snapshot from bytes returned by toByteArray.
+   *
+   * @param bytes the bytes of the snapshot; copied.
+   * @return the snapshot.
+   * @throws IllegalArgumentException if bytes is null.
+   * @throws IllegalStateException    if the bytes are not a snapshot of a known version.
+   */
+  public static BuildingSnapshot fromByteArray(byte[] bytes) {
+    if (bytes == null) {
+      throw new IllegalArgumentException("bytes cannot be null");
+    }
+    return new BuildingSnapshot(bytes.clone());
+  }
+
+  /**
+   * Read a snapshot written by writeTo. The stream is read to its end.
+   *
+   * @param in the stream to read from; not closed.
+   * @return the snapshot.
+   * @throws IllegalArgumentException if the stream is null.
+   * @throws IllegalStateException    if the stream does not hold a snapshot of a known
+   *                                  version.
+   * @throws IOException              if the stream cannot be read.
+   */
+  public static BuildingSnapshot readFrom(InputStream in) throws IOException {
+    if (in == null) {
+      throw new IllegalArgumentException("in cannot be null");
+    }
+    return new BuildingSnapshot(in.readAllBytes());
+  }
+
+  /**
+   * Write the snapshot to a stream.
+   *
+   * @param out the stream to write to; not closed.
+   * @throws IOException if the stream cannot be written.
+   */
+  public void writeTo(OutputStream out) throws IOException {
+    out.write(this.bytes);
+  }
+
+  /**
+   * Get the bytes of the snapshot.
+   *
+   * @return a copy of the bytes.
+   */
+  public byte[] toByteArray() {
+    return this.bytes.clone();
+  }
+
+  /**
+   * Get the size of the snapshot.
+   *
+   * @return the number of bytes.
+   */
+  public int size() {
+    return this.bytes.length;
+  }
+
+  /**
+   * Get the format version the snapshot was written in.
+   *
+   * @return the version.
+   */
+  public int getVersion() {
+    return this.version;
+  }
+
+  /**
+   * Get the number of floors of the building.
+   *
+   * @return the number of floors.
+   */
+  public int getNumberOfFloors() {
+    return this.numberOfFloors;
+  }
+
+  /**
+   * Get the number of elevators of the building.
+   *
+   * @return the number of elevators.
+   */
+  public int getNumberOfElevators() {
+    return this.numberOfElevators;
+  }
+
+  /**
+   * Get the capacity of the elevators.
+   *
+   * @return the capacity.
+   */
+  public int getElevatorCapacity() {
+    return this.elevatorCapacity;
+  }
+
+  /**
+   * Get the name of the dispatch strategy the building used.
+   *
+   * @return the strategy name.
+   */
+  public String getDispatchStrategyName() {
+    return this.dispatchStrategyName;
+  }
+
+  /**
+   * Get the step the snapshot was taken at.
+   *
+   * @return the building's current tick when the snapshot was taken.
+   */
+  public long getCurrentTick() {
+    return this.currentTick;
+  }
+
+  int getMaxFloors() {
+    return this.maxFloors;
+  }
+
+  int getMaxElevators() {
+    return this.maxElevators;
+  }
+
+  /**
+   * Open the part of the snapshot after the header.
+   */
+  DataInputStream openBody() {
+    return new DataInputStream(new ByteArrayInputStream(this.bytes, this.bodyOffset,
+        this.bytes.length - this.bodyOffset));
+  }
+}
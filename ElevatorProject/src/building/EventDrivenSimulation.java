@@ -0,0 +1,200 @@
+package building;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import scanerzus.Request;
+
+/**
+ * Runs a building forward in time, jumping over the steps in which nothing but timers and
+ * moving elevators change.
+ * <p></p>
+ * The simulation keeps a priority queue of events: the scheduled arrival of each request,
+ * and for each elevator the next step at which it does more than count a timer down or move
+ * a floor. While hall calls are waiting the building is stepped one step at a time, as the
+ * dispatch strategy may act on any step. Otherwise time jumps straight to the earliest event
+ * with Building.advanceElevatorSystem. The building passes through the same states as one
+ * stepped with stepElevatorSystem, adding each request just before the step it is scheduled
+ * for, so a report taken at any step is identical.
+ */
+public class EventDrivenSimulation {
+  private final Building building;
+  private final PriorityQueue<Event> events;
+  private final long[] elevatorEvents;
+  private long sequence;
+  private long stepsTaken;
+  private long stepsSkipped;
+
+  /**
+   * Create a simulation of a building, starting from the building's current step.
+   *
+   * @param building the building to run.
+   * @throws IllegalArgumentException if the building is null.
+   */
+  public EventDrivenSimulation(Building building) {
+    if (building == null) {
+      throw new IllegalArgumentException("building cannot be null");
+    }
+    this.building = building;
+    this.events = new PriorityQueue<>();
+    this.elevatorEvents = new long[building.getNumberOfElevators()];
+    Arrays.fill(this.elevatorEvents, -1);
+  }
+
+  /**
+   * Get the building being simulated.
+   *
+   * @return the building.
+   */
+  public Building getBuilding() {
+    return this.building;
+  }
+
+  /**
+   * Schedule a request to be added to the building just before the step at the given tick.
+   *
+   * @param tick    the step at which the request arrives.
+   * @param request the request.
+   * @throws IllegalArgumentException if the request is null or the tick has already passed.
+   */
+  public void schedule(long tick, Request request) {
+    if (request == null) {
+      throw new IllegalArgumentException("request cannot be null");
+    }
+    if (tick < this.building.getCurrentTick()) {
+      throw new IllegalArgumentException("Tick " + tick + " has already passed.");
+    }
+    this.events.add(new Event(tick, this.sequence++, -1, request));
+  }
+
+  /**
+   * Run the building until its current step is the given tick.
+   *
+   * @param tick the step to stop at.
+   * @throws IllegalArgumentException if the tick has already passed.
+   */
+  public void runUntil(long tick) {
+    if (tick < this.building.getCurrentTick()) {
+      throw new IllegalArgumentException("Tick " + tick + " has already passed.");
+    }
+    this.scheduleElevatorEvents();
+    while (this.building.getCurrentTick() < tick) {
+      long now = this.building.getCurrentTick();
+      this.addArrivals(now);
+
+      if (!this.building.hasWaitingCalls()) {
+        long next = Math.min(tick, this.nextEventTick());
+        long jump = Math.min(next - now, this.building.getSkippableSteps());
+        if (jump > 0) {
+          this.building.advanceElevatorSystem(jump);
+          this.stepsSkipped += jump;
+          continue;
+        }
+      }
+
+      this.building.stepElevatorSystem();
+      this.stepsTaken++;
+      this.scheduleElevatorEvents();
+    }
+  }
+
+  /**
+   * Run the building until the given tick and report its status.
+   *
+   * @param tick the step to report at.
+   * @return the status of the building at that step.
+   * @throws IllegalArgumentException if the tick has already passed.
+   */
+  public BuildingReport reportAt(long tick) {
+    this.runUntil(tick);
+    return this.building.getElevatorSystemStatus();
+  }
+
+  /**
+   * Get the number of steps taken one at a time.
+   *
+   * @return the number of steps taken with stepElevatorSystem.
+   */
+  public long getStepsTaken() {
+    return this.stepsTaken;
+  }
+
+  /**
+   * Get the number of steps jumped over.
+   *
+   * @return the number of steps skipped with advanceElevatorSystem.
+   */
+  public long getStepsSkipped() {
+    return this.stepsSkipped;
+  }
+
+  /**
+   * Add the requests scheduled for this step to the building. Elevator events that are
+   * due are dropped too; they are queued again once the elevator has been stepped.
+   */
+  private void addArrivals(long now) {
+    while (!this.events.isEmpty() && this.events.peek().tick <= now) {
+      Event event = this.events.poll();
+      if (event.request != null) {
+        this.building.addRequest(event.request);
+      }
+    }
+  }
+
+  /**
+   * The tick of the earliest event still valid, dropping elevator events that have been
+   * replaced since they were queued.
+   */
+  private long nextEventTick() {
+    while (!this.events.isEmpty()) {
+      Event event = this.events.peek();
+      if (event.request != null || this.elevatorEvents[event.elevator] == event.tick) {
+        return event.tick;
+      }
+      this.events.poll();
+    }
+    return Long.MAX_VALUE;
+  }
+
+  /**
+   * Queue each elevator's next event. An elevator whose event step has not moved keeps
+   * its queued event; skipped steps never move it.
+   */
+  private void scheduleElevatorEvents() {
+    long now = this.building.getCurrentTick();
+    for (int i = 0; i < this.elevatorEvents.length; i++) {
+      long steps = this.building.stepsUntilNextEvent(i);
+      long tick = steps == Long.MAX_VALUE ? Long.MAX_VALUE : now + steps;
+      if (tick != this.elevatorEvents[i]) {
+        this.elevatorEvents[i] = tick;
+        if (tick != Long.MAX_VALUE) {
+          this.events.add(new Event(tick, this.sequence++, i, null));
+        }
+      }
+    }
+  }
+
+  /**
+   * A request arrival, or the next event of an elevator.
+   */
+  private static final class Event implements Comparable<Event> {
+    private final long tick;
+    private final long sequence;
+    private final int elevator;
+    private final Request request;
+
+    Event(long tick, long sequence, int elevator, Request request) {
+      this.tick = tick;
+      this.sequence = sequence;
+      this.elevator = elevator;
+      this.request = request;
+    }
+
+    @Override
+    public int compareTo(Event other) {
+      if (this.tick != other.tick) {
+        return Long.compare(this.tick, other.tick);
+      }
+      return Long.compare(this.sequence, other.sequence);
+    }
+  }
+}
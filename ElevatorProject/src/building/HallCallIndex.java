@@ -0,0 +1,858 @@
+package building;
+
+import building.dispatch.PendingCalls;
+import building.enums.Direction;
+import elevator.FloorRequestSet;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import scanerzus.Request;
+
+/**
+ * The waiting hall calls of a building, indexed both by arrival order and by start floor.
+ * <p></p>
+ * Each direction keeps one FIFO queue of every call in the order it arrived, one bucket
+ * per start floor holding the tickets of the calls waiting there, and a bitmap with one
+ * bit per floor that is set while the floor's bucket is non-empty. This answers
+ * "all calls at floor k" without touching other floors, and "next waiting floor above
+ * or below floor k" with a scan of the bitmap words (a single word up to 64 floors).
+ * A map from each waiting request to its ticket finds a call to remove without scanning
+ * its floor, and a call removed from the middle of a bucket is only marked, so removing
+ * the calls a dispatch assigns does not shift the rest of the bucket each time.
+ * <p></p>
+ * A call may carry several passengers: coalesce adds a passenger to a call waiting at the
+ * same floor for the same destination that has room for them, so a crowd shares one entry
+ * per destination and elevator load. Each call keeps its passenger count and the sum of
+ * their arrival steps, which is all it takes to add up their waits.
+ * <p></p>
+ * Requests must be validated before they are added: the start floor must be within the
+ * building and different from the end floor.
+ */
+public class HallCallIndex implements PendingCalls {
+  private static final int UP = 0;
+  private static final int DOWN = 1;
+
+  private final int numberOfFloors;
+  private final RequestQueue[] arrivals;
+  private final FloorBucket[][] buckets;
+  private final FloorRequestSet[] waitingFloors;
+  private final Map<Request, Long> tickets;
+  private int aliases;
+  private long passengerCount;
+  private int removedPassengers;
+  private long removedArrivalSum;
+
+  /**
+   * Create an empty index.
+   *
+   * @param numberOfFloors the number of floors in the building.
+   */
+  public HallCallIndex(int numberOfFloors) {
+    if (numberOfFloors < 1) {
+      throw new IllegalArgumentException("Number of floors must be greater than 0.");
+    }
+    this.numberOfFloors = numberOfFloors;
+    this.arrivals = new RequestQueue[] {new RequestQueue(), new RequestQueue()};
+    this.buckets = new FloorBucket[2][numberOfFloors];
+    this.waitingFloors = new FloorRequestSet[] {
+        new FloorRequestSet(numberOfFloors), new FloorRequestSet(numberOfFloors)};
+    this.tickets = new IdentityHashMap<>();
+  }
+
+  /**
+   * Copy the index. The requests themselves are shared.
+   *
+   * @return a new index holding the same calls in the same order.
+   */
+  public HallCallIndex copy() {
+    HallCallIndex copy = new HallCallIndex(this.numberOfFloors);
+    for (int dir = UP; dir <= DOWN; dir++) {
+      copy.arrivals[dir] = this.arrivals[dir].copy();
+      copy.waitingFloors[dir] = this.waitingFloors[dir].copy();
+      for (int floor = 0; floor < this.numberOfFloors; floor++) {
+        FloorBucket bucket = this.buckets[dir][floor];
+        if (bucket != null && bucket.size > 0) {
+          copy.buckets[dir][floor] = bucket.copy();
+        }
+      }
+    }
+    copy.tickets.putAll(this.tickets);
+    copy.aliases = this.aliases;
+    copy.passengerCount = this.passengerCount;
+    return copy;
+  }
+
+  /**
+   * The direction a request travels in.
+   *
+   * @param request the request.
+   * @return UP if the request ends above where it starts, DOWN otherwise.
+   */
+  public static Direction directionOf(Request request) {
+    return request.getStartFloor() < request.getEndFloor() ? Direction.UP : Direction.DOWN;
+  }
+
+  /**
+   * Adds a validated request.
+   *
+   * @param request     the request to add.
+   * @param arrivalTick the step at which the request arrived.
+   */
+  public void add(Request request, long arrivalTick) {
+    this.add(request, arrivalTick, 1, arrivalTick);
+  }
+
+  /**
+   * Adds a validated request as a call carrying one or more passengers.
+   */
+  private void add(Request request, long arrivalTick, int passengers, long arrivalSum) {
+    int dir = index(directionOf(request));
+    int floor = request.getStartFloor();
+    long ticket = this.arrivals[dir].offer(request);
+
+    FloorBucket bucket = this.buckets[dir][floor];
+    if (bucket == null) {
+      bucket = new FloorBucket();
+      this.buckets[dir][floor] = bucket;
+    }
+    bucket.add(ticket, arrivalTick, passengers, arrivalSum);
+    // A request added again while it waits is an alias; the map keeps its oldest call.
+    if (this.tickets.putIfAbsent(request, ticket) != null) {
+      this.aliases++;
+    }
+    this.waitingFloors[dir].add(floor);
+    this.passengerCount += passengers;
+  }
+
+  /**
+   * Adds a validated request's passenger to the oldest call waiting at its start floor for
+   * its destination that has fewer than the given number of passengers, if there is one. The
+   * call keeps its place and its first arrival step.
+   *
+   * @param request       the request to coalesce.
+   * @param arrivalTick   the step at which the request arrived.
+   * @param maxPassengers the most passengers a call may carry, such as an elevator's capacity.
+   * @return true if the request joined a waiting call; false if no call for its destination
+   *         has room.
+   */
+  public boolean coalesce(Request request, long arrivalTick, int maxPassengers) {
+    int dir = index(directionOf(request));
+    FloorBucket bucket = this.bucketAt(dir, request.getStartFloor());
+    int i = this.indexOf(dir, bucket, request.getEndFloor(), maxPassengers);
+    if (i < 0) {
+      return false;
+    }
+    bucket.addPassenger(i, arrivalTick);
+    this.passengerCount++;
+    return true;
+  }
+
+  /**
+   * Removes and returns the oldest call in a direction.
+   *
+   * @param direction UP or DOWN.
+   * @return the oldest call, or null if there are none.
+   */
+  public Request poll(Direction direction) {
+    int dir = index(direction);
+    Request request = this.arrivals[dir].poll();
+    if (request != null) {
+      // Calls at one floor arrive in ticket order, so the oldest call overall
+      // is also the oldest in its floor's bucket.
+      int floor = request.getStartFloor();
+      this.removeFirst(this.buckets[dir][floor]);
+      this.forget(dir, this.buckets[dir][floor], request);
+      this.bucketRemoved(dir, floor);
+    }
+    return request;
+  }
+
+  /**
+   * The oldest calls in a direction, in the order they arrived.
+   *
+   * @param direction   UP or DOWN.
+   * @param maxRequests the maximum number of calls to return.
+   * @return a new list of up to maxRequests calls.
+   */
+  @Override
+  public List<Request> oldest(Direction direction, int maxRequests) {
+    return this.arrivals[index(direction)].peek(maxRequests);
+  }
+
+  /**
+   * Removes up to maxRequests of the oldest calls in a direction and adds them, in order,
+   * to the given collection.
+   *
+   * @param direction   UP or DOWN.
+   * @param target      the collection that receives the calls.
+   * @param maxRequests the maximum number of calls to move.
+   * @return the number of calls moved.
+   */
+  public int drainTo(Direction direction, Collection<? super Request> target, int maxRequests) {
+    int count = 0;
+    while (count < maxRequests) {
+      Request request = this.poll(direction);
+      if (request == null) {
+        break;
+      }
+      target.add(request);
+      count++;
+    }
+    return count;
+  }
+
+  /**
+   * Removes up to maxRequests of the oldest calls waiting at one floor in a direction.
+   *
+   * @param direction   UP or DOWN.
+   * @param floor       the start floor.
+   * @param target      the collection that receives the calls.
+   * @param maxRequests the maximum number of calls to move.
+   * @return the number of calls moved.
+   */
+  public int drainFloorTo(Direction direction, int floor, Collection<? super Request> target,
+                          int maxRequests) {
+    int dir = index(direction);
+    FloorBucket bucket = this.bucketAt(dir, floor);
+    int count = 0;
+    while (bucket != null && bucket.size > 0 && count < maxRequests) {
+      Request request = this.arrivals[dir].remove(this.removeFirst(bucket));
+      this.forget(dir, bucket, request);
+      target.add(request);
+      count++;
+    }
+    if (bucket != null) {
+      this.bucketRemoved(dir, floor);
+      this.compact(dir);
+    }
+    return count;
+  }
+
+  /**
+   * Removes a specific call from the index. Its passengers can then be read with
+   * getRemovedPassengers and getRemovedArrivalSum.
+   *
+   * @param request the call to remove.
+   * @return the step at which the call's first passenger arrived, or -1 if the call was not
+   *         waiting.
+   */
+  public long remove(Request request) {
+    Long ticket = this.tickets.get(request);
+    if (ticket == null) {
+      return -1;
+    }
+    int floor = request.getStartFloor();
+    int dir = index(directionOf(request));
+    FloorBucket bucket = this.buckets[dir][floor];
+    int i = bucket.find(ticket);
+    long arrivalTick = bucket.getArrivalTick(i);
+    this.arrivals[dir].remove(ticket);
+    this.removeAt(bucket, i);
+    this.forget(dir, bucket, request);
+    this.bucketRemoved(dir, floor);
+    this.compact(dir);
+    return arrivalTick;
+  }
+
+  /**
+   * Does any call wait at a floor in a direction.
+   *
+   * @param direction UP or DOWN.
+   * @param floor     the start floor.
+   * @return true if at least one call waits there.
+   */
+  @Override
+  public boolean hasCallsAt(Direction direction, int floor) {
+    return this.waitingFloors[index(direction)].contains(floor);
+  }
+
+  /**
+   * The number of calls waiting at a floor in a direction.
+   *
+   * @param direction UP or DOWN.
+   * @param floor     the start floor.
+   * @return the number of calls waiting there.
+   */
+  @Override
+  public int countAt(Direction direction, int floor) {
+    FloorBucket bucket = this.bucketAt(index(direction), floor);
+    return bucket == null ? 0 : bucket.size;
+  }
+
+  /**
+   * The number of calls waiting at a floor in both directions.
+   *
+   * @param floor the start floor.
+   * @return the number of calls waiting there.
+   */
+  public int countAt(int floor) {
+    return this.countAt(Direction.UP, floor) + this.countAt(Direction.DOWN, floor);
+  }
+
+  /**
+   * Finds a call waiting at a floor for a destination.
+   *
+   * @param startFloor the start floor.
+   * @param endFloor   the destination.
+   * @return the oldest such call, or null if none waits.
+   */
+  public Request findCall(int startFloor, int endFloor) {
+    int dir = startFloor < endFloor ? UP : DOWN;
+    FloorBucket bucket = this.bucketAt(dir, startFloor);
+    int i = this.indexOf(dir, bucket, endFloor, Integer.MAX_VALUE);
+    return i < 0 ? null : this.arrivals[dir].get(bucket.get(i));
+  }
+
+  /**
+   * The number of passengers waiting at a floor in a direction.
+   *
+   * @param direction UP or DOWN.
+   * @param floor     the start floor.
+   * @return the number of passengers of the calls waiting there.
+   */
+  public int passengersAt(Direction direction, int floor) {
+    FloorBucket bucket = this.bucketAt(index(direction), floor);
+    int passengers = 0;
+    for (int i = 0; bucket != null && i < bucket.used; i++) {
+      if (bucket.isLive(i)) {
+        passengers += bucket.getPassengers(i);
+      }
+    }
+    return passengers;
+  }
+
+  /**
+   * The number of passengers of a waiting call.
+   *
+   * @param call the call.
+   * @return the number of passengers of the call, or 0 if it is not waiting.
+   */
+  @Override
+  public int passengersOf(Request call) {
+    Long ticket = this.tickets.get(call);
+    if (ticket == null) {
+      return 0;
+    }
+    FloorBucket bucket = this.buckets[index(directionOf(call))][call.getStartFloor()];
+    return bucket.getPassengers(bucket.find(ticket));
+  }
+
+  /**
+   * The number of passengers of every waiting call.
+   *
+   * @return the number of passengers.
+   */
+  public long passengerCount() {
+    return this.passengerCount;
+  }
+
+  /**
+   * The number of passengers of the call most recently removed.
+   *
+   * @return the number of passengers.
+   */
+  int getRemovedPassengers() {
+    return this.removedPassengers;
+  }
+
+  /**
+   * The sum of the arrival steps of the passengers of the call most recently removed.
+   *
+   * @return the sum of the arrival steps.
+   */
+  long getRemovedArrivalSum() {
+    return this.removedArrivalSum;
+  }
+
+  /**
+   * Removes and returns the oldest call in either direction.
+   *
+   * @return the oldest call, or null if there are none.
+   */
+  public Request pollOldest() {
+    Request up = this.arrivals[UP].peek();
+    Request down = this.arrivals[DOWN].peek();
+    if (up == null || down == null) {
+      return up != null ? this.poll(Direction.UP) : this.poll(Direction.DOWN);
+    }
+    // The oldest call in a direction is also the oldest in its floor's bucket.
+    long upArrival = this.buckets[UP][up.getStartFloor()].getArrivalTick(0);
+    long downArrival = this.buckets[DOWN][down.getStartFloor()].getArrivalTick(0);
+    return this.poll(upArrival <= downArrival ? Direction.UP : Direction.DOWN);
+  }
+
+  /**
+   * Removes and returns the oldest call waiting at a floor in either direction.
+   *
+   * @param floor the start floor.
+   * @return the oldest call there, or null if none waits there.
+   */
+  public Request pollOldestAt(int floor) {
+    long up = this.oldestArrivalAt(Direction.UP, floor);
+    long down = this.oldestArrivalAt(Direction.DOWN, floor);
+    if (up < 0 && down < 0) {
+      return null;
+    }
+    Direction direction = down < 0 || (up >= 0 && up <= down) ? Direction.UP : Direction.DOWN;
+    List<Request> removed = new ArrayList<>(1);
+    this.drainFloorTo(direction, floor, removed, 1);
+    return removed.get(0);
+  }
+
+  /**
+   * The calls waiting at a floor in a direction, oldest first.
+   *
+   * @param direction UP or DOWN.
+   * @param floor     the start floor.
+   * @return a new list of the calls waiting there.
+   */
+  @Override
+  public List<Request> callsAt(Direction direction, int floor) {
+    int dir = index(direction);
+    FloorBucket bucket = this.bucketAt(dir, floor);
+    if (bucket == null) {
+      return new ArrayList<>();
+    }
+    List<Request> calls = new ArrayList<>(bucket.size);
+    for (int i = 0; i < bucket.used; i++) {
+      if (bucket.isLive(i)) {
+        calls.add(this.arrivals[dir].get(bucket.get(i)));
+      }
+    }
+    return calls;
+  }
+
+  /**
+   * The step the oldest call waiting at a floor in a direction arrived at.
+   *
+   * @param direction UP or DOWN.
+   * @param floor     the start floor.
+   * @return the arrival step of the oldest call there, or -1 if none waits there.
+   */
+  @Override
+  public long oldestArrivalAt(Direction direction, int floor) {
+    FloorBucket bucket = this.bucketAt(index(direction), floor);
+    return bucket == null || bucket.size == 0 ? -1 : bucket.getArrivalTick(0);
+  }
+
+  /**
+   * The lowest floor strictly above the given floor with a call waiting in a direction.
+   *
+   * @param direction UP or DOWN.
+   * @param floor     the floor to search above; may be -1 to search from the ground floor.
+   * @return the floor, or -1 if there is none.
+   */
+  @Override
+  public int nextFloorAbove(Direction direction, int floor) {
+    return this.waitingFloors[index(direction)].nextAbove(floor);
+  }
+
+  /**
+   * The highest floor strictly below the given floor with a call waiting in a direction.
+   *
+   * @param direction UP or DOWN.
+   * @param floor     the floor to search below; may be the number of floors to search
+   *                  from the top floor.
+   * @return the floor, or -1 if there is none.
+   */
+  @Override
+  public int nextFloorBelow(Direction direction, int floor) {
+    return this.waitingFloors[index(direction)].nextBelow(floor);
+  }
+
+  /**
+   * The number of calls waiting in a direction.
+   *
+   * @param direction UP or DOWN.
+   * @return the number of calls.
+   */
+  @Override
+  public int size(Direction direction) {
+    return this.arrivals[index(direction)].size();
+  }
+
+  /**
+   * The number of calls waiting in both directions.
+   *
+   * @return the number of calls.
+   */
+  public int size() {
+    return this.arrivals[UP].size() + this.arrivals[DOWN].size();
+  }
+
+  /**
+   * Are there no calls waiting.
+   *
+   * @return true if the index is empty.
+   */
+  @Override
+  public boolean isEmpty() {
+    return this.size() == 0;
+  }
+
+  /**
+   * Copies the calls in a direction into a list, oldest first.
+   *
+   * @param direction UP or DOWN.
+   * @return a new list of calls.
+   */
+  public List<Request> toList(Direction direction) {
+    return this.arrivals[index(direction)].toList();
+  }
+
+  /**
+   * Add up how long the waiting calls have waited.
+   *
+   * @param tick the current step.
+   * @return the total wait so far, in steps.
+   */
+  long waitedUntil(long tick) {
+    long total = 0;
+    for (int dir = UP; dir <= DOWN; dir++) {
+      for (int floor = this.waitingFloors[dir].nextAbove(-1); floor != -1;
+           floor = this.waitingFloors[dir].nextAbove(floor)) {
+        FloorBucket bucket = this.buckets[dir][floor];
+        for (int i = 0; i < bucket.used; i++) {
+          if (bucket.isLive(i)) {
+            total += bucket.getPassengers(i) * tick - bucket.getArrivalSum(i);
+          }
+        }
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Write every waiting call, the step it arrived at, its passengers and the sum of their
+   * arrival steps, oldest first in each direction, for a building snapshot.
+   *
+   * @param out the output to write to.
+   * @throws IOException if the output cannot be written.
+   */
+  void writeTo(DataOutput out) throws IOException {
+    for (int dir = UP; dir <= DOWN; dir++) {
+      int count = this.arrivals[dir].size();
+      long[][] calls = new long[count][];
+      int n = 0;
+      for (FloorBucket bucket : this.buckets[dir]) {
+        for (int i = 0; bucket != null && i < bucket.used; i++) {
+          if (bucket.isLive(i)) {
+            calls[n++] = new long[] {bucket.get(i), bucket.getArrivalTick(i),
+                bucket.getPassengers(i), bucket.getArrivalSum(i)};
+          }
+        }
+      }
+      // Tickets are handed out in arrival order.
+      Arrays.sort(calls, (a, b) -> Long.compare(a[0], b[0]));
+      out.writeInt(count);
+      for (long[] call : calls) {
+        Request request = this.arrivals[dir].get(call[0]);
+        out.writeInt(request.getStartFloor());
+        out.writeInt(request.getEndFloor());
+        out.writeLong(call[1]);
+        out.writeInt((int) call[2]);
+        out.writeLong(call[3]);
+      }
+    }
+  }
+
+  /**
+   * Add the calls written by writeTo, in the order they were written.
+   *
+   * @param in      the input to read from.
+   * @param version the snapshot format version; calls in version 1 carry one passenger.
+   * @throws IOException           if the input cannot be read.
+   * @throws IllegalStateException if a call is not valid for this building.
+   */
+  void readFrom(DataInput in, int version) throws IOException {
+    for (int dir = UP; dir <= DOWN; dir++) {
+      int count = in.readInt();
+      if (count < 0) {
+        throw new IllegalStateException("Invalid number of hall calls.");
+      }
+      for (int i = 0; i < count; i++) {
+        int start = in.readInt();
+        int end = in.readInt();
+        long arrivalTick = in.readLong();
+        int passengers = version >= 2 ? in.readInt() : 1;
+        long arrivalSum = version >= 2 ? in.readLong() : arrivalTick;
+        if (passengers < 1) {
+          throw new IllegalStateException("Invalid number of passengers.");
+        }
+        if (start < 0 || start >= this.numberOfFloors || end < 0 || end >= this.numberOfFloors
+            || start == end || (start < end ? UP : DOWN) != dir) {
+          throw new IllegalStateException("Invalid hall call " + start + " to " + end + ".");
+        }
+        this.add(new Request(start, end), arrivalTick, passengers, arrivalSum);
+      }
+    }
+  }
+
+  /**
+   * The position in a bucket of the oldest call for a destination with fewer than the given
+   * number of passengers, or -1 if there is none.
+   */
+  private int indexOf(int dir, FloorBucket bucket, int endFloor, int maxPassengers) {
+    for (int i = 0; bucket != null && i < bucket.used; i++) {
+      if (bucket.isLive(i) && bucket.getPassengers(i) < maxPassengers
+          && this.arrivals[dir].get(bucket.get(i)).getEndFloor() == endFloor) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Compact a direction's arrival queue once calls removed from the middle outnumber the
+   * waiting ones, and give the buckets and the ticket map the renumbered tickets. The queue
+   * and each bucket hold their calls in arrival order, so once the buckets are closed up too
+   * the calls at a floor take the new tickets in turn.
+   */
+  private void compact(int dir) {
+    RequestQueue queue = this.arrivals[dir];
+    if (!queue.compact()) {
+      return;
+    }
+    long head = queue.peekTicket();
+    for (long ticket = head; ticket < head + queue.size(); ticket++) {
+      Request request = queue.get(ticket);
+      FloorBucket bucket = this.buckets[dir][request.getStartFloor()];
+      if (bucket.renumbered == 0) {
+        bucket.compact();
+      }
+      int i = bucket.renumbered++;
+      // New tickets are never above old ones, so an alias cannot match its oldest call's.
+      if (this.tickets.get(request) == bucket.get(i)) {
+        this.tickets.put(request, ticket);
+      }
+      bucket.setTicket(i, ticket);
+    }
+    for (long ticket = head; ticket < head + queue.size(); ticket++) {
+      this.buckets[dir][queue.get(ticket).getStartFloor()].renumbered = 0;
+    }
+  }
+
+  /**
+   * Point the ticket map at the next call of a request just removed from a bucket, if the
+   * request was added more than once, or drop it.
+   */
+  private void forget(int dir, FloorBucket bucket, Request request) {
+    for (int i = 0; this.aliases > 0 && i < bucket.used; i++) {
+      if (bucket.isLive(i) && this.arrivals[dir].get(bucket.get(i)) == request) {
+        this.tickets.put(request, bucket.get(i));
+        this.aliases--;
+        return;
+      }
+    }
+    this.tickets.remove(request);
+  }
+
+  private long removeFirst(FloorBucket bucket) {
+    this.removed(bucket, 0);
+    return bucket.removeFirst();
+  }
+
+  private void removeAt(FloorBucket bucket, int i) {
+    this.removed(bucket, i);
+    bucket.removeAt(i);
+  }
+
+  /**
+   * Note the passengers of a call about to be removed.
+   */
+  private void removed(FloorBucket bucket, int i) {
+    this.removedPassengers = bucket.getPassengers(i);
+    this.removedArrivalSum = bucket.getArrivalSum(i);
+    this.passengerCount -= this.removedPassengers;
+  }
+
+  /**
+   * Clear the floor's bit once its bucket is empty.
+   */
+  private void bucketRemoved(int dir, int floor) {
+    if (this.buckets[dir][floor].size == 0) {
+      this.waitingFloors[dir].remove(floor);
+    }
+  }
+
+  private FloorBucket bucketAt(int dir, int floor) {
+    if (floor < 0 || floor >= this.numberOfFloors) {
+      return null;
+    }
+    return this.buckets[dir][floor];
+  }
+
+  private static int index(Direction direction) {
+    if (direction == Direction.UP) {
+      return UP;
+    }
+    if (direction == Direction.DOWN) {
+      return DOWN;
+    }
+    throw new IllegalArgumentException("Hall calls are either UP or DOWN.");
+  }
+
+  /**
+   * The tickets, arrival steps and passengers of the calls waiting at one floor, oldest
+   * first, in a small ring buffer. A call removed from the middle is marked by clearing its
+   * passengers and skipped; the buffer is closed up once marked calls outnumber the rest.
+   * The first call in the buffer is always a waiting one.
+   */
+  private static final class FloorBucket {
+    private long[] tickets = new long[4];
+    private long[] arrivalTicks = new long[4];
+    private int[] passengers = new int[4];
+    private long[] arrivalSums = new long[4];
+    private int head;
+    private int used;
+    private int size;
+    private int renumbered;
+
+    void add(long ticket, long arrivalTick, int passengers, long arrivalSum) {
+      if (this.used == this.tickets.length) {
+        this.resize(this.size == this.used ? this.tickets.length * 2 : this.tickets.length);
+      }
+      int slot = (this.head + this.used) & (this.tickets.length - 1);
+      this.tickets[slot] = ticket;
+      this.arrivalTicks[slot] = arrivalTick;
+      this.passengers[slot] = passengers;
+      this.arrivalSums[slot] = arrivalSum;
+      this.used++;
+      this.size++;
+    }
+
+    void addPassenger(int i, long arrivalTick) {
+      int slot = (this.head + i) & (this.tickets.length - 1);
+      this.passengers[slot]++;
+      this.arrivalSums[slot] += arrivalTick;
+    }
+
+    FloorBucket copy() {
+      FloorBucket copy = new FloorBucket();
+      copy.tickets = this.tickets.clone();
+      copy.arrivalTicks = this.arrivalTicks.clone();
+      copy.passengers = this.passengers.clone();
+      copy.arrivalSums = this.arrivalSums.clone();
+      copy.head = this.head;
+      copy.used = this.used;
+      copy.size = this.size;
+      return copy;
+    }
+
+    boolean isLive(int i) {
+      return this.getPassengers(i) > 0;
+    }
+
+    long get(int i) {
+      return this.tickets[(this.head + i) & (this.tickets.length - 1)];
+    }
+
+    void setTicket(int i, long ticket) {
+      this.tickets[(this.head + i) & (this.tickets.length - 1)] = ticket;
+    }
+
+    long getArrivalTick(int i) {
+      return this.arrivalTicks[(this.head + i) & (this.tickets.length - 1)];
+    }
+
+    int getPassengers(int i) {
+      return this.passengers[(this.head + i) & (this.tickets.length - 1)];
+    }
+
+    long getArrivalSum(int i) {
+      return this.arrivalSums[(this.head + i) & (this.tickets.length - 1)];
+    }
+
+    /**
+     * The position of a waiting call by its ticket. Tickets rise from the head, so this is
+     * a binary search.
+     */
+    int find(long ticket) {
+      int low = 0;
+      int high = this.used - 1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        long found = this.get(mid);
+        if (found < ticket) {
+          low = mid + 1;
+        } else if (found > ticket) {
+          high = mid - 1;
+        } else {
+          return this.isLive(mid) ? mid : -1;
+        }
+      }
+      return -1;
+    }
+
+    long removeFirst() {
+      long ticket = this.tickets[this.head];
+      this.passengers[this.head] = 0;
+      this.skipRemoved();
+      return ticket;
+    }
+
+    void removeAt(int i) {
+      if (i == 0) {
+        this.removeFirst();
+        return;
+      }
+      this.passengers[(this.head + i) & (this.tickets.length - 1)] = 0;
+      this.size--;
+      if (this.used - this.size > this.size) {
+        this.compact();
+      }
+    }
+
+    /**
+     * Close up the calls removed from the middle.
+     */
+    void compact() {
+      if (this.used != this.size) {
+        this.resize(this.tickets.length);
+      }
+    }
+
+    /**
+     * Advance the head past the removed call there and any removed calls behind it.
+     */
+    private void skipRemoved() {
+      do {
+        this.head = (this.head + 1) & (this.tickets.length - 1);
+        this.used--;
+      } while (this.used > 0 && !this.isLive(0));
+      this.size--;
+    }
+
+    /**
+     * Copy the waiting calls to the start of new arrays of the given length.
+     */
+    private void resize(int length) {
+      long[] newTickets = new long[length];
+      long[] newArrivals = new long[length];
+      int[] newPassengers = new int[length];
+      long[] newSums = new long[length];
+      int n = 0;
+      for (int i = 0; i < this.used; i++) {
+        if (this.isLive(i)) {
+          newTickets[n] = this.get(i);
+          newArrivals[n] = this.getArrivalTick(i);
+          newPassengers[n] = this.getPassengers(i);
+          newSums[n] = this.getArrivalSum(i);
+          n++;
+        }
+      }
+      this.tickets = newTickets;
+      this.arrivalTicks = newArrivals;
+      this.passengers = newPassengers;
+      this.arrivalSums = newSums;
+      this.head = 0;
+      this.used = n;
+    }
+  }
+}
@@ -0,0 +1,213 @@
+package building;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Keeps track of the hall calls each elevator has been assigned but not yet picked up,
+ * and records how long each call's passengers waited once its elevator opens its doors at
+ * the call's start floor.
+ */
+class PickupTracker {
+  private final long[][] pickups;
+  private final int[][] passengers;
+  private final long[][] arrivalSums;
+  private final int[] counts;
+  private final WaitTimeStatistics statistics;
+
+  /**
+   * Create a tracker with no pending pickups.
+   *
+   * @param numberOfElevators the number of elevators in the building.
+   */
+  PickupTracker(int numberOfElevators) {
+    this.pickups = new long[numberOfElevators][];
+    this.passengers = new int[numberOfElevators][];
+    this.arrivalSums = new long[numberOfElevators][];
+    this.counts = new int[numberOfElevators];
+    this.statistics = new WaitTimeStatistics();
+  }
+
+  /**
+   * Copy the tracker, for a forked building.
+   *
+   * @return a new tracker with the same pending pickups and statistics.
+   */
+  PickupTracker copy() {
+    PickupTracker copy = new PickupTracker(this.counts.length);
+    for (int elevator = 0; elevator < this.counts.length; elevator++) {
+      if (this.counts[elevator] > 0) {
+        copy.pickups[elevator] = this.pickups[elevator].clone();
+        copy.passengers[elevator] = this.passengers[elevator].clone();
+        copy.arrivalSums[elevator] = this.arrivalSums[elevator].clone();
+        copy.counts[elevator] = this.counts[elevator];
+      }
+    }
+    copy.statistics.add(this.statistics);
+    return copy;
+  }
+
+  /**
+   * Record that a call with one passenger has been assigned to an elevator.
+   *
+   * @param elevator    the elevator number.
+   * @param floor       the start floor of the call.
+   * @param arrivalTick the step at which the call arrived.
+   */
+  void assigned(int elevator, int floor, long arrivalTick) {
+    this.assigned(elevator, floor, arrivalTick, 1, arrivalTick);
+  }
+
+  /**
+   * Record that a call has been assigned to an elevator.
+   *
+   * @param elevator    the elevator number.
+   * @param floor       the start floor of the call.
+   * @param arrivalTick the step at which the call's first passenger arrived.
+   * @param riders      the number of passengers of the call.
+   * @param arrivalSum  the sum of the passengers' arrival steps.
+   */
+  void assigned(int elevator, int floor, long arrivalTick, int riders, long arrivalSum) {
+    this.ensureRoom(elevator, this.counts[elevator] + 1);
+    int i = this.counts[elevator]++;
+    // The arrival step takes the high bits and the floor the low 16 bits, which hold any
+    // floor FleetLimits allows.
+    this.pickups[elevator][i] = (arrivalTick << 16) | floor;
+    this.passengers[elevator][i] = riders;
+    this.arrivalSums[elevator][i] = arrivalSum;
+  }
+
+  /**
+   * Does an elevator have calls waiting to be picked up.
+   *
+   * @param elevator the elevator number.
+   * @return true if the elevator has pending pickups.
+   */
+  boolean hasPickups(int elevator) {
+    return this.counts[elevator] > 0;
+  }
+
+  /**
+   * Pick up every call an elevator was assigned at the floor where its doors are open.
+   *
+   * @param elevator the elevator number.
+   * @param floor    the floor the elevator's doors are open at.
+   * @param tick     the current step.
+   */
+  void doorsOpenAt(int elevator, int floor, long tick) {
+    long[] pending = this.pickups[elevator];
+    int[] riders = this.passengers[elevator];
+    long[] sums = this.arrivalSums[elevator];
+    int count = this.counts[elevator];
+    int kept = 0;
+    for (int i = 0; i < count; i++) {
+      if ((int) (pending[i] & 0xFFFF) == floor) {
+        this.statistics.record(riders[i], riders[i] * tick - sums[i],
+            tick - (pending[i] >>> 16));
+      } else {
+        pending[kept] = pending[i];
+        riders[kept] = riders[i];
+        sums[kept++] = sums[i];
+      }
+    }
+    this.counts[elevator] = kept;
+  }
+
+  /**
+   * Add up how long the calls not yet picked up have waited.
+   *
+   * @param tick the current step.
+   * @return the total wait so far, in steps.
+   */
+  long waitedUntil(long tick) {
+    long total = 0;
+    for (int elevator = 0; elevator < this.counts.length; elevator++) {
+      for (int i = 0; i < this.counts[elevator]; i++) {
+        total += this.passengers[elevator][i] * tick - this.arrivalSums[elevator][i];
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Forget every pending pickup, for when the elevators are taken out of service.
+   */
+  void clear() {
+    Arrays.fill(this.counts, 0);
+  }
+
+  /**
+   * Get the wait time statistics of the calls picked up so far.
+   *
+   * @return the live statistics.
+   */
+  WaitTimeStatistics getStatistics() {
+    return this.statistics;
+  }
+
+  /**
+   * Write the pending pickups and the statistics, for a building snapshot.
+   *
+   * @param out the output to write to.
+   * @throws IOException if the output cannot be written.
+   */
+  void writeTo(DataOutput out) throws IOException {
+    for (int elevator = 0; elevator < this.counts.length; elevator++) {
+      out.writeInt(this.counts[elevator]);
+      for (int i = 0; i < this.counts[elevator]; i++) {
+        out.writeLong(this.pickups[elevator][i]);
+        out.writeInt(this.passengers[elevator][i]);
+        out.writeLong(this.arrivalSums[elevator][i]);
+      }
+    }
+    this.statistics.writeTo(out);
+  }
+
+  /**
+   * Replace the pending pickups and the statistics with those written by writeTo.
+   *
+   * @param in      the input to read from.
+   * @param version the snapshot format version; pickups in version 1 carry one passenger.
+   * @throws IOException           if the input cannot be read.
+   * @throws IllegalStateException if the pickups are not valid.
+   */
+  void readFrom(DataInput in, int version) throws IOException {
+    for (int elevator = 0; elevator < this.counts.length; elevator++) {
+      int count = in.readInt();
+      if (count < 0) {
+        throw new IllegalStateException("Invalid number of pickups.");
+      }
+      this.counts[elevator] = 0;
+      for (int i = 0; i < count; i++) {
+        long pickup = in.readLong();
+        int riders = version >= 2 ? in.readInt() : 1;
+        long arrivalSum = version >= 2 ? in.readLong() : pickup >>> 16;
+        if (riders < 1) {
+          throw new IllegalStateException("Invalid number of passengers.");
+        }
+        this.assigned(elevator, (int) (pickup & 0xFFFF), pickup >>> 16, riders, arrivalSum);
+      }
+    }
+    this.statistics.readFrom(in);
+  }
+
+  /**
+   * Grow an elevator's pending pickups to hold at least the given number.
+   */
+  private void ensureRoom(int elevator, int needed) {
+    long[] pending = this.pickups[elevator];
+    if (pending == null) {
+      int length = Math.max(8, needed);
+      this.pickups[elevator] = new long[length];
+      this.passengers[elevator] = new int[length];
+      this.arrivalSums[elevator] = new long[length];
+    } else if (needed > pending.length) {
+      int length = Math.max(pending.length * 2, needed);
+      this.pickups[elevator] = Arrays.copyOf(pending, length);
+      this.passengers[elevator] = Arrays.copyOf(this.passengers[elevator], length);
+      this.arrivalSums[elevator] = Arrays.copyOf(this.arrivalSums[elevator], length);
+    }
+  }
+}
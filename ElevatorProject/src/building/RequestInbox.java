@@ -0,0 +1,135 @@
+package building;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import scanerzus.Request;
+
+/**
+ * A lock-free queue that any number of threads can add requests to while a single thread
+ * drains them.
+ * <p></p>
+ * The queue is split into stripes, and each thread adds to the stripe its id picks, so
+ * producers on different stripes never touch the same memory. Each stripe is a linked list
+ * that a producer joins with one atomic swap of the tail, which cannot fail and retry the way
+ * a compare-and-set can, so adding stays wait-free however many threads contend. Requests
+ * added by one thread are drained in the order they were added; there is no order between
+ * requests added by different threads at the same time.
+ * <p></p>
+ * A request whose producer is part way through adding it may be left for the next drain.
+ */
+public final class RequestInbox {
+  /************************************************************************
+   * The most stripes an inbox has.
+   ************************************************************************/
+  private static final int MAX_STRIPES = 64;
+
+  /************************************************************************
+   * The spacing of the stripe tails, so that no two share a cache line.
+   ************************************************************************/
+  private static final int PADDING = 16;
+
+  private final int mask;
+  private final AtomicReferenceArray<Node> tails;
+  private final Node[] heads;
+
+  /**
+   * Create an empty inbox with a stripe per processor.
+   */
+  public RequestInbox() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Create an empty inbox.
+   *
+   * @param stripes the number of stripes, rounded up to a power of two of at most 64.
+   * @throws IllegalArgumentException if stripes is less than 1.
+   */
+  public RequestInbox(int stripes) {
+    if (stripes < 1) {
+      throw new IllegalArgumentException("stripes must be at least 1");
+    }
+    int count = Integer.highestOneBit(Math.min(stripes, MAX_STRIPES) * 2 - 1);
+    this.mask = count - 1;
+    this.tails = new AtomicReferenceArray<>(count * PADDING);
+    this.heads = new Node[count];
+    for (int i = 0; i < count; i++) {
+      Node stub = new Node(null);
+      this.heads[i] = stub;
+      this.tails.set(i * PADDING, stub);
+    }
+  }
+
+  /**
+   * Add a request. Safe to call from any thread.
+   *
+   * @param request the request.
+   * @throws IllegalArgumentException if the request is null.
+   */
+  public void add(Request request) {
+    if (request == null) {
+      throw new IllegalArgumentException("Request cannot be null");
+    }
+    Node node = new Node(request);
+    int stripe = (int) Thread.currentThread().getId() & this.mask;
+    Node previous = this.tails.getAndSet(stripe * PADDING, node);
+    previous.next = node;
+  }
+
+  /**
+   * Remove the requests added before the drain started and hand each to the consumer. Only
+   * one thread may drain an inbox.
+   *
+   * @param consumer receives the requests.
+   * @return the number of requests drained.
+   */
+  public int drain(Consumer<Request> consumer) {
+    int drained = 0;
+    for (int i = 0; i < this.heads.length; i++) {
+      // Stop at the tail as it is now, so producers that keep adding cannot hold the drain
+      // up forever.
+      Node last = this.tails.get(i * PADDING);
+      Node head = this.heads[i];
+      while (head != last) {
+        Node next = head.next;
+        if (next == null) {
+          break;
+        }
+        Request request = next.request;
+        next.request = null;
+        head = next;
+        this.heads[i] = head;
+        drained++;
+        consumer.accept(request);
+      }
+    }
+    return drained;
+  }
+
+  /**
+   * Is the inbox empty. Only meaningful on the draining thread, as producers may add at any
+   * time.
+   *
+   * @return true if no request has been added since the last drain.
+   */
+  public boolean isEmpty() {
+    for (int i = 0; i < this.heads.length; i++) {
+      if (this.tails.get(i * PADDING) != this.heads[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * A link in a stripe. The head of each stripe is a node whose request has been drained.
+   */
+  private static final class Node {
+    private Request request;
+    private volatile Node next;
+
+    private Node(Request request) {
+      this.request = request;
+    }
+  }
+}
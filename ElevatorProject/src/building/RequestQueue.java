@@ -0,0 +1,278 @@
+package building;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import scanerzus.Request;
+
+/**
+ * A first-in first-out queue of requests backed by a growable ring buffer.
+ * Adding to the tail and removing from the head are both constant time,
+ * so draining a large backlog does not shift the remaining requests.
+ * <p></p>
+ * Every request added is given a ticket, its position in the sequence of all
+ * requests ever added. A ticket can be used to look up or remove a request from
+ * the middle of the queue in constant time; removed slots are skipped when polling.
+ * Once removed slots outnumber the requests still queued, compact closes them up and
+ * renumbers the tickets, so a request waiting at the head cannot keep the buffer growing.
+ */
+public class RequestQueue {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private Request[] buffer;
+  private long headTicket;
+  private int used;
+  private int size;
+
+  /**
+   * Create an empty queue.
+   */
+  public RequestQueue() {
+    this.buffer = new Request[DEFAULT_CAPACITY];
+    this.headTicket = 0;
+    this.used = 0;
+    this.size = 0;
+  }
+
+  /**
+   * Copy the queue. The requests themselves are shared, and every ticket stays valid in the
+   * copy.
+   *
+   * @return a new queue holding the same requests under the same tickets.
+   */
+  public RequestQueue copy() {
+    RequestQueue copy = new RequestQueue();
+    copy.buffer = this.buffer.clone();
+    copy.headTicket = this.headTicket;
+    copy.used = this.used;
+    copy.size = this.size;
+    return copy;
+  }
+
+  /**
+   * Adds a request to the tail of the queue.
+   *
+   * @param request the request to add.
+   * @return the ticket of the request.
+   * @throws IllegalArgumentException if the request is null.
+   */
+  public long offer(Request request) {
+    if (request == null) {
+      throw new IllegalArgumentException("Request cannot be null");
+    }
+    if (this.used == this.buffer.length) {
+      this.grow();
+    }
+    long ticket = this.headTicket + this.used;
+    this.buffer[this.slot(ticket)] = request;
+    this.used++;
+    this.size++;
+    return ticket;
+  }
+
+  /**
+   * Removes and returns the request at the head of the queue.
+   *
+   * @return the oldest request, or null if the queue is empty.
+   */
+  public Request poll() {
+    if (this.size == 0) {
+      return null;
+    }
+    this.skipRemoved();
+    int slot = this.slot(this.headTicket);
+    Request request = this.buffer[slot];
+    this.buffer[slot] = null;
+    this.headTicket++;
+    this.used--;
+    this.size--;
+    return request;
+  }
+
+  /**
+   * Returns the request at the head of the queue without removing it.
+   *
+   * @return the oldest request, or null if the queue is empty.
+   */
+  public Request peek() {
+    if (this.size == 0) {
+      return null;
+    }
+    this.skipRemoved();
+    return this.buffer[this.slot(this.headTicket)];
+  }
+
+  /**
+   * Returns the ticket of the request at the head of the queue.
+   *
+   * @return the ticket of the oldest request, or -1 if the queue is empty.
+   */
+  public long peekTicket() {
+    if (this.size == 0) {
+      return -1;
+    }
+    this.skipRemoved();
+    return this.headTicket;
+  }
+
+  /**
+   * Looks up a request by its ticket.
+   *
+   * @param ticket the ticket returned when the request was added.
+   * @return the request, or null if it has already left the queue.
+   */
+  public Request get(long ticket) {
+    if (ticket < this.headTicket || ticket >= this.headTicket + this.used) {
+      return null;
+    }
+    return this.buffer[this.slot(ticket)];
+  }
+
+  /**
+   * Removes a request by its ticket, wherever it is in the queue.
+   *
+   * @param ticket the ticket returned when the request was added.
+   * @return the removed request, or null if it had already left the queue.
+   */
+  public Request remove(long ticket) {
+    Request request = this.get(ticket);
+    if (request != null) {
+      this.buffer[this.slot(ticket)] = null;
+      this.size--;
+      if (this.size == 0) {
+        this.headTicket += this.used;
+        this.used = 0;
+      }
+    }
+    return request;
+  }
+
+  /**
+   * Closes up the slots left by requests removed from the middle of the queue, if they
+   * outnumber the requests still queued, and shrinks the buffer to fit. The remaining
+   * requests keep their order and are given consecutive tickets from the ticket of the head,
+   * so tickets handed out before a compaction are no longer valid.
+   *
+   * @return true if the queue was compacted and its tickets renumbered.
+   */
+  public boolean compact() {
+    if (this.used - this.size <= this.size) {
+      return false;
+    }
+    int capacity = DEFAULT_CAPACITY;
+    while (capacity < this.size * 2) {
+      capacity *= 2;
+    }
+    Request[] compacted = new Request[capacity];
+    long ticket = this.headTicket;
+    for (int i = 0; i < this.used; i++) {
+      Request request = this.buffer[this.slot(this.headTicket + i)];
+      if (request != null) {
+        compacted[(int) (ticket++ & (capacity - 1))] = request;
+      }
+    }
+    this.buffer = compacted;
+    this.used = this.size;
+    return true;
+  }
+
+  /**
+   * Removes up to maxRequests requests from the head of the queue and adds them,
+   * in order, to the given collection.
+   *
+   * @param target      the collection that receives the requests.
+   * @param maxRequests the maximum number of requests to move.
+   * @return the number of requests moved.
+   */
+  public int drainTo(Collection<? super Request> target, int maxRequests) {
+    int count = Math.min(maxRequests, this.size);
+    for (int i = 0; i < count; i++) {
+      target.add(this.poll());
+    }
+    return count;
+  }
+
+  /**
+   * Get the number of requests in the queue.
+   *
+   * @return the number of requests in the queue.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Is the queue empty.
+   *
+   * @return true if there are no requests in the queue.
+   */
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  /**
+   * The number of slots in the buffer.
+   *
+   * @return the capacity of the buffer.
+   */
+  int capacity() {
+    return this.buffer.length;
+  }
+
+  /**
+   * Copies the queue into a list, oldest request first.
+   *
+   * @return a new list holding the requests in the queue.
+   */
+  public List<Request> toList() {
+    return this.peek(this.size);
+  }
+
+  /**
+   * Copies the oldest requests in the queue into a list without removing them.
+   *
+   * @param maxRequests the maximum number of requests to copy.
+   * @return a new list holding up to maxRequests requests, oldest first.
+   */
+  public List<Request> peek(int maxRequests) {
+    int count = Math.max(0, Math.min(maxRequests, this.size));
+    List<Request> list = new ArrayList<>(count);
+    for (int i = 0; i < this.used && list.size() < count; i++) {
+      Request request = this.buffer[this.slot(this.headTicket + i)];
+      if (request != null) {
+        list.add(request);
+      }
+    }
+    return list;
+  }
+
+  /**
+   * Advance the head past slots whose requests were removed by ticket.
+   */
+  private void skipRemoved() {
+    while (this.buffer[this.slot(this.headTicket)] == null) {
+      this.headTicket++;
+      this.used--;
+    }
+  }
+
+  /**
+   * The buffer slot of a ticket. The capacity is always a power of two,
+   * so tickets wrap around the buffer with a mask.
+   */
+  private int slot(long ticket) {
+    return (int) (ticket & (this.buffer.length - 1));
+  }
+
+  /**
+   * Double the buffer, keeping every ticket in the slot its ticket maps to.
+   */
+  private void grow() {
+    Request[] larger = new Request[this.buffer.length * 2];
+    for (int i = 0; i < this.used; i++) {
+      long ticket = this.headTicket + i;
+      larger[(int) (ticket & (larger.length - 1))] = this.buffer[this.slot(ticket)];
+    }
+    this.buffer = larger;
+  }
+}
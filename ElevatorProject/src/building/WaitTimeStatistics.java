@@ -0,0 +1,148 @@
+package building;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Statistics of how long hall calls waited to be picked up.
+ * A call's wait is the number of steps from when it was added to the building until the
+ * elevator it was assigned to opened its doors at the call's start floor. A coalesced call
+ * counts once for each of its passengers, each with the wait from its own arrival.
+ */
+public class WaitTimeStatistics {
+  private long servedCount;
+  private long totalWait;
+  private long maxWait;
+
+  /**
+   * Create empty statistics.
+   */
+  public WaitTimeStatistics() {
+    this.servedCount = 0;
+    this.totalWait = 0;
+    this.maxWait = 0;
+  }
+
+  /**
+   * Record a call that has been picked up.
+   *
+   * @param wait the number of steps the call waited.
+   */
+  void record(long wait) {
+    this.record(1, wait, wait);
+  }
+
+  /**
+   * Record a call with several passengers that has been picked up.
+   *
+   * @param passengers the number of passengers of the call.
+   * @param totalWait  the number of steps the passengers waited, added up.
+   * @param maxWait    the number of steps the first passenger waited.
+   */
+  void record(long passengers, long totalWait, long maxWait) {
+    this.servedCount += passengers;
+    this.totalWait += totalWait;
+    this.maxWait = Math.max(this.maxWait, maxWait);
+  }
+
+  /**
+   * Get the number of calls that have been picked up.
+   *
+   * @return the number of calls picked up.
+   */
+  public long getServedCount() {
+    return this.servedCount;
+  }
+
+  /**
+   * Get the total number of steps picked up calls waited.
+   *
+   * @return the sum of the waits.
+   */
+  public long getTotalWait() {
+    return this.totalWait;
+  }
+
+  /**
+   * Get the longest wait of a picked up call.
+   *
+   * @return the longest wait in steps.
+   */
+  public long getMaxWait() {
+    return this.maxWait;
+  }
+
+  /**
+   * Get the average wait of a picked up call.
+   *
+   * @return the average wait in steps, or 0 if no call has been picked up.
+   */
+  public double getAverageWait() {
+    return this.servedCount == 0 ? 0 : (double) this.totalWait / this.servedCount;
+  }
+
+  /**
+   * Add the calls recorded by other statistics to these, as if every call had been
+   * recorded here.
+   *
+   * @param other the statistics to add.
+   * @throws IllegalArgumentException if other is null.
+   */
+  public void add(WaitTimeStatistics other) {
+    if (other == null) {
+      throw new IllegalArgumentException("other cannot be null");
+    }
+    this.servedCount += other.servedCount;
+    this.totalWait += other.totalWait;
+    this.maxWait = Math.max(this.maxWait, other.maxWait);
+  }
+
+  /**
+   * Write the statistics, for a building snapshot.
+   */
+  void writeTo(DataOutput out) throws IOException {
+    out.writeLong(this.servedCount);
+    out.writeLong(this.totalWait);
+    out.writeLong(this.maxWait);
+  }
+
+  /**
+   * Replace the statistics with those written by writeTo.
+   */
+  void readFrom(DataInput in) throws IOException {
+    long served = in.readLong();
+    long total = in.readLong();
+    long max = in.readLong();
+    if (served < 0 || total < 0 || max < 0) {
+      throw new IllegalStateException("Invalid wait time statistics.");
+    }
+    this.servedCount = served;
+    this.totalWait = total;
+    this.maxWait = max;
+  }
+
+  /**
+   * Copy the statistics.
+   *
+   * @return a new object holding the same values.
+   */
+  public WaitTimeStatistics copy() {
+    WaitTimeStatistics copy = new WaitTimeStatistics();
+    copy.servedCount = this.servedCount;
+    copy.totalWait = this.totalWait;
+    copy.maxWait = this.maxWait;
+    return copy;
+  }
+
+  /**
+   * toString implementation.
+   *
+   * @return string representation of the statistics.
+   */
+  @Override
+  public String toString() {
+    return String.format("Served %d, average wait %.2f, max wait %d",
+        this.servedCount, this.getAverageWait(), this.maxWait);
+  }
+}
@@ -0,0 +1,61 @@
+package building.dispatch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import scanerzus.Request;
+
+/**
+ * A decision by a dispatch strategy to give a batch of hall calls to one elevator.
+ */
+public final class Assignment {
+  private final int elevator;
+  private final List<Request> requests;
+
+  /**
+   * Create an assignment.
+   *
+   * @param elevator the number of the elevator that serves the requests.
+   * @param requests the waiting hall calls the elevator is given.
+   * @throws IllegalArgumentException if the elevator number is negative or the requests are
+   *                                  null.
+   */
+  public Assignment(int elevator, List<Request> requests) {
+    if (elevator < 0) {
+      throw new IllegalArgumentException("Elevator number cannot be negative");
+    }
+    if (requests == null) {
+      throw new IllegalArgumentException("Requests cannot be null");
+    }
+    this.elevator = elevator;
+    this.requests = Collections.unmodifiableList(new ArrayList<>(requests));
+  }
+
+  /**
+   * Get the number of the elevator that serves the requests.
+   *
+   * @return the elevator number.
+   */
+  public int getElevator() {
+    return this.elevator;
+  }
+
+  /**
+   * Get the hall calls the elevator is given.
+   *
+   * @return an unmodifiable list of requests.
+   */
+  public List<Request> getRequests() {
+    return this.requests;
+  }
+
+  /**
+   * toString implementation.
+   *
+   * @return string representation of the assignment.
+   */
+  @Override
+  public String toString() {
+    return "Elevator " + this.elevator + " <- " + this.requests;
+  }
+}
@@ -0,0 +1,52 @@
+package building.dispatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * Finds dispatch strategies by name with java.util.ServiceLoader.
+ */
+public final class DispatchStrategies {
+
+  private DispatchStrategies() {
+  }
+
+  /**
+   * The strategy buildings use unless told otherwise.
+   *
+   * @return a new TerminalDispatchStrategy.
+   */
+  public static DispatchStrategy defaultStrategy() {
+    return new TerminalDispatchStrategy();
+  }
+
+  /**
+   * Create a strategy by name.
+   *
+   * @param name the name of the strategy.
+   * @return a new instance of the strategy.
+   * @throws IllegalArgumentException if no strategy with that name is registered.
+   */
+  public static DispatchStrategy byName(String name) {
+    for (DispatchStrategy strategy : ServiceLoader.load(DispatchStrategy.class)) {
+      if (strategy.getName().equals(name)) {
+        return strategy;
+      }
+    }
+    throw new IllegalArgumentException("No dispatch strategy named " + name);
+  }
+
+  /**
+   * The names of every registered strategy.
+   *
+   * @return a new list of names.
+   */
+  public static List<String> availableNames() {
+    List<String> names = new ArrayList<>();
+    for (DispatchStrategy strategy : ServiceLoader.load(DispatchStrategy.class)) {
+      names.add(strategy.getName());
+    }
+    return names;
+  }
+}
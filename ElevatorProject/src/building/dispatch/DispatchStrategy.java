@@ -0,0 +1,74 @@
+package building.dispatch;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Decides which elevator serves which waiting hall calls.
+ * <p></p>
+ * A building asks its strategy for assignments once per step, before the elevators move,
+ * whenever hall calls are waiting. Each assigned call is removed from the waiting calls and
+ * handed to its elevator through ElevatorInterface.mergeRequests: an elevator that is taking
+ * requests starts a new run with the batch, and a moving elevator adds the calls to the stops
+ * it already has, picking up any it has passed on a later sweep. A strategy must only assign
+ * calls that are waiting, each at most once, with at most one assignment per elevator per
+ * step, and only to elevators that are in service.
+ * <p></p>
+ * Implementations are found with java.util.ServiceLoader, so a strategy shipped in its own
+ * jar is selectable by name once it is listed in
+ * META-INF/services/building.dispatch.DispatchStrategy and has a public no-argument
+ * constructor. See DispatchStrategies.
+ */
+public interface DispatchStrategy {
+
+  /**
+   * The name the strategy is selected by.
+   *
+   * @return a short, unique name.
+   */
+  String getName();
+
+  /**
+   * Assign waiting hall calls to elevators.
+   *
+   * @param calls the hall calls waiting to be assigned.
+   * @param fleet the elevators of the building.
+   * @return the assignments to make this step, possibly empty.
+   */
+  List<Assignment> dispatch(PendingCalls calls, FleetView fleet);
+
+  /**
+   * Create a strategy for a forked building that dispatches from here on exactly as this one
+   * would, without either affecting the other. Strategies that keep no state from one step
+   * to the next return themselves; strategies that do must override this.
+   *
+   * @return a strategy with the same state as this one.
+   */
+  default DispatchStrategy fork() {
+    return this;
+  }
+
+  /**
+   * Write whatever the strategy carries from one step to the next, so that a building
+   * restored from a snapshot dispatches exactly as the original would have. Strategies that
+   * keep no state write nothing.
+   *
+   * @param out the output to write to.
+   * @throws IOException if the output cannot be written.
+   */
+  default void writeState(DataOutput out) throws IOException {
+  }
+
+  /**
+   * Replace the strategy's state with one written by writeState of a strategy with the
+   * same name.
+   *
+   * @param in the input to read from.
+   * @throws IOException           if the input cannot be read.
+   * @throws IllegalStateException if the state is not valid.
+   */
+  default void readState(DataInput in) throws IOException {
+  }
+}
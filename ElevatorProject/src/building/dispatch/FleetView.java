@@ -0,0 +1,125 @@
+package building.dispatch;
+
+import building.enums.Direction;
+import building.enums.SweepMode;
+import elevator.ElevatorReport;
+import scanerzus.Request;
+
+/**
+ * A read-only view of the elevators of a building, as seen by a dispatch strategy.
+ * Elevators are numbered from 0 to getNumberOfElevators() - 1.
+ */
+public interface FleetView {
+
+  /**
+   * Retrieves the total number of floors in the building.
+   *
+   * @return The number of floors in the building.
+   */
+  int getNumberOfFloors();
+
+  /**
+   * Retrieves the total number of elevators in the building.
+   *
+   * @return The number of elevators.
+   */
+  int getNumberOfElevators();
+
+  /**
+   * Retrieves the maximum number of passengers an elevator is given at once. Each call
+   * carries PendingCalls.passengersOf passengers.
+   *
+   * @return The capacity of the elevators.
+   */
+  int getElevatorCapacity();
+
+  /**
+   * Retrieves the number of steps an elevator's door stays open at a stop.
+   *
+   * @return The door open time.
+   */
+  int getDoorOpenTime();
+
+  /**
+   * Retrieves the number of steps an elevator waits at the top or bottom.
+   *
+   * @return The end of run wait time.
+   */
+  int getStopWaitTime();
+
+  /**
+   * Returns the current floor of an elevator.
+   *
+   * @param elevator the elevator number.
+   * @return the current floor of the elevator.
+   */
+  int getCurrentFloor(int elevator);
+
+  /**
+   * Returns the number of times the building has been stepped, the clock hall call
+   * arrival steps are measured on.
+   *
+   * @return the current step.
+   */
+  long getCurrentTick();
+
+  /**
+   * Returns the direction an elevator is moving in.
+   *
+   * @param elevator the elevator number.
+   * @return the direction of the elevator.
+   */
+  Direction getDirection(int elevator);
+
+  /**
+   * Is an elevator waiting at the top or bottom for a new batch of requests.
+   *
+   * @param elevator the elevator number.
+   * @return true if the elevator is taking requests.
+   */
+  boolean isTakingRequests(int elevator);
+
+  /**
+   * Returns how an elevator decides where a run ends. A LOOK elevator that is taking
+   * requests may be parked on any floor and can be given calls in either direction.
+   *
+   * @param elevator the elevator number.
+   * @return the sweep mode of the elevator.
+   */
+  SweepMode getSweepMode(int elevator);
+
+  /**
+   * Can a moving elevator pick up a request on its way.
+   *
+   * @param elevator the elevator number.
+   * @param request  the request to pick up.
+   * @return true if the request can be added to the elevator's current run.
+   */
+  boolean canAcceptRequest(int elevator, Request request);
+
+  /**
+   * Returns the next floor an elevator will stop at in its direction of travel.
+   *
+   * @param elevator the elevator number.
+   * @return the next requested floor ahead of the elevator, or -1 if there is none.
+   */
+  int getNextStop(int elevator);
+
+  /**
+   * Returns the full status of an elevator.
+   *
+   * @param elevator the elevator number.
+   * @return a report of the elevator.
+   */
+  ElevatorReport getElevatorStatus(int elevator);
+
+  /**
+   * Forks the building, so the strategy can run ahead and compare what different choices
+   * lead to. The fork is in the state the building is in now, before this step's
+   * assignments, and assigns hall calls with the given strategy.
+   *
+   * @param strategy the strategy the fork assigns hall calls with.
+   * @return the fork.
+   */
+  Lookahead fork(DispatchStrategy strategy);
+}
@@ -0,0 +1,40 @@
+package building.dispatch;
+
+import scanerzus.Request;
+
+/**
+ * A fork of a building that a dispatch strategy runs ahead on, to see what its choices lead
+ * to. Running it never changes the building it was forked from. See FleetView.fork.
+ */
+public interface Lookahead {
+
+  /**
+   * Adds a hall call to the fork.
+   *
+   * @param request the request to add.
+   * @return true if the request was added.
+   * @throws IllegalArgumentException if the request is not valid for the building.
+   * @throws IllegalStateException    if the fork is not accepting requests.
+   */
+  boolean addRequest(Request request);
+
+  /**
+   * Steps the fork once: its strategy assigns the waiting calls and the elevators move.
+   */
+  void stepElevatorSystem();
+
+  /**
+   * Returns the number of times the fork and the building before it have been stepped.
+   *
+   * @return the current step.
+   */
+  long getCurrentTick();
+
+  /**
+   * Returns the number of steps every hall call has waited so far: the whole wait of those
+   * already picked up, and the wait up to the current step of those still waiting.
+   *
+   * @return the total wait in steps.
+   */
+  long getTotalWait();
+}
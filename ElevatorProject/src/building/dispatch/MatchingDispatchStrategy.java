@@ -0,0 +1,321 @@
+package building.dispatch;
+
+import building.enums.Direction;
+import elevator.ElevatorReport;
+import elevator.FloorRequestSet;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import scanerzus.Request;
+
+/**
+ * Assigns waiting hall calls by solving a min-cost matching between elevators and call groups
+ * every step, where a group is all the calls waiting at one floor in one direction.
+ * <p></p>
+ * The cost of giving a group to an elevator is the number of calls it can take, times the
+ * elevator's estimated time of arrival (see NearestCarDispatchStrategy) less the time the
+ * oldest call has already waited, so that the matching both sends the right elevator to each
+ * group and, when there are more groups than elevators, prefers the groups that have waited
+ * longest. The matching is solved exactly with the Hungarian algorithm. A group matched to
+ * an elevator that can take it now is assigned; one matched to an elevator that cannot take
+ * it yet is left waiting for it.
+ * <p></p>
+ * Between steps the strategy remembers the group each elevator was matched to. When that
+ * group is still the cheapest for the elevator it starts the next solve already matched,
+ * so a stable plan costs little to solve again. The strategy keeps this state, so each
+ * building needs its own instance.
+ */
+public class MatchingDispatchStrategy implements DispatchStrategy {
+  /************************************************************************
+   * The name this strategy is selected by.
+   ************************************************************************/
+  public static final String NAME = "matching";
+
+  /************************************************************************
+   * The cost of matching an elevator to a group it can never reach.
+   ************************************************************************/
+  private static final long UNREACHABLE = 1L << 40;
+
+  private int[] previousGroup = new int[0];
+  private int warmStarts;
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  /**
+   * Get how many elevators started a solve already matched to the group they were
+   * matched to on the step before.
+   *
+   * @return the number of warm started matches since the strategy was created.
+   */
+  public int getWarmStarts() {
+    return this.warmStarts;
+  }
+
+  @Override
+  public DispatchStrategy fork() {
+    MatchingDispatchStrategy fork = new MatchingDispatchStrategy();
+    fork.previousGroup = this.previousGroup.clone();
+    fork.warmStarts = this.warmStarts;
+    return fork;
+  }
+
+  @Override
+  public void writeState(DataOutput out) throws IOException {
+    out.writeInt(this.warmStarts);
+    out.writeInt(this.previousGroup.length);
+    for (int group : this.previousGroup) {
+      out.writeInt(group);
+    }
+  }
+
+  @Override
+  public void readState(DataInput in) throws IOException {
+    int starts = in.readInt();
+    int elevators = in.readInt();
+    if (starts < 0 || elevators < 0) {
+      throw new IllegalStateException("Invalid matching dispatch state.");
+    }
+    int[] groups = new int[elevators];
+    for (int i = 0; i < elevators; i++) {
+      groups[i] = in.readInt();
+    }
+    this.warmStarts = starts;
+    this.previousGroup = groups;
+  }
+
+  @Override
+  public List<Assignment> dispatch(PendingCalls calls, FleetView fleet) {
+    int elevators = fleet.getNumberOfElevators();
+    if (this.previousGroup.length != elevators) {
+      this.previousGroup = new int[elevators];
+      Arrays.fill(this.previousGroup, -1);
+    }
+
+    // The call groups, one per floor and direction with calls waiting.
+    int floors = fleet.getNumberOfFloors();
+    int capacity = fleet.getElevatorCapacity();
+    int groupCount = 0;
+    int upGroups = 0;
+    int[] groupKeys = new int[Math.min(2 * floors, calls.size(Direction.UP)
+        + calls.size(Direction.DOWN))];
+    for (Direction direction : new Direction[] {Direction.UP, Direction.DOWN}) {
+      for (int floor = calls.nextFloorAbove(direction, -1); floor != -1;
+           floor = calls.nextFloorAbove(direction, floor)) {
+        groupKeys[groupCount++] = key(floor, direction);
+      }
+      if (direction == Direction.UP) {
+        upGroups = groupCount;
+      }
+    }
+
+    // The elevators in service.
+    ElevatorReport[] reports = new ElevatorReport[elevators];
+    FloorRequestSet[] stops = new FloorRequestSet[elevators];
+    int[] cars = new int[elevators];
+    int carCount = 0;
+    for (int i = 0; i < elevators; i++) {
+      reports[i] = fleet.getElevatorStatus(i);
+      if (!reports[i].isOutOfService()) {
+        stops[i] = reports[i].getFloorRequestSet();
+        cars[carCount++] = i;
+      }
+    }
+    if (groupCount == 0 || carCount == 0) {
+      Arrays.fill(this.previousGroup, -1);
+      return new ArrayList<>();
+    }
+
+    long[][] cost = new long[carCount][groupCount];
+    long now = fleet.getCurrentTick();
+    for (int g = 0; g < groupCount; g++) {
+      int floor = floorOf(groupKeys[g]);
+      Direction direction = directionOf(groupKeys[g]);
+      int count = 0;
+      for (Request call : calls.fitting(calls.callsAt(direction, floor), capacity)) {
+        count += calls.passengersOf(call);
+      }
+      long waited = now - calls.oldestArrivalAt(direction, floor);
+      for (int c = 0; c < carCount; c++) {
+        int car = cars[c];
+        long eta = NearestCarDispatchStrategy.estimate(reports[car], fleet.getSweepMode(car),
+            stops[car], floor, direction, fleet);
+        cost[c][g] = eta == Long.MAX_VALUE ? UNREACHABLE : count * (eta - waited);
+      }
+    }
+
+    // Match each car to a group, or each group to a car when there are fewer groups.
+    int[] carToGroup = new int[carCount];
+    if (carCount <= groupCount) {
+      int[] hint = new int[carCount];
+      for (int c = 0; c < carCount; c++) {
+        hint[c] = indexOf(groupKeys, upGroups, groupCount, this.previousGroup[cars[c]]);
+      }
+      carToGroup = this.solve(cost, carCount, groupCount, hint);
+    } else {
+      long[][] transposed = new long[groupCount][carCount];
+      int[] hint = new int[groupCount];
+      Arrays.fill(hint, -1);
+      for (int c = 0; c < carCount; c++) {
+        int g = indexOf(groupKeys, upGroups, groupCount, this.previousGroup[cars[c]]);
+        if (g != -1) {
+          hint[g] = c;
+        }
+        for (int j = 0; j < groupCount; j++) {
+          transposed[j][c] = cost[c][j];
+        }
+      }
+      int[] groupToCar = this.solve(transposed, groupCount, carCount, hint);
+      Arrays.fill(carToGroup, -1);
+      for (int g = 0; g < groupCount; g++) {
+        carToGroup[groupToCar[g]] = g;
+      }
+    }
+
+    Arrays.fill(this.previousGroup, -1);
+    List<Assignment> assignments = new ArrayList<>();
+    for (int c = 0; c < carCount; c++) {
+      int g = carToGroup[c];
+      if (g == -1 || cost[c][g] >= UNREACHABLE) {
+        continue;
+      }
+      int car = cars[c];
+      int floor = floorOf(groupKeys[g]);
+      Direction direction = directionOf(groupKeys[g]);
+      List<Request> waiting = calls.callsAt(direction, floor);
+      if (!NearestCarDispatchStrategy.canTakeNow(fleet, car, reports[car], waiting.get(0),
+          calls.passengersOf(waiting.get(0)))) {
+        // Keep the group for this elevator; it is expected to get there first.
+        this.previousGroup[car] = groupKeys[g];
+        continue;
+      }
+      assignments.add(new Assignment(car,
+          calls.fitting(waiting, capacity - reports[car].getCommittedRiders())));
+    }
+    return assignments;
+  }
+
+  /**
+   * Solve a rectangular assignment problem with the Hungarian algorithm, using shortest
+   * augmenting paths and dual potentials. Every row is matched to a distinct column.
+   * <p></p>
+   * The row potentials start at each row's smallest cost, which keeps every reduced cost
+   * non-negative, so a row whose hinted column is its cheapest free column can start the
+   * solve matched to it.
+   *
+   * @param cost the cost of matching each row to each column.
+   * @param rows the number of rows, at most the number of columns.
+   * @param cols the number of columns.
+   * @param hint a column to try to start each row on, or -1.
+   * @return the column matched to each row.
+   */
+  int[] solve(long[][] cost, int rows, int cols, int[] hint) {
+    // One-based, with column 0 standing for the row being added.
+    long[] u = new long[rows + 1];
+    long[] v = new long[cols + 1];
+    int[] rowOf = new int[cols + 1];
+    int[] way = new int[cols + 1];
+    long[] minReduced = new long[cols + 1];
+    boolean[] used = new boolean[cols + 1];
+
+    boolean[] matched = new boolean[rows + 1];
+    for (int i = 1; i <= rows; i++) {
+      long min = Long.MAX_VALUE;
+      for (int j = 0; j < cols; j++) {
+        min = Math.min(min, cost[i - 1][j]);
+      }
+      u[i] = min;
+      int j = hint[i - 1] + 1;
+      if (j > 0 && rowOf[j] == 0 && cost[i - 1][j - 1] == min) {
+        rowOf[j] = i;
+        matched[i] = true;
+        this.warmStarts++;
+      }
+    }
+
+    for (int i = 1; i <= rows; i++) {
+      if (matched[i]) {
+        continue;
+      }
+      rowOf[0] = i;
+      int col = 0;
+      Arrays.fill(minReduced, Long.MAX_VALUE);
+      Arrays.fill(used, false);
+      do {
+        used[col] = true;
+        int row = rowOf[col];
+        long delta = Long.MAX_VALUE;
+        int next = 0;
+        long[] rowCost = cost[row - 1];
+        long rowPotential = u[row];
+        for (int j = 1; j <= cols; j++) {
+          if (!used[j]) {
+            long reduced = rowCost[j - 1] - rowPotential - v[j];
+            if (reduced < minReduced[j]) {
+              minReduced[j] = reduced;
+              way[j] = col;
+            }
+            if (minReduced[j] < delta) {
+              delta = minReduced[j];
+              next = j;
+            }
+          }
+        }
+        for (int j = 0; j <= cols; j++) {
+          if (used[j]) {
+            u[rowOf[j]] += delta;
+            v[j] -= delta;
+          } else {
+            minReduced[j] -= delta;
+          }
+        }
+        col = next;
+      } while (rowOf[col] != 0);
+      // Flip the augmenting path.
+      do {
+        int previous = way[col];
+        rowOf[col] = rowOf[previous];
+        col = previous;
+      } while (col != 0);
+    }
+
+    int[] rowToCol = new int[rows];
+    for (int j = 1; j <= cols; j++) {
+      if (rowOf[j] != 0) {
+        rowToCol[rowOf[j] - 1] = j - 1;
+      }
+    }
+    return rowToCol;
+  }
+
+  private static int key(int floor, Direction direction) {
+    return floor * 2 + (direction == Direction.UP ? 0 : 1);
+  }
+
+  private static int floorOf(int key) {
+    return key >> 1;
+  }
+
+  private static Direction directionOf(int key) {
+    return (key & 1) == 0 ? Direction.UP : Direction.DOWN;
+  }
+
+  /**
+   * The position of a group key among the first count keys, or -1. The UP keys come first,
+   * then the DOWN keys, and each run is sorted by floor.
+   */
+  private static int indexOf(int[] keys, int upCount, int count, int key) {
+    if (key < 0) {
+      return -1;
+    }
+    int found = (key & 1) == 0
+        ? Arrays.binarySearch(keys, 0, upCount, key)
+        : Arrays.binarySearch(keys, upCount, count, key);
+    return found < 0 ? -1 : found;
+  }
+}
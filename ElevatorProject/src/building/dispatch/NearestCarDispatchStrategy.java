@@ -0,0 +1,222 @@
+package building.dispatch;
+
+import building.enums.Direction;
+import building.enums.SweepMode;
+import elevator.ElevatorReport;
+import elevator.FloorRequestSet;
+import java.util.ArrayList;
+import java.util.List;
+import scanerzus.Request;
+
+/**
+ * Assigns each floor's hall calls to the elevator with the lowest estimated time of arrival.
+ * <p></p>
+ * The estimate counts one step per floor travelled, the door open time for every stop the
+ * elevator makes on the way, what is left of an open door or an end of run wait, and, for an
+ * elevator moving away from the call, the trip to the end of its run and back. Calls are
+ * given to an elevator waiting at the top or bottom, or to a moving elevator that can pick
+ * them up on its way. When an elevator that cannot take the calls yet is expected to arrive
+ * sooner than any that can, the calls are left waiting for it.
+ * <p></p>
+ * A LOOK elevator that is taking requests is parked and can take calls in either direction;
+ * its estimate is the trip from where it is parked.
+ */
+public class NearestCarDispatchStrategy implements DispatchStrategy {
+  /************************************************************************
+   * The name this strategy is selected by.
+   ************************************************************************/
+  public static final String NAME = "eta";
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public List<Assignment> dispatch(PendingCalls calls, FleetView fleet) {
+    int elevators = fleet.getNumberOfElevators();
+    ElevatorReport[] reports = new ElevatorReport[elevators];
+    FloorRequestSet[] plannedStops = new FloorRequestSet[elevators];
+    List<List<Request>> batches = new ArrayList<>(elevators);
+    int[] loads = new int[elevators];
+    for (int i = 0; i < elevators; i++) {
+      reports[i] = fleet.getElevatorStatus(i);
+      plannedStops[i] = reports[i].getFloorRequestSet();
+      loads[i] = reports[i].getCommittedRiders();
+      batches.add(new ArrayList<>());
+    }
+
+    for (Direction direction : new Direction[] {Direction.UP, Direction.DOWN}) {
+      for (int floor = calls.nextFloorAbove(direction, -1); floor != -1;
+           floor = calls.nextFloorAbove(direction, floor)) {
+        List<Request> waiting = calls.callsAt(direction, floor);
+        int best = -1;
+        long bestEta = Long.MAX_VALUE;
+        long bestLaterEta = Long.MAX_VALUE;
+
+        for (int i = 0; i < elevators; i++) {
+          long eta = estimate(reports[i], fleet.getSweepMode(i), plannedStops[i], floor,
+              direction, fleet);
+          int passengers = calls.passengersOf(waiting.get(0));
+          boolean canTake = loads[i] + passengers <= fleet.getElevatorCapacity()
+              && canTakeNow(fleet, i, reports[i], waiting.get(0), passengers);
+          if (canTake && eta < bestEta) {
+            best = i;
+            bestEta = eta;
+          } else if (!canTake && eta < bestLaterEta) {
+            bestLaterEta = eta;
+          }
+        }
+
+        if (best == -1 || bestLaterEta < bestEta) {
+          continue;
+        }
+        List<Request> batch = batches.get(best);
+        for (Request request : waiting) {
+          int passengers = calls.passengersOf(request);
+          if (loads[best] + passengers > fleet.getElevatorCapacity()) {
+            break;
+          }
+          loads[best] += passengers;
+          batch.add(request);
+          plannedStops[best].add(request.getStartFloor());
+          plannedStops[best].add(request.getEndFloor());
+        }
+      }
+    }
+
+    List<Assignment> assignments = new ArrayList<>();
+    for (int i = 0; i < elevators; i++) {
+      if (!batches.get(i).isEmpty()) {
+        assignments.add(new Assignment(i, batches.get(i)));
+      }
+    }
+    return assignments;
+  }
+
+  /**
+   * Can an elevator be given a call this step: it has room for the call's passengers besides
+   * the riders it has already been given, and either it is waiting at the end of the
+   * building the call travels away from, or it can pick the call up on its way.
+   */
+  static boolean canTakeNow(FleetView fleet, int elevator, ElevatorReport report,
+                            Request request, int passengers) {
+    if (report.getCommittedRiders() + passengers > fleet.getElevatorCapacity()) {
+      return false;
+    }
+    if (report.isTakingRequests()) {
+      if (fleet.getSweepMode(elevator) == SweepMode.LOOK) {
+        return true;
+      }
+      return waitingFor(report, request.getStartFloor() < request.getEndFloor()
+          ? Direction.UP : Direction.DOWN, fleet.getNumberOfFloors());
+    }
+    return fleet.canAcceptRequest(elevator, request);
+  }
+
+  /**
+   * Is an elevator that is taking requests waiting at the end of the building it would leave
+   * in the given direction.
+   */
+  private static boolean waitingFor(ElevatorReport report, Direction direction, int floors) {
+    return direction == Direction.UP
+        ? report.getCurrentFloor() == 0
+        : report.getCurrentFloor() == floors - 1;
+  }
+
+  /**
+   * Estimate the number of steps until an elevator opens its doors at a floor to pick up
+   * calls travelling in a direction.
+   *
+   * @return the estimate, or Long.MAX_VALUE if the elevator is out of service.
+   */
+  static long estimate(ElevatorReport report, SweepMode mode, FloorRequestSet stops,
+                       int floor, Direction direction, FleetView fleet) {
+    if (report.isOutOfService()) {
+      return Long.MAX_VALUE;
+    }
+    int top = fleet.getNumberOfFloors() - 1;
+    int doorOpen = fleet.getDoorOpenTime();
+    int stopWait = fleet.getStopWaitTime();
+    int current = report.getCurrentFloor();
+
+    if (report.isTakingRequests()) {
+      if (mode == SweepMode.LOOK && report.getEndWaitTimer() == 0) {
+        // A parked elevator sets off towards the call at once.
+        return travel(stops, current, floor, doorOpen);
+      }
+      if (waitingFor(report, direction, top + 1)) {
+        // A new run starts at once.
+        return travel(stops, current, floor, doorOpen);
+      }
+      // The elevator first runs empty to the other end of the building.
+      int otherEnd = top - current;
+      return report.getEndWaitTimer() + top + stopWait + Math.abs(otherEnd - floor);
+    }
+
+    long delay = report.getEndWaitTimer();
+    if (!report.isDoorClosed()) {
+      delay += report.getDoorOpenTimer();
+    }
+    Direction moving = report.getDirection();
+    if (moving == Direction.STOPPED) {
+      return Long.MAX_VALUE;
+    }
+    boolean ahead = moving == Direction.UP ? floor >= current : floor <= current;
+    if (moving == direction && ahead) {
+      return delay + travel(stops, current, floor, doorOpen);
+    }
+
+    if (mode == SweepMode.LOOK) {
+      return delay + lookDetour(stops, current, moving, floor, direction, doorOpen);
+    }
+
+    // Finish the run at the end of the building, then come back for the call.
+    int end = moving == Direction.UP ? top : 0;
+    long toEnd = delay + travel(stops, current, end, doorOpen) + stopWait;
+    if (moving != direction) {
+      return toEnd + Math.abs(end - floor);
+    }
+    int otherEnd = top - end;
+    return toEnd + top + stopWait + Math.abs(otherEnd - floor);
+  }
+
+  /**
+   * Steps for a moving LOOK elevator to reach a call it is not heading towards. The run ends
+   * at the last stop ahead rather than at the end of the building, and turning around costs
+   * no wait.
+   */
+  private static long lookDetour(FloorRequestSet stops, int current, Direction moving,
+                                 int floor, Direction direction, int doorOpen) {
+    int lowest = stops.nextAbove(-1);
+    int highest = stops.nextBelow(stops.getNumberOfFloors());
+    int last;
+    if (moving == Direction.UP) {
+      last = Math.max(current, highest);
+    } else {
+      last = lowest == -1 ? current : Math.min(current, lowest);
+    }
+    long toLast = travel(stops, current, last, doorOpen);
+    if (moving != direction) {
+      return toLast + travel(stops, last, floor, doorOpen);
+    }
+    // The call is behind the elevator: sweep back past it to the last stop the other way,
+    // then return to it.
+    int turn;
+    if (moving == Direction.UP) {
+      turn = lowest == -1 ? floor : Math.min(floor, lowest);
+    } else {
+      turn = Math.max(floor, highest);
+    }
+    return toLast + travel(stops, last, turn, doorOpen) + Math.abs(turn - floor);
+  }
+
+  /**
+   * Steps to travel between two floors, stopping at every planned stop strictly between them.
+   */
+  private static long travel(FloorRequestSet stops, int from, int to, int doorOpen) {
+    int low = Math.min(from, to);
+    int high = Math.max(from, to);
+    return (high - low) + (long) doorOpen * stops.countBetween(low + 1, high - 1);
+  }
+}
@@ -0,0 +1,121 @@
+package building.dispatch;
+
+import building.enums.Direction;
+import java.util.List;
+import scanerzus.Request;
+
+/**
+ * A read-only view of the hall calls waiting to be assigned to an elevator.
+ * Every direction argument must be UP or DOWN.
+ */
+public interface PendingCalls {
+
+  /**
+   * The number of calls waiting in a direction.
+   *
+   * @param direction UP or DOWN.
+   * @return the number of calls.
+   */
+  int size(Direction direction);
+
+  /**
+   * Are there no calls waiting in either direction.
+   *
+   * @return true if nothing is waiting.
+   */
+  boolean isEmpty();
+
+  /**
+   * The oldest calls in a direction, in the order they arrived.
+   *
+   * @param direction   UP or DOWN.
+   * @param maxRequests the maximum number of calls to return.
+   * @return a new list of up to maxRequests calls.
+   */
+  List<Request> oldest(Direction direction, int maxRequests);
+
+  /**
+   * Does any call wait at a floor in a direction.
+   *
+   * @param direction UP or DOWN.
+   * @param floor     the start floor.
+   * @return true if at least one call waits there.
+   */
+  boolean hasCallsAt(Direction direction, int floor);
+
+  /**
+   * The number of calls waiting at a floor in a direction.
+   *
+   * @param direction UP or DOWN.
+   * @param floor     the start floor.
+   * @return the number of calls waiting there.
+   */
+  int countAt(Direction direction, int floor);
+
+  /**
+   * The calls waiting at a floor in a direction, oldest first.
+   *
+   * @param direction UP or DOWN.
+   * @param floor     the start floor.
+   * @return a new list of the calls waiting there.
+   */
+  List<Request> callsAt(Direction direction, int floor);
+
+  /**
+   * The step the oldest call waiting at a floor in a direction arrived at.
+   *
+   * @param direction UP or DOWN.
+   * @param floor     the start floor.
+   * @return the arrival step of the oldest call there, or -1 if none waits there.
+   */
+  long oldestArrivalAt(Direction direction, int floor);
+
+  /**
+   * The lowest floor strictly above the given floor with a call waiting in a direction.
+   *
+   * @param direction UP or DOWN.
+   * @param floor     the floor to search above; -1 searches from the ground floor.
+   * @return the floor, or -1 if there is none.
+   */
+  int nextFloorAbove(Direction direction, int floor);
+
+  /**
+   * The highest floor strictly below the given floor with a call waiting in a direction.
+   *
+   * @param direction UP or DOWN.
+   * @param floor     the floor to search below; the number of floors searches from the top.
+   * @return the floor, or -1 if there is none.
+   */
+  int nextFloorBelow(Direction direction, int floor);
+
+  /**
+   * The number of passengers of a waiting call. Each passenger takes a place in the
+   * elevator the call is assigned to; a call has more than one only when hall calls are
+   * coalesced, and never more than an elevator's capacity.
+   *
+   * @param call the call.
+   * @return the number of passengers of the call, or 0 if it is not waiting.
+   */
+  int passengersOf(Request call);
+
+  /**
+   * The calls from the start of a list whose passengers fit in an elevator with the given
+   * number of free places, up to the first that does not fit.
+   *
+   * @param waiting the calls, oldest first.
+   * @param places  the free places in the elevator.
+   * @return a view of the calls that fit.
+   */
+  default List<Request> fitting(List<Request> waiting, int places) {
+    int count = 0;
+    while (count < waiting.size()) {
+      int passengers = this.passengersOf(waiting.get(count));
+      if (passengers > places) {
+        break;
+      }
+      places -= passengers;
+      count++;
+    }
+    return waiting.subList(0, count);
+  }
+}
@@ -0,0 +1,425 @@
+package building.dispatch;
+
+import building.enums.Direction;
+import building.enums.TrafficProfile;
+import building.traffic.TrafficGenerator;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import scanerzus.Request;
+
+/**
+ * Chooses between candidate assignments by running each of them ahead on forks of the
+ * building against randomly drawn future traffic, and keeping the one with the lowest
+ * expected wait.
+ * <p></p>
+ * Every step with calls waiting, a policy strategy proposes the step's assignments. The
+ * oldest waiting group of calls, all the calls waiting at one floor in one direction, is
+ * what the candidates differ on: the policy's assignments as they are, the same with the
+ * group given to each other elevator that can take it now instead, and the same with the
+ * group left waiting. A rollout forks the building with a candidate as the first step's
+ * assignments, then steps it for the horizon with the policy assigning calls and random
+ * traffic arriving, and measures the total wait of every call at the end. Each round runs
+ * every candidate against the same traffic, so the candidates are compared on equal terms,
+ * and rounds are run in parallel on a fork/join pool until the most rounds allowed are done
+ * or the step's time budget runs out, whichever is first. The candidate with the lowest
+ * total wait over the rounds is assigned; the policy's own assignments win ties.
+ * <p></p>
+ * The traffic of each step is drawn from a generator seeded by the strategy's seed and the
+ * number of steps it has dispatched, so without a time budget the choices depend only on
+ * the building and the seed. With a time budget the number of rounds, and so the choices,
+ * depend on how fast the machine is. The strategy keeps this count, so each building needs
+ * its own instance.
+ */
+public class RolloutDispatchStrategy implements DispatchStrategy {
+  /************************************************************************
+   * The name this strategy is selected by.
+   ************************************************************************/
+  public static final String NAME = "rollout";
+
+  /************************************************************************
+   * The settings of the instance created by name: rollouts of 20 steps of
+   * inter-floor traffic, one call every 10 steps, at most 8 rounds a step.
+   ************************************************************************/
+  private static final int DEFAULT_HORIZON = 20;
+  private static final double DEFAULT_ARRIVALS_PER_TICK = 0.1;
+  private static final int DEFAULT_ROUNDS = 8;
+
+  private final DispatchStrategy policy;
+  private final TrafficProfile profile;
+  private final double arrivalsPerTick;
+  private final int horizon;
+  private final int maxRounds;
+  private final long budgetNanos;
+  private final long seed;
+  private ForkJoinPool pool;
+  private double[][] weights;
+  private long decisions;
+  private long rollouts;
+
+  /**
+   * Create a strategy with the default settings, the nearest car policy and no time budget.
+   */
+  public RolloutDispatchStrategy() {
+    this(new NearestCarDispatchStrategy(), TrafficProfile.INTER_FLOOR,
+        DEFAULT_ARRIVALS_PER_TICK, DEFAULT_HORIZON, DEFAULT_ROUNDS, Long.MAX_VALUE, 0);
+  }
+
+  /**
+   * Create a strategy.
+   *
+   * @param policy          the strategy that proposes assignments and assigns calls during
+   *                        rollouts.
+   * @param profile         the shape of the traffic rollouts are run against.
+   * @param arrivalsPerTick the mean number of calls per step during rollouts.
+   * @param horizon         the number of steps a rollout runs for, at least 1.
+   * @param maxRounds       the most rounds of rollouts run per step, at least 1.
+   * @param budgetNanos     the time after which no more rounds are started in a step; at
+   *                        least one round is always run. Long.MAX_VALUE for no budget.
+   * @param seed            the seed the rollout traffic is drawn from.
+   * @throws IllegalArgumentException if the policy or profile is null, or any number is out
+   *                                  of range.
+   */
+  public RolloutDispatchStrategy(DispatchStrategy policy, TrafficProfile profile,
+                                 double arrivalsPerTick, int horizon, int maxRounds,
+                                 long budgetNanos, long seed) {
+    if (policy == null) {
+      throw new IllegalArgumentException("policy cannot be null");
+    }
+    if (profile == null) {
+      throw new IllegalArgumentException("profile cannot be null");
+    }
+    if (!(arrivalsPerTick >= 0) || Double.isInfinite(arrivalsPerTick)) {
+      throw new IllegalArgumentException("arrivalsPerTick must be finite and not negative");
+    }
+    if (horizon < 1) {
+      throw new IllegalArgumentException("horizon must be at least 1");
+    }
+    if (maxRounds < 1) {
+      throw new IllegalArgumentException("maxRounds must be at least 1");
+    }
+    if (budgetNanos < 0) {
+      throw new IllegalArgumentException("budgetNanos cannot be negative");
+    }
+    this.policy = policy;
+    this.profile = profile;
+    this.arrivalsPerTick = arrivalsPerTick;
+    this.horizon = horizon;
+    this.maxRounds = maxRounds;
+    this.budgetNanos = budgetNanos;
+    this.seed = seed;
+    this.pool = ForkJoinPool.commonPool();
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  /**
+   * Set the pool rollouts are run on.
+   *
+   * @param pool the pool.
+   * @throws IllegalArgumentException if the pool is null.
+   */
+  public void setPool(ForkJoinPool pool) {
+    if (pool == null) {
+      throw new IllegalArgumentException("pool cannot be null");
+    }
+    this.pool = pool;
+  }
+
+  /**
+   * Get the number of rollouts run.
+   *
+   * @return the number of rollouts since the strategy was created.
+   */
+  public long getRollouts() {
+    return this.rollouts;
+  }
+
+  @Override
+  public DispatchStrategy fork() {
+    RolloutDispatchStrategy fork = new RolloutDispatchStrategy(this.policy.fork(), this.profile,
+        this.arrivalsPerTick, this.horizon, this.maxRounds, this.budgetNanos, this.seed);
+    fork.pool = this.pool;
+    fork.decisions = this.decisions;
+    fork.rollouts = this.rollouts;
+    return fork;
+  }
+
+  @Override
+  public void writeState(DataOutput out) throws IOException {
+    out.writeLong(this.decisions);
+    out.writeLong(this.rollouts);
+    this.policy.writeState(out);
+  }
+
+  @Override
+  public void readState(DataInput in) throws IOException {
+    long decisionCount = in.readLong();
+    long rolloutCount = in.readLong();
+    if (decisionCount < 0 || rolloutCount < 0) {
+      throw new IllegalStateException("Invalid rollout dispatch state.");
+    }
+    this.decisions = decisionCount;
+    this.rollouts = rolloutCount;
+    this.policy.readState(in);
+  }
+
+  @Override
+  public List<Assignment> dispatch(PendingCalls calls, FleetView fleet) {
+    List<Assignment> proposed = this.policy.dispatch(calls, fleet);
+    List<List<Assignment>> candidates = candidates(calls, fleet, proposed);
+    long decision = this.decisions++;
+    if (candidates.size() == 1) {
+      return proposed;
+    }
+
+    long start = System.nanoTime();
+    TrafficGenerator generator = new TrafficGenerator(this.weightsFor(fleet.getNumberOfFloors()),
+        this.arrivalsPerTick, new SplittableRandom(mix(this.seed, decision)));
+    long[] totals = new long[candidates.size()];
+    int batchSize = Math.max(1, this.pool.getParallelism());
+    int rounds = 0;
+    do {
+      int batch = Math.min(batchSize, this.maxRounds - rounds);
+      Lookahead[] forks = new Lookahead[batch * candidates.size()];
+      List<List<List<Request>>> arrivals = new ArrayList<>(batch);
+      for (int round = 0; round < batch; round++) {
+        List<List<Request>> traffic = new ArrayList<>(this.horizon);
+        for (int step = 0; step < this.horizon; step++) {
+          traffic.add(generator.nextTick());
+        }
+        arrivals.add(traffic);
+        for (int c = 0; c < candidates.size(); c++) {
+          forks[round * candidates.size() + c] =
+              fleet.fork(new FirstStep(candidates.get(c), this.policy.fork()));
+        }
+      }
+      this.pool.invoke(new Rollouts(forks, arrivals, candidates.size(), 0, forks.length));
+      for (int i = 0; i < forks.length; i++) {
+        totals[i % candidates.size()] += forks[i].getTotalWait();
+      }
+      rounds += batch;
+      this.rollouts += forks.length;
+    } while (rounds < this.maxRounds && System.nanoTime() - start < this.budgetNanos);
+
+    int best = 0;
+    for (int c = 1; c < totals.length; c++) {
+      if (totals[c] < totals[best]) {
+        best = c;
+      }
+    }
+    return candidates.get(best);
+  }
+
+  /**
+   * The assignments to compare: the proposed ones first, then the oldest group moved to
+   * each other elevator that can take it now, then the oldest group left waiting.
+   */
+  private static List<List<Assignment>> candidates(PendingCalls calls, FleetView fleet,
+                                                   List<Assignment> proposed) {
+    List<List<Assignment>> candidates = new ArrayList<>();
+    candidates.add(proposed);
+    List<Request> group = oldestGroup(calls, fleet.getElevatorCapacity());
+    if (group.isEmpty()) {
+      return candidates;
+    }
+    int holder = -1;
+    for (Assignment assignment : proposed) {
+      if (containsAny(assignment.getRequests(), group)) {
+        holder = assignment.getElevator();
+      }
+    }
+    int[] places = new int[fleet.getNumberOfElevators()];
+    for (int i = 0; i < places.length; i++) {
+      places[i] = fleet.getElevatorCapacity() - fleet.getElevatorStatus(i).getCommittedRiders();
+    }
+    for (int i = 0; i < fleet.getNumberOfElevators(); i++) {
+      if (i != holder && NearestCarDispatchStrategy.canTakeNow(fleet, i,
+          fleet.getElevatorStatus(i), group.get(0), calls.passengersOf(group.get(0)))) {
+        List<Assignment> moved = move(calls, proposed, group, i, places);
+        if (moved != null) {
+          candidates.add(moved);
+        }
+      }
+    }
+    if (holder != -1) {
+      candidates.add(move(calls, proposed, group, -1, places));
+    }
+    return candidates;
+  }
+
+  /**
+   * The calls waiting at the floor and in the direction of the oldest waiting call, at most
+   * one elevator's worth.
+   */
+  private static List<Request> oldestGroup(PendingCalls calls, int capacity) {
+    Direction oldest = null;
+    long oldestArrival = Long.MAX_VALUE;
+    int floor = -1;
+    for (Direction direction : new Direction[] {Direction.UP, Direction.DOWN}) {
+      List<Request> first = calls.oldest(direction, 1);
+      if (first.isEmpty()) {
+        continue;
+      }
+      int start = first.get(0).getStartFloor();
+      long arrival = calls.oldestArrivalAt(direction, start);
+      if (arrival < oldestArrival) {
+        oldest = direction;
+        oldestArrival = arrival;
+        floor = start;
+      }
+    }
+    if (oldest == null) {
+      return new ArrayList<>();
+    }
+    return new ArrayList<>(calls.fitting(calls.callsAt(oldest, floor), capacity));
+  }
+
+  /**
+   * The assignments with the group taken from whichever elevator had it and given to
+   * another, or to none if elevator is -1. No elevator is given more passengers than the
+   * places its committed riders leave.
+   *
+   * @return the new assignments, or null if an elevator cannot take that many passengers.
+   */
+  private static List<Assignment> move(PendingCalls calls, List<Assignment> assignments,
+                                       List<Request> group, int elevator, int[] places) {
+    List<Assignment> moved = new ArrayList<>();
+    boolean given = elevator == -1;
+    for (Assignment assignment : assignments) {
+      List<Request> requests = new ArrayList<>();
+      for (Request request : assignment.getRequests()) {
+        if (!contains(group, request)) {
+          requests.add(request);
+        }
+      }
+      if (assignment.getElevator() == elevator) {
+        requests.addAll(group);
+        given = true;
+      }
+      if (calls.fitting(requests, places[assignment.getElevator()]).size()
+          < requests.size()) {
+        return null;
+      }
+      if (!requests.isEmpty()) {
+        moved.add(new Assignment(assignment.getElevator(), requests));
+      }
+    }
+    if (!given) {
+      if (calls.fitting(group, places[elevator]).size() < group.size()) {
+        return null;
+      }
+      moved.add(new Assignment(elevator, group));
+    }
+    return moved;
+  }
+
+  private static boolean containsAny(List<Request> requests, List<Request> group) {
+    for (Request request : group) {
+      if (contains(requests, request)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Is the very request in the list; waiting calls are told apart by identity.
+   */
+  private static boolean contains(List<Request> requests, Request request) {
+    for (Request r : requests) {
+      if (r == request) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private double[][] weightsFor(int floors) {
+    if (this.weights == null || this.weights.length != floors) {
+      this.weights = this.profile.originDestinationWeights(floors);
+    }
+    return this.weights;
+  }
+
+  private static long mix(long seed, long decision) {
+    return new SplittableRandom(seed ^ (decision * 0x9E3779B97F4A7C15L)).nextLong();
+  }
+
+  /**
+   * Makes the candidate's assignments on a fork's first step and leaves the rest to the
+   * policy.
+   */
+  private static final class FirstStep implements DispatchStrategy {
+    private final List<Assignment> first;
+    private final DispatchStrategy policy;
+    private boolean done;
+
+    FirstStep(List<Assignment> first, DispatchStrategy policy) {
+      this.first = first;
+      this.policy = policy;
+    }
+
+    @Override
+    public String getName() {
+      return NAME;
+    }
+
+    @Override
+    public List<Assignment> dispatch(PendingCalls calls, FleetView fleet) {
+      if (this.done) {
+        return this.policy.dispatch(calls, fleet);
+      }
+      this.done = true;
+      return this.first;
+    }
+  }
+
+  /**
+   * Runs a range of rollouts, splitting it in half until one is left so that idle workers
+   * can steal the other halves. Tasks are never serialized.
+   */
+  @SuppressWarnings("serial")
+  private final class Rollouts extends RecursiveAction {
+    private final Lookahead[] forks;
+    private final List<List<List<Request>>> arrivals;
+    private final int candidates;
+    private final int from;
+    private final int to;
+
+    Rollouts(Lookahead[] forks, List<List<List<Request>>> arrivals, int candidates, int from,
+             int to) {
+      this.forks = forks;
+      this.arrivals = arrivals;
+      this.candidates = candidates;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.to - this.from == 1) {
+        Lookahead fork = this.forks[this.from];
+        List<List<Request>> traffic = this.arrivals.get(this.from / this.candidates);
+        for (int step = 0; step < horizon; step++) {
+          fork.stepElevatorSystem();
+          for (Request request : traffic.get(step)) {
+            fork.addRequest(request);
+          }
+        }
+        return;
+      }
+      int middle = (this.from + this.to) >>> 1;
+      invokeAll(new Rollouts(this.forks, this.arrivals, this.candidates, this.from, middle),
+          new Rollouts(this.forks, this.arrivals, this.candidates, middle, this.to));
+    }
+  }
+}
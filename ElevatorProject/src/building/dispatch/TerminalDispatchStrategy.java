@@ -0,0 +1,85 @@
+package building.dispatch;
+
+import building.enums.Direction;
+import building.enums.SweepMode;
+import java.util.ArrayList;
+import java.util.List;
+import scanerzus.Request;
+
+/**
+ * The original dispatching behaviour. An elevator waiting on the ground floor is given the
+ * oldest up calls, and one waiting on the top floor the oldest down calls, up to the places
+ * its committed riders leave. Elevators elsewhere are given nothing, except for LOOK
+ * elevators parked between the top and bottom, which are given the oldest up calls, or the
+ * oldest down calls if no up calls are left. A LOOK elevator waiting at the top or bottom
+ * with nothing waiting in its usual direction is given the other direction's calls the same
+ * way.
+ */
+public class TerminalDispatchStrategy implements DispatchStrategy {
+  /************************************************************************
+   * The name this strategy is selected by.
+   ************************************************************************/
+  public static final String NAME = "terminal";
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public List<Assignment> dispatch(PendingCalls calls, FleetView fleet) {
+    List<Assignment> assignments = new ArrayList<>();
+    int capacity = fleet.getElevatorCapacity();
+    int upAssigned = 0;
+    int downAssigned = 0;
+
+    for (int i = 0; i < fleet.getNumberOfElevators(); i++) {
+      if (!fleet.isTakingRequests(i)) {
+        continue;
+      }
+      boolean look = fleet.getSweepMode(i) == SweepMode.LOOK;
+      Direction direction;
+      if (fleet.getCurrentFloor(i) == 0) {
+        direction = Direction.UP;
+      } else if (fleet.getCurrentFloor(i) == fleet.getNumberOfFloors() - 1) {
+        direction = Direction.DOWN;
+      } else if (look) {
+        direction = Direction.UP;
+      } else {
+        continue;
+      }
+
+      // Riders still to be dropped off from an earlier run keep their places.
+      int places = capacity - fleet.getElevatorStatus(i).getCommittedRiders();
+      List<Request> batch = direction == Direction.UP
+          ? nextBatch(calls, Direction.UP, upAssigned, places)
+          : nextBatch(calls, Direction.DOWN, downAssigned, places);
+      if (batch.isEmpty() && look) {
+        direction = direction == Direction.UP ? Direction.DOWN : Direction.UP;
+        batch = direction == Direction.UP
+            ? nextBatch(calls, Direction.UP, upAssigned, places)
+            : nextBatch(calls, Direction.DOWN, downAssigned, places);
+      }
+      if (direction == Direction.UP) {
+        upAssigned += batch.size();
+      } else {
+        downAssigned += batch.size();
+      }
+      assignments.add(new Assignment(i, batch));
+    }
+    return assignments;
+  }
+
+  /**
+   * The oldest calls in a direction after skipping those already assigned this step.
+   */
+  private static List<Request> nextBatch(PendingCalls calls, Direction direction,
+                                         int alreadyAssigned, int places) {
+    // Every call has at least one passenger, so no more than places calls can fit.
+    List<Request> oldest = calls.oldest(direction, alreadyAssigned + Math.max(0, places));
+    if (oldest.size() <= alreadyAssigned) {
+      return new ArrayList<>();
+    }
+    return calls.fitting(oldest.subList(alreadyAssigned, oldest.size()), places);
+  }
+}
@@ -0,0 +1,30 @@
+package building.enums;
+
+/**
+ * What a building does with a hall call that would take the backlog of waiting calls past
+ * its limits.
+ * REJECT turns the new call away.
+ * SHED_OLDEST drops the oldest waiting call at the same floor, or in the building if only
+ * the building's limit is reached, to make room for the new one.
+ * COALESCE adds the new call's passenger to a waiting call from the same floor to the same
+ * destination, and turns it away if there is none.
+ * BLOCK makes threads submitting calls wait, up to a timeout, for the backlog to fall below
+ * the building's limit; calls added on the stepping thread are turned away.
+ */
+public enum AdmissionPolicy {
+  REJECT("Reject"),
+  SHED_OLDEST("Shed Oldest"),
+  COALESCE("Coalesce"),
+  BLOCK("Block");
+
+  private final String display;
+
+  AdmissionPolicy(String display) {
+    this.display = display;
+  }
+
+  @Override
+  public String toString() {
+    return this.display;
+  }
+}
@@ -0,0 +1,56 @@
+package building.enums;
+
+/**
+ * What became of a request offered to a building.
+ * ACCEPTED: the request is waiting as a hall call, possibly after older calls were shed.
+ * COALESCED: the request was folded into a call already waiting.
+ * SUBMITTED: the request was handed over from another thread and will be admitted at the
+ * start of the next step.
+ * REJECTED: the backlog was full and the request was turned away.
+ * TIMED_OUT: the backlog stayed full for the whole time a blocked submission waited.
+ * NOT_ACCEPTING: the system is out of service or stopping.
+ * NULL_REQUEST, INVALID_START_FLOOR, INVALID_END_FLOOR, SAME_FLOOR: the request is not valid
+ * for the building.
+ */
+public enum RequestStatus {
+  ACCEPTED("Accepted"),
+  COALESCED("Coalesced"),
+  SUBMITTED("Submitted"),
+  REJECTED("Rejected"),
+  TIMED_OUT("Timed Out"),
+  NOT_ACCEPTING("Not Accepting"),
+  NULL_REQUEST("Null Request"),
+  INVALID_START_FLOOR("Invalid Start Floor"),
+  INVALID_END_FLOOR("Invalid End Floor"),
+  SAME_FLOOR("Same Floor");
+
+  private final String display;
+
+  RequestStatus(String display) {
+    this.display = display;
+  }
+
+  /**
+   * Did the building take the request.
+   *
+   * @return true if the request was accepted, coalesced or submitted.
+   */
+  public boolean isAdmitted() {
+    return this == ACCEPTED || this == COALESCED || this == SUBMITTED;
+  }
+
+  /**
+   * Was the request itself at fault.
+   *
+   * @return true if the request is not valid for the building.
+   */
+  public boolean isInvalid() {
+    return this == NULL_REQUEST || this == INVALID_START_FLOOR || this == INVALID_END_FLOOR
+        || this == SAME_FLOOR;
+  }
+
+  @Override
+  public String toString() {
+    return this.display;
+  }
+}
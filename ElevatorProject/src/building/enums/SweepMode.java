@@ -0,0 +1,22 @@
+package building.enums;
+
+/**
+ * How an elevator decides where a run ends.
+ * TERMINAL runs always go to the top or bottom floor and wait there.
+ * LOOK runs reverse as soon as there are no stops ahead, and park when there are none at all.
+ */
+public enum SweepMode {
+  TERMINAL("Terminal"),
+  LOOK("Look");
+
+  private final String display;
+
+  SweepMode(String display) {
+    this.display = display;
+  }
+
+  @Override
+  public String toString() {
+    return this.display;
+  }
+}
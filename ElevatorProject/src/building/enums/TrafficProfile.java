@@ -0,0 +1,67 @@
+package building.enums;
+
+/**
+ * The shape of the traffic in an office building, as the share of trips that leave the
+ * lobby (floor 0), that return to it, and that go between two other floors.
+ * UP_PEAK is the morning arrival, DOWN_PEAK the evening departure, LUNCH a mix of both,
+ * and INTER_FLOOR spreads trips evenly over every pair of floors.
+ */
+public enum TrafficProfile {
+  UP_PEAK("Up Peak", 0.85, 0.05, 0.10),
+  DOWN_PEAK("Down Peak", 0.05, 0.85, 0.10),
+  LUNCH("Lunch", 0.45, 0.45, 0.10),
+  INTER_FLOOR("Inter-floor", -1, -1, -1);
+
+  private final String display;
+  private final double fromLobby;
+  private final double toLobby;
+  private final double interFloor;
+
+  TrafficProfile(String display, double fromLobby, double toLobby, double interFloor) {
+    this.display = display;
+    this.fromLobby = fromLobby;
+    this.toLobby = toLobby;
+    this.interFloor = interFloor;
+  }
+
+  /**
+   * The relative number of trips between each pair of floors in a building.
+   *
+   * @param floors the number of floors, at least 2.
+   * @return a new matrix, indexed by start floor then end floor, with a zero diagonal.
+   * @throws IllegalArgumentException if there are fewer than 2 floors.
+   */
+  public double[][] originDestinationWeights(int floors) {
+    if (floors < 2) {
+      throw new IllegalArgumentException("There must be at least 2 floors.");
+    }
+    double[][] weights = new double[floors][floors];
+    if (this == INTER_FLOOR) {
+      for (int start = 0; start < floors; start++) {
+        for (int end = 0; end < floors; end++) {
+          weights[start][end] = start == end ? 0 : 1;
+        }
+      }
+      return weights;
+    }
+    int upper = floors - 1;
+    for (int floor = 1; floor < floors; floor++) {
+      weights[0][floor] = this.fromLobby / upper;
+      weights[floor][0] = this.toLobby / upper;
+    }
+    if (upper > 1) {
+      double pair = this.interFloor / ((double) upper * (upper - 1));
+      for (int start = 1; start < floors; start++) {
+        for (int end = 1; end < floors; end++) {
+          weights[start][end] = start == end ? 0 : pair;
+        }
+      }
+    }
+    return weights;
+  }
+
+  @Override
+  public String toString() {
+    return this.display;
+  }
+}
@@ -0,0 +1,122 @@
+package building.farm;
+
+import building.WaitTimeStatistics;
+
+/**
+ * The wait time statistics of every replication run by a SimulationFarm, and their
+ * aggregates.
+ */
+public class FarmResult {
+  private final long[] seeds;
+  private final WaitTimeStatistics[] replications;
+
+  /**
+   * Create the result of a farm run.
+   *
+   * @param seeds        the seed of each replication's generator.
+   * @param replications the statistics of each replication, in replication order.
+   * @throws IllegalArgumentException if the arrays are null or of different lengths.
+   */
+  public FarmResult(long[] seeds, WaitTimeStatistics[] replications) {
+    if (seeds == null || replications == null) {
+      throw new IllegalArgumentException("seeds and replications cannot be null");
+    }
+    if (seeds.length != replications.length) {
+      throw new IllegalArgumentException("There must be one seed for each replication.");
+    }
+    this.seeds = seeds.clone();
+    this.replications = new WaitTimeStatistics[replications.length];
+    for (int i = 0; i < replications.length; i++) {
+      this.replications[i] = replications[i].copy();
+    }
+  }
+
+  /**
+   * Get the number of replications.
+   *
+   * @return the number of replications run.
+   */
+  public int getReplicationCount() {
+    return this.replications.length;
+  }
+
+  /**
+   * Get the seed a replication's generator was created with, to run it again on its own.
+   *
+   * @param replication the number of the replication.
+   * @return the seed.
+   */
+  public long getSeed(int replication) {
+    return this.seeds[replication];
+  }
+
+  /**
+   * Get the statistics of one replication.
+   *
+   * @param replication the number of the replication.
+   * @return a copy of its statistics.
+   */
+  public WaitTimeStatistics getStatistics(int replication) {
+    return this.replications[replication].copy();
+  }
+
+  /**
+   * Get the statistics of every call of every replication taken together.
+   *
+   * @return new statistics holding every replication's calls.
+   */
+  public WaitTimeStatistics getPooledStatistics() {
+    WaitTimeStatistics pooled = new WaitTimeStatistics();
+    for (WaitTimeStatistics statistics : this.replications) {
+      pooled.add(statistics);
+    }
+    return pooled;
+  }
+
+  /**
+   * Get the mean over the replications of each replication's average wait.
+   *
+   * @return the mean average wait, or 0 if there are no replications.
+   */
+  public double getMeanAverageWait() {
+    if (this.replications.length == 0) {
+      return 0;
+    }
+    double sum = 0;
+    for (WaitTimeStatistics statistics : this.replications) {
+      sum += statistics.getAverageWait();
+    }
+    return sum / this.replications.length;
+  }
+
+  /**
+   * Get the sample standard deviation over the replications of each replication's
+   * average wait.
+   *
+   * @return the standard deviation, or 0 if there are fewer than two replications.
+   */
+  public double getAverageWaitStandardDeviation() {
+    if (this.replications.length < 2) {
+      return 0;
+    }
+    double mean = this.getMeanAverageWait();
+    double sum = 0;
+    for (WaitTimeStatistics statistics : this.replications) {
+      double difference = statistics.getAverageWait() - mean;
+      sum += difference * difference;
+    }
+    return Math.sqrt(sum / (this.replications.length - 1));
+  }
+
+  /**
+   * toString implementation.
+   *
+   * @return string representation of the aggregates.
+   */
+  @Override
+  public String toString() {
+    return String.format("%d replications, mean average wait %.2f (sd %.2f), pooled: %s",
+        this.replications.length, this.getMeanAverageWait(),
+        this.getAverageWaitStandardDeviation(), this.getPooledStatistics());
+  }
+}
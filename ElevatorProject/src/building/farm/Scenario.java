@@ -0,0 +1,32 @@
+package building.farm;
+
+import building.Building;
+import java.util.SplittableRandom;
+
+/**
+ * One replication of a simulation run by a SimulationFarm: how to build the building and
+ * how to drive it.
+ * <p></p>
+ * Replications run at the same time on different threads, so a scenario must not share
+ * mutable state between them. Each building needs its own dispatch strategy instance, and
+ * all randomness should come from the generator the farm hands to run.
+ */
+public interface Scenario {
+
+  /**
+   * Create the building for a replication. The configuration may differ between
+   * replications, for example to sweep the number of elevators.
+   *
+   * @param replication the number of the replication, from 0.
+   * @return a new building, not yet started.
+   */
+  Building createBuilding(int replication);
+
+  /**
+   * Run a replication: start the building, add its traffic and step it.
+   *
+   * @param building the building created for the replication.
+   * @param random   the replication's own generator, seeded by the farm.
+   */
+  void run(Building building, SplittableRandom random);
+}
@@ -0,0 +1,105 @@
+package building.farm;
+
+import building.Building;
+import building.WaitTimeStatistics;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs many independent replications of a scenario at once on a work-stealing pool, for
+ * capacity planning over many seeds and configurations.
+ * <p></p>
+ * Every replication gets its own building, whose elevators are numbered from 0, and its own
+ * generator. The generators' seeds are drawn from the farm seed in replication order before
+ * any replication runs, so the results depend only on the scenario and the seed, not on the
+ * size of the pool or the order the replications happen to run in. Replications share no
+ * state, so throughput grows with the number of cores until memory bandwidth runs out.
+ */
+public class SimulationFarm {
+  private final ForkJoinPool pool;
+
+  /**
+   * Create a farm that runs on the common fork/join pool.
+   */
+  public SimulationFarm() {
+    this(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Create a farm that runs on the given pool.
+   *
+   * @param pool the pool to run replications on.
+   * @throws IllegalArgumentException if the pool is null.
+   */
+  public SimulationFarm(ForkJoinPool pool) {
+    if (pool == null) {
+      throw new IllegalArgumentException("pool cannot be null");
+    }
+    this.pool = pool;
+  }
+
+  /**
+   * Run replications of a scenario and collect each building's wait time statistics.
+   * A scenario that throws stops the run, and the exception is thrown from here.
+   *
+   * @param scenario     the scenario to run.
+   * @param replications the number of replications.
+   * @param seed         the seed the replications' seeds are drawn from.
+   * @return the statistics of every replication.
+   * @throws IllegalArgumentException if the scenario is null or replications is negative.
+   */
+  public FarmResult run(Scenario scenario, int replications, long seed) {
+    if (scenario == null) {
+      throw new IllegalArgumentException("scenario cannot be null");
+    }
+    if (replications < 0) {
+      throw new IllegalArgumentException("replications cannot be negative");
+    }
+    long[] seeds = new long[replications];
+    SplittableRandom seeder = new SplittableRandom(seed);
+    for (int i = 0; i < replications; i++) {
+      seeds[i] = seeder.nextLong();
+    }
+    WaitTimeStatistics[] results = new WaitTimeStatistics[replications];
+    if (replications > 0) {
+      this.pool.invoke(new Replications(scenario, seeds, results, 0, replications));
+    }
+    return new FarmResult(seeds, results);
+  }
+
+  /**
+   * Runs a range of replications, splitting it in half until one is left so that idle
+   * workers can steal the other halves. Tasks are never serialized.
+   */
+  @SuppressWarnings("serial")
+  private static final class Replications extends RecursiveAction {
+    private final Scenario scenario;
+    private final long[] seeds;
+    private final WaitTimeStatistics[] results;
+    private final int from;
+    private final int to;
+
+    Replications(Scenario scenario, long[] seeds, WaitTimeStatistics[] results,
+                 int from, int to) {
+      this.scenario = scenario;
+      this.seeds = seeds;
+      this.results = results;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.to - this.from == 1) {
+        Building building = this.scenario.createBuilding(this.from);
+        this.scenario.run(building, new SplittableRandom(this.seeds[this.from]));
+        this.results[this.from] = building.getWaitTimeStatistics();
+        return;
+      }
+      int middle = (this.from + this.to) >>> 1;
+      invokeAll(new Replications(this.scenario, this.seeds, this.results, this.from, middle),
+          new Replications(this.scenario, this.seeds, this.results, middle, this.to));
+    }
+  }
+}
@@ -0,0 +1,345 @@
+package building.realtime;
+
+import building.Building;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Steps a building on a thread of its own at a fixed wall-clock rate, for running the
+ * simulation live.
+ * <p></p>
+ * A tick of building time lasts tickNanos of wall-clock time divided by the speed up, so a
+ * speed up of 100 runs a hundred times faster than real time. Tick n after the scheduler
+ * starts is due at the start time plus n periods, so oversleeping one tick makes the next
+ * wait less, and the small delays never add up into drift. A tick stepped a whole period or
+ * more after it was due has missed its deadline: listeners are told, and the count and the
+ * worst lateness are kept. When the scheduler falls further behind than the catch up limit,
+ * for example because the machine was suspended, it steps that many ticks back to back,
+ * skips the rest, and carries on from the current time.
+ * <p></p>
+ * The scheduler's thread owns the building from start to stop. Other threads must not touch
+ * it in that time, but hand it commands with execute, which the scheduler's thread runs
+ * between steps.
+ */
+public class RealTimeScheduler implements AutoCloseable {
+  /************************************************************************
+   * The most overdue ticks stepped back to back before the rest are skipped.
+   ************************************************************************/
+  public static final int DEFAULT_MAX_CATCH_UP = 10;
+
+  private final Building building;
+  private final long tickNanos;
+  private final int maxCatchUp;
+  private final Queue<Runnable> commands;
+  private final List<TickListener> listeners;
+  private volatile double speedUp;
+  private volatile boolean running;
+  private volatile Thread thread;
+  private volatile long ticks;
+  private volatile long missedDeadlines;
+  private volatile long skippedTicks;
+  private volatile long maxLatenessNanos;
+  private volatile RuntimeException failure;
+  private double scheduledSpeedUp;
+  private long periodNanos;
+  private long origin;
+  private long scheduled;
+
+  /**
+   * Create a scheduler that catches up at most DEFAULT_MAX_CATCH_UP ticks.
+   *
+   * @param building  the building to step.
+   * @param tickNanos the wall-clock length of a tick at normal speed, in nanoseconds.
+   * @param speedUp   how many times faster than normal speed to run.
+   * @throws IllegalArgumentException if the building is null, or the tick length or speed
+   *                                  up is not positive.
+   */
+  public RealTimeScheduler(Building building, long tickNanos, double speedUp) {
+    this(building, tickNanos, speedUp, DEFAULT_MAX_CATCH_UP);
+  }
+
+  /**
+   * Create a scheduler.
+   *
+   * @param building   the building to step.
+   * @param tickNanos  the wall-clock length of a tick at normal speed, in nanoseconds.
+   * @param speedUp    how many times faster than normal speed to run.
+   * @param maxCatchUp the most overdue ticks stepped back to back before the rest are
+   *                   skipped, at least 1.
+   * @throws IllegalArgumentException if the building is null, or any number is out of
+   *                                  range.
+   */
+  public RealTimeScheduler(Building building, long tickNanos, double speedUp, int maxCatchUp) {
+    if (building == null) {
+      throw new IllegalArgumentException("building cannot be null");
+    }
+    if (tickNanos < 1) {
+      throw new IllegalArgumentException("tickNanos must be positive");
+    }
+    if (maxCatchUp < 1) {
+      throw new IllegalArgumentException("maxCatchUp must be at least 1");
+    }
+    checkSpeedUp(speedUp);
+    this.building = building;
+    this.tickNanos = tickNanos;
+    this.maxCatchUp = maxCatchUp;
+    this.speedUp = speedUp;
+    this.commands = new ConcurrentLinkedQueue<>();
+    this.listeners = new CopyOnWriteArrayList<>();
+  }
+
+  /**
+   * Add a listener. Listeners added while the scheduler runs are told about the next step.
+   *
+   * @param listener the listener.
+   * @throws IllegalArgumentException if the listener is null.
+   */
+  public void addListener(TickListener listener) {
+    if (listener == null) {
+      throw new IllegalArgumentException("listener cannot be null");
+    }
+    this.listeners.add(listener);
+  }
+
+  /**
+   * Start stepping the building on a new thread, the first step one period from now.
+   *
+   * @throws IllegalStateException if the scheduler has already been started.
+   */
+  public synchronized void start() {
+    if (this.thread != null) {
+      throw new IllegalStateException("The scheduler has already been started.");
+    }
+    this.running = true;
+    Thread stepper = new Thread(this::run, "elevator-real-time");
+    stepper.setDaemon(true);
+    this.thread = stepper;
+    stepper.start();
+  }
+
+  /**
+   * Stop stepping and wait for the scheduler's thread to finish. Commands still waiting are
+   * run first. Does nothing if the scheduler is not running.
+   */
+  public void stop() {
+    synchronized (this) {
+      // Under the lock, so every command execute accepted is queued before the thread sees
+      // the scheduler stopped and runs the last of them.
+      this.running = false;
+    }
+    Thread stepper = this.thread;
+    if (stepper == null || stepper == Thread.currentThread()) {
+      return;
+    }
+    LockSupport.unpark(stepper);
+    try {
+      stepper.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public void close() {
+    this.stop();
+  }
+
+  /**
+   * Run a command on the scheduler's thread, before the next step or sooner. Every command
+   * accepted runs, even if the scheduler is stopped straight after, unless an earlier command
+   * throws: that stops the scheduler and the commands still waiting are dropped.
+   *
+   * @param command the command, for example adding a request to the building.
+   * @throws IllegalArgumentException if the command is null.
+   * @throws IllegalStateException    if the scheduler is not running.
+   */
+  public void execute(Runnable command) {
+    if (command == null) {
+      throw new IllegalArgumentException("command cannot be null");
+    }
+    synchronized (this) {
+      if (!this.running) {
+        throw new IllegalStateException("The scheduler is not running.");
+      }
+      this.commands.add(command);
+    }
+    LockSupport.unpark(this.thread);
+  }
+
+  /**
+   * Change how many times faster than normal speed to run. The next step is due one new
+   * period after the change takes effect.
+   *
+   * @param speedUp the new speed up.
+   * @throws IllegalArgumentException if the speed up is not positive.
+   */
+  public void setSpeedUp(double speedUp) {
+    checkSpeedUp(speedUp);
+    this.speedUp = speedUp;
+    Thread stepper = this.thread;
+    if (stepper != null) {
+      LockSupport.unpark(stepper);
+    }
+  }
+
+  /**
+   * Get how many times faster than normal speed the scheduler runs.
+   *
+   * @return the speed up.
+   */
+  public double getSpeedUp() {
+    return this.speedUp;
+  }
+
+  /**
+   * Is the scheduler stepping the building.
+   *
+   * @return true from start until stop or a failure.
+   */
+  public boolean isRunning() {
+    return this.running;
+  }
+
+  /**
+   * Get the number of steps taken.
+   *
+   * @return the number of steps since the scheduler started.
+   */
+  public long getTicks() {
+    return this.ticks;
+  }
+
+  /**
+   * Get the number of steps taken a whole period or more after they were due.
+   *
+   * @return the number of missed deadlines.
+   */
+  public long getMissedDeadlines() {
+    return this.missedDeadlines;
+  }
+
+  /**
+   * Get the number of ticks skipped because the scheduler fell too far behind.
+   *
+   * @return the number of skipped ticks.
+   */
+  public long getSkippedTicks() {
+    return this.skippedTicks;
+  }
+
+  /**
+   * Get the longest any step was taken after it was due.
+   *
+   * @return the worst lateness, in nanoseconds.
+   */
+  public long getMaxLatenessNanos() {
+    return this.maxLatenessNanos;
+  }
+
+  /**
+   * Get the exception that stopped the scheduler.
+   *
+   * @return the exception, or null if there was none.
+   */
+  public RuntimeException getFailure() {
+    return this.failure;
+  }
+
+  /**
+   * Start the schedule: the first tick is due one period after now.
+   */
+  void begin(long now) {
+    this.scheduledSpeedUp = this.speedUp;
+    this.periodNanos = periodOf(this.tickNanos, this.scheduledSpeedUp);
+    this.origin = now;
+    this.scheduled = 0;
+  }
+
+  /**
+   * Run the waiting commands and step every tick that is due.
+   *
+   * @param now the current time.
+   * @return the time the next tick is due.
+   */
+  long runDue(long now) {
+    this.runCommands();
+    if (this.speedUp != this.scheduledSpeedUp) {
+      this.scheduledSpeedUp = this.speedUp;
+      this.periodNanos = periodOf(this.tickNanos, this.scheduledSpeedUp);
+      this.origin = now - this.scheduled * this.periodNanos;
+    }
+
+    long due = (now - this.origin) / this.periodNanos - this.scheduled;
+    if (due > this.maxCatchUp) {
+      this.skippedTicks += due - this.maxCatchUp;
+      this.scheduled += due - this.maxCatchUp;
+    }
+    while (this.origin + (this.scheduled + 1) * this.periodNanos <= now) {
+      long lateness = now - (this.origin + (this.scheduled + 1) * this.periodNanos);
+      this.scheduled++;
+      this.building.stepElevatorSystem();
+      this.ticks++;
+      long tick = this.building.getCurrentTick();
+      for (TickListener listener : this.listeners) {
+        listener.ticked(tick);
+      }
+      if (lateness > this.maxLatenessNanos) {
+        this.maxLatenessNanos = lateness;
+      }
+      if (lateness >= this.periodNanos) {
+        this.missedDeadlines++;
+        for (TickListener listener : this.listeners) {
+          listener.deadlineMissed(tick, lateness);
+        }
+      }
+    }
+    if (due > this.maxCatchUp) {
+      // Carry on from now rather than from where the skipped ticks were due.
+      this.origin = now - this.scheduled * this.periodNanos;
+    }
+    return this.origin + (this.scheduled + 1) * this.periodNanos;
+  }
+
+  private void run() {
+    this.begin(System.nanoTime());
+    try {
+      while (this.running) {
+        long wait = this.runDue(System.nanoTime()) - System.nanoTime();
+        if (wait > 0 && this.running && this.commands.isEmpty()
+            && this.speedUp == this.scheduledSpeedUp) {
+          LockSupport.parkNanos(this, wait);
+        }
+      }
+      this.runCommands();
+    } catch (RuntimeException e) {
+      this.failure = e;
+      synchronized (this) {
+        this.running = false;
+      }
+      this.commands.clear();
+      for (TickListener listener : this.listeners) {
+        listener.failed(e);
+      }
+    }
+  }
+
+  private void runCommands() {
+    for (Runnable command = this.commands.poll(); command != null;
+         command = this.commands.poll()) {
+      command.run();
+    }
+  }
+
+  private static long periodOf(long tickNanos, double speedUp) {
+    return Math.max(1, Math.round(tickNanos / speedUp));
+  }
+
+  private static void checkSpeedUp(double speedUp) {
+    if (!(speedUp > 0) || Double.isInfinite(speedUp)) {
+      throw new IllegalArgumentException("speedUp must be positive and finite");
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package building.realtime;
+
+/**
+ * Is told about the steps a RealTimeScheduler takes. Every method is called on the
+ * scheduler's thread, which owns the building, so a listener may read the building but
+ * must not block: anything slow, like updating a user interface, should be handed to
+ * another thread.
+ */
+public interface TickListener {
+
+  /**
+   * The building has been stepped.
+   *
+   * @param tick the building's current tick after the step.
+   */
+  void ticked(long tick);
+
+  /**
+   * A step was taken a whole period or more after it was due.
+   *
+   * @param tick         the building's current tick after the late step.
+   * @param latenessNanos how long after its deadline the step was taken.
+   */
+  default void deadlineMissed(long tick, long latenessNanos) {
+  }
+
+  /**
+   * A step, a command or a listener threw, and the scheduler has stopped.
+   *
+   * @param failure the exception.
+   */
+  default void failed(RuntimeException failure) {
+  }
+}
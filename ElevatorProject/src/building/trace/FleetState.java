@@ -0,0 +1,417 @@
+package building.trace;
+
+import building.BuildingReport;
+import building.enums.Direction;
+import building.enums.ElevatorSystemStatus;
+import elevator.ElevatorReport;
+import elevator.FloorRequestSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import scanerzus.Request;
+
+/**
+ * The state of every elevator and the waiting hall calls of a recorded run at one tick, and
+ * how it is written to and read from a recording.
+ * <p></p>
+ * A keyframe writes the hall calls and every elevator in full. A delta frame writes the
+ * number of elevators that changed, and for each of them the gap from the previous changed
+ * elevator, a mask of the fields that changed and the new values of those fields. The floor
+ * is written as the difference from the last floor and the stops as the floors added or
+ * removed, so an elevator moving one floor costs three bytes and an idle tick costs one.
+ * The hall calls change far less often than the elevators, so a delta frame writes them in
+ * full, and only when they changed.
+ */
+final class FleetState {
+  private static final int FLOOR = 1;
+  private static final int DIRECTION = 2;
+  private static final int FLAGS = 4;
+  private static final int DOOR_TIMER = 8;
+  private static final int WAIT_TIMER = 16;
+  private static final int STOPS = 32;
+  private static final int RIDERS = 64;
+
+  private static final int DOOR_CLOSED = 1;
+  private static final int OUT_OF_SERVICE = 2;
+  private static final int TAKING_REQUESTS = 4;
+
+  private static final Direction[] DIRECTIONS = Direction.values();
+  private static final ElevatorSystemStatus[] STATUSES = ElevatorSystemStatus.values();
+
+  private final int floors;
+  private final int[] ids;
+  private final int[] floor;
+  private final int[] direction;
+  private final int[] flags;
+  private final int[] doorTimer;
+  private final int[] waitTimer;
+  private final FloorRequestSet[] stops;
+  private final int[] riders;
+  private final int[] toggled;
+  private int status;
+  private int[] calls;
+  private int upCalls;
+  private int downCalls;
+
+  FleetState(int floors, int elevators) {
+    this.floors = floors;
+    this.ids = new int[elevators];
+    this.floor = new int[elevators];
+    this.direction = new int[elevators];
+    this.flags = new int[elevators];
+    this.doorTimer = new int[elevators];
+    this.waitTimer = new int[elevators];
+    this.stops = new FloorRequestSet[elevators];
+    this.riders = new int[elevators];
+    for (int i = 0; i < elevators; i++) {
+      this.stops[i] = new FloorRequestSet(floors);
+    }
+    this.toggled = new int[floors];
+    this.calls = new int[16];
+  }
+
+  int getNumberOfElevators() {
+    return this.ids.length;
+  }
+
+  ElevatorSystemStatus getStatus() {
+    return STATUSES[this.status];
+  }
+
+  /**
+   * Build a report of an elevator from the state.
+   */
+  ElevatorReport report(int car) {
+    return new ElevatorReport(this.ids[car], this.floor[car], DIRECTIONS[this.direction[car]],
+        (this.flags[car] & DOOR_CLOSED) != 0, this.stops[car].copy(), this.doorTimer[car],
+        this.waitTimer[car], (this.flags[car] & OUT_OF_SERVICE) != 0,
+        (this.flags[car] & TAKING_REQUESTS) != 0, this.riders[car]);
+  }
+
+  /**
+   * Build a report of the building, with its waiting hall calls, from the state.
+   */
+  BuildingReport buildingReport(int elevatorCapacity) {
+    ElevatorReport[] reports = new ElevatorReport[this.ids.length];
+    for (int i = 0; i < reports.length; i++) {
+      reports[i] = this.report(i);
+    }
+    return new BuildingReport(this.floors, reports.length, elevatorCapacity, reports,
+        this.callList(0, this.upCalls), this.callList(this.upCalls, this.downCalls),
+        this.getStatus());
+  }
+
+  /**
+   * Take the state from reports and the waiting calls and write it in full.
+   */
+  void writeKeyframe(ElevatorReport[] reports, ElevatorSystemStatus status, List<Request> up,
+                     List<Request> down, VarintBuffer out) {
+    this.status = status.ordinal();
+    out.putByte(this.status);
+    this.takeCalls(up, down);
+    this.writeCalls(out);
+    for (int car = 0; car < reports.length; car++) {
+      ElevatorReport report = reports[car];
+      this.ids[car] = report.getElevatorId();
+      this.floor[car] = report.getCurrentFloor();
+      this.direction[car] = report.getDirection().ordinal();
+      this.flags[car] = flagsOf(report);
+      this.doorTimer[car] = report.getDoorOpenTimer();
+      this.waitTimer[car] = report.getEndWaitTimer();
+      this.stops[car].clear();
+      this.stops[car].addAll(report.getFloorRequestSet());
+      this.riders[car] = report.getCommittedRiders();
+
+      out.putVarint(this.ids[car]);
+      out.putVarint(this.floor[car]);
+      out.putByte(this.direction[car] << 4 | this.flags[car]);
+      out.putVarint(this.doorTimer[car]);
+      out.putVarint(this.waitTimer[car]);
+      FloorRequestSet set = this.stops[car];
+      out.putVarint(set.count());
+      int last = -1;
+      for (int stop = set.nextAbove(-1); stop != -1; stop = set.nextAbove(stop)) {
+        out.putVarint(stop - last - 1);
+        last = stop;
+      }
+      out.putVarint(this.riders[car]);
+    }
+  }
+
+  /**
+   * Read a state written by writeKeyframe.
+   */
+  void readKeyframe(VarintBuffer in) {
+    this.status = this.statusFrom(in.getByte());
+    this.readCalls(in);
+    for (int car = 0; car < this.ids.length; car++) {
+      this.ids[car] = in.getInt();
+      this.floor[car] = this.floorFrom(in.getInt());
+      int packed = in.getByte();
+      this.direction[car] = this.directionFrom(packed >>> 4);
+      this.flags[car] = packed & 0x0F;
+      this.doorTimer[car] = in.getInt();
+      this.waitTimer[car] = in.getInt();
+      FloorRequestSet set = this.stops[car];
+      set.clear();
+      int count = in.getInt();
+      int stop = -1;
+      for (int i = 0; i < count; i++) {
+        stop = this.floorFrom(stop + 1 + in.getInt());
+        set.add(stop);
+      }
+      this.riders[car] = in.getInt();
+    }
+  }
+
+  /**
+   * Write the fields of reports and the waiting calls that differ from the state, and take
+   * them into the state.
+   */
+  void writeDelta(ElevatorReport[] reports, ElevatorSystemStatus status, List<Request> up,
+                  List<Request> down, VarintBuffer out, VarintBuffer scratch) {
+    scratch.clear();
+    int changed = 0;
+    int lastCar = -1;
+    for (int car = 0; car < reports.length; car++) {
+      ElevatorReport report = reports[car];
+      int mask = 0;
+      int floorNow = report.getCurrentFloor();
+      int directionNow = report.getDirection().ordinal();
+      int flagsNow = flagsOf(report);
+      int doorNow = report.getDoorOpenTimer();
+      int waitNow = report.getEndWaitTimer();
+      FloorRequestSet stopsNow = report.getFloorRequestSet();
+      int ridersNow = report.getCommittedRiders();
+      mask |= floorNow != this.floor[car] ? FLOOR : 0;
+      mask |= directionNow != this.direction[car] ? DIRECTION : 0;
+      mask |= flagsNow != this.flags[car] ? FLAGS : 0;
+      mask |= doorNow != this.doorTimer[car] ? DOOR_TIMER : 0;
+      mask |= waitNow != this.waitTimer[car] ? WAIT_TIMER : 0;
+      mask |= !stopsNow.equals(this.stops[car]) ? STOPS : 0;
+      mask |= ridersNow != this.riders[car] ? RIDERS : 0;
+      if (mask == 0) {
+        continue;
+      }
+      changed++;
+      scratch.putVarint(car - lastCar - 1);
+      lastCar = car;
+      scratch.putByte(mask);
+      if ((mask & FLOOR) != 0) {
+        scratch.putZigzag(floorNow - this.floor[car]);
+        this.floor[car] = floorNow;
+      }
+      if ((mask & (DIRECTION | FLAGS)) != 0) {
+        scratch.putByte(directionNow << 4 | flagsNow);
+        this.direction[car] = directionNow;
+        this.flags[car] = flagsNow;
+      }
+      if ((mask & DOOR_TIMER) != 0) {
+        scratch.putVarint(doorNow);
+        this.doorTimer[car] = doorNow;
+      }
+      if ((mask & WAIT_TIMER) != 0) {
+        scratch.putVarint(waitNow);
+        this.waitTimer[car] = waitNow;
+      }
+      if ((mask & STOPS) != 0) {
+        this.writeToggles(this.stops[car], stopsNow, scratch);
+      }
+      if ((mask & RIDERS) != 0) {
+        scratch.putVarint(ridersNow);
+        this.riders[car] = ridersNow;
+      }
+    }
+
+    int statusNow = status.ordinal();
+    boolean statusChanged = statusNow != this.status;
+    boolean callsChanged = this.takeCalls(up, down);
+    out.putVarint((long) changed << 2 | (callsChanged ? 2 : 0) | (statusChanged ? 1 : 0));
+    if (statusChanged) {
+      out.putByte(statusNow);
+      this.status = statusNow;
+    }
+    if (callsChanged) {
+      this.writeCalls(out);
+    }
+    for (int i = 0; i < scratch.length(); i++) {
+      out.putByte(scratch.array()[i]);
+    }
+  }
+
+  /**
+   * Apply a frame written by writeDelta.
+   */
+  void readDelta(VarintBuffer in) {
+    long header = in.getVarint();
+    if ((header & 1) != 0) {
+      this.status = this.statusFrom(in.getByte());
+    }
+    if ((header & 2) != 0) {
+      this.readCalls(in);
+    }
+    long changed = header >>> 2;
+    int car = -1;
+    for (long i = 0; i < changed; i++) {
+      car += 1 + in.getInt();
+      if (car >= this.ids.length) {
+        throw new IllegalStateException("Invalid elevator in recording.");
+      }
+      int mask = in.getByte();
+      if ((mask & FLOOR) != 0) {
+        this.floor[car] = this.floorFrom(this.floor[car] + in.getZigzag());
+      }
+      if ((mask & (DIRECTION | FLAGS)) != 0) {
+        int packed = in.getByte();
+        this.direction[car] = this.directionFrom(packed >>> 4);
+        this.flags[car] = packed & 0x0F;
+      }
+      if ((mask & DOOR_TIMER) != 0) {
+        this.doorTimer[car] = in.getInt();
+      }
+      if ((mask & WAIT_TIMER) != 0) {
+        this.waitTimer[car] = in.getInt();
+      }
+      if ((mask & STOPS) != 0) {
+        FloorRequestSet set = this.stops[car];
+        int count = in.getInt();
+        int stop = -1;
+        for (int j = 0; j < count; j++) {
+          stop = this.floorFrom(stop + 1 + in.getInt());
+          if (set.contains(stop)) {
+            set.remove(stop);
+          } else {
+            set.add(stop);
+          }
+        }
+      }
+      if ((mask & RIDERS) != 0) {
+        this.riders[car] = in.getInt();
+      }
+    }
+  }
+
+  /**
+   * Take the waiting calls from the lists of a report, and tell whether they differ from the
+   * calls of the state.
+   */
+  private boolean takeCalls(List<Request> up, List<Request> down) {
+    int count = up.size() + down.size();
+    boolean changed = up.size() != this.upCalls || down.size() != this.downCalls;
+    if (this.calls.length < 2 * count) {
+      this.calls = Arrays.copyOf(this.calls, Math.max(2 * count, 2 * this.calls.length));
+    }
+    int at = 0;
+    for (List<Request> list : Arrays.asList(up, down)) {
+      for (Request request : list) {
+        changed |= this.calls[at] != request.getStartFloor()
+            || this.calls[at + 1] != request.getEndFloor();
+        this.calls[at++] = request.getStartFloor();
+        this.calls[at++] = request.getEndFloor();
+      }
+    }
+    this.upCalls = up.size();
+    this.downCalls = down.size();
+    return changed;
+  }
+
+  /**
+   * Write the number of up and down calls, then the start and end floor of each.
+   */
+  private void writeCalls(VarintBuffer out) {
+    out.putVarint(this.upCalls);
+    out.putVarint(this.downCalls);
+    for (int i = 0; i < 2 * (this.upCalls + this.downCalls); i++) {
+      out.putVarint(this.calls[i]);
+    }
+  }
+
+  /**
+   * Read calls written by writeCalls.
+   */
+  private void readCalls(VarintBuffer in) {
+    int up = in.getInt();
+    int down = in.getInt();
+    long count = (long) up + down;
+    // Every floor takes at least a byte, so a count the frame cannot hold is not trusted.
+    if (2 * count > in.length() - in.position()) {
+      throw new IllegalStateException("Invalid hall calls in recording.");
+    }
+    if (this.calls.length < 2 * count) {
+      this.calls = new int[(int) (2 * count)];
+    }
+    for (int i = 0; i < 2 * count; i++) {
+      this.calls[i] = this.floorFrom(in.getInt());
+    }
+    this.upCalls = up;
+    this.downCalls = down;
+  }
+
+  /**
+   * Build a list of count calls of the state from the first one at index from.
+   */
+  private List<Request> callList(int from, int count) {
+    List<Request> list = new ArrayList<>(count);
+    for (int i = from; i < from + count; i++) {
+      list.add(new Request(this.calls[2 * i], this.calls[2 * i + 1]));
+    }
+    return list;
+  }
+
+  /**
+   * Write the floors in one set but not the other, lowest first, and make the old set equal
+   * to the new one.
+   */
+  private void writeToggles(FloorRequestSet old, FloorRequestSet now, VarintBuffer out) {
+    int count = 0;
+    int a = old.nextAbove(-1);
+    int b = now.nextAbove(-1);
+    while (a != -1 || b != -1) {
+      if (a == b) {
+        a = old.nextAbove(a);
+        b = now.nextAbove(b);
+      } else if (b == -1 || (a != -1 && a < b)) {
+        this.toggled[count++] = a;
+        a = old.nextAbove(a);
+      } else {
+        this.toggled[count++] = b;
+        b = now.nextAbove(b);
+      }
+    }
+    out.putVarint(count);
+    int last = -1;
+    for (int i = 0; i < count; i++) {
+      out.putVarint(this.toggled[i] - last - 1);
+      last = this.toggled[i];
+    }
+    old.clear();
+    old.addAll(now);
+  }
+
+  private static int flagsOf(ElevatorReport report) {
+    return (report.isDoorClosed() ? DOOR_CLOSED : 0)
+        | (report.isOutOfService() ? OUT_OF_SERVICE : 0)
+        | (report.isTakingRequests() ? TAKING_REQUESTS : 0);
+  }
+
+  private int floorFrom(int value) {
+    if (value < 0 || value >= this.floors) {
+      throw new IllegalStateException("Invalid floor in recording.");
+    }
+    return value;
+  }
+
+  private int directionFrom(int value) {
+    if (value >= DIRECTIONS.length) {
+      throw new IllegalStateException("Invalid direction in recording.");
+    }
+    return value;
+  }
+
+  private int statusFrom(int value) {
+    if (value >= STATUSES.length) {
+      throw new IllegalStateException("Invalid status in recording.");
+    }
+    return value;
+  }
+}
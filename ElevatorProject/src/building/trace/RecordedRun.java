@@ -0,0 +1,241 @@
+package building.trace;
+
+import building.BuildingReport;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.Inflater;
+
+/**
+ * A recording written by RunRecorder, opened for random access by tick.
+ * <p></p>
+ * Opening the file reads the small header in front of every segment and builds an index of
+ * the first tick and file position of each, without inflating anything. The report at a tick
+ * is rebuilt by finding its segment, inflating it, reading its keyframe and applying the
+ * deltas up to the tick, so a seek costs at most one keyframe interval of deltas however
+ * long the run. Seeking forward within the segment last read continues from where it
+ * stopped, so stepping through a run tick by tick costs one delta per tick.
+ */
+public class RecordedRun implements Closeable {
+  /************************************************************************
+   * The most bytes a segment header takes: four varints.
+   ************************************************************************/
+  private static final int MAX_SEGMENT_HEADER_BYTES = 10 + 3 * 5;
+
+  private final FileChannel channel;
+  private final int floors;
+  private final int elevators;
+  private final int elevatorCapacity;
+  private final int keyframeInterval;
+  private final long tickCount;
+  private final int segmentCount;
+  private final long[] firstTicks;
+  private final long[] positions;
+  private final int[] rawLengths;
+  private final int[] compressedLengths;
+  private final FleetState state;
+  private final VarintBuffer segment;
+  private final Inflater inflater;
+  private byte[] compressed;
+  private byte[] raw;
+  private int loadedSegment;
+  private long stateTick;
+
+  /**
+   * Open a recording and index its segments.
+   *
+   * @param path the recording file.
+   * @throws IllegalArgumentException if the path is null.
+   * @throws IllegalStateException    if the file is not a recording this class understands
+   *                                  or is truncated.
+   * @throws IOException              if the file cannot be read.
+   */
+  public RecordedRun(Path path) throws IOException {
+    if (path == null) {
+      throw new IllegalArgumentException("path cannot be null");
+    }
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      long size = this.channel.size();
+      VarintBuffer header = this.readAt(0, 64, size);
+      for (byte magic : RunRecorder.MAGIC) {
+        if (header.getByte() != (magic & 0xFF)) {
+          throw new IllegalStateException(path + " is not an elevator run recording.");
+        }
+      }
+      if (header.getByte() != RunRecorder.VERSION) {
+        throw new IllegalStateException(path + " has an unsupported recording version.");
+      }
+      this.floors = header.getInt();
+      this.elevators = header.getInt();
+      this.elevatorCapacity = header.getInt();
+      this.keyframeInterval = header.getInt();
+      if (this.floors < 2 || this.elevators < 1 || this.keyframeInterval < 1) {
+        throw new IllegalStateException(path + " has an invalid recording header.");
+      }
+
+      long[] first = new long[16];
+      long[] position = new long[16];
+      int[] rawLength = new int[16];
+      int[] compressedLength = new int[16];
+      int count = 0;
+      long ticks = 0;
+      long at = header.position();
+      while (at < size) {
+        VarintBuffer segmentHeader = this.readAt(at, MAX_SEGMENT_HEADER_BYTES, size);
+        long start = segmentHeader.getVarint();
+        int segmentTicks = segmentHeader.getInt();
+        if (start != ticks || segmentTicks < 1 || segmentTicks > this.keyframeInterval) {
+          throw new IllegalStateException(path + " has an invalid segment at " + at + ".");
+        }
+        if (count == first.length) {
+          first = Arrays.copyOf(first, 2 * count);
+          position = Arrays.copyOf(position, 2 * count);
+          rawLength = Arrays.copyOf(rawLength, 2 * count);
+          compressedLength = Arrays.copyOf(compressedLength, 2 * count);
+        }
+        first[count] = start;
+        rawLength[count] = segmentHeader.getInt();
+        compressedLength[count] = segmentHeader.getInt();
+        position[count] = at + segmentHeader.position();
+        at = position[count] + compressedLength[count];
+        if (at > size) {
+          throw new IllegalStateException(path + " is truncated.");
+        }
+        ticks += segmentTicks;
+        count++;
+      }
+      this.tickCount = ticks;
+      this.segmentCount = count;
+      this.firstTicks = first;
+      this.positions = position;
+      this.rawLengths = rawLength;
+      this.compressedLengths = compressedLength;
+    } catch (RuntimeException | IOException e) {
+      this.channel.close();
+      throw e;
+    }
+
+    this.state = new FleetState(this.floors, this.elevators);
+    this.segment = new VarintBuffer(0);
+    this.inflater = new Inflater();
+    this.compressed = new byte[0];
+    this.raw = new byte[0];
+    this.loadedSegment = -1;
+  }
+
+  /**
+   * Get the number of ticks recorded.
+   *
+   * @return the number of ticks; reportAt accepts ticks from 0 to one less than this.
+   */
+  public long getTickCount() {
+    return this.tickCount;
+  }
+
+  /**
+   * Get the number of keyframes, one at the start of each segment.
+   *
+   * @return the number of segments.
+   */
+  public int getKeyframeCount() {
+    return this.segmentCount;
+  }
+
+  /**
+   * Get the number of floors of the recorded building.
+   *
+   * @return the number of floors.
+   */
+  public int getNumberOfFloors() {
+    return this.floors;
+  }
+
+  /**
+   * Get the number of elevators of the recorded building.
+   *
+   * @return the number of elevators.
+   */
+  public int getNumberOfElevators() {
+    return this.elevators;
+  }
+
+  /**
+   * Rebuild the report of the building, with its waiting hall calls, at a recorded tick.
+   *
+   * @param tick the tick, from 0.
+   * @return a new report.
+   * @throws IllegalArgumentException if the tick was not recorded.
+   * @throws IllegalStateException    if the recording is invalid.
+   * @throws IOException              if the file cannot be read.
+   */
+  public BuildingReport reportAt(long tick) throws IOException {
+    if (tick < 0 || tick >= this.tickCount) {
+      throw new IllegalArgumentException("Tick must be between 0 and "
+          + (this.tickCount - 1) + ".");
+    }
+    int index = Arrays.binarySearch(this.firstTicks, 0, this.segmentCount, tick);
+    if (index < 0) {
+      index = -index - 2;
+    }
+    if (index != this.loadedSegment || tick < this.stateTick) {
+      this.load(index);
+    }
+    while (this.stateTick < tick) {
+      this.state.readDelta(this.segment);
+      this.stateTick++;
+    }
+    return this.state.buildingReport(this.elevatorCapacity);
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.inflater.end();
+    this.channel.close();
+  }
+
+  /**
+   * Inflate a segment and read its keyframe.
+   */
+  private void load(int index) throws IOException {
+    int compressedLength = this.compressedLengths[index];
+    int rawLength = this.rawLengths[index];
+    if (this.compressed.length < compressedLength) {
+      this.compressed = new byte[compressedLength];
+    }
+    if (this.raw.length < rawLength) {
+      this.raw = new byte[rawLength];
+    }
+    this.readFully(this.positions[index], this.compressed, compressedLength);
+    this.loadedSegment = -1;
+    RunReader.inflate(this.inflater, this.compressed, compressedLength, this.raw, rawLength);
+    this.segment.wrap(this.raw, rawLength);
+    this.state.readKeyframe(this.segment);
+    this.loadedSegment = index;
+    this.stateTick = this.firstTicks[index];
+  }
+
+  /**
+   * Read up to length bytes at a position into a buffer to parse.
+   */
+  private VarintBuffer readAt(long position, int length, long size) throws IOException {
+    byte[] bytes = new byte[(int) Math.min(length, size - position)];
+    this.readFully(position, bytes, bytes.length);
+    VarintBuffer buffer = new VarintBuffer(0);
+    buffer.wrap(bytes, bytes.length);
+    return buffer;
+  }
+
+  private void readFully(long position, byte[] bytes, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+    while (buffer.hasRemaining()) {
+      if (this.channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IllegalStateException("Recording is truncated.");
+      }
+    }
+  }
+}
@@ -0,0 +1,230 @@
+package building.trace;
+
+import building.BuildingReport;
+import elevator.ElevatorReport;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads a recording written by RunRecorder one tick at a time, from the first tick on.
+ */
+public class RunReader implements Closeable {
+  private final InputStream in;
+  private final int floors;
+  private final int elevators;
+  private final int elevatorCapacity;
+  private final int keyframeInterval;
+  private final FleetState state;
+  private final VarintBuffer segment;
+  private final Inflater inflater;
+  private byte[] compressed;
+  private byte[] raw;
+  private long tick;
+  private int segmentTicksLeft;
+  private boolean keyframeNext;
+
+  /**
+   * Open a recording.
+   *
+   * @param in the stream to read from; closed with the reader.
+   * @throws IllegalArgumentException if the stream is null.
+   * @throws IllegalStateException    if the stream is not a recording this reader
+   *                                  understands.
+   * @throws IOException              if the stream cannot be read.
+   */
+  public RunReader(InputStream in) throws IOException {
+    if (in == null) {
+      throw new IllegalArgumentException("in cannot be null");
+    }
+    this.in = new BufferedInputStream(in);
+    for (byte magic : RunRecorder.MAGIC) {
+      if (this.in.read() != (magic & 0xFF)) {
+        throw new IllegalStateException("Not an elevator run recording.");
+      }
+    }
+    if (this.in.read() != RunRecorder.VERSION) {
+      throw new IllegalStateException("Unsupported recording version.");
+    }
+    this.floors = this.readInt();
+    this.elevators = this.readInt();
+    this.elevatorCapacity = this.readInt();
+    this.keyframeInterval = this.readInt();
+    if (this.floors < 2 || this.elevators < 1 || this.keyframeInterval < 1) {
+      throw new IllegalStateException("Invalid recording header.");
+    }
+    this.state = new FleetState(this.floors, this.elevators);
+    this.segment = new VarintBuffer(0);
+    this.inflater = new Inflater();
+    this.compressed = new byte[0];
+    this.raw = new byte[0];
+    this.tick = -1;
+  }
+
+  /**
+   * Get the number of floors of the recorded building.
+   *
+   * @return the number of floors.
+   */
+  public int getNumberOfFloors() {
+    return this.floors;
+  }
+
+  /**
+   * Get the number of elevators of the recorded building.
+   *
+   * @return the number of elevators.
+   */
+  public int getNumberOfElevators() {
+    return this.elevators;
+  }
+
+  /**
+   * Get the number of ticks between keyframes.
+   *
+   * @return the keyframe interval.
+   */
+  public int getKeyframeInterval() {
+    return this.keyframeInterval;
+  }
+
+  /**
+   * Move to the next recorded tick.
+   *
+   * @return true if there is a tick, false at the end of the recording.
+   * @throws IOException           if the stream cannot be read.
+   * @throws IllegalStateException if the recording is truncated or invalid.
+   */
+  public boolean next() throws IOException {
+    if (this.segmentTicksLeft == 0 && !this.readSegment()) {
+      return false;
+    }
+    if (this.keyframeNext) {
+      this.state.readKeyframe(this.segment);
+      this.keyframeNext = false;
+    } else {
+      this.state.readDelta(this.segment);
+    }
+    this.segmentTicksLeft--;
+    this.tick++;
+    return true;
+  }
+
+  /**
+   * Get the current tick.
+   *
+   * @return the number of ticks recorded before the current one, or -1 before the first.
+   */
+  public long getTick() {
+    return this.tick;
+  }
+
+  /**
+   * Get the report of one elevator at the current tick.
+   *
+   * @param elevator the index of the elevator.
+   * @return a new report.
+   */
+  public ElevatorReport getElevatorReport(int elevator) {
+    return this.state.report(elevator);
+  }
+
+  /**
+   * Get the report of the building, with its waiting hall calls, at the current tick.
+   *
+   * @return a new report.
+   */
+  public BuildingReport getReport() {
+    return this.state.buildingReport(this.elevatorCapacity);
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.inflater.end();
+    this.in.close();
+  }
+
+  /**
+   * Read and inflate the next segment.
+   *
+   * @return false if the stream ends before it.
+   */
+  private boolean readSegment() throws IOException {
+    this.in.mark(1);
+    if (this.in.read() == -1) {
+      return false;
+    }
+    this.in.reset();
+    long first = this.readVarint();
+    int ticks = this.readInt();
+    int rawLength = this.readInt();
+    int compressedLength = this.readInt();
+    if (first != this.tick + 1 || ticks < 1 || ticks > this.keyframeInterval) {
+      throw new IllegalStateException("Invalid segment header in recording.");
+    }
+    if (this.compressed.length < compressedLength) {
+      this.compressed = new byte[compressedLength];
+    }
+    if (this.in.readNBytes(this.compressed, 0, compressedLength) != compressedLength) {
+      throw new IllegalStateException("Recording is truncated.");
+    }
+    if (this.raw.length < rawLength) {
+      this.raw = new byte[rawLength];
+    }
+    inflate(this.inflater, this.compressed, compressedLength, this.raw, rawLength);
+    this.segment.wrap(this.raw, rawLength);
+    this.segmentTicksLeft = ticks;
+    this.keyframeNext = true;
+    return true;
+  }
+
+  /**
+   * Inflate a segment, checking it inflates to exactly the length its header gives.
+   */
+  static void inflate(Inflater inflater, byte[] compressed, int compressedLength, byte[] raw,
+                      int rawLength) {
+    inflater.reset();
+    inflater.setInput(compressed, 0, compressedLength);
+    try {
+      int length = 0;
+      while (length < rawLength && !inflater.finished()) {
+        int inflated = inflater.inflate(raw, length, rawLength - length);
+        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        length += inflated;
+      }
+      if (length != rawLength) {
+        throw new IllegalStateException("Invalid segment in recording.");
+      }
+    } catch (DataFormatException e) {
+      throw new IllegalStateException("Invalid segment in recording.", e);
+    }
+  }
+
+  private long readVarint() throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = this.in.read();
+      if (b == -1) {
+        throw new IllegalStateException("Recording is truncated.");
+      }
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IllegalStateException("Invalid varint in recording.");
+  }
+
+  private int readInt() throws IOException {
+    long value = this.readVarint();
+    if (value > Integer.MAX_VALUE) {
+      throw new IllegalStateException("Invalid value in recording.");
+    }
+    return (int) value;
+  }
+}
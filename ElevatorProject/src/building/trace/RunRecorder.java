@@ -0,0 +1,231 @@
+package building.trace;
+
+import building.BuildingReport;
+import building.enums.ElevatorSystemStatus;
+import elevator.ElevatorReport;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.Deflater;
+import scanerzus.Request;
+
+/**
+ * Records the state of every elevator and the waiting hall calls at every tick of a run to a
+ * compact, append-only stream, read back with RunReader.
+ * <p></p>
+ * A recording starts with the magic bytes "ELVR", a format version byte, and the number of
+ * floors, elevators and elevator capacity and the keyframe interval as unsigned varints.
+ * Ticks are grouped into segments of at most keyframe-interval ticks. The first tick of a
+ * segment is a keyframe holding every elevator in full; each later tick holds only the
+ * fields that changed since the tick before (see FleetState). Each segment is compressed on
+ * its own with Deflater and written after a header of varints: the first tick, the number of
+ * ticks, and the lengths before and after compression. A reader can therefore start at any
+ * segment without reading the ones before it.
+ * <p></p>
+ * The hall calls are recorded as they wait, to show them on replay; a trace of the calls as
+ * they arrive, to run them again, is kept with TraceWriter.
+ */
+public class RunRecorder implements Closeable {
+  /************************************************************************
+   * The bytes every recording starts with.
+   ************************************************************************/
+  static final byte[] MAGIC = {'E', 'L', 'V', 'R'};
+
+  /************************************************************************
+   * The version of the format this class writes. Version 2 added the
+   * committed riders of each elevator and version 3 the waiting hall calls.
+   ************************************************************************/
+  static final int VERSION = 3;
+
+  private final OutputStream out;
+  private final int floors;
+  private final int elevators;
+  private final int keyframeInterval;
+  private final FleetState state;
+  private final VarintBuffer segment;
+  private final VarintBuffer scratch;
+  private final VarintBuffer header;
+  private final Deflater deflater;
+  private byte[] compressed;
+  private long ticks;
+  private long segmentStart;
+  private int segmentTicks;
+  private long bytesWritten;
+
+  /**
+   * Create a recorder and write the recording header.
+   *
+   * @param out              the stream to write to; closed with the recorder.
+   * @param floors           the number of floors in the building.
+   * @param elevators        the number of elevators in the building.
+   * @param elevatorCapacity the capacity of the elevators.
+   * @param keyframeInterval the number of ticks between keyframes, at least 1.
+   * @throws IllegalArgumentException if the stream is null or a size is out of range.
+   * @throws IOException              if the header cannot be written.
+   */
+  public RunRecorder(OutputStream out, int floors, int elevators, int elevatorCapacity,
+                     int keyframeInterval) throws IOException {
+    if (out == null) {
+      throw new IllegalArgumentException("out cannot be null");
+    }
+    if (floors < 2 || elevators < 1 || elevatorCapacity < 1) {
+      throw new IllegalArgumentException("The building must have at least 2 floors and "
+          + "1 elevator of capacity at least 1.");
+    }
+    if (keyframeInterval < 1) {
+      throw new IllegalArgumentException("keyframeInterval must be at least 1");
+    }
+    this.out = out;
+    this.floors = floors;
+    this.elevators = elevators;
+    this.keyframeInterval = keyframeInterval;
+    this.state = new FleetState(floors, elevators);
+    this.segment = new VarintBuffer(1 << 16);
+    this.scratch = new VarintBuffer(1 << 10);
+    this.header = new VarintBuffer(64);
+    this.deflater = new Deflater(Deflater.BEST_SPEED);
+    this.compressed = new byte[1 << 16];
+
+    for (byte magic : MAGIC) {
+      this.header.putByte(magic);
+    }
+    this.header.putByte(VERSION);
+    this.header.putVarint(floors);
+    this.header.putVarint(elevators);
+    this.header.putVarint(elevatorCapacity);
+    this.header.putVarint(keyframeInterval);
+    this.writeHeader();
+  }
+
+  /**
+   * Record the next tick from a report of the building, with its waiting hall calls.
+   *
+   * @param report the report of the building after the tick.
+   * @throws IllegalArgumentException if the report is null or for a building of another
+   *                                  size.
+   * @throws IOException              if a finished segment cannot be written.
+   */
+  public void record(BuildingReport report) throws IOException {
+    if (report == null) {
+      throw new IllegalArgumentException("report cannot be null");
+    }
+    if (report.getNumFloors() != this.floors) {
+      throw new IllegalArgumentException("The report is for a building with "
+          + report.getNumFloors() + " floors.");
+    }
+    if (report.getElevatorReports() == null || report.getSystemStatus() == null) {
+      throw new IllegalArgumentException("The report has no elevators or status.");
+    }
+    this.record(report.getElevatorReports(), report.getSystemStatus(),
+        report.getUpRequests(), report.getDownRequests());
+  }
+
+  /**
+   * Record the next tick from the reports of the elevators, with no waiting hall calls.
+   *
+   * @param reports the report of each elevator after the tick, in elevator order.
+   * @param status  the status of the elevator system after the tick.
+   * @throws IllegalArgumentException if an argument is null or there is not one report for
+   *                                  each elevator.
+   * @throws IOException              if a finished segment cannot be written.
+   */
+  public void record(ElevatorReport[] reports, ElevatorSystemStatus status)
+      throws IOException {
+    if (reports == null || status == null) {
+      throw new IllegalArgumentException("reports and status cannot be null");
+    }
+    this.record(reports, status, Collections.emptyList(), Collections.emptyList());
+  }
+
+  private void record(ElevatorReport[] reports, ElevatorSystemStatus status,
+                      List<Request> up, List<Request> down) throws IOException {
+    if (reports.length != this.elevators) {
+      throw new IllegalArgumentException("There must be a report for each of the "
+          + this.elevators + " elevators.");
+    }
+    if (this.segmentTicks == 0) {
+      this.segmentStart = this.ticks;
+      this.state.writeKeyframe(reports, status, up, down, this.segment);
+    } else {
+      this.state.writeDelta(reports, status, up, down, this.segment, this.scratch);
+    }
+    this.segmentTicks++;
+    this.ticks++;
+    if (this.segmentTicks == this.keyframeInterval) {
+      this.writeSegment();
+    }
+  }
+
+  /**
+   * Get the number of ticks recorded.
+   *
+   * @return the number of times record has been called.
+   */
+  public long getTicksRecorded() {
+    return this.ticks;
+  }
+
+  /**
+   * Get the number of bytes written to the stream so far. Ticks of an unfinished segment are
+   * not written until it is finished, flushed or closed.
+   *
+   * @return the number of bytes written.
+   */
+  public long getBytesWritten() {
+    return this.bytesWritten;
+  }
+
+  /**
+   * Write out the ticks recorded so far. The next tick starts a new segment with a keyframe.
+   *
+   * @throws IOException if they cannot be written.
+   */
+  public void flush() throws IOException {
+    if (this.segmentTicks > 0) {
+      this.writeSegment();
+    }
+    this.out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      this.flush();
+    } finally {
+      this.deflater.end();
+      this.out.close();
+    }
+  }
+
+  private void writeSegment() throws IOException {
+    this.deflater.reset();
+    this.deflater.setInput(this.segment.array(), 0, this.segment.length());
+    this.deflater.finish();
+    int length = 0;
+    while (!this.deflater.finished()) {
+      if (length == this.compressed.length) {
+        this.compressed = Arrays.copyOf(this.compressed, 2 * length);
+      }
+      length += this.deflater.deflate(this.compressed, length, this.compressed.length - length);
+    }
+
+    this.header.putVarint(this.segmentStart);
+    this.header.putVarint(this.segmentTicks);
+    this.header.putVarint(this.segment.length());
+    this.header.putVarint(length);
+    this.writeHeader();
+    this.out.write(this.compressed, 0, length);
+    this.bytesWritten += length;
+    this.segment.clear();
+    this.segmentTicks = 0;
+  }
+
+  private void writeHeader() throws IOException {
+    this.out.write(this.header.array(), 0, this.header.length());
+    this.bytesWritten += this.header.length();
+    this.header.clear();
+  }
+}
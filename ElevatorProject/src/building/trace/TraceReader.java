@@ -0,0 +1,183 @@
+package building.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a trace written by TraceWriter through a memory-mapped file, one call at a time.
+ * <p></p>
+ * The reader is a cursor: next moves to the following call, and the getters return its
+ * fields as primitives, so reading allocates nothing per call. The file is mapped a window
+ * at a time, so traces larger than 2GB can be read; a new window is mapped when fewer bytes
+ * than the longest call are left in the current one.
+ */
+public class TraceReader implements Closeable {
+  /************************************************************************
+   * The size of each mapped window of the file.
+   ************************************************************************/
+  private static final long WINDOW_BYTES = 1L << 30;
+
+  private final FileChannel channel;
+  private final long fileSize;
+  private final long windowBytes;
+  private final int floors;
+  private MappedByteBuffer window;
+  private long windowStart;
+  private long count;
+  private long tick;
+  private int startFloor;
+  private int endFloor;
+
+  /**
+   * Open a trace.
+   *
+   * @param path the trace file.
+   * @throws IOException           if the file cannot be read.
+   * @throws IllegalStateException if the file is not a trace this reader understands.
+   */
+  public TraceReader(Path path) throws IOException {
+    this(path, WINDOW_BYTES);
+  }
+
+  /**
+   * Open a trace, mapping it in windows of the given size.
+   */
+  TraceReader(Path path, long windowBytes) throws IOException {
+    if (path == null) {
+      throw new IllegalArgumentException("path cannot be null");
+    }
+    if (windowBytes < TraceWriter.MAX_RECORD_BYTES) {
+      throw new IllegalArgumentException("A window must hold the longest call.");
+    }
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    this.fileSize = this.channel.size();
+    this.windowBytes = windowBytes;
+    try {
+      this.map(0);
+      for (byte magic : TraceWriter.MAGIC) {
+        if (this.window.remaining() == 0 || this.window.get() != magic) {
+          throw new IllegalStateException(path + " is not an elevator trace.");
+        }
+      }
+      if (this.window.remaining() == 0 || this.window.get() != TraceWriter.VERSION) {
+        throw new IllegalStateException(path + " has an unsupported trace version.");
+      }
+      long floors = this.getVarint();
+      if (floors < 2 || floors > Integer.MAX_VALUE) {
+        throw new IllegalStateException(path + " has an invalid number of floors.");
+      }
+      this.floors = (int) floors;
+    } catch (RuntimeException | IOException e) {
+      this.channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Get the number of floors of the building the trace was recorded in.
+   *
+   * @return the number of floors.
+   */
+  public int getNumberOfFloors() {
+    return this.floors;
+  }
+
+  /**
+   * Move to the next call.
+   *
+   * @return true if there is a call, false at the end of the trace.
+   * @throws IOException           if the file cannot be read.
+   * @throws IllegalStateException if the trace is truncated or holds an invalid call.
+   */
+  public boolean next() throws IOException {
+    if (this.window.remaining() < TraceWriter.MAX_RECORD_BYTES
+        && this.windowStart + this.window.limit() < this.fileSize) {
+      this.map(this.windowStart + this.window.position());
+    }
+    if (!this.window.hasRemaining()) {
+      return false;
+    }
+    this.tick += this.getVarint();
+    long start = this.getVarint();
+    long zigzag = this.getVarint();
+    long end = start + ((zigzag >>> 1) ^ -(zigzag & 1));
+    if (start < 0 || start >= this.floors || end < 0 || end >= this.floors || start == end) {
+      throw new IllegalStateException("Invalid call at position " + this.position() + ".");
+    }
+    this.startFloor = (int) start;
+    this.endFloor = (int) end;
+    this.count++;
+    return true;
+  }
+
+  /**
+   * Get the tick of the current call.
+   *
+   * @return the step at which the call arrives.
+   */
+  public long getTick() {
+    return this.tick;
+  }
+
+  /**
+   * Get the start floor of the current call.
+   *
+   * @return the floor the call is made from.
+   */
+  public int getStartFloor() {
+    return this.startFloor;
+  }
+
+  /**
+   * Get the end floor of the current call.
+   *
+   * @return the floor the call goes to.
+   */
+  public int getEndFloor() {
+    return this.endFloor;
+  }
+
+  /**
+   * Get the number of calls read so far.
+   *
+   * @return the number of calls next has moved to.
+   */
+  public long getCount() {
+    return this.count;
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.channel.close();
+  }
+
+  private long position() {
+    return this.windowStart + this.window.position();
+  }
+
+  private void map(long start) throws IOException {
+    long length = Math.min(this.windowBytes, this.fileSize - start);
+    this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+    this.windowStart = start;
+  }
+
+  private long getVarint() {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      if (!this.window.hasRemaining()) {
+        throw new IllegalStateException("Trace is truncated at position " + this.position()
+            + ".");
+      }
+      byte b = this.window.get();
+      value |= (long) (b & 0x7F) << shift;
+      if (b >= 0) {
+        return value;
+      }
+    }
+    throw new IllegalStateException("Invalid varint at position " + this.position() + ".");
+  }
+}
@@ -0,0 +1,121 @@
+package building.trace;
+
+import building.Building;
+import java.io.IOException;
+import scanerzus.Request;
+
+/**
+ * Feeds the calls of a trace to a building at the ticks they were recorded at.
+ * <p></p>
+ * A call recorded at tick t is added just before the building takes the step at tick t.
+ * Requests hold nothing but their two floors and the building only compares them by
+ * identity to find the oldest waiting call, so the replay hands the building one shared
+ * Request for each pair of floors rather than allocating one per call. Between calls the
+ * building is stepped with stepElevatorSystem(int), which skips over idle steps.
+ */
+public class TraceReplay {
+  private final TraceReader reader;
+  private final Building building;
+  private final Request[][] requests;
+  private boolean pending;
+  private boolean finished;
+
+  /**
+   * Create a replay of a trace into a building.
+   *
+   * @param reader   the trace, positioned before its first call.
+   * @param building the building, with the same number of floors as the trace.
+   * @throws IllegalArgumentException if either is null or the number of floors differs.
+   */
+  public TraceReplay(TraceReader reader, Building building) {
+    if (reader == null || building == null) {
+      throw new IllegalArgumentException("reader and building cannot be null");
+    }
+    if (reader.getNumberOfFloors() != building.getNumberOfFloors()) {
+      throw new IllegalArgumentException("The trace is for a building with "
+          + reader.getNumberOfFloors() + " floors.");
+    }
+    this.reader = reader;
+    this.building = building;
+    this.requests = new Request[building.getNumberOfFloors()][];
+  }
+
+  /**
+   * Add every call recorded at or before the building's current tick.
+   *
+   * @return the number of calls added.
+   * @throws IOException           if the trace cannot be read.
+   * @throws IllegalStateException if the building is not accepting requests or the trace
+   *                               is invalid.
+   */
+  public int addArrivals() throws IOException {
+    long now = this.building.getCurrentTick();
+    int added = 0;
+    while (this.peek() && this.reader.getTick() <= now) {
+      this.building.addRequest(this.request(this.reader.getStartFloor(),
+          this.reader.getEndFloor()));
+      this.pending = false;
+      added++;
+    }
+    return added;
+  }
+
+  /**
+   * Replay the whole trace: add each call at its tick, stepping the building in between.
+   * The building is left at the tick of the last call, with that call added.
+   *
+   * @return the number of calls added.
+   * @throws IOException           if the trace cannot be read.
+   * @throws IllegalStateException if the building is not accepting requests or the trace
+   *                               is invalid.
+   */
+  public long replay() throws IOException {
+    long added = 0;
+    while (true) {
+      added += this.addArrivals();
+      if (!this.peek()) {
+        return added;
+      }
+      long gap = this.reader.getTick() - this.building.getCurrentTick();
+      this.building.stepElevatorSystem((int) Math.min(gap, Integer.MAX_VALUE));
+    }
+  }
+
+  /**
+   * Is every call of the trace added.
+   *
+   * @return true once the end of the trace has been reached.
+   * @throws IOException if the trace cannot be read.
+   */
+  public boolean isFinished() throws IOException {
+    return !this.peek();
+  }
+
+  /**
+   * Make sure the reader is on a call not yet added, if there is one.
+   */
+  private boolean peek() throws IOException {
+    if (!this.pending && !this.finished) {
+      this.pending = this.reader.next();
+      this.finished = !this.pending;
+    }
+    return this.pending;
+  }
+
+  /**
+   * The shared request for a pair of floors, created the first time it is needed.
+   */
+  private Request request(int startFloor, int endFloor) {
+    Request[] row = this.requests[startFloor];
+    if (row == null) {
+      row = new Request[this.requests.length];
+      this.requests[startFloor] = row;
+    }
+    Request request = row[endFloor];
+    if (request == null) {
+      request = new Request(startFloor, endFloor);
+      row[endFloor] = request;
+    }
+    return request;
+  }
+}
@@ -0,0 +1,140 @@
+package building.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import scanerzus.Request;
+
+/**
+ * Writes hall calls in the binary trace format read by TraceReader.
+ * <p></p>
+ * A trace starts with the magic bytes "ELVT", a format version byte and the number of floors
+ * as an unsigned varint. Each call follows as three varints: the ticks since the previous
+ * call, the start floor, and the end floor less the start floor, zigzag encoded so that short
+ * trips down are as small as short trips up. Calls must be written in tick order. A typical
+ * call takes three or four bytes.
+ */
+public class TraceWriter implements Closeable {
+  /************************************************************************
+   * The bytes every trace starts with.
+   ************************************************************************/
+  static final byte[] MAGIC = {'E', 'L', 'V', 'T'};
+
+  /************************************************************************
+   * The version of the format this class writes.
+   ************************************************************************/
+  static final int VERSION = 1;
+
+  /************************************************************************
+   * The most bytes one call takes: a tick delta and two floors.
+   ************************************************************************/
+  static final int MAX_RECORD_BYTES = 10 + 5 + 5;
+
+  private static final int BUFFER_BYTES = 1 << 16;
+
+  private final OutputStream out;
+  private final int floors;
+  private final VarintBuffer buffer;
+  private long lastTick;
+  private long count;
+
+  /**
+   * Create a writer and write the trace header.
+   *
+   * @param out    the stream to write to; closed with the writer.
+   * @param floors the number of floors in the building the calls are for.
+   * @throws IllegalArgumentException if the stream is null or there are fewer than 2 floors.
+   * @throws IOException              if the header cannot be written.
+   */
+  public TraceWriter(OutputStream out, int floors) throws IOException {
+    if (out == null) {
+      throw new IllegalArgumentException("out cannot be null");
+    }
+    if (floors < 2) {
+      throw new IllegalArgumentException("There must be at least 2 floors.");
+    }
+    this.out = out;
+    this.floors = floors;
+    this.buffer = new VarintBuffer(BUFFER_BYTES);
+    for (byte b : MAGIC) {
+      this.buffer.putByte(b);
+    }
+    this.buffer.putByte(VERSION);
+    this.buffer.putVarint(floors);
+  }
+
+  /**
+   * Write a call.
+   *
+   * @param tick    the step at which the call arrives.
+   * @param request the call.
+   * @throws IllegalArgumentException if the request is null or not a valid call.
+   * @throws IOException              if the call cannot be written.
+   */
+  public void write(long tick, Request request) throws IOException {
+    if (request == null) {
+      throw new IllegalArgumentException("request cannot be null");
+    }
+    this.write(tick, request.getStartFloor(), request.getEndFloor());
+  }
+
+  /**
+   * Write a call.
+   *
+   * @param tick       the step at which the call arrives, no earlier than the last call.
+   * @param startFloor the floor the call is made from.
+   * @param endFloor   the floor the call goes to.
+   * @throws IllegalArgumentException if the tick is before the last call's, or the floors
+   *                                  are not in the building or are the same.
+   * @throws IOException              if the call cannot be written.
+   */
+  public void write(long tick, int startFloor, int endFloor) throws IOException {
+    if (tick < this.lastTick) {
+      throw new IllegalArgumentException("Calls must be written in tick order.");
+    }
+    if (startFloor < 0 || startFloor >= this.floors || endFloor < 0 || endFloor >= this.floors) {
+      throw new IllegalArgumentException(
+          "Floors must be between 0 and " + (this.floors - 1) + ".");
+    }
+    if (startFloor == endFloor) {
+      throw new IllegalArgumentException("Start and end floor cannot be the same.");
+    }
+    if (this.buffer.length() > BUFFER_BYTES - MAX_RECORD_BYTES) {
+      this.flush();
+    }
+    this.buffer.putVarint(tick - this.lastTick);
+    this.buffer.putVarint(startFloor);
+    this.buffer.putZigzag(endFloor - startFloor);
+    this.lastTick = tick;
+    this.count++;
+  }
+
+  /**
+   * Get the number of calls written.
+   *
+   * @return the number of calls.
+   */
+  public long getCount() {
+    return this.count;
+  }
+
+  /**
+   * Write out the buffered calls.
+   *
+   * @throws IOException if they cannot be written.
+   */
+  public void flush() throws IOException {
+    this.out.write(this.buffer.array(), 0, this.buffer.length());
+    this.buffer.clear();
+    this.out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      this.flush();
+    } finally {
+      this.out.close();
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package building.trace;
+
+import java.util.Arrays;
+
+/**
+ * A growable byte array that varints are written to and read back from.
+ * Unsigned varints take seven bits to a byte, low bits first, with the top bit set on every
+ * byte but the last; signed values are zigzag encoded first so small negatives stay small.
+ */
+final class VarintBuffer {
+  private byte[] bytes;
+  private int length;
+  private int position;
+
+  VarintBuffer(int capacity) {
+    this.bytes = new byte[Math.max(capacity, 16)];
+  }
+
+  /**
+   * Make the buffer read the given bytes from the start.
+   */
+  void wrap(byte[] bytes, int length) {
+    this.bytes = bytes;
+    this.length = length;
+    this.position = 0;
+  }
+
+  byte[] array() {
+    return this.bytes;
+  }
+
+  int length() {
+    return this.length;
+  }
+
+  int position() {
+    return this.position;
+  }
+
+  boolean hasRemaining() {
+    return this.position < this.length;
+  }
+
+  /**
+   * Forget the contents so the buffer can be written again.
+   */
+  void clear() {
+    this.length = 0;
+    this.position = 0;
+  }
+
+  void putByte(int value) {
+    if (this.length == this.bytes.length) {
+      this.bytes = Arrays.copyOf(this.bytes, this.bytes.length * 2);
+    }
+    this.bytes[this.length++] = (byte) value;
+  }
+
+  void putVarint(long value) {
+    while ((value & ~0x7FL) != 0) {
+      this.putByte((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    this.putByte((int) value);
+  }
+
+  void putZigzag(int value) {
+    this.putVarint(((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+  }
+
+  int getByte() {
+    if (this.position == this.length) {
+      throw new IllegalStateException("Recording is truncated.");
+    }
+    return this.bytes[this.position++] & 0xFF;
+  }
+
+  long getVarint() {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = this.getByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IllegalStateException("Invalid varint in recording.");
+  }
+
+  int getInt() {
+    long value = this.getVarint();
+    if (value > Integer.MAX_VALUE) {
+      throw new IllegalStateException("Invalid value in recording.");
+    }
+    return (int) value;
+  }
+
+  int getZigzag() {
+    int value = (int) this.getVarint();
+    return (value >>> 1) ^ -(value & 1);
+  }
+}
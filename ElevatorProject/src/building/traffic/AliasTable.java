@@ -0,0 +1,95 @@
+package building.traffic;
+
+import java.util.SplittableRandom;
+
+/**
+ * Samples an index with probability proportional to its weight in constant time, with
+ * Vose's alias method.
+ * <p></p>
+ * Each of the n columns of the table holds a probability and an alias. A sample picks a
+ * column uniformly and returns it with the column's probability, or its alias otherwise.
+ * Building the table takes O(n) time.
+ */
+public class AliasTable {
+  private final double[] probability;
+  private final int[] alias;
+
+  /**
+   * Create a table for the given weights.
+   *
+   * @param weights the relative weight of each index; none negative, at least one positive.
+   * @throws IllegalArgumentException if the weights are null, empty, negative, not finite
+   *                                  or all zero.
+   */
+  public AliasTable(double[] weights) {
+    if (weights == null || weights.length == 0) {
+      throw new IllegalArgumentException("weights cannot be null or empty");
+    }
+    int n = weights.length;
+    double total = 0;
+    for (double weight : weights) {
+      if (!(weight >= 0) || Double.isInfinite(weight)) {
+        throw new IllegalArgumentException("Weights must be finite and not negative.");
+      }
+      total += weight;
+    }
+    if (total == 0) {
+      throw new IllegalArgumentException("At least one weight must be positive.");
+    }
+
+    this.probability = new double[n];
+    this.alias = new int[n];
+    double[] scaled = new double[n];
+    int[] small = new int[n];
+    int[] large = new int[n];
+    int smallCount = 0;
+    int largeCount = 0;
+    for (int i = 0; i < n; i++) {
+      scaled[i] = weights[i] * n / total;
+      if (scaled[i] < 1) {
+        small[smallCount++] = i;
+      } else {
+        large[largeCount++] = i;
+      }
+    }
+    while (smallCount > 0 && largeCount > 0) {
+      int less = small[--smallCount];
+      int more = large[--largeCount];
+      this.probability[less] = scaled[less];
+      this.alias[less] = more;
+      scaled[more] = (scaled[more] + scaled[less]) - 1;
+      if (scaled[more] < 1) {
+        small[smallCount++] = more;
+      } else {
+        large[largeCount++] = more;
+      }
+    }
+    // What is left is 1 up to rounding.
+    while (largeCount > 0) {
+      this.probability[large[--largeCount]] = 1;
+    }
+    while (smallCount > 0) {
+      this.probability[small[--smallCount]] = 1;
+    }
+  }
+
+  /**
+   * The number of indexes the table samples from.
+   *
+   * @return the number of weights the table was built with.
+   */
+  public int size() {
+    return this.probability.length;
+  }
+
+  /**
+   * Draw an index.
+   *
+   * @param random the generator to draw with.
+   * @return an index, chosen with probability proportional to its weight.
+   */
+  public int sample(SplittableRandom random) {
+    int column = random.nextInt(this.probability.length);
+    return random.nextDouble() < this.probability[column] ? column : this.alias[column];
+  }
+}
@@ -0,0 +1,161 @@
+package building.traffic;
+
+import building.BuildingInterface;
+import building.enums.TrafficProfile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import scanerzus.Request;
+
+/**
+ * Generates hall calls tick by tick: arrivals follow a Poisson process, and each arrival's
+ * start and end floors are drawn from an origin-destination matrix.
+ * <p></p>
+ * The gaps between arrivals are drawn from the exponential distribution, so a tick costs time
+ * in proportion to the calls it holds, and the pair of floors is drawn from an alias table
+ * over the whole matrix in constant time. The same seed always produces the same calls.
+ */
+public class TrafficGenerator {
+  private final int floors;
+  private final double arrivalsPerTick;
+  private final AliasTable pairs;
+  private final SplittableRandom random;
+  private long tick;
+  private double nextArrival;
+
+  /**
+   * Create a generator for one of the standard traffic profiles.
+   *
+   * @param profile         the shape of the traffic.
+   * @param floors          the number of floors in the building.
+   * @param arrivalsPerTick the mean number of calls per tick.
+   * @param seed            the seed of the generator.
+   * @throws IllegalArgumentException if the profile is null, there are fewer than 2 floors
+   *                                  or the rate is negative or not finite.
+   */
+  public TrafficGenerator(TrafficProfile profile, int floors, double arrivalsPerTick,
+                          long seed) {
+    this(weightsOf(profile, floors), arrivalsPerTick, new SplittableRandom(seed));
+  }
+
+  /**
+   * Create a generator for any origin-destination matrix.
+   *
+   * @param weights         the relative number of trips from each start floor to each end
+   *                        floor; square, with a zero diagonal and no negative entries.
+   * @param arrivalsPerTick the mean number of calls per tick.
+   * @param random          the generator to draw from; it is used by this object only.
+   * @throws IllegalArgumentException if the matrix is not a valid origin-destination
+   *                                  matrix, the rate is negative or not finite, or the
+   *                                  random generator is null.
+   */
+  public TrafficGenerator(double[][] weights, double arrivalsPerTick, SplittableRandom random) {
+    if (weights == null || weights.length < 2) {
+      throw new IllegalArgumentException("weights must cover at least 2 floors");
+    }
+    if (!(arrivalsPerTick >= 0) || Double.isInfinite(arrivalsPerTick)) {
+      throw new IllegalArgumentException("arrivalsPerTick must be finite and not negative");
+    }
+    if (random == null) {
+      throw new IllegalArgumentException("random cannot be null");
+    }
+    int n = weights.length;
+    double[] flat = new double[n * n];
+    for (int start = 0; start < n; start++) {
+      if (weights[start] == null || weights[start].length != n) {
+        throw new IllegalArgumentException("weights must be a square matrix");
+      }
+      if (weights[start][start] != 0) {
+        throw new IllegalArgumentException("A trip cannot start and end on the same floor.");
+      }
+      System.arraycopy(weights[start], 0, flat, start * n, n);
+    }
+
+    this.floors = n;
+    this.arrivalsPerTick = arrivalsPerTick;
+    this.pairs = new AliasTable(flat);
+    this.random = random;
+    this.tick = 0;
+    this.nextArrival = this.gap();
+  }
+
+  /**
+   * Get the number of ticks generated so far.
+   *
+   * @return the tick the next call to nextTick generates.
+   */
+  public long getTick() {
+    return this.tick;
+  }
+
+  /**
+   * Get the mean number of calls per tick.
+   *
+   * @return the arrival rate.
+   */
+  public double getArrivalsPerTick() {
+    return this.arrivalsPerTick;
+  }
+
+  /**
+   * Generate the calls that arrive during the next tick.
+   *
+   * @return a new list of calls, in order of arrival; empty if none arrive.
+   */
+  public List<Request> nextTick() {
+    List<Request> arrivals = new ArrayList<>();
+    long end = this.tick + 1;
+    while (this.nextArrival < end) {
+      arrivals.add(this.nextRequest());
+      this.nextArrival += this.gap();
+    }
+    this.tick = end;
+    return arrivals;
+  }
+
+  /**
+   * Generate the calls that arrive during the next tick and add them to a building.
+   *
+   * @param building the building, which must be running.
+   * @return the number of calls the building took; calls its admission control turned away
+   *         are not counted.
+   * @throws IllegalStateException if the building is not accepting requests.
+   */
+  public int addNextTick(BuildingInterface building) {
+    int added = 0;
+    for (Request request : this.nextTick()) {
+      if (building.addRequest(request)) {
+        added++;
+      }
+    }
+    return added;
+  }
+
+  /**
+   * Draw a call from the origin-destination matrix.
+   *
+   * @return a new request.
+   */
+  public Request nextRequest() {
+    int pair = this.pairs.sample(this.random);
+    return new Request(pair / this.floors, pair % this.floors);
+  }
+
+  /**
+   * The time to the next arrival, in ticks.
+   */
+  private double gap() {
+    if (this.arrivalsPerTick == 0) {
+      return Double.POSITIVE_INFINITY;
+    }
+    // 1 - nextDouble() is in (0, 1], so the log is finite.
+    return -Math.log(1 - this.random.nextDouble()) / this.arrivalsPerTick;
+  }
+
+  private static double[][] weightsOf(TrafficProfile profile, int floors) {
+    if (profile == null) {
+      throw new IllegalArgumentException("profile cannot be null");
+    }
+    return profile.originDestinationWeights(floors);
+  }
+}
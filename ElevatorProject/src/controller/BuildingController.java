@@ -1,6 +1,15 @@
 package controller;
 
 import building.Building;
+import building.BuildingReport;
+import building.enums.RequestStatus;
+import building.realtime.RealTimeScheduler;
+import building.realtime.TickListener;
+import building.trace.RecordedRun;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.swing.SwingUtilities;
 import scanerzus.Request;
 import view.BuildingView;
 
@@ -8,8 +17,16 @@ import view.BuildingView;
  * Controller for the Building model and BuildingView view.
  */
 public class BuildingController {
+  /************************************************************************
+   * The wall-clock length of a tick when running in real time at normal speed.
+   ************************************************************************/
+  public static final long REAL_TIME_TICK_NANOS = 1_000_000_000L;
+
   private Building model;
   private BuildingView view;
+  private RecordedRun recording;
+  private RealTimeScheduler scheduler;
+  private final AtomicReference<BuildingReport> latestReport = new AtomicReference<>();
 
   /**
    * Constructor for the BuildingController.
@@ -27,6 +44,9 @@ public class BuildingController {
    * This method is used to process the step action.
    */
   public void processStepAction() {
+    if (isRealTime()) {
+      return;
+    }
     model.stepElevatorSystem();
     view.updateView(model.getElevatorSystemStatus());
   }
@@ -35,6 +55,10 @@ public class BuildingController {
     * This method is used to process the start action.
    */
   public void startSimulation() {
+    if (isRealTime()) {
+      runOnScheduler(model::startElevatorSystem);
+      return;
+    }
     model.startElevatorSystem();
     view.updateView(model.getElevatorSystemStatus());
   }
@@ -43,6 +67,10 @@ public class BuildingController {
    * This method is used to process the stop action.
    */
   public void stopSimulation() {
+    if (isRealTime()) {
+      runOnScheduler(model::stopElevatorSystem);
+      return;
+    }
     model.stopElevatorSystem();
     view.updateView(model.getElevatorSystemStatus());
   }
@@ -56,13 +84,171 @@ public class BuildingController {
   }
 
   /**
-   * This method is used to process the request.
+   * This method is used to process the request. A request the building turns away is
+   * reported on the view. In real time the request is offered on the scheduler's thread,
+   * which never waits on the backlog, so the view is not held up.
    * @param startFloor the start floor
    * @param destinationFloor the destination floor
    */
   public void processRequest(int startFloor, int destinationFloor) {
     Request request = new Request(startFloor, destinationFloor);
-    model.addRequest(request);
+    if (isRealTime()) {
+      runOnScheduler(() -> {
+        RequestStatus status = model.offerRequest(request);
+        if (!status.isAdmitted()) {
+          SwingUtilities.invokeLater(() -> showTurnedAway(request, status));
+        }
+      });
+      return;
+    }
+    try {
+      RequestStatus status = model.offerRequest(request);
+      if (!status.isAdmitted()) {
+        showTurnedAway(request, status);
+      }
+    } catch (IllegalArgumentException e) {
+      view.displayError(e.getMessage());
+    }
     view.updateView(model.getElevatorSystemStatus());
   }
+
+  /**
+   * This method is used to open a recorded run to scrub through.
+   * @param path the recording file
+   */
+  public void openRecording(Path path) {
+    try {
+      RecordedRun run = new RecordedRun(path);
+      closeRecording();
+      recording = run;
+      view.showRecording(run.getTickCount());
+      if (run.getTickCount() > 0) {
+        scrubTo(0);
+      }
+    } catch (IOException | IllegalStateException e) {
+      view.displayError("Cannot open recording: " + e.getMessage());
+    }
+  }
+
+  /**
+   * This method is used to show the recorded run at a tick.
+   * @param tick the tick to show
+   */
+  public void scrubTo(long tick) {
+    if (recording == null) {
+      return;
+    }
+    try {
+      view.updateView(recording.reportAt(tick));
+    } catch (IOException | IllegalStateException e) {
+      view.displayError("Cannot read recording: " + e.getMessage());
+    }
+  }
+
+  /**
+   * This method is used to close the recorded run, if one is open.
+   */
+  public void closeRecording() {
+    if (recording == null) {
+      return;
+    }
+    try {
+      recording.close();
+    } catch (IOException e) {
+      view.displayError("Cannot close recording: " + e.getMessage());
+    }
+    recording = null;
+  }
+
+  /**
+   * This method is used to start stepping the model in real time on a thread of its own.
+   * While it runs, the other actions are handed to that thread and the view is refreshed
+   * after each step without holding it up.
+   * @param speedUp how many times faster than one tick a second to run
+   */
+  public void startRealTime(double speedUp) {
+    if (isRealTime()) {
+      scheduler.setSpeedUp(speedUp);
+      return;
+    }
+    RealTimeScheduler realTime = new RealTimeScheduler(model, REAL_TIME_TICK_NANOS, speedUp);
+    realTime.addListener(new TickListener() {
+      @Override
+      public void ticked(long tick) {
+        publish(realTime);
+      }
+
+      @Override
+      public void failed(RuntimeException failure) {
+        SwingUtilities.invokeLater(() -> {
+          view.showRealTime(false);
+          view.displayError("Real time stopped: " + failure.getMessage());
+        });
+      }
+    });
+    scheduler = realTime;
+    realTime.start();
+    view.showRealTime(true);
+  }
+
+  /**
+   * This method is used to stop stepping the model in real time, if it is running.
+   */
+  public void stopRealTime() {
+    if (scheduler == null) {
+      return;
+    }
+    scheduler.stop();
+    scheduler = null;
+    view.showRealTime(false);
+    view.updateView(model.getElevatorSystemStatus());
+  }
+
+  /**
+   * This method is used to tell whether the model is being stepped in real time.
+   * @return true if the model is being stepped in real time
+   */
+  public boolean isRealTime() {
+    return scheduler != null && scheduler.isRunning();
+  }
+
+  /**
+   * Tell the view a request was not taken, and why.
+   */
+  private void showTurnedAway(Request request, RequestStatus status) {
+    view.displayError("Request " + request + " was not taken: " + status + ".");
+  }
+
+  /**
+   * Hand an action to the scheduler's thread and show the report once it has run.
+   */
+  private void runOnScheduler(Runnable action) {
+    RealTimeScheduler realTime = scheduler;
+    try {
+      realTime.execute(() -> {
+        try {
+          action.run();
+        } catch (IllegalArgumentException | IllegalStateException e) {
+          SwingUtilities.invokeLater(() -> view.displayError(e.getMessage()));
+          return;
+        }
+        publish(realTime);
+      });
+    } catch (IllegalStateException e) {
+      view.displayError(e.getMessage());
+    }
+  }
+
+  /**
+   * Called on the scheduler's thread: keep only the newest report, and only queue a refresh
+   * of the view when none is waiting, so a slow view skips reports instead of piling them up.
+   */
+  private void publish(RealTimeScheduler realTime) {
+    if (latestReport.getAndSet(model.getElevatorSystemStatus()) == null) {
+      SwingUtilities.invokeLater(() -> {
+        view.updateView(latestReport.getAndSet(null));
+        view.showRealTimeStatus(realTime.getTicks(), realTime.getMissedDeadlines());
+      });
+    }
+  }
 }
@@ -2,7 +2,14 @@ package elevator;
 
 
 import building.enums.Direction;
+import building.enums.SweepMode;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import scanerzus.Request;
 
 
@@ -11,14 +18,15 @@ import scanerzus.Request;
  */
 public class Elevator implements ElevatorInterface {
   /************************************************************************
-   * static value used to initialize the elevator id.
+   * static value used to initialize the id of an elevator created without one.
+   * Shared by every thread, so it is atomic.
    ************************************************************************/
-  private static int newElevatorId = 0;
+  private static final AtomicInteger newElevatorId = new AtomicInteger();
 
   /************************************************************************
    * The id of the elevator.This is read only.
    ************************************************************************/
-  private final int id = newElevatorId++;
+  private final int id;
 
   /************************************************************************
    * The total number of floors in the building.
@@ -76,13 +84,39 @@ public class Elevator implements ElevatorInterface {
 
 
   /************************************************************************
-   * The requests for the floors.
+   * The requests for the floors, one bit per floor.
    ************************************************************************/
-  private final boolean[] floorRequests; // true if there is a request for the floor.
+  private final FloorRequestSet floorRequests;
 
 
   private boolean outOfService;  // start must be issued on the elevator to start it.
 
+  /************************************************************************
+   * How the elevator decides where a run ends. TERMINAL by default.
+   ************************************************************************/
+  private SweepMode sweepMode = SweepMode.TERMINAL;
+
+  /************************************************************************
+   * LOOK riders not yet picked up. Their destinations become stops when the
+   * door opens at their start floor, so the car never turns for a destination
+   * before it has the rider on board.
+   ************************************************************************/
+  private final List<Request> waitingRiders = new ArrayList<>();
+
+  /************************************************************************
+   * The calls the elevator has been given and not yet delivered, with the
+   * number of passengers of each: those still to be picked up, and those
+   * on board.
+   ************************************************************************/
+  private final List<Rider> ridersToBoard = new ArrayList<>();
+  private final List<Rider> ridersOnBoard = new ArrayList<>();
+
+  /************************************************************************
+   * The passengers of those calls: the places in the elevator that are
+   * already taken or promised.
+   ************************************************************************/
+  private int committedRiders;
+
 
   /**
    * The constructor for this elevator.
@@ -97,23 +131,87 @@ public class Elevator implements ElevatorInterface {
    * @throws IllegalArgumentException if the maxFloor or maxOccupancy is out of range
    */
   public Elevator(int maxFloor, int maxOccupancy) {
-    if (maxFloor < 3 || maxFloor > 30) {
-      throw new IllegalArgumentException("maxFloor must be between 3 and 30");
+    this(maxFloor, maxOccupancy, FleetLimits.STANDARD);
+  }
+
+  /**
+   * The constructor for an elevator in a building with the given limits.
+   * The elevator is initially at the ground floor and is not moving.
+   *
+   * @param maxFloor     the total number of floors in the building
+   *                     must be at least 3 and at most the floor limit
+   * @param maxOccupancy the maximum number of people that can fit in the elevator
+   *                     must be greater than 0
+   *                     must be less than 20 (fire code)
+   * @param limits       the limits of the building the elevator is in
+   * @throws IllegalArgumentException if the maxFloor or maxOccupancy is out of range
+   */
+  public Elevator(int maxFloor, int maxOccupancy, FleetLimits limits) {
+    this(newElevatorId.getAndIncrement(), maxFloor, maxOccupancy, limits);
+  }
+
+  /**
+   * The constructor for an elevator with an id chosen by its building, so that the ids
+   * of one building do not depend on how many elevators other buildings have created.
+   * The elevator is initially at the ground floor and is not moving.
+   *
+   * @param id           the id of the elevator, must not be negative
+   * @param maxFloor     the total number of floors in the building
+   *                     must be at least 3 and at most the floor limit
+   * @param maxOccupancy the maximum number of people that can fit in the elevator
+   *                     must be greater than 0
+   *                     must be less than 20 (fire code)
+   * @param limits       the limits of the building the elevator is in
+   * @throws IllegalArgumentException if the id, maxFloor or maxOccupancy is out of range
+   */
+  public Elevator(int id, int maxFloor, int maxOccupancy, FleetLimits limits) {
+    if (id < 0) {
+      throw new IllegalArgumentException("id cannot be negative");
+    }
+    if (limits == null) {
+      throw new IllegalArgumentException("limits cannot be null");
+    }
+    if (maxFloor < 3 || maxFloor > limits.getMaxFloors()) {
+      throw new IllegalArgumentException(
+          "maxFloor must be between 3 and " + limits.getMaxFloors());
     }
     if (maxOccupancy < 3 || maxOccupancy > 20) {
       throw new IllegalArgumentException("maxOccupancy must be between 3 and 20");
     }
 
+    this.id = id;
     this.maxFloor = maxFloor;
     this.maxOccupancy = maxOccupancy;
     this.currentFloor = 0;
     this.direction = Direction.STOPPED;
     this.outOfService = true;
-    this.floorRequests = new boolean[maxFloor];
+    this.floorRequests = new FloorRequestSet(maxFloor);
     this.takingRequests = false;
 
   }
 
+  /**
+   * Copy another elevator's configuration and state.
+   */
+  private Elevator(Elevator other) {
+    this.id = other.id;
+    this.maxFloor = other.maxFloor;
+    this.maxOccupancy = other.maxOccupancy;
+    this.currentFloor = other.currentFloor;
+    this.direction = other.direction;
+    this.sweepMode = other.sweepMode;
+    this.doorClosed = other.doorClosed;
+    this.doorOpenTimeLeft = other.doorOpenTimeLeft;
+    this.stopWaitTimeLeft = other.stopWaitTimeLeft;
+    this.outOfService = other.outOfService;
+    this.takingRequests = other.takingRequests;
+    this.floorRequests = other.floorRequests.copy();
+    this.waitingRiders.addAll(other.waitingRiders);
+    this.ridersToBoard.addAll(other.ridersToBoard);
+    this.ridersOnBoard.addAll(other.ridersOnBoard);
+    this.committedRiders = other.committedRiders;
+  }
+
   /* ***********************************************************************
    * The following methods are the getters for the ElevatorStatus interface.
    * **********************************************************************/
@@ -166,6 +264,26 @@ public class Elevator implements ElevatorInterface {
     return this.id;
   }
 
+  /**
+   * Get the number of steps the door stays open at a stop.
+   *
+   * @return the number of steps the door is open for.
+   */
+  @Override
+  public int getDoorOpenTimeTotal() {
+    return this.doorOpenTimeTotal;
+  }
+
+  /**
+   * Get the number of steps the elevator waits at the top or bottom.
+   *
+   * @return the number of steps the elevator waits at the end of a run.
+   */
+  @Override
+  public int getStopWaitTimeTotal() {
+    return this.stopWaitTimeTotal;
+  }
+
   /**
    * Get the door status.
    *
@@ -179,11 +297,80 @@ public class Elevator implements ElevatorInterface {
   /**
    * Return the current stop requests.
    *
-   * @return the current stop requests.
+   * @return a copy of the current stop requests, one entry per floor.
    */
   @Override
   public boolean[] getFloorRequests() {
-    return this.floorRequests;
+    return this.floorRequests.toBooleanArray();
+  }
+
+  /**
+   * Return the current stop requests as a set of floors.
+   *
+   * @return a copy of the current stop requests.
+   */
+  @Override
+  public FloorRequestSet getFloorRequestSet() {
+    return this.floorRequests.copy();
+  }
+
+  /**
+   * Get the next floor with a stop request in the direction of travel.
+   *
+   * @return the next requested floor ahead of the elevator, or -1 if there is none.
+   */
+  @Override
+  public int getNextStop() {
+    if (this.direction == Direction.UP) {
+      return this.floorRequests.nextAbove(this.currentFloor);
+    }
+    if (this.direction == Direction.DOWN) {
+      return this.floorRequests.nextBelow(this.currentFloor);
+    }
+    return -1;
+  }
+
+  /**
+   * Get the number of passengers the elevator has been given and not yet dropped off,
+   * whether they are on board or still waiting to be picked up.
+   *
+   * @return the number of committed riders.
+   */
+  @Override
+  public int getCommittedRiders() {
+    return this.committedRiders;
+  }
+
+  /**
+   * Get the sweep mode.
+   *
+   * @return how the elevator decides where a run ends.
+   */
+  @Override
+  public SweepMode getSweepMode() {
+    return this.sweepMode;
+  }
+
+  /**
+   * Set the sweep mode. The new mode applies from the next step.
+   * A LOOK elevator parked between the top and bottom that is switched to TERMINAL
+   * heads down to the bottom floor to wait for requests there.
+   *
+   * @param sweepMode how the elevator decides where a run ends.
+   * @throws IllegalArgumentException if the mode is null.
+   */
+  @Override
+  public void setSweepMode(SweepMode sweepMode) {
+    if (sweepMode == null) {
+      throw new IllegalArgumentException("sweepMode cannot be null");
+    }
+    if (sweepMode == SweepMode.TERMINAL && this.sweepMode == SweepMode.LOOK
+        && !this.outOfService && this.direction == Direction.STOPPED
+        && this.stopWaitTimeLeft == 0 && this.currentFloor != 0) {
+      this.direction = Direction.DOWN;
+      this.takingRequests = false;
+    }
+    this.sweepMode = sweepMode;
   }
 
   /* ***********************************************************************
@@ -194,6 +381,7 @@ public class Elevator implements ElevatorInterface {
    * processRequests() - process the requests
    * takeOutOfService() - take the elevator out of service
    * isTakingRequests() - is the elevator taking requests
+   * canAcceptRequest() - can a moving elevator pick up a request on its way
    * toString() - string representation of the elevator
    * getElevatorStatus() - generate a report for the elevator in ElevatorReport format
    *
@@ -246,10 +434,18 @@ public class Elevator implements ElevatorInterface {
     // the door is closed and we are not waiting at the top or bottom.
     // now we check to see if there is a request at this floor
     // We open the door and set the timer for 3 steps.
-    if (this.floorRequests[this.currentFloor]) {
+    if (this.floorRequests.contains(this.currentFloor)) {
       this.doorClosed = false;
       this.doorOpenTimeLeft = this.doorOpenTimeTotal;
-      this.floorRequests[this.currentFloor] = false;
+      this.floorRequests.remove(this.currentFloor);
+      this.exchangeRiders();
+      this.boardWaitingRiders();
+      return;
+    }
+
+    // In LOOK mode the run ends where the stops end, not at the top or bottom.
+    if (this.sweepMode == SweepMode.LOOK) {
+      this.stepLook();
       return;
     }
 
@@ -296,6 +492,84 @@ public class Elevator implements ElevatorInterface {
     }
   }
 
+  /**
+   * The number of steps before the next step that does more than count a timer down or
+   * move the elevator one floor the way it is going. Those steps can be taken all at once
+   * with advance.
+   *
+   * @return the number of steps, or Long.MAX_VALUE if nothing will change until the
+   *         elevator is given requests.
+   */
+  @Override
+  public long stepsUntilNextEvent() {
+    if (this.outOfService) {
+      if (this.currentFloor == 0) {
+        return this.doorClosed ? 0 : Long.MAX_VALUE;
+      }
+      if (!this.doorClosed) {
+        return Math.max(0, this.doorOpenTimeLeft - 1);
+      }
+      return this.direction == Direction.DOWN ? this.currentFloor : 0;
+    }
+    if (!this.doorClosed) {
+      return Math.max(0, this.doorOpenTimeLeft - 1);
+    }
+    if (this.stopWaitTimeLeft > 0) {
+      return this.stopWaitTimeLeft - 1;
+    }
+    if (this.floorRequests.contains(this.currentFloor)) {
+      return 0;
+    }
+
+    int next = this.getNextStop();
+    if (this.sweepMode == SweepMode.LOOK) {
+      if (next != -1) {
+        return Math.abs(next - this.currentFloor);
+      }
+      boolean parked = this.direction == Direction.STOPPED && this.takingRequests;
+      return parked && this.floorRequests.isEmpty() ? Long.MAX_VALUE : 0;
+    }
+    if (this.direction == Direction.UP) {
+      return (next == -1 ? this.maxFloor - 1 : next) - this.currentFloor;
+    }
+    if (this.direction == Direction.DOWN) {
+      return this.currentFloor - (next == -1 ? 0 : next);
+    }
+    return Long.MAX_VALUE;
+  }
+
+  /**
+   * Take several steps at once, in constant time.
+   *
+   * @param steps the number of steps, at most stepsUntilNextEvent.
+   * @throws IllegalArgumentException if steps is negative or more than stepsUntilNextEvent.
+   */
+  @Override
+  public void advance(long steps) {
+    if (steps < 0 || steps > this.stepsUntilNextEvent()) {
+      throw new IllegalArgumentException("Cannot advance " + steps
+          + " steps past the next event.");
+    }
+    if (steps == 0) {
+      return;
+    }
+    if (!this.doorClosed) {
+      if (!this.outOfService || this.currentFloor != 0) {
+        this.doorOpenTimeLeft -= (int) steps;
+      }
+      return;
+    }
+    if (!this.outOfService && this.stopWaitTimeLeft > 0) {
+      this.stopWaitTimeLeft -= (int) steps;
+      return;
+    }
+    if (this.direction == Direction.UP) {
+      this.currentFloor += (int) steps;
+    } else if (this.direction == Direction.DOWN) {
+      this.currentFloor -= (int) steps;
+    }
+  }
+
   /**
    * Step the elevator when out of service.
    * If the elevator is on the ground floor and the door is open return
@@ -314,7 +588,7 @@ public class Elevator implements ElevatorInterface {
     if (this.currentFloor == 0) {
       this.doorClosed = false;
       // we can clear the floor requests now
-      this.floorRequests[this.currentFloor] = false;
+      this.floorRequests.remove(this.currentFloor);
       // we can set the elevator to stopped.
       this.direction = Direction.STOPPED;
       return;
@@ -334,6 +608,87 @@ public class Elevator implements ElevatorInterface {
     this.currentFloor--;
   }
 
+  /**
+   * Step a LOOK elevator whose door is closed and that has no request at this floor.
+   * If there are stops ahead keep moving. If there are only stops behind, turn around
+   * and move towards them at once. If there are no stops at all, park here and take requests.
+   */
+  private void stepLook() {
+    if (this.getNextStop() == -1) {
+      int above = this.floorRequests.nextAbove(this.currentFloor);
+      int below = this.floorRequests.nextBelow(this.currentFloor);
+      if (above == -1 && below == -1) {
+        this.direction = Direction.STOPPED;
+        this.takingRequests = true;
+        return;
+      }
+      this.direction = this.towards(above, below);
+    }
+
+    if (this.direction == Direction.UP) {
+      this.currentFloor++;
+    } else {
+      this.currentFloor--;
+    }
+  }
+
+  /**
+   * Let off the riders whose destination is this floor and take on the riders waiting at it.
+   */
+  private void exchangeRiders() {
+    for (int i = this.ridersOnBoard.size() - 1; i >= 0; i--) {
+      Rider rider = this.ridersOnBoard.get(i);
+      if (rider.request.getEndFloor() == this.currentFloor) {
+        this.committedRiders -= rider.passengers;
+        this.ridersOnBoard.remove(i);
+      }
+    }
+    for (int i = this.ridersToBoard.size() - 1; i >= 0; i--) {
+      Rider rider = this.ridersToBoard.get(i);
+      if (rider.request.getStartFloor() == this.currentFloor) {
+        this.ridersOnBoard.add(rider);
+        this.ridersToBoard.remove(i);
+      }
+    }
+  }
+
+  /**
+   * Add the destinations of the riders waiting at this floor as stops.
+   */
+  private void boardWaitingRiders() {
+    for (int i = this.waitingRiders.size() - 1; i >= 0; i--) {
+      Request rider = this.waitingRiders.get(i);
+      if (rider.getStartFloor() == this.currentFloor) {
+        this.floorRequests.add(rider.getEndFloor());
+        this.waitingRiders.remove(i);
+      }
+    }
+  }
+
+  /**
+   * The direction towards the stops when there are none ahead: back the way the elevator
+   * came, or towards the nearer stop if it is parked.
+   *
+   * @param above the nearest stop above, or -1.
+   * @param below the nearest stop below, or -1.
+   */
+  private Direction towards(int above, int below) {
+    if (above == -1) {
+      return Direction.DOWN;
+    }
+    if (below == -1) {
+      return Direction.UP;
+    }
+    if (this.direction == Direction.UP) {
+      return Direction.DOWN;
+    }
+    if (this.direction == Direction.DOWN) {
+      return Direction.UP;
+    }
+    return above - this.currentFloor <= this.currentFloor - below
+        ? Direction.UP : Direction.DOWN;
+  }
+
   /**
    * Process the door open step function.
    */
@@ -366,11 +721,25 @@ public class Elevator implements ElevatorInterface {
    * if we are at the bottom or the top.
    * If a request is received to processRequests and the elevator
    * is not on the first floor or the top floor then and exception
-   * will be thrown.
+   * will be thrown. A LOOK elevator parked between them may also process requests.
+   * The requests are added to any stops the elevator already has.
+   * Each request is one passenger, and the elevator never takes more passengers than it
+   * holds, counting the riders it already has.
    */
   @Override
   public void processRequests(List<Request> requests) throws IllegalStateException {
-    if (this.currentFloor != 0 && this.currentFloor != this.maxFloor - 1) {
+    int[] passengers = onePassengerEach(requests);
+    this.checkRoom(passengers);
+    this.processRequests(requests, passengers);
+  }
+
+  /**
+   * Process the requests of a new run, each with its number of passengers.
+   */
+  private void processRequests(List<Request> requests, int[] passengers) {
+    boolean parked = this.sweepMode == SweepMode.LOOK && this.takingRequests
+        && this.direction == Direction.STOPPED && this.stopWaitTimeLeft == 0;
+    if (this.currentFloor != 0 && this.currentFloor != this.maxFloor - 1 && !parked) {
       throw new IllegalStateException("Elevator cannot process requests "
           + "unless it is at the bottom or top floor.");
     }
@@ -379,16 +748,73 @@ public class Elevator implements ElevatorInterface {
       return;
     }
 
-    this.processStopRequests(requests);
-    if (this.currentFloor == 0) {
-      this.direction = Direction.UP;
-    } else if (this.currentFloor == this.maxFloor - 1) {
-      this.direction = Direction.DOWN;
+    Direction heading;
+    if (parked) {
+      // The first step picks the way to the nearer stop.
+      heading = Direction.STOPPED;
+    } else if (this.currentFloor == 0) {
+      heading = Direction.UP;
+    } else {
+      heading = Direction.DOWN;
     }
+    this.processStopRequests(requests, passengers, heading);
+    this.direction = heading;
     this.takingRequests = false;
 
   }
 
+  /**
+   * Merge requests into the elevator's current sweep without dropping the stops it has.
+   * Each request is one passenger.
+   *
+   * @param requests the requests to add.
+   * @throws IllegalStateException    if the elevator is out of service.
+   * @throws IllegalArgumentException if a request has a floor outside the building.
+   */
+  @Override
+  public void mergeRequests(List<Request> requests) throws IllegalStateException {
+    this.mergeRequests(requests, onePassengerEach(requests));
+  }
+
+  /**
+   * Merge requests into the elevator's current sweep without dropping the stops it has.
+   * An elevator that is taking requests processes them as a new run. A moving elevator
+   * stops for each request's start floor on its way, or on a later sweep if it has passed it,
+   * and adds the destination once the rider is on board. This costs O(k) for k requests.
+   * The passengers count as committed riders until the elevator opens its doors at their
+   * destination, and together with the riders it already has they must fit in the elevator.
+   *
+   * @param requests   the requests to add.
+   * @param passengers the number of passengers of each request.
+   * @throws IllegalStateException    if the elevator is out of service or the passengers do
+   *                                  not fit.
+   * @throws IllegalArgumentException if a request has a floor outside the building, or the
+   *                                  passengers do not match the requests.
+   */
+  @Override
+  public void mergeRequests(List<Request> requests, int[] passengers)
+      throws IllegalStateException {
+    if (passengers == null || passengers.length != requests.size()) {
+      throw new IllegalArgumentException("There must be one passenger count per request.");
+    }
+    for (int count : passengers) {
+      if (count < 1) {
+        throw new IllegalArgumentException("Every request must have a passenger.");
+      }
+    }
+    if (this.outOfService) {
+      throw new IllegalStateException("Elevator cannot take requests while out of service.");
+    }
+    this.checkRoom(passengers);
+    if (this.takingRequests) {
+      this.processRequests(requests, passengers);
+      return;
+    }
+    for (int i = 0; i < requests.size(); i++) {
+      this.addRider(requests.get(i), passengers[i], this.direction);
+    }
+  }
+
   /**
    * Take the elevator out of service.
    */
@@ -414,12 +840,66 @@ public class Elevator implements ElevatorInterface {
   }
 
 
-  private void processStopRequests(List<Request> requests) {
-    clearStopRequests();
+  /**
+   * canAcceptRequest.
+   * A moving elevator can pick up a request on its way when the request travels in the
+   * same direction as the elevator and starts at or ahead of the elevator's floor.
+   *
+   * @param request the request to pick up.
+   * @return true if the elevator can add the request to its current run.
+   */
+  @Override
+  public boolean canAcceptRequest(Request request) {
+    if (this.outOfService || this.takingRequests || this.stopWaitTimeLeft > 0) {
+      return false;
+    }
+    int start = request.getStartFloor();
+    int end = request.getEndFloor();
+    if (start < 0 || start >= this.maxFloor || end < 0 || end >= this.maxFloor) {
+      return false;
+    }
+    if (this.direction == Direction.UP) {
+      return start < end && start >= this.currentFloor;
+    }
+    if (this.direction == Direction.DOWN) {
+      return start > end && start <= this.currentFloor;
+    }
+    return false;
+  }
+
+  /**
+   * Add a rider's start floor as a stop. The destination is added at once if the rider is
+   * already on board, or if a TERMINAL elevator heading the given way reaches the start floor
+   * before the destination; otherwise it waits until the door opens at the start floor.
+   */
+  private void addRider(Request request, int passengers, Direction heading) {
+    int start = request.getStartFloor();
+    int end = request.getEndFloor();
+    if (start < 0 || start >= this.maxFloor || end < 0 || end >= this.maxFloor) {
+      throw new IllegalArgumentException("Request " + request + " is outside the building.");
+    }
+    this.committedRiders += passengers;
+    if (start == this.currentFloor && !this.doorClosed) {
+      this.ridersOnBoard.add(new Rider(request, passengers));
+      this.floorRequests.add(end);
+      return;
+    }
+    this.ridersToBoard.add(new Rider(request, passengers));
+    this.floorRequests.add(start);
+    boolean onTheWay = heading == Direction.UP
+        ? start >= this.currentFloor && end > start
+        : heading == Direction.DOWN && start <= this.currentFloor && end < start;
+    if (this.sweepMode == SweepMode.TERMINAL && onTheWay) {
+      this.floorRequests.add(end);
+    } else {
+      this.waitingRiders.add(request);
+    }
+  }
 
-    for (Request request : requests) {
-      this.floorRequests[request.getStartFloor()] = true;
-      this.floorRequests[request.getEndFloor()] = true;
+  private void processStopRequests(List<Request> requests, int[] passengers,
+                                   Direction heading) {
+    for (int i = 0; i < requests.size(); i++) {
+      this.addRider(requests.get(i), passengers[i], heading);
     }
     // if the elevator was waiting at the top or bottom
     // set the timer to 0 and we are off to the races.
@@ -430,11 +910,36 @@ public class Elevator implements ElevatorInterface {
    * Clear the Floor Requests.
    */
   private void clearStopRequests() {
-    for (int i = 0; i < this.maxFloor; i++) {
-      this.floorRequests[i] = false;
+    this.floorRequests.clear();
+    this.waitingRiders.clear();
+    this.ridersToBoard.clear();
+    this.ridersOnBoard.clear();
+    this.committedRiders = 0;
+  }
+
+  /**
+   * Check that passengers fit in the elevator besides its committed riders.
+   */
+  private void checkRoom(int[] passengers) {
+    int total = this.committedRiders;
+    for (int count : passengers) {
+      total += count;
+    }
+    if (total > this.maxOccupancy) {
+      throw new IllegalStateException("Elevator cannot carry " + total
+          + " passengers; it holds " + this.maxOccupancy + ".");
     }
   }
 
+  /**
+   * One passenger for each request.
+   */
+  private static int[] onePassengerEach(List<Request> requests) {
+    int[] passengers = new int[requests.size()];
+    Arrays.fill(passengers, 1);
+    return passengers;
+  }
+
   /**
    * toString implementation.
    *
@@ -447,7 +952,7 @@ public class Elevator implements ElevatorInterface {
         this.currentFloor,
         this.direction,
         this.doorClosed,
-        this.floorRequests,
+        this.floorRequests.copy(),
         this.doorOpenTimeLeft,
         this.stopWaitTimeLeft,
         this.outOfService,
@@ -469,11 +974,175 @@ public class Elevator implements ElevatorInterface {
         this.currentFloor,
         this.direction,
         this.doorClosed,
-        this.floorRequests,
+        this.floorRequests.copy(),
         this.doorOpenTimeLeft,
         this.stopWaitTimeLeft,
         this.outOfService,
-        this.takingRequests);
+        this.takingRequests,
+        this.committedRiders);
+  }
+
+  /**
+   * Copy the elevator, for a forked building.
+   *
+   * @return a new elevator with the same id and state.
+   */
+  @Override
+  public Elevator copy() {
+    return new Elevator(this);
+  }
+
+  /**
+   * Write the state of the elevator for a building snapshot.
+   *
+   * @param out the output to write to.
+   * @throws IOException if the output cannot be written.
+   */
+  @Override
+  public void writeState(DataOutput out) throws IOException {
+    out.writeInt(this.id);
+    out.writeInt(this.maxFloor);
+    out.writeInt(this.currentFloor);
+    out.writeByte(this.direction.ordinal());
+    out.writeByte(this.sweepMode.ordinal());
+    out.writeBoolean(this.doorClosed);
+    out.writeInt(this.doorOpenTimeLeft);
+    out.writeInt(this.stopWaitTimeLeft);
+    out.writeBoolean(this.outOfService);
+    out.writeBoolean(this.takingRequests);
+    out.writeInt(this.floorRequests.count());
+    for (int floor = this.floorRequests.nextAbove(-1); floor != -1;
+         floor = this.floorRequests.nextAbove(floor)) {
+      out.writeInt(floor);
+    }
+    out.writeInt(this.waitingRiders.size());
+    for (Request rider : this.waitingRiders) {
+      out.writeInt(rider.getStartFloor());
+      out.writeInt(rider.getEndFloor());
+    }
+    writeRiders(this.ridersToBoard, out);
+    writeRiders(this.ridersOnBoard, out);
   }
 
+  private static void writeRiders(List<Rider> riders, DataOutput out) throws IOException {
+    out.writeInt(riders.size());
+    for (Rider rider : riders) {
+      out.writeInt(rider.request.getStartFloor());
+      out.writeInt(rider.request.getEndFloor());
+      out.writeInt(rider.passengers);
+    }
+  }
+
+  /**
+   * Replace the state of the elevator with one written by writeState.
+   *
+   * @param in      the input to read from.
+   * @param version the snapshot format version; before version 3 the elevator's committed
+   *                riders were not written, so it has none.
+   * @throws IOException           if the input cannot be read.
+   * @throws IllegalStateException if the state is for another elevator or is not valid.
+   */
+  @Override
+  public void readState(DataInput in, int version) throws IOException {
+    if (in.readInt() != this.id || in.readInt() != this.maxFloor) {
+      throw new IllegalStateException("The state is for another elevator.");
+    }
+    int floor = this.checkFloor(in.readInt());
+    int directionIndex = in.readUnsignedByte();
+    int sweepIndex = in.readUnsignedByte();
+    if (directionIndex >= Direction.values().length
+        || sweepIndex >= SweepMode.values().length) {
+      throw new IllegalStateException("Invalid elevator state.");
+    }
+    boolean closed = in.readBoolean();
+    int doorLeft = in.readInt();
+    int waitLeft = in.readInt();
+    if (doorLeft < 0 || doorLeft > this.doorOpenTimeTotal
+        || waitLeft < 0 || waitLeft > this.stopWaitTimeTotal) {
+      throw new IllegalStateException("Invalid elevator timers.");
+    }
+    boolean service = in.readBoolean();
+    boolean taking = in.readBoolean();
+    FloorRequestSet stops = new FloorRequestSet(this.maxFloor);
+    int stopCount = in.readInt();
+    if (stopCount < 0 || stopCount > this.maxFloor) {
+      throw new IllegalStateException("Invalid elevator stops.");
+    }
+    for (int i = 0; i < stopCount; i++) {
+      stops.add(this.checkFloor(in.readInt()));
+    }
+    int riderCount = in.readInt();
+    if (riderCount < 0) {
+      throw new IllegalStateException("Invalid elevator riders.");
+    }
+    List<Request> riders = new ArrayList<>();
+    for (int i = 0; i < riderCount; i++) {
+      riders.add(new Request(this.checkFloor(in.readInt()), this.checkFloor(in.readInt())));
+    }
+    List<Rider> toBoard = new ArrayList<>();
+    List<Rider> onBoard = new ArrayList<>();
+    if (version >= 3) {
+      this.readRiders(in, toBoard);
+      this.readRiders(in, onBoard);
+    }
+
+    this.currentFloor = floor;
+    this.direction = Direction.values()[directionIndex];
+    this.sweepMode = SweepMode.values()[sweepIndex];
+    this.doorClosed = closed;
+    this.doorOpenTimeLeft = doorLeft;
+    this.stopWaitTimeLeft = waitLeft;
+    this.outOfService = service;
+    this.takingRequests = taking;
+    this.floorRequests.clear();
+    this.floorRequests.addAll(stops);
+    this.waitingRiders.clear();
+    this.waitingRiders.addAll(riders);
+    this.ridersToBoard.clear();
+    this.ridersToBoard.addAll(toBoard);
+    this.ridersOnBoard.clear();
+    this.ridersOnBoard.addAll(onBoard);
+    this.committedRiders = 0;
+    for (Rider rider : toBoard) {
+      this.committedRiders += rider.passengers;
+    }
+    for (Rider rider : onBoard) {
+      this.committedRiders += rider.passengers;
+    }
+  }
+
+  private void readRiders(DataInput in, List<Rider> riders) throws IOException {
+    int count = in.readInt();
+    if (count < 0) {
+      throw new IllegalStateException("Invalid elevator riders.");
+    }
+    for (int i = 0; i < count; i++) {
+      Request request = new Request(this.checkFloor(in.readInt()), this.checkFloor(in.readInt()));
+      int passengers = in.readInt();
+      if (passengers < 1) {
+        throw new IllegalStateException("Invalid number of passengers.");
+      }
+      riders.add(new Rider(request, passengers));
+    }
+  }
+
+  private int checkFloor(int floor) {
+    if (floor < 0 || floor >= this.maxFloor) {
+      throw new IllegalStateException("Invalid floor " + floor + " in elevator state.");
+    }
+    return floor;
+  }
+
+  /**
+   * A call given to the elevator and the number of its passengers.
+   */
+  private static final class Rider {
+    private final Request request;
+    private final int passengers;
+
+    private Rider(Request request, int passengers) {
+      this.request = request;
+      this.passengers = passengers;
+    }
+  }
 }
@@ -1,6 +1,10 @@
 package elevator;
 
 import building.enums.Direction;
+import building.enums.SweepMode;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.List;
 import scanerzus.Request;
 
@@ -50,6 +54,20 @@ public interface ElevatorInterface {
    */
   Direction getDirection();
 
+  /**
+   * Returns the number of steps the door stays open at a stop.
+   *
+   * @return the number of steps the door is open for.
+   */
+  int getDoorOpenTimeTotal();
+
+  /**
+   * Returns the number of steps the elevator waits at the top or bottom.
+   *
+   * @return the number of steps the elevator waits at the end of a run.
+   */
+  int getStopWaitTimeTotal();
+
   /**
    * Returns the door status of the elevator.
    *
@@ -64,6 +82,44 @@ public interface ElevatorInterface {
    */
   boolean[] getFloorRequests();
 
+  /**
+   * Return the current stop requests as a set of floors.
+   *
+   * @return the current stop requests.
+   */
+  FloorRequestSet getFloorRequestSet();
+
+  /**
+   * Returns the next floor with a stop request in the direction the elevator is moving.
+   *
+   * @return the next requested floor ahead of the elevator, or -1 if there is none.
+   */
+  int getNextStop();
+
+  /**
+   * Returns the number of passengers the elevator has been given and not yet dropped off.
+   *
+   * @return the number of committed riders.
+   */
+  int getCommittedRiders();
+
+  /**
+   * Get the sweep mode.
+   *
+   * @return how the elevator decides where a run ends.
+   */
+  SweepMode getSweepMode();
+
+  /**
+   * Set the sweep mode.
+   * In TERMINAL mode every run goes to the top or bottom floor and waits there.
+   * In LOOK mode the elevator turns around once there are no stops ahead, and parks,
+   * taking requests, once there are no stops at all.
+   *
+   * @param sweepMode how the elevator decides where a run ends.
+   */
+  void setSweepMode(SweepMode sweepMode);
+
   /**
    * start elevator.
    * This will start the elevator if the elevator is on the ground floor.
@@ -89,6 +145,23 @@ public interface ElevatorInterface {
    */
   void step();
 
+  /**
+   * The number of coming steps that only count a timer down or move the elevator one floor
+   * the way it is going.
+   *
+   * @return the number of steps, or Long.MAX_VALUE if nothing will change until the
+   *         elevator is given requests.
+   */
+  long stepsUntilNextEvent();
+
+  /**
+   * Take several steps at once. The result is the same as calling step that many times.
+   *
+   * @param steps the number of steps, at most stepsUntilNextEvent.
+   * @throws IllegalArgumentException if steps is more than stepsUntilNextEvent.
+   */
+  void advance(long steps);
+
   /**
    * processUpRequests.
    * This will tell the elevator to process these upRequests on the next run.
@@ -98,6 +171,29 @@ public interface ElevatorInterface {
    */
   void processRequests(List<Request> requests) throws IllegalArgumentException;
 
+  /**
+   * mergeRequests.
+   * This will add requests to the elevator's stops without dropping the ones it has.
+   * An elevator that is taking requests starts a new run with them; a moving elevator
+   * serves them on its current sweep, or on a later one for requests it has passed.
+   * Each request is one passenger.
+   *
+   * @param requests the requests to add to the elevator.
+   * @throws IllegalStateException if the elevator is out of service.
+   */
+  void mergeRequests(List<Request> requests) throws IllegalStateException;
+
+  /**
+   * mergeRequests.
+   * This will add requests to the elevator's stops as mergeRequests does, each with the
+   * given number of passengers, who count as committed riders until they are dropped off.
+   *
+   * @param requests   the requests to add to the elevator.
+   * @param passengers the number of passengers of each request.
+   * @throws IllegalStateException if the elevator is out of service.
+   */
+  void mergeRequests(List<Request> requests, int[] passengers) throws IllegalStateException;
+
 
   /**
    * isTakingRequests.
@@ -107,6 +203,17 @@ public interface ElevatorInterface {
    */
   boolean isTakingRequests();
 
+  /**
+   * canAcceptRequest.
+   * This will tell the building if a moving elevator can pick up a request on its way,
+   * that is if the request travels in the elevator's direction and starts at or ahead
+   * of the elevator.
+   *
+   * @param request the request to pick up.
+   * @return true if the elevator can add the request to its current run.
+   */
+  boolean canAcceptRequest(Request request);
+
   /**
    * This method is used to get the elevator status ElevatorReport.
    *
@@ -114,4 +221,35 @@ public interface ElevatorInterface {
    */
   ElevatorReport getElevatorStatus();
 
+  /**
+   * copy.
+   * This will create an elevator with the same id, configuration and state that changes
+   * independently of this one.
+   *
+   * @return the new elevator.
+   */
+  ElevatorInterface copy();
+
+  /**
+   * writeState.
+   * This will write everything the elevator needs to carry on from where it is, for a
+   * building snapshot.
+   *
+   * @param out the output to write to.
+   * @throws IOException if the output cannot be written.
+   */
+  void writeState(DataOutput out) throws IOException;
+
+  /**
+   * readState.
+   * This will replace the elevator's state with one written by writeState for an elevator
+   * with the same id and number of floors.
+   *
+   * @param in      the input to read from.
+   * @param version the format version of the snapshot the state was written in.
+   * @throws IOException           if the input cannot be read.
+   * @throws IllegalStateException if the state is not valid for this elevator.
+   */
+  void readState(DataInput in, int version) throws IOException;
+
 }
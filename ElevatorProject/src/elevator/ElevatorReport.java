@@ -9,7 +9,7 @@ public class ElevatorReport {
   private final int elevatorId;
   private final int currentFloor;
   private final boolean doorClosed;
-  private final boolean[] floorRequests;
+  private final FloorRequestSet floorRequests;
   private final Direction direction;
 
   private final int doorOpenTimer;
@@ -19,6 +19,7 @@ public class ElevatorReport {
 
   private final boolean isTakingRequests;
 
+  private final int committedRiders;
 
   /**
    * This constructor is used to create a new ElevatorReport object.
@@ -43,6 +44,64 @@ public class ElevatorReport {
                         int endWaitTimer,
                         boolean outOfService,
                         boolean isTakingRequests) {
+    this(elevatorId, currentFloor, direction, doorClosed,
+        FloorRequestSet.fromBooleanArray(floorRequests),
+        doorOpenTimer, endWaitTimer, outOfService, isTakingRequests);
+  }
+
+  /**
+   * This constructor is used to create a new ElevatorReport object from a set of
+   * requested floors. The report keeps the set, so the caller must not change it afterwards.
+   *
+   * @param elevatorId       The id of the elevator.
+   * @param currentFloor     The current floor of the elevator.
+   * @param doorClosed       The status of the door.
+   * @param floorRequests    The requests for the floors.
+   * @param direction        The direction of the elevator.
+   * @param doorOpenTimer    The timer for the door.
+   * @param endWaitTimer     The timer for the end of the run.
+   * @param outOfService     The status of the elevator.
+   * @param isTakingRequests Is the elevator taking requests.
+   */
+  public ElevatorReport(int elevatorId,
+                        int currentFloor,
+                        Direction direction,
+                        boolean doorClosed,
+                        FloorRequestSet floorRequests,
+                        int doorOpenTimer,
+                        int endWaitTimer,
+                        boolean outOfService,
+                        boolean isTakingRequests) {
+    this(elevatorId, currentFloor, direction, doorClosed, floorRequests,
+        doorOpenTimer, endWaitTimer, outOfService, isTakingRequests, 0);
+  }
+
+  /**
+   * This constructor is used to create a new ElevatorReport object from a set of
+   * requested floors and the number of passengers the elevator has been given. The report
+   * keeps the set, so the caller must not change it afterwards.
+   *
+   * @param elevatorId       The id of the elevator.
+   * @param currentFloor     The current floor of the elevator.
+   * @param doorClosed       The status of the door.
+   * @param floorRequests    The requests for the floors.
+   * @param direction        The direction of the elevator.
+   * @param doorOpenTimer    The timer for the door.
+   * @param endWaitTimer     The timer for the end of the run.
+   * @param outOfService     The status of the elevator.
+   * @param isTakingRequests Is the elevator taking requests.
+   * @param committedRiders  The passengers given to the elevator and not yet dropped off.
+   */
+  public ElevatorReport(int elevatorId,
+                        int currentFloor,
+                        Direction direction,
+                        boolean doorClosed,
+                        FloorRequestSet floorRequests,
+                        int doorOpenTimer,
+                        int endWaitTimer,
+                        boolean outOfService,
+                        boolean isTakingRequests,
+                        int committedRiders) {
     this.elevatorId = elevatorId;
     this.currentFloor = currentFloor;
     this.doorClosed = doorClosed;
@@ -52,6 +111,7 @@ public class ElevatorReport {
     this.endWaitTimer = endWaitTimer;
     this.outOfService = outOfService;
     this.isTakingRequests = isTakingRequests;
+    this.committedRiders = committedRiders;
   }
 
 
@@ -87,10 +147,28 @@ public class ElevatorReport {
   /**
    * This method is used to get the requests for the floors.
    *
-   * @return The requests for the floors.
+   * @return The requests for the floors, one entry per floor.
    */
   public boolean[] getFloorRequests() {
-    return floorRequests;
+    return floorRequests.toBooleanArray();
+  }
+
+  /**
+   * This method is used to get the requests for the floors as a set of floors.
+   *
+   * @return A copy of the requests for the floors.
+   */
+  public FloorRequestSet getFloorRequestSet() {
+    return floorRequests.copy();
+  }
+
+  /**
+   * This method is used to get the number of floors the elevator has been asked to stop at.
+   *
+   * @return The number of pending stops.
+   */
+  public int getPendingStopCount() {
+    return floorRequests.count();
   }
 
   /**
@@ -139,6 +217,16 @@ public class ElevatorReport {
     return isTakingRequests;
   }
 
+  /**
+   * This method is used to get the number of passengers the elevator has been given and
+   * not yet dropped off, on board or still to be picked up.
+   *
+   * @return The number of committed riders.
+   */
+  public int getCommittedRiders() {
+    return committedRiders;
+  }
+
   /**
    * toString method for the ElevatorReport.
    *
@@ -169,11 +257,18 @@ public class ElevatorReport {
       sb.append(String.format("O %d]<", this.doorOpenTimer));
     }
 
-    for (int i = 0; i < this.floorRequests.length; i++) {
-      if (this.floorRequests[i]) {
-        sb.append(String.format(" %2d", i));
-      } else {
-        sb.append(" --");
+    if (this.floorRequests.getNumberOfFloors() > FleetLimits.STANDARD.getMaxFloors()) {
+      // Tall buildings only list the requested floors so the line stays short.
+      for (int i = this.floorRequests.nextAbove(-1); i != -1; i = this.floorRequests.nextAbove(i)) {
+        sb.append(' ').append(i);
+      }
+    } else {
+      for (int i = 0; i < this.floorRequests.getNumberOfFloors(); i++) {
+        if (this.floorRequests.contains(i)) {
+          sb.append(String.format(" %2d", i));
+        } else {
+          sb.append(" --");
+        }
       }
     }
     sb.append(">");
@@ -220,12 +315,10 @@ public class ElevatorReport {
     if (this.isTakingRequests != that.isTakingRequests) {
       return false;
     }
-    for (int i = 0; i < this.floorRequests.length; i++) {
-      if (this.floorRequests[i] != that.floorRequests[i]) {
-        return false;
-      }
+    if (this.committedRiders != that.committedRiders) {
+      return false;
     }
-    return true;
+    return this.floorRequests.equals(that.floorRequests);
   }
 
   /**
@@ -241,10 +334,9 @@ public class ElevatorReport {
     result = 31 * result + this.endWaitTimer;
     result = 31 * result + (this.outOfService ? 1 : 0);
     result = 31 * result + (this.isTakingRequests ? 1 : 0);
+    result = 31 * result + this.committedRiders;
     result = 31 * result + this.direction.hashCode();
-    for (boolean floorRequest : this.floorRequests) {
-      result = 31 * result + (floorRequest ? 1 : 0);
-    }
+    result = 31 * result + this.floorRequests.hashCode();
     return result;
   }
 }
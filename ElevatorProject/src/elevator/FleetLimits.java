@@ -0,0 +1,79 @@
+package elevator;
+
+/**
+ * The largest building and fleet an elevator system may be configured with.
+ * <p></p>
+ * STANDARD keeps the original limits of 30 floors (city bylaws) and 10 elevators.
+ * HIGH_RISE is for tower and campus deployments with hundreds of floors and cars.
+ * The occupancy limits (fire code) are the same for every configuration.
+ */
+public final class FleetLimits {
+  /************************************************************************
+   * The original limits of 30 floors and 10 elevators.
+   ************************************************************************/
+  public static final FleetLimits STANDARD = new FleetLimits(30, 10);
+
+  /************************************************************************
+   * Limits for towers and campuses: 4096 floors and 1024 elevators.
+   ************************************************************************/
+  public static final FleetLimits HIGH_RISE = new FleetLimits(4096, 1024);
+
+  /************************************************************************
+   * The most floors any limits allow, so a floor number fits in 16 bits.
+   ************************************************************************/
+  public static final int MAX_FLOORS = 1 << 16;
+
+  private final int maxFloors;
+  private final int maxElevators;
+
+  /**
+   * Create a set of limits.
+   *
+   * @param maxFloors    the largest number of floors a building may have, at least 3 and
+   *                     at most MAX_FLOORS.
+   * @param maxElevators the largest number of elevators a building may have, at least 1.
+   * @throws IllegalArgumentException if either limit is out of range.
+   */
+  public FleetLimits(int maxFloors, int maxElevators) {
+    if (maxFloors < 3) {
+      throw new IllegalArgumentException("maxFloors must be at least 3");
+    }
+    if (maxFloors > MAX_FLOORS) {
+      throw new IllegalArgumentException("maxFloors must be at most " + MAX_FLOORS);
+    }
+    if (maxElevators < 1) {
+      throw new IllegalArgumentException("maxElevators must be at least 1");
+    }
+    this.maxFloors = maxFloors;
+    this.maxElevators = maxElevators;
+  }
+
+  /**
+   * Get the largest number of floors a building may have.
+   *
+   * @return the floor limit.
+   */
+  public int getMaxFloors() {
+    return this.maxFloors;
+  }
+
+  /**
+   * Get the largest number of elevators a building may have.
+   *
+   * @return the elevator limit.
+   */
+  public int getMaxElevators() {
+    return this.maxElevators;
+  }
+
+  /**
+   * toString implementation.
+   *
+   * @return string representation of the limits.
+   */
+  @Override
+  public String toString() {
+    return String.format("FleetLimits[floors <= %d, elevators <= %d]",
+        this.maxFloors, this.maxElevators);
+  }
+}
@@ -0,0 +1,278 @@
+package elevator;
+
+import java.util.Arrays;
+
+/**
+ * A set of floors stored as a bitmask, one bit per floor, 64 floors to a word.
+ * <p></p>
+ * Clearing the set, counting the floors in it and finding the next floor in it above
+ * or below a given floor all work a word at a time, so a building of up to 64 floors
+ * needs a single word for each of these operations.
+ */
+public class FloorRequestSet {
+  private final int numberOfFloors;
+  private final long[] words;
+
+  /**
+   * Create an empty set.
+   *
+   * @param numberOfFloors the number of floors in the building.
+   * @throws IllegalArgumentException if the number of floors is less than 1.
+   */
+  public FloorRequestSet(int numberOfFloors) {
+    if (numberOfFloors < 1) {
+      throw new IllegalArgumentException("Number of floors must be greater than 0.");
+    }
+    this.numberOfFloors = numberOfFloors;
+    this.words = new long[(numberOfFloors + 63) >>> 6];
+  }
+
+  /**
+   * Create a set holding the floors that are true in an array.
+   *
+   * @param floors one entry per floor, true if the floor is in the set.
+   * @return a new set.
+   */
+  public static FloorRequestSet fromBooleanArray(boolean[] floors) {
+    FloorRequestSet set = new FloorRequestSet(floors.length);
+    for (int i = 0; i < floors.length; i++) {
+      if (floors[i]) {
+        set.add(i);
+      }
+    }
+    return set;
+  }
+
+  /**
+   * The number of floors this set can hold.
+   *
+   * @return the number of floors in the building.
+   */
+  public int getNumberOfFloors() {
+    return this.numberOfFloors;
+  }
+
+  /**
+   * Add a floor to the set.
+   *
+   * @param floor the floor.
+   * @throws IndexOutOfBoundsException if the floor is not in the building.
+   */
+  public void add(int floor) {
+    this.checkFloor(floor);
+    this.words[floor >>> 6] |= 1L << floor;
+  }
+
+  /**
+   * Remove a floor from the set.
+   *
+   * @param floor the floor.
+   * @throws IndexOutOfBoundsException if the floor is not in the building.
+   */
+  public void remove(int floor) {
+    this.checkFloor(floor);
+    this.words[floor >>> 6] &= ~(1L << floor);
+  }
+
+  /**
+   * Is a floor in the set.
+   *
+   * @param floor the floor.
+   * @return true if the floor is in the set, false if not or if it is not in the building.
+   */
+  public boolean contains(int floor) {
+    if (floor < 0 || floor >= this.numberOfFloors) {
+      return false;
+    }
+    return (this.words[floor >>> 6] & (1L << floor)) != 0;
+  }
+
+  /**
+   * Remove every floor from the set.
+   */
+  public void clear() {
+    Arrays.fill(this.words, 0L);
+  }
+
+  /**
+   * Add every floor of another set to this one.
+   *
+   * @param other a set for a building with the same number of floors.
+   */
+  public void addAll(FloorRequestSet other) {
+    for (int i = 0; i < this.words.length; i++) {
+      this.words[i] |= other.words[i];
+    }
+  }
+
+  /**
+   * The number of floors in the set.
+   *
+   * @return the number of floors in the set.
+   */
+  public int count() {
+    int count = 0;
+    for (long word : this.words) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  /**
+   * The number of floors in the set between two floors, inclusive.
+   *
+   * @param from the lowest floor to count.
+   * @param to   the highest floor to count.
+   * @return the number of floors in the set from from to to, or 0 if to is below from.
+   */
+  public int countBetween(int from, int to) {
+    from = Math.max(from, 0);
+    to = Math.min(to, this.numberOfFloors - 1);
+    if (to < from) {
+      return 0;
+    }
+    int firstWord = from >>> 6;
+    int lastWord = to >>> 6;
+    long firstMask = -1L << from;
+    long lastMask = -1L >>> (63 - (to & 63));
+    if (firstWord == lastWord) {
+      return Long.bitCount(this.words[firstWord] & firstMask & lastMask);
+    }
+    int count = Long.bitCount(this.words[firstWord] & firstMask);
+    for (int i = firstWord + 1; i < lastWord; i++) {
+      count += Long.bitCount(this.words[i]);
+    }
+    return count + Long.bitCount(this.words[lastWord] & lastMask);
+  }
+
+  /**
+   * Is the set empty.
+   *
+   * @return true if no floor is in the set.
+   */
+  public boolean isEmpty() {
+    for (long word : this.words) {
+      if (word != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The lowest floor in the set strictly above a floor.
+   *
+   * @param floor the floor to search above; -1 searches from the ground floor.
+   * @return the floor, or -1 if there is none.
+   */
+  public int nextAbove(int floor) {
+    int from = Math.max(floor + 1, 0);
+    if (from >= this.numberOfFloors) {
+      return -1;
+    }
+    int word = from >>> 6;
+    long masked = this.words[word] & (-1L << from);
+    while (masked == 0) {
+      if (++word == this.words.length) {
+        return -1;
+      }
+      masked = this.words[word];
+    }
+    return (word << 6) + Long.numberOfTrailingZeros(masked);
+  }
+
+  /**
+   * The highest floor in the set strictly below a floor.
+   *
+   * @param floor the floor to search below; the number of floors searches from the top.
+   * @return the floor, or -1 if there is none.
+   */
+  public int nextBelow(int floor) {
+    int from = Math.min(floor, this.numberOfFloors) - 1;
+    if (from < 0) {
+      return -1;
+    }
+    int word = from >>> 6;
+    long masked = this.words[word] & (-1L >>> (63 - (from & 63)));
+    while (masked == 0) {
+      if (--word < 0) {
+        return -1;
+      }
+      masked = this.words[word];
+    }
+    return (word << 6) + 63 - Long.numberOfLeadingZeros(masked);
+  }
+
+  /**
+   * Copy the set.
+   *
+   * @return a new set holding the same floors.
+   */
+  public FloorRequestSet copy() {
+    FloorRequestSet copy = new FloorRequestSet(this.numberOfFloors);
+    System.arraycopy(this.words, 0, copy.words, 0, this.words.length);
+    return copy;
+  }
+
+  /**
+   * Expand the set into an array with one entry per floor.
+   *
+   * @return a new array, true for each floor in the set.
+   */
+  public boolean[] toBooleanArray() {
+    boolean[] floors = new boolean[this.numberOfFloors];
+    for (int floor = this.nextAbove(-1); floor != -1; floor = this.nextAbove(floor)) {
+      floors[floor] = true;
+    }
+    return floors;
+  }
+
+  /**
+   * The equals method for the FloorRequestSet.
+   *
+   * @param o the object to compare to.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof FloorRequestSet)) {
+      return false;
+    }
+    FloorRequestSet that = (FloorRequestSet) o;
+    return this.numberOfFloors == that.numberOfFloors && Arrays.equals(this.words, that.words);
+  }
+
+  /**
+   * The hashcode method for the FloorRequestSet.
+   */
+  @Override
+  public int hashCode() {
+    return 31 * this.numberOfFloors + Arrays.hashCode(this.words);
+  }
+
+  /**
+   * toString implementation.
+   *
+   * @return the floors in the set, lowest first.
+   */
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("{");
+    for (int floor = this.nextAbove(-1); floor != -1; floor = this.nextAbove(floor)) {
+      if (sb.length() > 1) {
+        sb.append(", ");
+      }
+      sb.append(floor);
+    }
+    return sb.append("}").toString();
+  }
+
+  private void checkFloor(int floor) {
+    if (floor < 0 || floor >= this.numberOfFloors) {
+      throw new IndexOutOfBoundsException(
+          "Floor must be between 0 and " + (this.numberOfFloors - 1));
+    }
+  }
+}
@@ -7,12 +7,15 @@ import java.awt.FlowLayout;
 import java.util.Objects;
 import javax.swing.JButton;
 import javax.swing.JComboBox;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
+import javax.swing.JSlider;
 import javax.swing.JTextArea;
+import javax.swing.JToggleButton;
 import javax.swing.SwingUtilities;
 
 /**
@@ -26,6 +29,11 @@ public class BuildingView extends JFrame {
   private JButton stepButton;
   private JButton sendRequestButton;
   private JTextArea statusArea;
+  private JButton openRecordingButton;
+  private JSlider replaySlider;
+  private JLabel replayLabel;
+  private JToggleButton realTimeButton;
+  private JLabel realTimeLabel;
 
 
   /**
@@ -74,6 +82,40 @@ public class BuildingView extends JFrame {
       controller.processRequest(startFloor, destinationFloor);
     });
 
+    // Replay components
+    openRecordingButton = new JButton("Open Recording");
+    openRecordingButton.addActionListener(e -> {
+      JFileChooser chooser = new JFileChooser();
+      if (chooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+        controller.openRecording(chooser.getSelectedFile().toPath());
+      }
+    });
+
+    replaySlider = new JSlider(0, 0, 0);
+    replaySlider.setEnabled(false);
+    replayLabel = new JLabel("Tick: -");
+    replaySlider.addChangeListener(e -> {
+      replayLabel.setText("Tick: " + replaySlider.getValue());
+      controller.scrubTo(replaySlider.getValue());
+    });
+
+    // Real time components
+    JComboBox<Integer> speedUpBox = new JComboBox<>(new Integer[] {1, 10, 100});
+    realTimeButton = new JToggleButton("Real Time");
+    realTimeButton.addActionListener(e -> {
+      if (realTimeButton.isSelected()) {
+        controller.startRealTime((int) Objects.requireNonNull(speedUpBox.getSelectedItem()));
+      } else {
+        controller.stopRealTime();
+      }
+    });
+    speedUpBox.addActionListener(e -> {
+      if (controller.isRealTime()) {
+        controller.startRealTime((int) Objects.requireNonNull(speedUpBox.getSelectedItem()));
+      }
+    });
+    realTimeLabel = new JLabel("Steps: -");
+
     statusArea = new JTextArea(20, 50);
     statusArea.setEditable(false);
 
@@ -85,6 +127,13 @@ public class BuildingView extends JFrame {
     panel.add(new JLabel("End Floor:"));
     panel.add(destinationFloorBox);
     panel.add(sendRequestButton);
+    panel.add(openRecordingButton);
+    panel.add(replaySlider);
+    panel.add(replayLabel);
+    panel.add(realTimeButton);
+    panel.add(new JLabel("Speed:"));
+    panel.add(speedUpBox);
+    panel.add(realTimeLabel);
     panel.add(new JScrollPane(statusArea));
 
     add(panel);
@@ -128,6 +177,37 @@ public class BuildingView extends JFrame {
     statusArea.setText(status.toString());
   }
 
+  /**
+   * This method is used to let the user scrub through a recorded run.
+   * @param ticks The number of ticks in the recording.
+   */
+  public void showRecording(long ticks) {
+    int last = (int) Math.min(ticks - 1, Integer.MAX_VALUE);
+    replaySlider.setEnabled(ticks > 0);
+    replaySlider.setMaximum(Math.max(last, 0));
+    replaySlider.setValue(0);
+    replayLabel.setText(ticks > 0 ? "Tick: 0" : "Tick: -");
+  }
+
+  /**
+   * This method is used to show whether the building is running in real time.
+   * @param running true if the building is being stepped in real time
+   */
+  public void showRealTime(boolean running) {
+    realTimeButton.setSelected(running);
+    stepButton.setEnabled(!running);
+    openRecordingButton.setEnabled(!running);
+  }
+
+  /**
+   * This method is used to show how the real time run is keeping up.
+   * @param steps The number of steps taken in real time.
+   * @param missedDeadlines The number of steps taken a whole tick late.
+   */
+  public void showRealTimeStatus(long steps, long missedDeadlines) {
+    realTimeLabel.setText("Steps: " + steps + "  Missed: " + missedDeadlines);
+  }
+
   /**
    * This method is used to display an error message.
    *
@@ -0,0 +1,79 @@
+package benchmark;
+
+import building.Building;
+import building.BuildingSnapshot;
+import building.dispatch.DispatchStrategies;
+import elevator.FleetLimits;
+import java.util.SplittableRandom;
+import scanerzus.Request;
+
+/**
+ * Measures 20-step lookaheads from a busy 16-car building, each started from a fork and,
+ * for comparison, from a deep copy made by restoring a snapshot. Run it after compiling the
+ * tests:
+ * <pre>
+ *   java -cp target/classes:target/test-classes benchmark.BuildingForkBenchmark
+ * </pre>
+ */
+public class BuildingForkBenchmark {
+  private static final int FLOORS = 30;
+  private static final int ELEVATORS = 16;
+  private static final int LOOKAHEAD = 20;
+  private static final int LOOKAHEADS = 20_000;
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args ignored.
+   */
+  public static void main(String[] args) {
+    Building building = new Building(FLOORS, ELEVATORS, 10, FleetLimits.HIGH_RISE,
+        DispatchStrategies.byName("eta"));
+    building.startElevatorSystem();
+    SplittableRandom random = new SplittableRandom(17);
+    for (int step = 0; step < 2_000; step++) {
+      addTraffic(building, random);
+      building.stepElevatorSystem();
+    }
+    System.out.println(ELEVATORS + " cars, " + FLOORS + " floors, " + LOOKAHEAD
+        + "-step lookaheads");
+
+    for (int round = 0; round < 3; round++) {
+      long start = System.nanoTime();
+      long served = 0;
+      for (int i = 0; i < LOOKAHEADS; i++) {
+        Building fork = building.fork();
+        fork.addRequest(new Request(i % FLOORS, (i + 7) % FLOORS));
+        fork.stepElevatorSystem(LOOKAHEAD);
+        served += fork.getWaitTimeStatistics().getServedCount();
+      }
+      report("fork", LOOKAHEADS, start, served);
+
+      start = System.nanoTime();
+      served = 0;
+      for (int i = 0; i < LOOKAHEADS / 10; i++) {
+        BuildingSnapshot snapshot = building.snapshot();
+        Building copy = Building.restore(snapshot);
+        copy.addRequest(new Request(i % FLOORS, (i + 7) % FLOORS));
+        copy.stepElevatorSystem(LOOKAHEAD);
+        served += copy.getWaitTimeStatistics().getServedCount();
+      }
+      report("restore", LOOKAHEADS / 10, start, served);
+      building.stepElevatorSystem();
+    }
+  }
+
+  private static void report(String name, int lookaheads, long start, long served) {
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf("%-8s %10.0f lookaheads/s  (%d served)%n", name, lookaheads / seconds,
+        served);
+  }
+
+  private static void addTraffic(Building building, SplittableRandom random) {
+    if (random.nextInt(2) == 0) {
+      int start = random.nextInt(FLOORS);
+      int end = random.nextInt(FLOORS - 1);
+      building.addRequest(new Request(start, end >= start ? end + 1 : end));
+    }
+  }
+}
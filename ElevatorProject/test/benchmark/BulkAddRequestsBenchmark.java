@@ -0,0 +1,70 @@
+package benchmark;
+
+import building.Building;
+import building.enums.RequestStatus;
+import java.util.SplittableRandom;
+import scanerzus.Request;
+
+/**
+ * Measures loading dirty data, where a quarter of the requests are invalid, one at a time
+ * through addRequest with the exceptions caught, and in bulk through addRequests. Run it after
+ * compiling the tests:
+ * <pre>
+ *   java -cp target/classes:target/test-classes benchmark.BulkAddRequestsBenchmark
+ * </pre>
+ */
+public class BulkAddRequestsBenchmark {
+  private static final int FLOORS = 30;
+  private static final int REQUESTS = 1_000_000;
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args ignored.
+   */
+  public static void main(String[] args) {
+    SplittableRandom random = new SplittableRandom(3);
+    Request[] requests = new Request[REQUESTS];
+    for (int i = 0; i < REQUESTS; i++) {
+      // Start floors run four past each end of the building, and some requests start and end
+      // on the same floor, so about a quarter of the requests are bad.
+      requests[i] = new Request(random.nextInt(-4, FLOORS + 4), random.nextInt(FLOORS));
+    }
+    System.out.println(REQUESTS + " requests, " + FLOORS + " floors");
+    for (int round = 0; round < 3; round++) {
+      Building single = building();
+      long start = System.nanoTime();
+      int added = 0;
+      for (Request request : requests) {
+        try {
+          single.addRequest(request);
+          added++;
+        } catch (IllegalArgumentException e) {
+          // Skip the bad request.
+        }
+      }
+      report("addRequest", start, added);
+
+      Building bulk = building();
+      start = System.nanoTime();
+      added = 0;
+      for (RequestStatus status : bulk.addRequests(requests)) {
+        if (status.isAdmitted()) {
+          added++;
+        }
+      }
+      report("addRequests", start, added);
+    }
+  }
+
+  private static Building building() {
+    Building building = new Building(FLOORS, 4, 10);
+    building.startElevatorSystem();
+    return building;
+  }
+
+  private static void report(String name, long start, int added) {
+    double millis = (System.nanoTime() - start) / 1e6;
+    System.out.printf("%-12s %8.1f ms  %,d added%n", name, millis, added);
+  }
+}
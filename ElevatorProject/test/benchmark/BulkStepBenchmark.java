@@ -0,0 +1,100 @@
+package benchmark;
+
+import building.Building;
+import building.enums.SweepMode;
+import java.util.Arrays;
+import java.util.Random;
+import scanerzus.Request;
+
+/**
+ * Compares stepping a building one step at a time with Building.stepElevatorSystem(int),
+ * which jumps over steps where nothing but timers and moving elevators change. The same
+ * arrivals are replayed both ways, at three traffic levels, and the wait times are printed
+ * to show the results agree. Run it after compiling the tests:
+ * <pre>
+ *   java -cp target/classes:target/test-classes benchmark.BulkStepBenchmark
+ * </pre>
+ */
+public class BulkStepBenchmark {
+  private static final int FLOORS = 20;
+  private static final int ELEVATORS = 4;
+  private static final long STEPS = 20_000_000L;
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args ignored.
+   */
+  public static void main(String[] args) {
+    System.out.println("traffic    sweep      single ms   bulk ms   served   avg wait");
+    for (int gap : new int[] {0, 500, 8}) {
+      for (SweepMode mode : SweepMode.values()) {
+        long[] arrivals = arrivals(gap);
+        // Run each way twice and time the second run, so both are warmed up.
+        run(false, mode, arrivals);
+        long start = System.nanoTime();
+        Building single = run(false, mode, arrivals);
+        long singleNanos = System.nanoTime() - start;
+        run(true, mode, arrivals);
+        start = System.nanoTime();
+        Building bulk = run(true, mode, arrivals);
+        long bulkNanos = System.nanoTime() - start;
+
+        String checked = single.getWaitTimeStatistics().toString()
+            .equals(bulk.getWaitTimeStatistics().toString()) ? "" : "  MISMATCH";
+        System.out.printf("%-10s %-9s %10d %9d %8d %10.1f%s%n",
+            gap == 0 ? "idle" : "1/" + gap, mode, singleNanos / 1_000_000,
+            bulkNanos / 1_000_000, bulk.getWaitTimeStatistics().getServedCount(),
+            bulk.getWaitTimeStatistics().getAverageWait(), checked);
+      }
+    }
+  }
+
+  /**
+   * Arrival steps, each followed by the start and end floor, on average gap steps apart.
+   */
+  private static long[] arrivals(int gap) {
+    if (gap == 0) {
+      return new long[0];
+    }
+    Random random = new Random(17);
+    long[] arrivals = new long[(int) (3 * STEPS / gap)];
+    int count = 0;
+    long tick = 0;
+    while (count < arrivals.length) {
+      tick += 1 + random.nextInt(2 * gap);
+      if (tick >= STEPS) {
+        break;
+      }
+      int start = random.nextInt(FLOORS);
+      int end = random.nextInt(FLOORS - 1);
+      arrivals[count++] = tick;
+      arrivals[count++] = start;
+      arrivals[count++] = end >= start ? end + 1 : end;
+    }
+    return Arrays.copyOf(arrivals, count);
+  }
+
+  private static Building run(boolean bulk, SweepMode mode, long[] arrivals) {
+    Building building = new Building(FLOORS, ELEVATORS, 10);
+    building.setSweepMode(mode);
+    building.startElevatorSystem();
+    int next = 0;
+    while (building.getCurrentTick() < STEPS) {
+      long now = building.getCurrentTick();
+      while (next < arrivals.length && arrivals[next] == now) {
+        building.addRequest(new Request((int) arrivals[next + 1], (int) arrivals[next + 2]));
+        next += 3;
+      }
+      long until = next < arrivals.length ? arrivals[next] : STEPS;
+      if (bulk) {
+        building.stepElevatorSystem((int) (until - now));
+      } else {
+        for (long i = now; i < until; i++) {
+          building.stepElevatorSystem();
+        }
+      }
+    }
+    return building;
+  }
+}
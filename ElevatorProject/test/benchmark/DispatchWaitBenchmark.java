@@ -0,0 +1,84 @@
+package benchmark;
+
+import building.Building;
+import building.WaitTimeStatistics;
+import building.dispatch.DispatchStrategies;
+import building.dispatch.DispatchStrategy;
+import building.enums.SweepMode;
+import elevator.FleetLimits;
+import java.util.Arrays;
+import java.util.Random;
+import scanerzus.Request;
+
+/**
+ * Compares the wait times of the dispatch strategies on two traces: an up-peak trace, where
+ * most calls start in the lobby and go up, and an inter-floor trace, where every call travels
+ * between random floors. Each strategy is run with both sweep modes. Run it after compiling
+ * the tests:
+ * <pre>
+ *   java -cp target/classes:target/test-classes benchmark.DispatchWaitBenchmark
+ * </pre>
+ */
+public class DispatchWaitBenchmark {
+  private static final int STEPS = 200_000;
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args the names of the strategies to compare; every registered strategy if empty.
+   */
+  public static void main(String[] args) {
+    Iterable<String> names = args.length > 0
+        ? Arrays.asList(args) : DispatchStrategies.availableNames();
+    for (boolean upPeak : new boolean[] {true, false}) {
+      System.out.println(upPeak ? "up-peak" : "inter-floor");
+      System.out.println("strategy  sweep        served   avg wait   max wait   ns/step");
+      for (String name : names) {
+        for (SweepMode mode : SweepMode.values()) {
+          measure(DispatchStrategies.byName(name), mode, upPeak);
+        }
+      }
+    }
+  }
+
+  private static void measure(DispatchStrategy strategy, SweepMode mode, boolean upPeak) {
+    Building building = new Building(20, 4, 10, FleetLimits.STANDARD, strategy);
+    building.setSweepMode(mode);
+    building.startElevatorSystem();
+    Random random = new Random(7);
+
+    long start = System.nanoTime();
+    for (int i = 0; i < STEPS; i++) {
+      if (random.nextInt(4) == 0) {
+        int floors = building.getNumberOfFloors();
+        building.addRequest(upPeak ? upPeakCall(random, floors) : interFloorCall(random, floors));
+      }
+      building.stepElevatorSystem();
+    }
+    long nanos = (System.nanoTime() - start) / STEPS;
+
+    WaitTimeStatistics statistics = building.getWaitTimeStatistics();
+    System.out.printf("%-9s %-9s %9d %10.1f %10d %9d%n", strategy.getName(), mode,
+        statistics.getServedCount(), statistics.getAverageWait(), statistics.getMaxWait(), nanos);
+  }
+
+  /**
+   * Four calls in five leave the lobby for a random floor; the rest are between two random
+   * floors.
+   */
+  private static Request upPeakCall(Random random, int floors) {
+    if (random.nextInt(5) < 4) {
+      return new Request(0, 1 + random.nextInt(floors - 1));
+    }
+    return interFloorCall(random, floors);
+  }
+
+  /**
+   * A call between two different random floors.
+   */
+  private static Request interFloorCall(Random random, int floors) {
+    int start = random.nextInt(floors);
+    int end = random.nextInt(floors - 1);
+    return new Request(start, end >= start ? end + 1 : end);
+  }
+}
@@ -0,0 +1,77 @@
+package benchmark;
+
+import building.Building;
+import elevator.FleetLimits;
+import java.util.Random;
+import scanerzus.Request;
+
+/**
+ * Measures the cost of one Building step for large fleets.
+ * <p></p>
+ * The headline configuration is 200 floors with 64 elevators; taller buildings with the same
+ * fleet are measured too, to show that the step cost does not grow with floors that have no
+ * pending work. Run it after compiling the tests:
+ * <pre>
+ *   java -cp target/classes:target/test-classes benchmark.FleetStepBenchmark
+ * </pre>
+ */
+public class FleetStepBenchmark {
+  private static final int WARMUP_STEPS = 200_000;
+  private static final int MEASURED_STEPS = 500_000;
+  private static final int ELEVATORS = 64;
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args ignored.
+   */
+  public static void main(String[] args) {
+    System.out.println("floors x cars     ns/step   ns/report");
+    for (int floors : new int[] {200, 1000, 4000}) {
+      measure(floors, ELEVATORS);
+    }
+  }
+
+  /**
+   * Step a building with a steady trickle of requests and print the average cost of a step
+   * and of a status report.
+   */
+  private static void measure(int floors, int elevators) {
+    Building building = new Building(floors, elevators, 10, FleetLimits.HIGH_RISE);
+    building.startElevatorSystem();
+    Random random = new Random(42);
+
+    run(building, random, WARMUP_STEPS);
+    long start = System.nanoTime();
+    run(building, random, MEASURED_STEPS);
+    long stepNanos = (System.nanoTime() - start) / MEASURED_STEPS;
+
+    int reports = 10_000;
+    long checksum = 0;
+    start = System.nanoTime();
+    for (int i = 0; i < reports; i++) {
+      checksum += building.getElevatorSystemStatus().getElevatorReports().length;
+    }
+    long reportNanos = (System.nanoTime() - start) / reports;
+
+    System.out.printf("%5d x %-4d %10d %11d%s%n", floors, elevators, stepNanos, reportNanos,
+        checksum == 0 ? "!" : "");
+  }
+
+  /**
+   * Step the building, adding a request on average every other step.
+   */
+  private static void run(Building building, Random random, int steps) {
+    int floors = building.getNumberOfFloors();
+    for (int i = 0; i < steps; i++) {
+      if (random.nextBoolean()) {
+        int start = random.nextInt(floors);
+        int end = random.nextInt(floors);
+        if (start != end) {
+          building.addRequest(new Request(start, end));
+        }
+      }
+      building.stepElevatorSystem();
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package benchmark;
+
+import building.Building;
+import building.enums.SweepMode;
+import building.enums.TrafficProfile;
+import building.traffic.TrafficGenerator;
+import elevator.FleetLimits;
+
+/**
+ * Compares a crowded up-peak with and without hall call coalescing: the largest backlog of
+ * waiting calls, the average wait of the passengers and the time taken. Run it after
+ * compiling the tests:
+ * <pre>
+ *   java -cp target/classes:target/test-classes benchmark.HallCallCoalescingBenchmark
+ * </pre>
+ */
+public class HallCallCoalescingBenchmark {
+  private static final int FLOORS = 30;
+  private static final int ELEVATORS = 8;
+  private static final int STEPS = 5_000;
+  private static final double ARRIVALS_PER_TICK = 3;
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args ignored.
+   */
+  public static void main(String[] args) {
+    System.out.println(ELEVATORS + " cars, " + FLOORS + " floors, " + STEPS + " steps of "
+        + ARRIVALS_PER_TICK + " up-peak arrivals a step");
+    System.out.println("coalescing  max backlog  served  average wait  seconds");
+    for (int round = 0; round < 2; round++) {
+      run(false);
+      run(true);
+    }
+  }
+
+  private static void run(boolean coalescing) {
+    Building building = new Building(FLOORS, ELEVATORS, 10, FleetLimits.STANDARD);
+    building.setSweepMode(SweepMode.LOOK);
+    building.setHallCallCoalescing(coalescing);
+    building.startElevatorSystem();
+    TrafficGenerator traffic = new TrafficGenerator(TrafficProfile.UP_PEAK, FLOORS,
+        ARRIVALS_PER_TICK, 11);
+    int maxBacklog = 0;
+    long start = System.nanoTime();
+    for (int step = 0; step < STEPS; step++) {
+      traffic.addNextTick(building);
+      building.stepElevatorSystem();
+      maxBacklog = Math.max(maxBacklog, building.getBacklog());
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf("%-11s %11d %7d %13.2f %8.2f%n", coalescing ? "on" : "off", maxBacklog,
+        building.getWaitTimeStatistics().getServedCount(),
+        building.getWaitTimeStatistics().getAverageWait(), seconds);
+  }
+}
@@ -0,0 +1,137 @@
+package benchmark;
+
+import building.Building;
+import building.WaitTimeStatistics;
+import building.dispatch.Assignment;
+import building.dispatch.DispatchStrategies;
+import building.dispatch.DispatchStrategy;
+import building.dispatch.FleetView;
+import building.dispatch.PendingCalls;
+import building.enums.Direction;
+import elevator.FleetLimits;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import scanerzus.Request;
+
+/**
+ * Measures how long each strategy takes to dispatch a step, and the wait times it gives,
+ * in a 200 floor building with 64 elevators whose backlog is kept at about 500 calls.
+ * Run it after compiling the tests:
+ * <pre>
+ *   java -cp target/classes:target/test-classes benchmark.MatchingDispatchBenchmark
+ * </pre>
+ */
+public class MatchingDispatchBenchmark {
+  private static final int FLOORS = 200;
+  private static final int ELEVATORS = 64;
+  private static final int BACKLOG = 500;
+  private static final int WARMUP_STEPS = 5_000;
+  private static final int MEASURED_STEPS = 20_000;
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args the names of the strategies to compare; every registered strategy if empty.
+   */
+  public static void main(String[] args) {
+    Iterable<String> names = args.length > 0
+        ? Arrays.asList(args) : DispatchStrategies.availableNames();
+    System.out.println("strategy   backlog   us/dispatch   p99 us     served   avg wait");
+    for (String name : names) {
+      measure(DispatchStrategies.byName(name));
+    }
+  }
+
+  private static void measure(DispatchStrategy strategy) {
+    TimedStrategy timed = new TimedStrategy(strategy, MEASURED_STEPS);
+    Building building = new Building(FLOORS, ELEVATORS, 10, FleetLimits.HIGH_RISE, timed);
+    building.startElevatorSystem();
+    Random random = new Random(11);
+
+    run(building, timed, random, WARMUP_STEPS);
+    timed.reset();
+    long servedBefore = building.getWaitTimeStatistics().getServedCount();
+    long waitBefore = building.getWaitTimeStatistics().getTotalWait();
+    run(building, timed, random, MEASURED_STEPS);
+
+    WaitTimeStatistics statistics = building.getWaitTimeStatistics();
+    long served = statistics.getServedCount() - servedBefore;
+    double averageWait = served == 0 ? 0
+        : (double) (statistics.getTotalWait() - waitBefore) / served;
+    long[] nanos = Arrays.copyOf(timed.nanos, timed.samples);
+    Arrays.sort(nanos);
+    System.out.printf("%-9s %8d %13.1f %8.1f %10d %10.1f%n", strategy.getName(),
+        timed.backlogTotal / Math.max(1, timed.samples),
+        timed.total() / 1000.0 / Math.max(1, timed.samples),
+        nanos.length == 0 ? 0 : nanos[(int) (nanos.length * 0.99)] / 1000.0,
+        served, averageWait);
+  }
+
+  /**
+   * Step the building, topping the backlog up to about BACKLOG calls before each step.
+   */
+  private static void run(Building building, TimedStrategy timed, Random random, int steps) {
+    for (int i = 0; i < steps; i++) {
+      for (int missing = BACKLOG - timed.lastBacklog; missing > 0; missing--) {
+        int start = random.nextInt(FLOORS);
+        int end = random.nextInt(FLOORS - 1);
+        building.addRequest(new Request(start, end >= start ? end + 1 : end));
+        timed.lastBacklog++;
+      }
+      building.stepElevatorSystem();
+    }
+  }
+
+  /**
+   * Times every call to a strategy and records the backlog it was given.
+   */
+  private static final class TimedStrategy implements DispatchStrategy {
+    private final DispatchStrategy delegate;
+    private final long[] nanos;
+    private int samples;
+    private long backlogTotal;
+    private int lastBacklog;
+
+    TimedStrategy(DispatchStrategy delegate, int maxSamples) {
+      this.delegate = delegate;
+      this.nanos = new long[maxSamples];
+    }
+
+    @Override
+    public String getName() {
+      return this.delegate.getName();
+    }
+
+    @Override
+    public List<Assignment> dispatch(PendingCalls calls, FleetView fleet) {
+      int backlog = calls.size(Direction.UP) + calls.size(Direction.DOWN);
+      long start = System.nanoTime();
+      List<Assignment> assignments = this.delegate.dispatch(calls, fleet);
+      long elapsed = System.nanoTime() - start;
+      int assigned = 0;
+      for (Assignment assignment : assignments) {
+        assigned += assignment.getRequests().size();
+      }
+      this.lastBacklog = backlog - assigned;
+      if (this.samples < this.nanos.length) {
+        this.nanos[this.samples++] = elapsed;
+        this.backlogTotal += backlog;
+      }
+      return assignments;
+    }
+
+    void reset() {
+      this.samples = 0;
+      this.backlogTotal = 0;
+    }
+
+    long total() {
+      long total = 0;
+      for (int i = 0; i < this.samples; i++) {
+        total += this.nanos[i];
+      }
+      return total;
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package benchmark;
+
+import building.Building;
+import elevator.FleetLimits;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import scanerzus.Request;
+
+/**
+ * Compares stepping a large fleet on the calling thread with stepping it on fork/join
+ * pools of increasing size. The speed up is bounded by the number of cores the machine has,
+ * which is printed first. Run it after compiling the tests:
+ * <pre>
+ *   java -cp target/classes:target/test-classes benchmark.ParallelStepBenchmark
+ * </pre>
+ */
+public class ParallelStepBenchmark {
+  private static final int FLOORS = 4000;
+  private static final int ELEVATORS = 1024;
+  private static final int WARMUP_STEPS = 5_000;
+  private static final int MEASURED_STEPS = 20_000;
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args ignored.
+   */
+  public static void main(String[] args) {
+    int cores = Runtime.getRuntime().availableProcessors();
+    System.out.println(cores + " cores, " + FLOORS + " floors x " + ELEVATORS + " cars");
+    System.out.println("threads    us/step");
+    measure(null, "1 (caller)");
+    for (int threads = 2; threads <= Math.max(2, 2 * cores); threads *= 2) {
+      ForkJoinPool pool = new ForkJoinPool(threads);
+      measure(pool, String.valueOf(threads));
+      pool.shutdown();
+    }
+  }
+
+  private static void measure(ForkJoinPool pool, String label) {
+    Building building = new Building(FLOORS, ELEVATORS, 10, FleetLimits.HIGH_RISE);
+    building.setStepPool(pool);
+    building.startElevatorSystem();
+    Random random = new Random(5);
+    run(building, random, WARMUP_STEPS);
+    long start = System.nanoTime();
+    run(building, random, MEASURED_STEPS);
+    long nanos = (System.nanoTime() - start) / MEASURED_STEPS;
+    System.out.printf("%-10s %8.1f%n", label, nanos / 1000.0);
+  }
+
+  /**
+   * Step the building, adding a few requests every step.
+   */
+  private static void run(Building building, Random random, int steps) {
+    for (int i = 0; i < steps; i++) {
+      for (int j = 0; j < 4; j++) {
+        int start = random.nextInt(FLOORS);
+        int end = random.nextInt(FLOORS - 1);
+        building.addRequest(new Request(start, end >= start ? end + 1 : end));
+      }
+      building.stepElevatorSystem();
+    }
+  }
+}
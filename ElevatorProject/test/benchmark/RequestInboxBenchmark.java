@@ -0,0 +1,88 @@
+package benchmark;
+
+import building.RequestInbox;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import scanerzus.Request;
+
+/**
+ * Measures how many requests a second 16 threads can submit at once while one thread drains
+ * them, into a RequestInbox and, for comparison, into a list guarded by a lock. Run it after
+ * compiling the tests:
+ * <pre>
+ *   java -cp target/classes:target/test-classes benchmark.RequestInboxBenchmark
+ * </pre>
+ */
+public class RequestInboxBenchmark {
+  private static final int PRODUCERS = 16;
+  private static final long MILLIS = 1_000;
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args ignored.
+   */
+  public static void main(String[] args) throws InterruptedException {
+    System.out.println(PRODUCERS + " producers, " + Runtime.getRuntime().availableProcessors()
+        + " processors");
+    for (int round = 0; round < 3; round++) {
+      RequestInbox inbox = new RequestInbox();
+      run("inbox", inbox::add, () -> inbox.drain(request -> { }));
+
+      List<Request> locked = new ArrayList<>();
+      run("locked list", request -> {
+        synchronized (locked) {
+          locked.add(request);
+        }
+      }, () -> {
+          synchronized (locked) {
+            int drained = locked.size();
+            locked.clear();
+            return drained;
+          }
+        });
+    }
+  }
+
+  private static void run(String name, Consumer<Request> submit, Drain drain)
+      throws InterruptedException {
+    AtomicBoolean running = new AtomicBoolean(true);
+    CountDownLatch ready = new CountDownLatch(PRODUCERS);
+    Thread[] producers = new Thread[PRODUCERS];
+    for (int t = 0; t < PRODUCERS; t++) {
+      Request request = new Request(t % 10, 10);
+      producers[t] = new Thread(() -> {
+        ready.countDown();
+        while (running.get()) {
+          for (int i = 0; i < 100; i++) {
+            submit.accept(request);
+          }
+        }
+      });
+      producers[t].start();
+    }
+    ready.await();
+    long start = System.nanoTime();
+    long drained = 0;
+    while (System.nanoTime() - start < MILLIS * 1_000_000) {
+      drained += drain.drain();
+      Thread.yield();
+    }
+    running.set(false);
+    double seconds = (System.nanoTime() - start) / 1e9;
+    for (Thread producer : producers) {
+      producer.join();
+    }
+    System.out.printf("%-12s %,14.0f submissions/s%n", name, drained / seconds);
+  }
+
+  /**
+   * Drains whatever has been submitted.
+   */
+  private interface Drain {
+    int drain();
+  }
+}
@@ -0,0 +1,59 @@
+package benchmark;
+
+import building.Building;
+import building.dispatch.DispatchStrategy;
+import building.dispatch.NearestCarDispatchStrategy;
+import building.dispatch.RolloutDispatchStrategy;
+import building.enums.SweepMode;
+import building.enums.TrafficProfile;
+import building.traffic.TrafficGenerator;
+import elevator.FleetLimits;
+
+/**
+ * Compares the average wait under the rollout strategy, at a few per-step time budgets, with
+ * the nearest car strategy it uses as its policy, on the same lunch time traffic. Run it
+ * after compiling the tests:
+ * <pre>
+ *   java -cp target/classes:target/test-classes benchmark.RolloutDispatchBenchmark
+ * </pre>
+ */
+public class RolloutDispatchBenchmark {
+  private static final int FLOORS = 20;
+  private static final int ELEVATORS = 6;
+  private static final int STEPS = 5_000;
+  private static final double ARRIVALS_PER_TICK = 0.3;
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args ignored.
+   */
+  public static void main(String[] args) {
+    System.out.println(ELEVATORS + " cars, " + FLOORS + " floors, " + STEPS + " steps of "
+        + ARRIVALS_PER_TICK + " calls a step");
+    System.out.println("strategy        average wait  max wait  seconds");
+    run("eta", new NearestCarDispatchStrategy());
+    for (long budgetMillis : new long[] {1, 5, 20}) {
+      run("rollout " + budgetMillis + "ms", new RolloutDispatchStrategy(
+          new NearestCarDispatchStrategy(), TrafficProfile.LUNCH, ARRIVALS_PER_TICK, 20,
+          Integer.MAX_VALUE, budgetMillis * 1_000_000, 1));
+    }
+  }
+
+  private static void run(String name, DispatchStrategy strategy) {
+    Building building = new Building(FLOORS, ELEVATORS, 8, FleetLimits.STANDARD, strategy);
+    building.setSweepMode(SweepMode.LOOK);
+    building.startElevatorSystem();
+    TrafficGenerator traffic = new TrafficGenerator(TrafficProfile.LUNCH, FLOORS,
+        ARRIVALS_PER_TICK, 5);
+    long start = System.nanoTime();
+    for (int step = 0; step < STEPS; step++) {
+      traffic.addNextTick(building);
+      building.stepElevatorSystem();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf("%-15s %12.2f %9d %8.1f%n", name,
+        building.getWaitTimeStatistics().getAverageWait(),
+        building.getWaitTimeStatistics().getMaxWait(), seconds);
+  }
+}
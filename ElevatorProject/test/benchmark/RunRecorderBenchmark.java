@@ -0,0 +1,76 @@
+package benchmark;
+
+import building.Building;
+import building.enums.TrafficProfile;
+import building.trace.RecordedRun;
+import building.trace.RunRecorder;
+import building.traffic.TrafficGenerator;
+import elevator.FleetLimits;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Records a long run of a busy 64 car building and prints the size of the recording, the
+ * time spent recording, and the time to rebuild the report at random ticks. Run it after compiling the tests, optionally giving the number of
+ * ticks:
+ * <pre>
+ *   java -cp target/classes:target/test-classes benchmark.RunRecorderBenchmark 1000000
+ * </pre>
+ */
+public class RunRecorderBenchmark {
+  private static final int FLOORS = 100;
+  private static final int ELEVATORS = 64;
+  private static final int KEYFRAME_INTERVAL = 1024;
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args the number of ticks to record, 1000000 by default.
+   * @throws IOException if the recording cannot be written.
+   */
+  public static void main(String[] args) throws IOException {
+    int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    Building building = new Building(FLOORS, ELEVATORS, 10, FleetLimits.HIGH_RISE);
+    building.startElevatorSystem();
+    TrafficGenerator traffic = new TrafficGenerator(TrafficProfile.LUNCH, FLOORS, 2, 1);
+
+    Path file = Files.createTempFile("run", ".elvr");
+    long recordNanos = 0;
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file));
+         RunRecorder recorder = new RunRecorder(out, FLOORS, ELEVATORS, 10,
+             KEYFRAME_INTERVAL)) {
+      for (int tick = 0; tick < ticks; tick++) {
+        traffic.addNextTick(building);
+        building.stepElevatorSystem();
+        long start = System.nanoTime();
+        recorder.record(building.getElevatorSystemStatus());
+        recordNanos += System.nanoTime() - start;
+      }
+    }
+    long bytes = Files.size(file);
+    System.out.printf("%d ticks x %d cars: %.1f MB, %.1f bytes per tick, %.2f us per tick%n",
+        ticks, ELEVATORS, bytes / 1e6, (double) bytes / ticks, recordNanos / 1e3 / ticks);
+    System.out.println("  " + building.getWaitTimeStatistics());
+
+    long start = System.nanoTime();
+    try (RecordedRun run = new RecordedRun(file)) {
+      long indexNanos = System.nanoTime() - start;
+      Random random = new Random(2);
+      int seeks = 1000;
+      long floors = 0;
+      start = System.nanoTime();
+      for (int i = 0; i < seeks; i++) {
+        floors += run.reportAt(random.nextInt(ticks)).getElevatorReports()[0].getCurrentFloor();
+      }
+      long seekNanos = System.nanoTime() - start;
+      System.out.printf("index %d keyframes in %.1f ms, random seek %.1f us (%d)%n",
+          run.getKeyframeCount(), indexNanos / 1e6, seekNanos / 1e3 / seeks, floors);
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
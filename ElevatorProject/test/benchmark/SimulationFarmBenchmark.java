@@ -0,0 +1,80 @@
+package benchmark;
+
+import building.Building;
+import building.dispatch.DispatchStrategies;
+import building.farm.FarmResult;
+import building.farm.Scenario;
+import building.farm.SimulationFarm;
+import elevator.FleetLimits;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import scanerzus.Request;
+
+/**
+ * Measures how the throughput of a simulation farm grows with the size of its pool. The
+ * replications share nothing, so throughput should grow close to linearly up to the number
+ * of cores the machine has, which is printed first. Run it after compiling the tests:
+ * <pre>
+ *   java -cp target/classes:target/test-classes benchmark.SimulationFarmBenchmark
+ * </pre>
+ */
+public class SimulationFarmBenchmark {
+  private static final int FLOORS = 30;
+  private static final int ELEVATORS = 6;
+  private static final int STEPS = 20_000;
+  private static final int REPLICATIONS = 64;
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args ignored.
+   */
+  public static void main(String[] args) {
+    int cores = Runtime.getRuntime().availableProcessors();
+    System.out.println(cores + " cores, " + REPLICATIONS + " replications of " + STEPS
+        + " steps");
+    System.out.println("threads  replications/s  speed up");
+    Scenario scenario = new RandomTraffic();
+    // Warm up.
+    new SimulationFarm(ForkJoinPool.commonPool()).run(scenario, REPLICATIONS / 4, 1);
+
+    double single = 0;
+    for (int threads = 1; threads <= Math.max(2, 2 * cores); threads *= 2) {
+      ForkJoinPool pool = new ForkJoinPool(threads);
+      long start = System.nanoTime();
+      FarmResult result = new SimulationFarm(pool).run(scenario, REPLICATIONS, 99);
+      double seconds = (System.nanoTime() - start) / 1e9;
+      pool.shutdown();
+      double throughput = REPLICATIONS / seconds;
+      if (threads == 1) {
+        single = throughput;
+        System.out.println("  " + result);
+      }
+      System.out.printf("%-8d %15.1f %9.2f%n", threads, throughput, throughput / single);
+    }
+  }
+
+  /**
+   * A mid-rise office with random inter-floor traffic.
+   */
+  private static final class RandomTraffic implements Scenario {
+    @Override
+    public Building createBuilding(int replication) {
+      return new Building(FLOORS, ELEVATORS, 10, FleetLimits.STANDARD,
+          DispatchStrategies.byName("eta"));
+    }
+
+    @Override
+    public void run(Building building, SplittableRandom random) {
+      building.startElevatorSystem();
+      for (int step = 0; step < STEPS; step++) {
+        if (random.nextInt(4) == 0) {
+          int start = random.nextInt(FLOORS);
+          int end = random.nextInt(FLOORS - 1);
+          building.addRequest(new Request(start, end >= start ? end + 1 : end));
+        }
+        building.stepElevatorSystem();
+      }
+    }
+  }
+}
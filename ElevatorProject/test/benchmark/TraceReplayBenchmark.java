@@ -0,0 +1,76 @@
+package benchmark;
+
+import building.Building;
+import building.enums.TrafficProfile;
+import building.trace.TraceReader;
+import building.trace.TraceReplay;
+import building.trace.TraceWriter;
+import building.traffic.TrafficGenerator;
+import elevator.FleetLimits;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import scanerzus.Request;
+
+/**
+ * Writes a large binary trace, then measures how fast it can be decoded on its own and how
+ * fast it can be replayed into a building. Run it after compiling the tests:
+ * <pre>
+ *   java -cp target/classes:target/test-classes benchmark.TraceReplayBenchmark
+ * </pre>
+ */
+public class TraceReplayBenchmark {
+  private static final int FLOORS = 200;
+  private static final int ELEVATORS = 40;
+  private static final long CALLS = 10_000_000;
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args ignored.
+   * @throws IOException if the trace cannot be written or read.
+   */
+  public static void main(String[] args) throws IOException {
+    Path file = Files.createTempFile("benchmark", ".elvt");
+    try {
+      TrafficGenerator generator = new TrafficGenerator(TrafficProfile.LUNCH, FLOORS, 0.5, 3);
+      try (TraceWriter writer = new TraceWriter(Files.newOutputStream(file), FLOORS)) {
+        while (writer.getCount() < CALLS) {
+          long tick = generator.getTick();
+          for (Request request : generator.nextTick()) {
+            writer.write(tick, request);
+          }
+        }
+      }
+      long bytes = Files.size(file);
+      System.out.printf("%d calls, %.1f MB, %.2f bytes per call%n", CALLS, bytes / 1e6,
+          (double) bytes / CALLS);
+
+      for (int round = 0; round < 3; round++) {
+        long start = System.nanoTime();
+        long checksum = 0;
+        try (TraceReader reader = new TraceReader(file)) {
+          while (reader.next()) {
+            checksum += reader.getEndFloor();
+          }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("decode  %8.1f MB/s %10.3e calls/s (%d)%n", bytes / 1e6 / seconds,
+            CALLS / seconds, checksum);
+      }
+
+      Building building = new Building(FLOORS, ELEVATORS, 10, FleetLimits.HIGH_RISE);
+      building.startElevatorSystem();
+      long start = System.nanoTime();
+      try (TraceReader reader = new TraceReader(file)) {
+        new TraceReplay(reader, building).replay();
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+      System.out.printf("replay  %10.3e calls/s over %d steps%n", CALLS / seconds,
+          building.getCurrentTick());
+      System.out.println("  " + building.getWaitTimeStatistics());
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
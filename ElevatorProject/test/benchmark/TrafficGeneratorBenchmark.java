@@ -0,0 +1,46 @@
+package benchmark;
+
+import building.enums.TrafficProfile;
+import building.traffic.TrafficGenerator;
+import scanerzus.Request;
+
+/**
+ * Measures how many calls a traffic generator produces per second for each profile, in a
+ * high-rise building where drawing a pair of floors by scanning the origin-destination
+ * matrix would cost a million comparisons. Run it after compiling the tests:
+ * <pre>
+ *   java -cp target/classes:target/test-classes benchmark.TrafficGeneratorBenchmark
+ * </pre>
+ */
+public class TrafficGeneratorBenchmark {
+  private static final int FLOORS = 1000;
+  private static final int CALLS = 5_000_000;
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args ignored.
+   */
+  public static void main(String[] args) {
+    System.out.println(FLOORS + " floors, " + CALLS + " calls per profile");
+    System.out.println("profile       setup ms   calls/s");
+    for (TrafficProfile profile : TrafficProfile.values()) {
+      long start = System.nanoTime();
+      TrafficGenerator generator = new TrafficGenerator(profile, FLOORS, 4, 1);
+      long setup = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      long calls = 0;
+      long checksum = 0;
+      while (calls < CALLS) {
+        for (Request request : generator.nextTick()) {
+          checksum += request.getEndFloor();
+          calls++;
+        }
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+      System.out.printf("%-13s %8.1f %9.3e  (%d)%n", profile, setup / 1e6, calls / seconds,
+          checksum);
+    }
+  }
+}
@@ -0,0 +1,200 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import building.enums.AdmissionPolicy;
+import building.enums.RequestStatus;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * A JUnit test class for admission control on the Building class.
+ */
+public class AdmissionControlTest {
+
+  private static Building running(AdmissionControl admission) {
+    Building building = new Building(10, 2, 3);
+    building.setAdmissionControl(admission);
+    building.startElevatorSystem();
+    return building;
+  }
+
+  /**
+   * Calls past the per-floor or building limit are rejected and counted.
+   */
+  @Test
+  public void testReject() {
+    Building building = running(new AdmissionControl(2, 3, AdmissionPolicy.REJECT));
+    assertEquals(RequestStatus.ACCEPTED, building.offerRequest(new Request(5, 0)));
+    assertEquals(RequestStatus.ACCEPTED, building.offerRequest(new Request(5, 9)));
+    assertEquals(RequestStatus.REJECTED, building.offerRequest(new Request(5, 1)));
+    assertTrue(building.addRequest(new Request(6, 0)));
+    assertFalse(building.addRequest(new Request(7, 0)));
+    assertEquals(3, building.getBacklog());
+    assertEquals(2, building.getBacklog(5));
+    assertEquals(2, building.getRejectedCalls());
+  }
+
+  /**
+   * A full floor sheds its own oldest call; a full building sheds its oldest call anywhere.
+   */
+  @Test
+  public void testShedOldest() {
+    Building building = running(new AdmissionControl(2, 3, AdmissionPolicy.SHED_OLDEST));
+    Request other = new Request(2, 0);
+    building.addRequest(other);
+    Request oldest = new Request(5, 0);
+    building.addRequest(oldest);
+    building.addRequest(new Request(5, 1));
+    assertEquals(RequestStatus.ACCEPTED, building.offerRequest(new Request(5, 2)));
+    List<Request> down = building.getElevatorSystemStatus().getDownRequests();
+    assertFalse(down.contains(oldest));
+    assertTrue(down.contains(other));
+
+    assertEquals(RequestStatus.ACCEPTED, building.offerRequest(new Request(8, 0)));
+    assertFalse(building.getElevatorSystemStatus().getDownRequests().contains(other));
+    assertEquals(3, building.getBacklog());
+    assertEquals(2, building.getShedCalls());
+  }
+
+  /**
+   * Past a limit, a call to the same destination as a waiting one is folded into it.
+   */
+  @Test
+  public void testCoalesce() {
+    Building building = running(new AdmissionControl(1, 10, AdmissionPolicy.COALESCE));
+    building.addRequest(new Request(5, 0));
+    assertEquals(RequestStatus.COALESCED, building.offerRequest(new Request(5, 0)));
+    assertEquals(RequestStatus.REJECTED, building.offerRequest(new Request(5, 1)));
+    assertEquals(1, building.getBacklog());
+    assertEquals(2, building.getWaitingPassengers());
+    assertEquals(1, building.getCoalescedCalls());
+    assertEquals(1, building.getRejectedCalls());
+  }
+
+  /**
+   * A blocked submission gives up after its timeout while the backlog stays full, and goes
+   * through once a step has made room.
+   */
+  @Test
+  public void testBlock() {
+    Building building = running(
+        new AdmissionControl(10, 1, AdmissionPolicy.BLOCK, 20, TimeUnit.MILLISECONDS));
+    assertEquals(RequestStatus.SUBMITTED, building.submitRequest(new Request(0, 5)));
+    long start = System.nanoTime();
+    assertEquals(RequestStatus.TIMED_OUT, building.submitRequest(new Request(6, 0)));
+    assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+    assertEquals(1, building.getTimedOutSubmissions());
+
+    building.stepElevatorSystem();
+    assertEquals(0, building.getBacklog());
+    assertEquals(RequestStatus.SUBMITTED, building.submitRequest(new Request(6, 0)));
+  }
+
+  /**
+   * A blocked submission also waits for room at its start floor, so it is never turned away
+   * once let through.
+   */
+  @Test
+  public void testBlockPerFloor() {
+    Building building = running(
+        new AdmissionControl(1, 10, AdmissionPolicy.BLOCK, 20, TimeUnit.MILLISECONDS));
+    assertEquals(RequestStatus.SUBMITTED, building.submitRequest(new Request(6, 0)));
+    assertEquals(RequestStatus.TIMED_OUT, building.submitRequest(new Request(6, 1)));
+    assertEquals(RequestStatus.SUBMITTED, building.submitRequest(new Request(3, 0)));
+
+    building.stepElevatorSystem();
+    assertEquals(1, building.getBacklog(6));
+    assertEquals(RequestStatus.TIMED_OUT, building.submitRequest(new Request(6, 1)));
+    building.stepElevatorSystem();
+    assertEquals(0, building.getRejectedCalls());
+    assertEquals(2, building.getTimedOutSubmissions());
+  }
+
+  /**
+   * Switching away from BLOCK lets a submission that is waiting for room through at once.
+   */
+  @Test
+  public void testLeaveBlock() throws InterruptedException {
+    Building building = running(
+        new AdmissionControl(10, 1, AdmissionPolicy.BLOCK, 10, TimeUnit.SECONDS));
+    assertEquals(RequestStatus.SUBMITTED, building.submitRequest(new Request(0, 5)));
+    RequestStatus[] status = new RequestStatus[1];
+    Thread blocked = new Thread(() -> status[0] = building.submitRequest(new Request(6, 0)));
+    long start = System.nanoTime();
+    blocked.start();
+    Thread.sleep(20);
+    building.setAdmissionControl(new AdmissionControl(10, 1, AdmissionPolicy.REJECT));
+    blocked.join();
+    assertEquals(RequestStatus.SUBMITTED, status[0]);
+    assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    assertEquals(RequestStatus.SUBMITTED, building.submitRequest(new Request(7, 0)));
+
+    building.stepElevatorSystem();
+    assertEquals(2, building.getRejectedCalls());
+  }
+
+  /**
+   * Snapshots and forks keep the limits, the policy and the counts of calls turned away,
+   * and a restored BLOCK building still holds back submissions past its limits.
+   */
+  @Test
+  public void testSnapshotAndFork() {
+    Building building = running(new AdmissionControl(2, 3, AdmissionPolicy.REJECT));
+    building.addRequest(new Request(5, 0));
+    building.addRequest(new Request(5, 9));
+    building.addRequest(new Request(5, 1));
+    for (Building copy : new Building[] {Building.restore(building.snapshot()),
+        building.fork()}) {
+      AdmissionControl limits = copy.getAdmissionControl();
+      assertEquals(2, limits.getMaxPerFloor());
+      assertEquals(3, limits.getMaxTotal());
+      assertEquals(AdmissionPolicy.REJECT, limits.getPolicy());
+      assertEquals(1, copy.getRejectedCalls());
+      assertEquals(RequestStatus.REJECTED, copy.offerRequest(new Request(5, 2)));
+    }
+
+    Building blocking = running(
+        new AdmissionControl(10, 1, AdmissionPolicy.BLOCK, 20, TimeUnit.MILLISECONDS));
+    blocking.addRequest(new Request(0, 5));
+    Building restored = Building.restore(blocking.snapshot());
+    assertEquals(AdmissionPolicy.BLOCK, restored.getAdmissionControl().getPolicy());
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(20),
+        restored.getAdmissionControl().getBlockTimeoutNanos());
+    assertEquals(RequestStatus.TIMED_OUT, restored.submitRequest(new Request(6, 0)));
+
+    Building unlimited = Building.restore(new Building(10, 2, 3).snapshot());
+    assertSame(AdmissionControl.UNLIMITED, unlimited.getAdmissionControl());
+  }
+
+  /**
+   * Offering to a system that is not running reports it instead of throwing.
+   */
+  @Test
+  public void testNotAccepting() {
+    Building building = new Building(10, 2, 3);
+    assertEquals(RequestStatus.NOT_ACCEPTING, building.offerRequest(new Request(5, 0)));
+  }
+
+  /**
+   * Invalid limits are rejected.
+   */
+  @Test
+  public void testInvalidLimits() {
+    int rejected = 0;
+    for (int i = 0; i < 4; i++) {
+      try {
+        new AdmissionControl(i == 0 ? 0 : 1, i == 1 ? 0 : 1,
+            i == 2 ? null : AdmissionPolicy.BLOCK, i == 3 ? -1 : 0, TimeUnit.SECONDS);
+      } catch (IllegalArgumentException e) {
+        rejected++;
+      }
+    }
+    assertEquals(4, rejected);
+  }
+}
@@ -0,0 +1,176 @@
+package building;
+
+import static building.BuildingSnapshotTest.assertSameState;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import building.dispatch.Assignment;
+import building.dispatch.DispatchStrategies;
+import building.dispatch.DispatchStrategy;
+import building.dispatch.FleetView;
+import building.dispatch.MatchingDispatchStrategy;
+import building.dispatch.PendingCalls;
+import building.enums.Direction;
+import building.enums.SweepMode;
+import elevator.FleetLimits;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * A JUnit test class for Building.fork.
+ */
+public class BuildingForkTest {
+
+  /**
+   * Warm a building up under heavy traffic.
+   */
+  private static Building warmedUp(String strategy, SweepMode mode, Random random) {
+    Building building = new Building(20, 6, 5, FleetLimits.STANDARD,
+        DispatchStrategies.byName(strategy));
+    building.setSweepMode(mode);
+    building.startElevatorSystem();
+    for (int tick = 0; tick < 300; tick++) {
+      addTraffic(random, building);
+      building.stepElevatorSystem();
+    }
+    return building;
+  }
+
+  /**
+   * Add a random request at roughly one step in three.
+   */
+  private static void addTraffic(Random random, Building... buildings) {
+    if (random.nextInt(3) == 0) {
+      int start = random.nextInt(20);
+      int end = random.nextInt(19);
+      Request request = new Request(start, end >= start ? end + 1 : end);
+      for (Building building : buildings) {
+        building.addRequest(request);
+      }
+    }
+  }
+
+  /**
+   * A fork given the same traffic stays in step with its parent with every strategy and
+   * sweep mode.
+   */
+  @Test
+  public void testForkMatchesParent() {
+    for (String strategy : DispatchStrategies.availableNames()) {
+      for (SweepMode mode : SweepMode.values()) {
+        Random random = new Random(3);
+        Building parent = warmedUp(strategy, mode, random);
+        Building fork = parent.fork();
+        assertEquals(strategy, fork.getDispatchStrategy().getName());
+        String message = strategy + " " + mode;
+        assertSameState(message, parent, fork);
+        for (int tick = 0; tick < 500; tick++) {
+          addTraffic(random, parent, fork);
+          parent.stepElevatorSystem();
+          fork.stepElevatorSystem();
+          if (tick % 25 == 0) {
+            assertSameState(message + " tick " + tick, parent, fork);
+          }
+        }
+        assertSameState(message, parent, fork);
+      }
+    }
+  }
+
+  /**
+   * Running a fork leaves its parent untouched, and running the parent leaves the fork
+   * untouched.
+   */
+  @Test
+  public void testForkAndParentAreIndependent() {
+    Building parent = warmedUp("matching", SweepMode.LOOK, new Random(8));
+    Building before = Building.restore(parent.snapshot());
+
+    Building fork = parent.fork();
+    fork.addRequest(new Request(19, 0));
+    fork.addRequest(new Request(2, 17));
+    fork.stepElevatorSystem(20);
+    assertSameState("parent", before, parent);
+
+    Building forkBefore = Building.restore(fork.snapshot());
+    parent.addRequest(new Request(5, 6));
+    parent.stepElevatorSystem(40);
+    before.addRequest(new Request(5, 6));
+    before.stepElevatorSystem(40);
+    assertSameState("fork", forkBefore, fork);
+    assertSameState("parent", before, parent);
+  }
+
+  /**
+   * Forks of forks are independent of each other and of the building they came from.
+   */
+  @Test
+  public void testForksOfForks() {
+    Building root = warmedUp("eta", SweepMode.TERMINAL, new Random(5));
+    Building rootBefore = Building.restore(root.snapshot());
+    Building first = root.fork();
+    Building second = first.fork();
+    Building expected = Building.restore(first.snapshot());
+    second.addRequest(new Request(10, 3));
+    second.stepElevatorSystem(20);
+    first.stepElevatorSystem(20);
+    expected.stepElevatorSystem(20);
+    assertSameState("first", expected, first);
+    assertSameState("root", rootBefore, root);
+  }
+
+  /**
+   * A fork dispatches with the strategy it is given.
+   */
+  @Test
+  public void testForkWithStrategy() {
+    Building parent = new Building(10, 3, 5);
+    parent.startElevatorSystem();
+    Request call = new Request(6, 2);
+    parent.addRequest(call);
+    DispatchStrategy toLastCar = new DispatchStrategy() {
+      @Override
+      public String getName() {
+        return "last";
+      }
+
+      @Override
+      public List<Assignment> dispatch(PendingCalls calls, FleetView fleet) {
+        List<Request> oldest = calls.oldest(Direction.DOWN, 1);
+        if (oldest.isEmpty() || !fleet.isTakingRequests(2)) {
+          return Collections.emptyList();
+        }
+        return Collections.singletonList(new Assignment(2, oldest));
+      }
+    };
+    Building fork = parent.fork(toLastCar);
+    assertSame(toLastCar, fork.getDispatchStrategy());
+    fork.stepElevatorSystem();
+    assertTrue(fork.getElevatorSystemStatus().getElevatorReports()[2].getFloorRequestSet()
+        .contains(6));
+    assertEquals(1, parent.getElevatorSystemStatus().getDownRequests().size());
+  }
+
+  /**
+   * A strategy with state is forked along with the building.
+   */
+  @Test
+  public void testStrategyIsForked() {
+    Building parent = warmedUp("matching", SweepMode.LOOK, new Random(4));
+    Building fork = parent.fork();
+    MatchingDispatchStrategy parentStrategy =
+        (MatchingDispatchStrategy) parent.getDispatchStrategy();
+    MatchingDispatchStrategy forkStrategy = (MatchingDispatchStrategy) fork.getDispatchStrategy();
+    assertNotSame(parentStrategy, forkStrategy);
+    int warmStarts = parentStrategy.getWarmStarts();
+    assertEquals(warmStarts, forkStrategy.getWarmStarts());
+    fork.addRequest(new Request(1, 9));
+    fork.stepElevatorSystem(5);
+    assertEquals(warmStarts, parentStrategy.getWarmStarts());
+  }
+}
@@ -0,0 +1,220 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import building.dispatch.DispatchStrategies;
+import building.enums.ElevatorSystemStatus;
+import building.enums.SweepMode;
+import elevator.ElevatorReport;
+import elevator.FleetLimits;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * A JUnit test class for Building.snapshot, Building.restore and the BuildingSnapshot class.
+ */
+public class BuildingSnapshotTest {
+
+  /**
+   * Check two buildings are in the same state.
+   */
+  static void assertSameState(String message, Building expected, Building actual) {
+    BuildingReport e = expected.getElevatorSystemStatus();
+    BuildingReport a = actual.getElevatorSystemStatus();
+    assertEquals(message, expected.getCurrentTick(), actual.getCurrentTick());
+    assertEquals(message, e.getSystemStatus(), a.getSystemStatus());
+    assertEquals(message, e.getUpRequests().toString(), a.getUpRequests().toString());
+    assertEquals(message, e.getDownRequests().toString(), a.getDownRequests().toString());
+    for (int i = 0; i < e.getElevatorReports().length; i++) {
+      ElevatorReport expectedElevator = e.getElevatorReports()[i];
+      ElevatorReport actualElevator = a.getElevatorReports()[i];
+      assertEquals(message, expectedElevator.toString(), actualElevator.toString());
+      assertEquals(message, expectedElevator.isTakingRequests(),
+          actualElevator.isTakingRequests());
+      assertEquals(message, expectedElevator.getFloorRequestSet(),
+          actualElevator.getFloorRequestSet());
+    }
+    assertEquals(message, expected.getWaitTimeStatistics().toString(),
+        actual.getWaitTimeStatistics().toString());
+  }
+
+  /**
+   * Add a random request at roughly one step in three.
+   */
+  private static void addTraffic(Random random, Building... buildings) {
+    if (random.nextInt(3) == 0) {
+      int start = random.nextInt(20);
+      int end = random.nextInt(19);
+      Request request = new Request(start, end >= start ? end + 1 : end);
+      for (Building building : buildings) {
+        building.addRequest(request);
+      }
+    }
+  }
+
+  /**
+   * Warm a building up under heavy traffic, restore a copy from a snapshot and run both on,
+   * checking they stay in step.
+   */
+  private static void compareWithOriginal(String strategy, SweepMode mode) {
+    Building original = new Building(20, 4, 5, FleetLimits.STANDARD,
+        DispatchStrategies.byName(strategy));
+    original.setSweepMode(mode);
+    original.startElevatorSystem();
+    Random random = new Random(11);
+    for (int tick = 0; tick < 400; tick++) {
+      addTraffic(random, original);
+      original.stepElevatorSystem();
+    }
+
+    BuildingSnapshot snapshot = original.snapshot();
+    assertEquals(400, snapshot.getCurrentTick());
+    assertEquals(strategy, snapshot.getDispatchStrategyName());
+    Building restored = Building.restore(snapshot);
+    assertEquals(strategy, restored.getDispatchStrategy().getName());
+    assertEquals(mode, restored.getSweepMode());
+    String message = strategy + " " + mode;
+    assertSameState(message, original, restored);
+
+    for (int tick = 400; tick < 1200; tick++) {
+      addTraffic(random, original, restored);
+      original.stepElevatorSystem();
+      restored.stepElevatorSystem();
+      if (tick % 50 == 0) {
+        assertSameState(message + " tick " + tick, original, restored);
+      }
+    }
+    original.stopElevatorSystem();
+    restored.stopElevatorSystem();
+    for (int tick = 0; tick < 50; tick++) {
+      original.stepElevatorSystem();
+      restored.stepElevatorSystem();
+    }
+    assertSameState(message + " stopped", original, restored);
+    assertTrue(original.getWaitTimeStatistics().getServedCount() > 100);
+  }
+
+  /**
+   * A restored building carries on exactly as the original with every strategy and sweep
+   * mode.
+   */
+  @Test
+  public void testRestoredBuildingMatchesOriginal() {
+    for (String strategy : DispatchStrategies.availableNames()) {
+      for (SweepMode mode : SweepMode.values()) {
+        compareWithOriginal(strategy, mode);
+      }
+    }
+  }
+
+  /**
+   * A snapshot survives being written out and read back, and can be restored more than once.
+   */
+  @Test
+  public void testRoundTripThroughStream() throws IOException {
+    Building building = new Building(100, 12, 8, FleetLimits.HIGH_RISE);
+    building.startElevatorSystem();
+    building.addRequest(new Request(0, 80));
+    building.addRequest(new Request(60, 2));
+    building.stepElevatorSystem(3);
+    BuildingSnapshot snapshot = building.snapshot();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    snapshot.writeTo(out);
+    assertEquals(snapshot.size(), out.size());
+    BuildingSnapshot read = BuildingSnapshot.readFrom(new ByteArrayInputStream(out.toByteArray()));
+    assertTrue(Arrays.equals(snapshot.toByteArray(), read.toByteArray()));
+    assertEquals(BuildingSnapshot.VERSION, read.getVersion());
+    assertEquals(100, read.getNumberOfFloors());
+    assertEquals(12, read.getNumberOfElevators());
+    assertEquals(8, read.getElevatorCapacity());
+
+    Building first = Building.restore(read);
+    Building second = Building.restore(read);
+    assertEquals(FleetLimits.HIGH_RISE, first.getLimits());
+    assertSameState("first", building, first);
+    assertSameState("second", building, second);
+    first.stepElevatorSystem(10);
+    assertSameState("second", building, second);
+  }
+
+  /**
+   * A building restored with another strategy starts from the same state and dispatches
+   * with the new strategy.
+   */
+  @Test
+  public void testRestoreWithOtherStrategy() {
+    Building building = new Building(20, 3, 5);
+    building.startElevatorSystem();
+    building.addRequest(new Request(4, 9));
+    building.stepElevatorSystem(2);
+    Building branch = Building.restore(building.snapshot(), DispatchStrategies.byName("eta"));
+    assertEquals("eta", branch.getDispatchStrategy().getName());
+    assertEquals(2, branch.getCurrentTick());
+    assertEquals(ElevatorSystemStatus.running, branch.getElevatorSystemStatus().getSystemStatus());
+    branch.stepElevatorSystem(100);
+    assertEquals(1, branch.getWaitTimeStatistics().getServedCount());
+  }
+
+  /**
+   * A new building restores to an idle, out of service building.
+   */
+  @Test
+  public void testRestoreNewBuilding() {
+    Building restored = Building.restore(new Building(10, 2, 5).snapshot());
+    assertEquals(0, restored.getCurrentTick());
+    assertEquals(ElevatorSystemStatus.outOfService,
+        restored.getElevatorSystemStatus().getSystemStatus());
+    assertFalse(restored.getElevatorSystemStatus().getElevatorReports()[0].isTakingRequests());
+  }
+
+  /**
+   * Requests submitted but not yet admitted by a step are admitted into the snapshot.
+   */
+  @Test
+  public void testSnapshotKeepsSubmittedRequests() {
+    Building building = new Building(10, 2, 5);
+    building.startElevatorSystem();
+    building.submitRequest(new Request(4, 9));
+    building.submitRequest(new Request(7, 2));
+    Building restored = Building.restore(building.snapshot());
+    assertEquals(2, restored.getBacklog());
+    assertSameState("restored", building, restored);
+
+    building.stepElevatorSystem(50);
+    restored.stepElevatorSystem(50);
+    assertSameState("stepped", building, restored);
+    assertEquals(2, restored.getWaitTimeStatistics().getServedCount());
+  }
+
+  /**
+   * Bytes that are not a snapshot, a snapshot of an unknown version and a truncated snapshot
+   * are rejected.
+   */
+  @Test
+  public void testInvalidSnapshots() {
+    byte[] bytes = new Building(10, 2, 5).snapshot().toByteArray();
+    byte[] badMagic = bytes.clone();
+    badMagic[0] = 'X';
+    byte[] badVersion = bytes.clone();
+    badVersion[5] = 9;
+    byte[] truncated = Arrays.copyOf(bytes, bytes.length - 3);
+    byte[] trailing = Arrays.copyOf(bytes, bytes.length + 1);
+    for (byte[] invalid : new byte[][] {badMagic, badVersion, truncated, trailing}) {
+      try {
+        Building.restore(BuildingSnapshot.fromByteArray(invalid));
+        fail("Expected IllegalStateException");
+      } catch (IllegalStateException e) {
+        // expected
+      }
+    }
+  }
+}
@@ -5,9 +5,20 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import building.dispatch.Assignment;
+import building.dispatch.DispatchStrategies;
+import building.dispatch.DispatchStrategy;
+import building.dispatch.FleetView;
+import building.dispatch.PendingCalls;
+import building.enums.Direction;
 import building.enums.ElevatorSystemStatus;
+import building.enums.SweepMode;
+import elevator.ElevatorReport;
+import elevator.FleetLimits;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import org.junit.Before;
 import org.junit.Test;
 import scanerzus.Request;
@@ -53,6 +64,143 @@ public class BuildingTest {
     new Building(-1, 20, -1);
   }
 
+  /**
+   * The standard limits allow at most 10 elevators.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testStandardLimitsRejectElevenElevators() {
+    new Building(10, 11, 5);
+  }
+
+  /**
+   * High rise limits allow hundreds of floors and elevators.
+   */
+  @Test
+  public void testHighRiseBuilding() {
+    Building tower = new Building(200, 64, 5, FleetLimits.HIGH_RISE);
+    assertEquals(200, tower.getNumberOfFloors());
+    assertEquals(64, tower.getNumberOfElevators());
+    assertEquals(FleetLimits.HIGH_RISE, tower.getLimits());
+
+    tower.startElevatorSystem();
+    assertTrue(tower.addRequest(new Request(150, 3)));
+    for (int i = 0; i < 10; i++) {
+      tower.stepElevatorSystem();
+    }
+    assertEquals(64, tower.getElevatorSystemStatus().getElevatorReports().length);
+  }
+
+  /**
+   * LOOK elevators pick up every call with both built-in dispatch strategies.
+   */
+  @Test
+  public void testLookServesEveryCall() {
+    for (String name : new String[] {"terminal", "eta"}) {
+      Building look = new Building(10, 2, 5, FleetLimits.STANDARD,
+          DispatchStrategies.byName(name));
+      look.setSweepMode(SweepMode.LOOK);
+      assertEquals(SweepMode.LOOK, look.getSweepMode());
+      look.startElevatorSystem();
+      for (Request request : requests) {
+        assertTrue(look.addRequest(request));
+      }
+      assertTrue(look.addRequest(new Request(9, 4)));
+      for (int i = 0; i < 200; i++) {
+        look.stepElevatorSystem();
+      }
+      assertEquals(name, 4, look.getWaitTimeStatistics().getServedCount());
+      assertTrue(name, look.getElevatorSystemStatus().getUpRequests().isEmpty());
+      assertTrue(name, look.getElevatorSystemStatus().getDownRequests().isEmpty());
+    }
+  }
+
+  /**
+   * Stepping many times in one call ends in the same state as stepping one at a time.
+   */
+  @Test
+  public void testBulkStepMatchesSingleSteps() {
+    for (SweepMode mode : SweepMode.values()) {
+      Building single = new Building(10, 2, 5);
+      Building bulk = new Building(10, 2, 5);
+      single.setSweepMode(mode);
+      bulk.setSweepMode(mode);
+      single.startElevatorSystem();
+      bulk.startElevatorSystem();
+      for (int round = 0; round < 40; round++) {
+        Request request = requests.get(round % requests.size());
+        single.addRequest(request);
+        bulk.addRequest(request);
+        int ticks = 1 + (round * 37) % 60;
+        for (int i = 0; i < ticks; i++) {
+          single.stepElevatorSystem();
+        }
+        bulk.stepElevatorSystem(ticks);
+        assertEquals(single.getCurrentTick(), bulk.getCurrentTick());
+        BuildingReport expected = single.getElevatorSystemStatus();
+        BuildingReport actual = bulk.getElevatorSystemStatus();
+        for (int i = 0; i < 2; i++) {
+          assertEquals(expected.getElevatorReports()[i].toString(),
+              actual.getElevatorReports()[i].toString());
+        }
+        assertEquals(expected.getUpRequests().size(), actual.getUpRequests().size());
+        assertEquals(expected.getDownRequests().size(), actual.getDownRequests().size());
+      }
+      assertEquals(single.getWaitTimeStatistics().toString(),
+          bulk.getWaitTimeStatistics().toString());
+    }
+  }
+
+  /**
+   * An idle building skips over a long run of steps.
+   */
+  @Test
+  public void testBulkStepSkipsIdleSteps() {
+    building.setSweepMode(SweepMode.LOOK);
+    building.startElevatorSystem();
+    building.stepElevatorSystem(10);
+    assertEquals(Long.MAX_VALUE, building.getSkippableSteps());
+    building.stepElevatorSystem(Integer.MAX_VALUE);
+    assertEquals(10L + Integer.MAX_VALUE, building.getCurrentTick());
+  }
+
+  /**
+   * Stepping a large fleet in parallel gives exactly the same reports as stepping it
+   * on the calling thread.
+   */
+  @Test
+  public void testParallelStepMatchesSequential() {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      Building sequential = new Building(200, 150, 10, FleetLimits.HIGH_RISE);
+      Building parallel = new Building(200, 150, 10, FleetLimits.HIGH_RISE);
+      parallel.setStepPool(pool);
+      assertEquals(pool, parallel.getStepPool());
+      sequential.startElevatorSystem();
+      parallel.startElevatorSystem();
+      Random random = new Random(9);
+      for (int tick = 0; tick < 2000; tick++) {
+        if (random.nextInt(3) == 0) {
+          int start = random.nextInt(200);
+          int end = random.nextInt(199);
+          Request request = new Request(start, end >= start ? end + 1 : end);
+          sequential.addRequest(request);
+          parallel.addRequest(request);
+        }
+        sequential.stepElevatorSystem();
+        parallel.stepElevatorSystem();
+      }
+      ElevatorReport[] expected = sequential.getElevatorSystemStatus().getElevatorReports();
+      ElevatorReport[] actual = parallel.getElevatorSystemStatus().getElevatorReports();
+      for (int i = 0; i < expected.length; i++) {
+        assertEquals(expected[i].toString(), actual[i].toString());
+      }
+      assertEquals(sequential.getWaitTimeStatistics().toString(),
+          parallel.getWaitTimeStatistics().toString());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
   /**
    * Verifies that the total number of floors in the building is correctly reported.
    */
@@ -302,4 +450,72 @@ public class BuildingTest {
     assertEquals("Building should be out of service",
         ElevatorSystemStatus.outOfService, report.getSystemStatus());
   }
+
+  /**
+   * A moving car fed calls over several steps never takes more riders than it holds under
+   * any strategy or sweep mode, and every call is still served.
+   */
+  @Test
+  public void testMovingCarFedCallsKeepsCapacity() {
+    for (String name : DispatchStrategies.availableNames()) {
+      for (SweepMode mode : SweepMode.values()) {
+        Building car = new Building(30, 1, 3, FleetLimits.STANDARD,
+            DispatchStrategies.byName(name));
+        car.setSweepMode(mode);
+        car.startElevatorSystem();
+        car.addRequest(new Request(0, 29));
+        for (int i = 0; i < 6; i++) {
+          car.stepElevatorSystem();
+        }
+        for (int floor = 5; floor < 15; floor++) {
+          car.addRequest(new Request(floor, floor + 15));
+          car.stepElevatorSystem();
+          ElevatorReport report = car.getElevatorSystemStatus().getElevatorReports()[0];
+          assertTrue(name + " " + mode, report.getCommittedRiders() <= 3);
+        }
+        car.stepElevatorSystem(1000);
+        assertEquals(name + " " + mode, 11, car.getWaitTimeStatistics().getServedCount());
+      }
+    }
+  }
+
+  /**
+   * A strategy that keeps giving a moving car calls past its capacity is stopped by the
+   * building before the car takes them.
+   */
+  @Test
+  public void testOverfillingMovingCarThrows() {
+    DispatchStrategy greedy = new DispatchStrategy() {
+      @Override
+      public String getName() {
+        return "greedy";
+      }
+
+      @Override
+      public List<Assignment> dispatch(PendingCalls calls, FleetView fleet) {
+        List<Assignment> assignments = new ArrayList<>();
+        assignments.add(new Assignment(0, calls.oldest(Direction.UP, 1)));
+        return assignments;
+      }
+    };
+    Building car = new Building(30, 1, 3, FleetLimits.STANDARD, greedy);
+    car.startElevatorSystem();
+    car.addRequest(new Request(0, 29));
+    for (int i = 0; i < 6; i++) {
+      car.stepElevatorSystem();
+    }
+    car.addRequest(new Request(5, 20));
+    car.stepElevatorSystem();
+    car.addRequest(new Request(6, 21));
+    car.stepElevatorSystem();
+    assertEquals(3, car.getElevatorSystemStatus().getElevatorReports()[0].getCommittedRiders());
+    car.addRequest(new Request(7, 22));
+    try {
+      car.stepElevatorSystem();
+      fail("A fourth rider should not fit in the car.");
+    } catch (IllegalStateException e) {
+      assertEquals(3,
+          car.getElevatorSystemStatus().getElevatorReports()[0].getCommittedRiders());
+    }
+  }
 }
@@ -0,0 +1,65 @@
+package building;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import building.enums.AdmissionPolicy;
+import building.enums.RequestStatus;
+import java.util.Arrays;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * A JUnit test class for Building.addRequests.
+ */
+public class BulkAddRequestsTest {
+
+  /**
+   * Each request gets its own status, and only the valid ones are added.
+   */
+  @Test
+  public void testStatusPerRequest() {
+    Building building = new Building(10, 2, 3);
+    building.startElevatorSystem();
+    Request[] requests = {
+        new Request(5, 0), null, new Request(-1, 3), new Request(3, 10), new Request(4, 4),
+        new Request(0, 9)};
+    RequestStatus[] statuses = building.addRequests(requests);
+    assertArrayEquals(new RequestStatus[] {
+        RequestStatus.ACCEPTED, RequestStatus.NULL_REQUEST, RequestStatus.INVALID_START_FLOOR,
+        RequestStatus.INVALID_END_FLOOR, RequestStatus.SAME_FLOOR, RequestStatus.ACCEPTED},
+        statuses);
+    assertEquals(2, building.getBacklog());
+    assertTrue(statuses[2].isInvalid());
+    assertFalse(statuses[0].isInvalid());
+  }
+
+  /**
+   * The collection form agrees with the array form, and admission limits apply.
+   */
+  @Test
+  public void testCollectionAndLimits() {
+    Building building = new Building(10, 2, 3);
+    building.setAdmissionControl(new AdmissionControl(1, 10, AdmissionPolicy.REJECT));
+    building.startElevatorSystem();
+    RequestStatus[] statuses = building.addRequests(
+        Arrays.asList(new Request(5, 0), new Request(5, 1), new Request(6, 0)));
+    assertArrayEquals(new RequestStatus[] {
+        RequestStatus.ACCEPTED, RequestStatus.REJECTED, RequestStatus.ACCEPTED}, statuses);
+  }
+
+  /**
+   * A stopped system reports valid requests as not accepted, and invalid ones as invalid.
+   */
+  @Test
+  public void testNotAccepting() {
+    Building building = new Building(10, 2, 3);
+    RequestStatus[] statuses = building.addRequests(
+        new Request[] {new Request(5, 0), new Request(5, 5)});
+    assertArrayEquals(new RequestStatus[] {
+        RequestStatus.NOT_ACCEPTING, RequestStatus.SAME_FLOOR}, statuses);
+    assertEquals(0, building.getBacklog());
+  }
+}
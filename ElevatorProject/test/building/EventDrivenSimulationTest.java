@@ -0,0 +1,124 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import building.dispatch.DispatchStrategies;
+import building.enums.SweepMode;
+import elevator.ElevatorReport;
+import elevator.FleetLimits;
+import java.util.Random;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * A JUnit test class for the EventDrivenSimulation class.
+ */
+public class EventDrivenSimulationTest {
+
+  /**
+   * Check two reports describe the same state.
+   */
+  private static void assertSameReport(long tick, BuildingReport expected,
+                                       BuildingReport actual) {
+    String message = "tick " + tick;
+    assertEquals(message, expected.getSystemStatus(), actual.getSystemStatus());
+    assertEquals(message, expected.getUpRequests().toString(),
+        actual.getUpRequests().toString());
+    assertEquals(message, expected.getDownRequests().toString(),
+        actual.getDownRequests().toString());
+    ElevatorReport[] expectedElevators = expected.getElevatorReports();
+    ElevatorReport[] actualElevators = actual.getElevatorReports();
+    for (int i = 0; i < expectedElevators.length; i++) {
+      ElevatorReport e = expectedElevators[i];
+      ElevatorReport a = actualElevators[i];
+      assertEquals(message, e.toString(), a.toString());
+      assertEquals(message, e.getDirection(), a.getDirection());
+      assertEquals(message, e.isTakingRequests(), a.isTakingRequests());
+      assertEquals(message, e.isOutOfService(), a.isOutOfService());
+      assertEquals(message, e.getDoorOpenTimer(), a.getDoorOpenTimer());
+      assertEquals(message, e.getFloorRequestSet(), a.getFloorRequestSet());
+    }
+  }
+
+  /**
+   * Run the same sparse random trace through a building stepped one step at a time and
+   * through the event driven simulation, and compare the reports at every step.
+   */
+  private static void compareWithTickEngine(String strategy, SweepMode mode, long seed) {
+    Building ticked = new Building(20, 3, 5, FleetLimits.STANDARD,
+        DispatchStrategies.byName(strategy));
+    Building simulated = new Building(20, 3, 5, FleetLimits.STANDARD,
+        DispatchStrategies.byName(strategy));
+    ticked.setSweepMode(mode);
+    simulated.setSweepMode(mode);
+    ticked.startElevatorSystem();
+    simulated.startElevatorSystem();
+    EventDrivenSimulation simulation = new EventDrivenSimulation(simulated);
+
+    Random random = new Random(seed);
+    Request[] arrivals = new Request[3000];
+    for (int tick = 0; tick < arrivals.length; tick++) {
+      if (random.nextInt(40) == 0) {
+        int start = random.nextInt(20);
+        int end = random.nextInt(19);
+        arrivals[tick] = new Request(start, end >= start ? end + 1 : end);
+        simulation.schedule(tick, arrivals[tick]);
+      }
+    }
+
+    for (int tick = 0; tick < arrivals.length; tick++) {
+      if (tick % 7 == 0) {
+        assertSameReport(tick, ticked.getElevatorSystemStatus(), simulation.reportAt(tick));
+      }
+      if (arrivals[tick] != null) {
+        ticked.addRequest(arrivals[tick]);
+      }
+      ticked.stepElevatorSystem();
+    }
+    assertSameReport(arrivals.length, ticked.getElevatorSystemStatus(),
+        simulation.reportAt(arrivals.length));
+    assertEquals(ticked.getWaitTimeStatistics().toString(),
+        simulated.getWaitTimeStatistics().toString());
+    assertTrue(simulation.getStepsSkipped() > 0);
+  }
+
+  /**
+   * The event driven simulation matches the tick engine with every strategy and sweep mode.
+   */
+  @Test
+  public void testMatchesTickEngine() {
+    for (String strategy : DispatchStrategies.availableNames()) {
+      for (SweepMode mode : SweepMode.values()) {
+        compareWithTickEngine(strategy, mode, 5);
+      }
+    }
+  }
+
+  /**
+   * An idle building jumps straight to the requested step.
+   */
+  @Test
+  public void testIdleBuildingSkipsToTick() {
+    Building building = new Building(10, 2, 5);
+    building.startElevatorSystem();
+    building.setSweepMode(SweepMode.LOOK);
+    EventDrivenSimulation simulation = new EventDrivenSimulation(building);
+    simulation.schedule(1_000_000_000L, new Request(3, 7));
+    simulation.runUntil(1_000_000_010L);
+    assertEquals(1_000_000_010L, building.getCurrentTick());
+    assertTrue(simulation.getStepsTaken() < 100);
+    assertEquals(1, building.getWaitTimeStatistics().getServedCount());
+  }
+
+  /**
+   * Requests cannot be scheduled in the past.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testScheduleInThePast() {
+    Building building = new Building(10, 2, 5);
+    EventDrivenSimulation simulation = new EventDrivenSimulation(building);
+    simulation.runUntil(10);
+    simulation.schedule(5, new Request(1, 2));
+  }
+}
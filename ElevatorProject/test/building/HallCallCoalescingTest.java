@@ -0,0 +1,248 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import building.dispatch.DispatchStrategies;
+import building.enums.RequestStatus;
+import elevator.FleetLimits;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * A JUnit test class for hall call coalescing in the Building class.
+ */
+public class HallCallCoalescingTest {
+
+  private static Building coalescing() {
+    Building building = new Building(10, 2, 3);
+    building.setHallCallCoalescing(true);
+    building.startElevatorSystem();
+    return building;
+  }
+
+  /**
+   * A crowd at one floor shares one call per destination and elevator load, and every
+   * passenger's wait is counted once the call is picked up.
+   */
+  @Test
+  public void testCrowdSharesCalls() {
+    Building building = coalescing();
+    assertTrue(building.isHallCallCoalescing());
+    for (int i = 0; i < 6; i++) {
+      building.addRequest(new Request(7, i % 2 == 0 ? 0 : 2));
+    }
+    assertEquals(2, building.getBacklog());
+    assertEquals(6, building.getWaitingPassengers());
+    assertEquals(4, building.getCoalescedCalls());
+    assertEquals(2, building.getElevatorSystemStatus().getDownRequests().size());
+
+    building.stepElevatorSystem(100);
+    assertEquals(0, building.getWaitingPassengers());
+    WaitTimeStatistics statistics = building.getWaitTimeStatistics();
+    assertEquals(6, statistics.getServedCount());
+    assertEquals(6 * statistics.getMaxWait(), statistics.getTotalWait());
+  }
+
+  /**
+   * More passengers to one floor than an elevator holds are split into calls no larger than
+   * its capacity, which every strategy carries without overloading an elevator.
+   */
+  @Test
+  public void testCrowdLargerThanCapacity() {
+    for (String name : DispatchStrategies.availableNames()) {
+      Building building = new Building(10, 2, 3, FleetLimits.STANDARD,
+          DispatchStrategies.byName(name));
+      building.setHallCallCoalescing(true);
+      building.startElevatorSystem();
+      for (int i = 0; i < 7; i++) {
+        building.addRequest(new Request(5, 0));
+      }
+      assertEquals(name, 3, building.getBacklog());
+      assertEquals(name, 7, building.getWaitingPassengers());
+
+      // The building rejects any assignment that gives an elevator more than its capacity.
+      building.stepElevatorSystem(200);
+      assertEquals(name, 0, building.getWaitingPassengers());
+      assertEquals(name, 7, building.getWaitTimeStatistics().getServedCount());
+    }
+  }
+
+  /**
+   * Passengers who arrive later wait less than the first.
+   */
+  @Test
+  public void testLaterPassengersWaitLess() {
+    Building building = coalescing();
+    building.addRequest(new Request(9, 0));
+    building.stepElevatorSystem(3);
+    assertEquals(RequestStatus.COALESCED, building.offerRequest(new Request(9, 0)));
+    building.stepElevatorSystem(100);
+    WaitTimeStatistics statistics = building.getWaitTimeStatistics();
+    assertEquals(2, statistics.getServedCount());
+    assertEquals(2 * statistics.getMaxWait() - 3, statistics.getTotalWait());
+  }
+
+  /**
+   * Without coalescing every request waits as a call of its own.
+   */
+  @Test
+  public void testOffByDefault() {
+    Building building = new Building(10, 2, 3);
+    building.startElevatorSystem();
+    assertFalse(building.isHallCallCoalescing());
+    building.addRequests(Arrays.asList(new Request(7, 0), new Request(7, 0)));
+    assertEquals(2, building.getBacklog());
+    assertEquals(2, building.getWaitingPassengers());
+  }
+
+  /**
+   * Snapshots and forks keep coalescing and the passengers of each call.
+   */
+  @Test
+  public void testSnapshotAndFork() {
+    Building building = coalescing();
+    for (int i = 0; i < 5; i++) {
+      building.addRequest(new Request(8, 1));
+    }
+    Building restored = Building.restore(building.snapshot());
+    Building fork = building.fork();
+    for (Building copy : new Building[] {restored, fork}) {
+      assertTrue(copy.isHallCallCoalescing());
+      assertEquals(5, copy.getWaitingPassengers());
+      // The sixth passenger fills the call of two rather than starting a third.
+      copy.addRequest(new Request(8, 1));
+      assertEquals(2, copy.getBacklog());
+      copy.stepElevatorSystem(100);
+      assertEquals(6, copy.getWaitTimeStatistics().getServedCount());
+    }
+    assertEquals(5, building.getWaitingPassengers());
+  }
+
+  /**
+   * A version 1 snapshot, which has no coalescing flag and one passenger to every waiting
+   * call and pending pickup, still restores and runs on like the building it was taken of.
+   */
+  @Test
+  public void testRestoreVersionOne() throws IOException {
+    Building building = new Building(10, 2, 5);
+    building.startElevatorSystem();
+    building.addRequests(Arrays.asList(new Request(3, 9), new Request(5, 8),
+        new Request(9, 2), new Request(6, 1), new Request(8, 0)));
+    building.stepElevatorSystem(2);
+    building.addRequest(new Request(4, 7));
+
+    int[] counts = new int[2];
+    BuildingSnapshot snapshot = toVersionOne(building.snapshot(), counts);
+    assertTrue("waiting calls", counts[0] > 0);
+    assertTrue("pending pickups", counts[1] > 0);
+    assertEquals(1, snapshot.getVersion());
+    Building restored = Building.restore(snapshot);
+    assertFalse(restored.isHallCallCoalescing());
+    BuildingSnapshotTest.assertSameState("restored", building, restored);
+
+    building.stepElevatorSystem(100);
+    restored.stepElevatorSystem(100);
+    BuildingSnapshotTest.assertSameState("stepped", building, restored);
+  }
+
+  /**
+   * Rewrite a snapshot of a building without coalescing in the version 1 format, which has
+   * no elevator riders either, counting the hall calls and pickups it holds.
+   */
+  private static BuildingSnapshot toVersionOne(BuildingSnapshot snapshot, int[] counts)
+      throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(snapshot.toByteArray()));
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(in.readInt());
+    assertEquals(BuildingSnapshot.VERSION, in.readShort());
+    out.writeShort(1);
+    for (int i = 0; i < 5; i++) {
+      out.writeInt(in.readInt());
+    }
+    out.writeUTF(in.readUTF());
+    out.writeLong(in.readLong());
+    byte[] state = new byte[in.readInt()];
+    in.readFully(state);
+    out.writeInt(state.length);
+    out.write(state);
+    out.writeByte(in.readByte());
+    assertFalse(in.readBoolean());
+    // The admission control and the counts of calls it shed, rejected and coalesced.
+    in.skipBytes(4 + 4 + 1 + 8 + 3 * 8);
+    for (int direction = 0; direction < 2; direction++) {
+      int count = in.readInt();
+      out.writeInt(count);
+      for (int i = 0; i < count; i++) {
+        out.writeInt(in.readInt());
+        out.writeInt(in.readInt());
+        out.writeLong(in.readLong());
+        assertEquals(1, in.readInt());
+        in.readLong();
+      }
+      counts[0] += count;
+    }
+    for (int elevator = 0; elevator < snapshot.getNumberOfElevators(); elevator++) {
+      int count = in.readInt();
+      out.writeInt(count);
+      for (int i = 0; i < count; i++) {
+        out.writeLong(in.readLong());
+        assertEquals(1, in.readInt());
+        in.readLong();
+      }
+      counts[1] += count;
+    }
+    // The wait statistics.
+    out.writeLong(in.readLong());
+    out.writeLong(in.readLong());
+    out.writeLong(in.readLong());
+    for (int elevator = 0; elevator < snapshot.getNumberOfElevators(); elevator++) {
+      copyElevatorState(in, out);
+    }
+    assertEquals(-1, in.read());
+    out.flush();
+    return BuildingSnapshot.fromByteArray(bytes.toByteArray());
+  }
+
+  /**
+   * Copy an elevator's state without the riders it has been given.
+   */
+  private static void copyElevatorState(DataInputStream in, DataOutputStream out)
+      throws IOException {
+    for (int i = 0; i < 3; i++) {
+      out.writeInt(in.readInt());
+    }
+    // The direction, the sweep mode and whether the door is closed.
+    out.writeByte(in.readByte());
+    out.writeByte(in.readByte());
+    out.writeBoolean(in.readBoolean());
+    out.writeInt(in.readInt());
+    out.writeInt(in.readInt());
+    out.writeBoolean(in.readBoolean());
+    out.writeBoolean(in.readBoolean());
+    int stops = in.readInt();
+    out.writeInt(stops);
+    for (int i = 0; i < stops; i++) {
+      out.writeInt(in.readInt());
+    }
+    int waiting = in.readInt();
+    out.writeInt(waiting);
+    for (int i = 0; i < 2 * waiting; i++) {
+      out.writeInt(in.readInt());
+    }
+    for (int list = 0; list < 2; list++) {
+      int riders = in.readInt();
+      for (int i = 0; i < 3 * riders; i++) {
+        in.readInt();
+      }
+    }
+  }
+}
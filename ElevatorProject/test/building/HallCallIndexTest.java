@@ -0,0 +1,210 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import building.enums.Direction;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * A JUnit test class for the HallCallIndex class.
+ */
+public class HallCallIndexTest {
+  private HallCallIndex index;
+
+  /**
+   * Set up an index for a 100 floor building, so the floor bitmap spans two words.
+   */
+  @Before
+  public void setUp() {
+    index = new HallCallIndex(100);
+  }
+
+  /**
+   * Calls are split by direction and kept in arrival order.
+   */
+  @Test
+  public void testDirectionsAndOrder() {
+    Request up1 = new Request(1, 3);
+    Request down1 = new Request(5, 2);
+    Request up2 = new Request(2, 4);
+    index.add(up1, 0);
+    index.add(down1, 0);
+    index.add(up2, 0);
+
+    assertEquals(2, index.size(Direction.UP));
+    assertEquals(1, index.size(Direction.DOWN));
+    assertEquals(3, index.size());
+    assertSame(up1, index.poll(Direction.UP));
+    assertSame(up2, index.poll(Direction.UP));
+    assertSame(down1, index.poll(Direction.DOWN));
+    assertTrue(index.isEmpty());
+  }
+
+  /**
+   * The next waiting floor is found above and below a floor, across bitmap words.
+   */
+  @Test
+  public void testNextFloorAboveAndBelow() {
+    index.add(new Request(3, 10), 0);
+    index.add(new Request(70, 90), 0);
+    index.add(new Request(90, 99), 0);
+
+    assertEquals(3, index.nextFloorAbove(Direction.UP, -1));
+    assertEquals(70, index.nextFloorAbove(Direction.UP, 3));
+    assertEquals(90, index.nextFloorAbove(Direction.UP, 70));
+    assertEquals(-1, index.nextFloorAbove(Direction.UP, 90));
+    assertEquals(90, index.nextFloorBelow(Direction.UP, 100));
+    assertEquals(3, index.nextFloorBelow(Direction.UP, 70));
+    assertEquals(-1, index.nextFloorBelow(Direction.UP, 3));
+    assertEquals(-1, index.nextFloorAbove(Direction.DOWN, -1));
+  }
+
+  /**
+   * Calls at one floor are listed and drained without disturbing other floors.
+   */
+  @Test
+  public void testCallsAtFloor() {
+    Request first = new Request(7, 1);
+    Request other = new Request(8, 1);
+    Request second = new Request(7, 0);
+    index.add(first, 0);
+    index.add(other, 0);
+    index.add(second, 0);
+
+    assertTrue(index.hasCallsAt(Direction.DOWN, 7));
+    assertEquals(2, index.countAt(Direction.DOWN, 7));
+    assertEquals(List.of(first, second), index.callsAt(Direction.DOWN, 7));
+
+    List<Request> drained = new ArrayList<>();
+    assertEquals(2, index.drainFloorTo(Direction.DOWN, 7, drained, 10));
+    assertEquals(List.of(first, second), drained);
+    assertFalse(index.hasCallsAt(Direction.DOWN, 7));
+    assertEquals(1, index.size(Direction.DOWN));
+    assertSame(other, index.poll(Direction.DOWN));
+  }
+
+  /**
+   * A call removed from the middle of the backlog is skipped by later polls.
+   */
+  @Test
+  public void testRemoveFromMiddle() {
+    Request first = new Request(1, 2);
+    Request middle = new Request(4, 5);
+    Request last = new Request(1, 3);
+    index.add(first, 0);
+    index.add(middle, 5);
+    index.add(last, 0);
+
+    assertEquals(5, index.remove(middle));
+    assertEquals(-1, index.remove(middle));
+    assertFalse(index.hasCallsAt(Direction.UP, 4));
+    assertEquals(List.of(first, last), index.toList(Direction.UP));
+    assertSame(first, index.poll(Direction.UP));
+    assertSame(last, index.poll(Direction.UP));
+    assertFalse(index.hasCallsAt(Direction.UP, 1));
+  }
+
+  /**
+   * Calls removed out of order from a busy floor leave the rest in order, and a request added
+   * twice is removed oldest call first.
+   */
+  @Test
+  public void testRemoveFromBusyFloor() {
+    List<Request> calls = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      Request request = new Request(0, 1 + i % 99);
+      calls.add(request);
+      index.add(request, i);
+    }
+    Request twice = calls.get(150);
+    index.add(twice, 500);
+    for (int i = 199; i >= 0; i -= 2) {
+      assertEquals(i, index.remove(calls.get(i)));
+    }
+    for (int i = 0; i < 200; i += 4) {
+      assertEquals(i, index.remove(calls.get(i)));
+    }
+    List<Request> expected = new ArrayList<>();
+    for (int i = 2; i < 200; i += 4) {
+      expected.add(calls.get(i));
+    }
+    expected.add(twice);
+    assertEquals(expected, index.callsAt(Direction.UP, 0));
+    assertEquals(2, index.oldestArrivalAt(Direction.UP, 0));
+
+    assertEquals(150, index.remove(twice));
+    assertEquals(500, index.remove(twice));
+    assertEquals(-1, index.remove(twice));
+    assertEquals(expected.size() - 2, index.size());
+    assertEquals(expected.subList(0, 5), index.copy().oldest(Direction.UP, 5));
+  }
+
+  /**
+   * Calls keep their floors and order when the arrival queue is compacted behind a call that
+   * keeps waiting.
+   */
+  @Test
+  public void testRemoveBehindWaitingCall() {
+    Request waiting = new Request(3, 9);
+    index.add(waiting, 0);
+    List<Request> kept = new ArrayList<>();
+    for (int i = 0; i < 1_000; i++) {
+      Request request = new Request(i % 5, 10 + i % 7);
+      index.add(request, i);
+      if (i % 100 == 0) {
+        kept.add(request);
+      } else {
+        assertEquals(i, index.remove(request));
+      }
+    }
+    assertEquals(11, index.size(Direction.UP));
+    assertSame(waiting, index.toList(Direction.UP).get(0));
+    assertEquals(kept, index.callsAt(Direction.UP, 0));
+    assertEquals(100, index.remove(kept.get(1)));
+    assertEquals(0, index.oldestArrivalAt(Direction.UP, 3));
+    assertSame(waiting, index.poll(Direction.UP));
+    for (Request request : kept) {
+      if (request != kept.get(1)) {
+        assertSame(request, index.poll(Direction.UP));
+      }
+    }
+    assertTrue(index.isEmpty());
+  }
+
+  /**
+   * A request for the same floor and destination joins the waiting call, which keeps its
+   * place, and the call's passengers go with it when it is removed.
+   */
+  @Test
+  public void testCoalesce() {
+    Request first = new Request(7, 0);
+    Request other = new Request(7, 3);
+    assertFalse(index.coalesce(first, 2, 10));
+    index.add(first, 2);
+    index.add(other, 3);
+    assertTrue(index.coalesce(new Request(7, 0), 5, 10));
+    assertTrue(index.coalesce(new Request(7, 0), 6, 10));
+    assertFalse(index.coalesce(new Request(7, 9), 6, 10));
+
+    assertEquals(2, index.countAt(Direction.DOWN, 7));
+    assertEquals(4, index.passengersAt(Direction.DOWN, 7));
+    assertEquals(4, index.passengerCount());
+    // Waits at step 10: 8 + 5 + 4 for the first call and 7 for the other.
+    assertEquals(24, index.waitedUntil(10));
+    assertEquals(4, index.copy().passengerCount());
+
+    assertEquals(2, index.remove(first));
+    assertEquals(3, index.getRemovedPassengers());
+    assertEquals(13, index.getRemovedArrivalSum());
+    assertEquals(1, index.passengerCount());
+    assertSame(other, index.poll(Direction.DOWN));
+    assertEquals(0, index.passengerCount());
+  }
+}
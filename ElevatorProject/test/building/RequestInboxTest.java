@@ -0,0 +1,104 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * A JUnit test class for the RequestInbox class and Building.submitRequest.
+ */
+public class RequestInboxTest {
+
+  /**
+   * Requests from one thread are drained in the order they were added, and only once.
+   */
+  @Test
+  public void testDrainsInOrder() {
+    RequestInbox inbox = new RequestInbox(4);
+    assertTrue(inbox.isEmpty());
+    List<Request> expected = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      Request request = new Request(i % 10, 10);
+      expected.add(request);
+      inbox.add(request);
+    }
+    assertFalse(inbox.isEmpty());
+    List<Request> drained = new ArrayList<>();
+    assertEquals(100, inbox.drain(drained::add));
+    assertEquals(expected, drained);
+    assertTrue(inbox.isEmpty());
+    assertEquals(0, inbox.drain(drained::add));
+  }
+
+  /**
+   * Every request added by many threads at once is drained, each thread's in order, while
+   * the inbox is being drained.
+   */
+  @Test
+  public void testConcurrentProducers() throws InterruptedException {
+    int threads = 8;
+    int perThread = 20_000;
+    RequestInbox inbox = new RequestInbox(threads);
+    Thread[] producers = new Thread[threads];
+    for (int t = 0; t < threads; t++) {
+      int start = t;
+      producers[t] = new Thread(() -> {
+        for (int i = 0; i < perThread; i++) {
+          // The start floor names the thread and the end floor counts its requests.
+          inbox.add(new Request(start, threads + i));
+        }
+      });
+      producers[t].start();
+    }
+    int[] next = new int[threads];
+    List<Request> drained = new ArrayList<>();
+    boolean alive = true;
+    while (alive || !inbox.isEmpty()) {
+      alive = false;
+      for (Thread producer : producers) {
+        alive |= producer.isAlive();
+      }
+      drained.clear();
+      inbox.drain(drained::add);
+      for (Request request : drained) {
+        assertEquals(threads + next[request.getStartFloor()]++, request.getEndFloor());
+      }
+    }
+    for (int t = 0; t < threads; t++) {
+      assertEquals(perThread, next[t]);
+    }
+  }
+
+  /**
+   * Submitted requests become hall calls at the start of the next step, and are dropped
+   * while the system is out of service.
+   */
+  @Test
+  public void testSubmitRequest() {
+    Building building = new Building(10, 2, 3);
+    building.submitRequest(new Request(5, 0));
+    building.stepElevatorSystem();
+    assertEquals(1, building.getRejectedSubmissions());
+
+    building.startElevatorSystem();
+    building.submitRequest(new Request(5, 0));
+    assertEquals(0, building.getSkippableSteps());
+    assertTrue(building.getElevatorSystemStatus().getDownRequests().isEmpty());
+    building.stepElevatorSystem(100);
+    assertEquals(1, building.getWaitTimeStatistics().getServedCount());
+    assertEquals(1, building.getRejectedSubmissions());
+  }
+
+  /**
+   * Invalid requests are rejected when submitted.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testSubmitInvalidRequest() {
+    new Building(10, 2, 3).submitRequest(new Request(3, 10));
+  }
+}
@@ -0,0 +1,132 @@
+package building;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * A JUnit test class for the RequestQueue class.
+ */
+public class RequestQueueTest {
+  private RequestQueue queue;
+
+  /**
+   * Set up an empty queue.
+   */
+  @Before
+  public void setUp() {
+    queue = new RequestQueue();
+  }
+
+  /**
+   * An empty queue has nothing to poll or peek.
+   */
+  @Test
+  public void testEmptyQueue() {
+    assertTrue(queue.isEmpty());
+    assertEquals(0, queue.size());
+    assertNull(queue.poll());
+    assertNull(queue.peek());
+  }
+
+  /**
+   * Requests come out in the order they went in.
+   */
+  @Test
+  public void testFifoOrder() {
+    Request first = new Request(1, 3);
+    Request second = new Request(2, 4);
+    queue.offer(first);
+    queue.offer(second);
+
+    assertSame(first, queue.peek());
+    assertSame(first, queue.poll());
+    assertSame(second, queue.poll());
+    assertTrue(queue.isEmpty());
+  }
+
+  /**
+   * The queue keeps its order when it grows while wrapped around the end of the buffer.
+   */
+  @Test
+  public void testGrowWhileWrapped() {
+    List<Request> expected = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      queue.offer(new Request(0, 1));
+    }
+    for (int i = 0; i < 10; i++) {
+      queue.poll();
+    }
+    for (int i = 0; i < 100; i++) {
+      Request request = new Request(i, i + 1);
+      expected.add(request);
+      queue.offer(request);
+    }
+
+    assertEquals(100, queue.size());
+    assertEquals(expected, queue.toList());
+    for (Request request : expected) {
+      assertSame(request, queue.poll());
+    }
+  }
+
+  /**
+   * Draining stops at the requested maximum and keeps the rest queued.
+   */
+  @Test
+  public void testDrainToStopsAtMaximum() {
+    for (int i = 0; i < 7; i++) {
+      queue.offer(new Request(i, i + 1));
+    }
+    List<Request> drained = new ArrayList<>();
+
+    assertEquals(5, queue.drainTo(drained, 5));
+    assertEquals(5, drained.size());
+    assertEquals(0, drained.get(0).getStartFloor());
+    assertEquals(4, drained.get(4).getStartFloor());
+    assertEquals(2, queue.size());
+
+    assertEquals(2, queue.drainTo(drained, 5));
+    assertTrue(queue.isEmpty());
+  }
+
+  /**
+   * Requests removed behind a request that stays at the head are closed up once they
+   * outnumber the queued ones, instead of growing the buffer.
+   */
+  @Test
+  public void testCompactBehindHead() {
+    Request pinned = new Request(0, 1);
+    queue.offer(pinned);
+    Request kept = new Request(2, 3);
+    for (int i = 0; i < 10_000; i++) {
+      long ticket = queue.offer(new Request(i % 10, 10));
+      queue.remove(ticket);
+      queue.compact();
+      if (i == 5_000) {
+        queue.offer(kept);
+      }
+    }
+    assertEquals(2, queue.size());
+    assertEquals(16, queue.capacity());
+    assertEquals(List.of(pinned, kept), queue.toList());
+    assertSame(kept, queue.get(queue.peekTicket() + 1));
+    assertSame(pinned, queue.poll());
+    assertSame(kept, queue.poll());
+  }
+
+  /**
+   * Null requests are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testOfferNull() {
+    queue.offer(null);
+  }
+}
@@ -0,0 +1,105 @@
+package building.dispatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import building.Building;
+import elevator.FleetLimits;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * A JUnit test class for selecting and running dispatch strategies.
+ */
+public class DispatchStrategiesTest {
+
+  /**
+   * A strategy that never assigns anything.
+   */
+  private static class IdleStrategy implements DispatchStrategy {
+    @Override
+    public String getName() {
+      return "idle";
+    }
+
+    @Override
+    public List<Assignment> dispatch(PendingCalls calls, FleetView fleet) {
+      return new ArrayList<>();
+    }
+  }
+
+  /**
+   * The default strategy is registered with the ServiceLoader under its name.
+   */
+  @Test
+  public void testTerminalStrategyIsRegistered() {
+    assertTrue(DispatchStrategies.availableNames().contains(TerminalDispatchStrategy.NAME));
+    assertEquals(TerminalDispatchStrategy.class,
+        DispatchStrategies.byName(TerminalDispatchStrategy.NAME).getClass());
+    assertEquals(TerminalDispatchStrategy.NAME,
+        new Building(10, 2, 5).getDispatchStrategy().getName());
+  }
+
+  /**
+   * Asking for a strategy that is not registered fails.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownStrategy() {
+    DispatchStrategies.byName("no such strategy");
+  }
+
+  /**
+   * Two elevators waiting on the ground floor share the oldest up calls, capacity at a time.
+   */
+  @Test
+  public void testTerminalStrategySplitsOldestCallsBetweenElevators() {
+    Building building = new Building(10, 2, 3);
+    building.startElevatorSystem();
+    for (int i = 1; i <= 7; i++) {
+      building.addRequest(new Request(i % 9, 9));
+    }
+    building.stepElevatorSystem();
+
+    List<Request> waiting = building.getElevatorSystemStatus().getUpRequests();
+    assertEquals(1, waiting.size());
+    assertEquals(7, waiting.get(0).getStartFloor());
+  }
+
+  /**
+   * A building uses the strategy it was constructed with.
+   */
+  @Test
+  public void testCustomStrategyIsUsed() {
+    Building building = new Building(10, 2, 5, FleetLimits.STANDARD, new IdleStrategy());
+    building.startElevatorSystem();
+    building.addRequest(new Request(1, 5));
+    building.stepElevatorSystem();
+
+    assertEquals("idle", building.getDispatchStrategy().getName());
+    assertEquals(1, building.getElevatorSystemStatus().getUpRequests().size());
+  }
+
+  /**
+   * A strategy may not assign a call that is not waiting.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testStrategyAssigningUnknownRequest() {
+    DispatchStrategy rogue = new IdleStrategy() {
+      @Override
+      public List<Assignment> dispatch(PendingCalls calls, FleetView fleet) {
+        List<Request> requests = new ArrayList<>();
+        requests.add(new Request(2, 3));
+        List<Assignment> assignments = new ArrayList<>();
+        assignments.add(new Assignment(0, requests));
+        return assignments;
+      }
+    };
+    Building building = new Building(10, 2, 5, FleetLimits.STANDARD, rogue);
+    building.startElevatorSystem();
+    building.addRequest(new Request(1, 5));
+    assertEquals(1, building.getElevatorSystemStatus().getUpRequests().size());
+    building.stepElevatorSystem();
+  }
+}
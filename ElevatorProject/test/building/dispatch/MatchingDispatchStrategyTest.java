@@ -0,0 +1,92 @@
+package building.dispatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import building.Building;
+import elevator.FleetLimits;
+import java.util.Random;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * A JUnit test class for the MatchingDispatchStrategy class.
+ */
+public class MatchingDispatchStrategyTest {
+
+  /**
+   * The strategy is registered with the ServiceLoader under its name.
+   */
+  @Test
+  public void testRegistered() {
+    assertEquals(MatchingDispatchStrategy.class,
+        DispatchStrategies.byName(MatchingDispatchStrategy.NAME).getClass());
+  }
+
+  /**
+   * The solver finds the cheapest matching, checked against every possible matching
+   * of small random problems.
+   */
+  @Test
+  public void testSolveIsOptimal() {
+    Random random = new Random(3);
+    MatchingDispatchStrategy strategy = new MatchingDispatchStrategy();
+    for (int trial = 0; trial < 200; trial++) {
+      int rows = 1 + random.nextInt(4);
+      int cols = rows + random.nextInt(3);
+      long[][] cost = new long[rows][cols];
+      int[] hint = new int[rows];
+      for (int i = 0; i < rows; i++) {
+        for (int j = 0; j < cols; j++) {
+          cost[i][j] = random.nextInt(41) - 20;
+        }
+        hint[i] = random.nextInt(cols + 1) - 1;
+      }
+      int[] match = strategy.solve(cost, rows, cols, hint);
+      boolean[] taken = new boolean[cols];
+      long total = 0;
+      for (int i = 0; i < rows; i++) {
+        assertTrue(!taken[match[i]]);
+        taken[match[i]] = true;
+        total += cost[i][match[i]];
+      }
+      assertEquals(cheapest(cost, 0, new boolean[cols]), total);
+    }
+  }
+
+  private static long cheapest(long[][] cost, int row, boolean[] taken) {
+    if (row == cost.length) {
+      return 0;
+    }
+    long best = Long.MAX_VALUE;
+    for (int j = 0; j < taken.length; j++) {
+      if (!taken[j]) {
+        taken[j] = true;
+        best = Math.min(best, cost[row][j] + cheapest(cost, row + 1, taken));
+        taken[j] = false;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Two elevators waiting at the ground floor and at the top are each sent to the calls
+   * nearest them, and every call is picked up.
+   */
+  @Test
+  public void testServesEveryCall() {
+    Building building = new Building(10, 2, 5, FleetLimits.STANDARD,
+        new MatchingDispatchStrategy());
+    building.startElevatorSystem();
+    building.addRequest(new Request(0, 4));
+    building.addRequest(new Request(1, 6));
+    building.addRequest(new Request(8, 2));
+    building.addRequest(new Request(5, 0));
+    for (int i = 0; i < 200; i++) {
+      building.stepElevatorSystem();
+    }
+    assertEquals(4, building.getWaitTimeStatistics().getServedCount());
+    assertTrue(building.getElevatorSystemStatus().getUpRequests().isEmpty());
+    assertTrue(building.getElevatorSystemStatus().getDownRequests().isEmpty());
+  }
+}
@@ -0,0 +1,122 @@
+package building.dispatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import building.Building;
+import building.WaitTimeStatistics;
+import elevator.ElevatorReport;
+import elevator.FleetLimits;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * A JUnit test class for the NearestCarDispatchStrategy class.
+ */
+public class NearestCarDispatchStrategyTest {
+
+  /**
+   * Build a started single elevator building and let the elevator leave the ground floor.
+   */
+  private static Building startedBuilding(DispatchStrategy strategy) {
+    Building building = new Building(10, 1, 5, FleetLimits.STANDARD, strategy);
+    building.startElevatorSystem();
+    building.addRequest(new Request(0, 9));
+    // the call is assigned at once, the door opens for 3 steps and the car moves up
+    for (int i = 0; i < 6; i++) {
+      building.stepElevatorSystem();
+    }
+    return building;
+  }
+
+  /**
+   * The strategy is registered with the ServiceLoader under its name.
+   */
+  @Test
+  public void testRegistered() {
+    assertEquals(NearestCarDispatchStrategy.class,
+        DispatchStrategies.byName(NearestCarDispatchStrategy.NAME).getClass());
+  }
+
+  /**
+   * A moving elevator picks up a call ahead of it travelling its way.
+   */
+  @Test
+  public void testMidShaftPickup() {
+    Building building = startedBuilding(new NearestCarDispatchStrategy());
+    assertEquals(2, building.getElevatorSystemStatus().getElevatorReports()[0].getCurrentFloor());
+
+    building.addRequest(new Request(5, 8));
+    building.stepElevatorSystem();
+    assertTrue(building.getElevatorSystemStatus().getUpRequests().isEmpty());
+    ElevatorReport report = building.getElevatorSystemStatus().getElevatorReports()[0];
+    assertTrue(report.getFloorRequests()[5]);
+    assertTrue(report.getFloorRequests()[8]);
+
+    // three more floors and the door opens at floor 5
+    for (int i = 0; i < 2; i++) {
+      building.stepElevatorSystem();
+    }
+    report = building.getElevatorSystemStatus().getElevatorReports()[0];
+    assertEquals(5, report.getCurrentFloor());
+    building.stepElevatorSystem();
+    assertFalse(building.getElevatorSystemStatus().getElevatorReports()[0].isDoorClosed());
+
+    WaitTimeStatistics statistics = building.getWaitTimeStatistics();
+    assertEquals(2, statistics.getServedCount());
+    assertEquals(4, statistics.getMaxWait());
+  }
+
+  /**
+   * A moving elevator is only given calls mid-shaft while the riders it already has leave
+   * room for them, and the calls it could not take are served later.
+   */
+  @Test
+  public void testMidShaftPickupKeepsCapacity() {
+    Building building = new Building(30, 1, 3, FleetLimits.STANDARD,
+        new NearestCarDispatchStrategy());
+    building.startElevatorSystem();
+    building.addRequest(new Request(0, 29));
+    for (int i = 0; i < 6; i++) {
+      building.stepElevatorSystem();
+    }
+    for (int floor = 5; floor < 15; floor++) {
+      building.addRequest(new Request(floor, floor + 15));
+      building.stepElevatorSystem();
+      ElevatorReport report = building.getElevatorSystemStatus().getElevatorReports()[0];
+      assertTrue(report.getCommittedRiders() <= 3);
+    }
+    assertEquals(3, building.getElevatorSystemStatus().getElevatorReports()[0]
+        .getCommittedRiders());
+    assertFalse(building.getElevatorSystemStatus().getUpRequests().isEmpty());
+
+    building.stepElevatorSystem(500);
+    assertEquals(11, building.getWaitTimeStatistics().getServedCount());
+  }
+
+  /**
+   * The original strategy leaves the same call waiting for the elevator to come back
+   * to the ground floor.
+   */
+  @Test
+  public void testTerminalStrategyWaitsForGroundFloor() {
+    Building building = startedBuilding(new TerminalDispatchStrategy());
+    building.addRequest(new Request(5, 8));
+    for (int i = 0; i < 4; i++) {
+      building.stepElevatorSystem();
+    }
+    assertEquals(1, building.getElevatorSystemStatus().getUpRequests().size());
+  }
+
+  /**
+   * A call behind a moving elevator is not given to it.
+   */
+  @Test
+  public void testCallBehindIsNotPickedUp() {
+    Building building = startedBuilding(new NearestCarDispatchStrategy());
+    building.addRequest(new Request(1, 4));
+    building.stepElevatorSystem();
+    assertEquals(1, building.getElevatorSystemStatus().getUpRequests().size());
+  }
+}
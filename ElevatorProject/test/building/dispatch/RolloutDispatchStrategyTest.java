@@ -0,0 +1,110 @@
+package building.dispatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import building.Building;
+import building.enums.SweepMode;
+import building.enums.TrafficProfile;
+import elevator.FleetLimits;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * A JUnit test class for the RolloutDispatchStrategy class.
+ */
+public class RolloutDispatchStrategyTest {
+
+  private static RolloutDispatchStrategy strategy(int maxRounds, long budgetNanos) {
+    return new RolloutDispatchStrategy(new NearestCarDispatchStrategy(),
+        TrafficProfile.INTER_FLOOR, 0.2, 15, maxRounds, budgetNanos, 42);
+  }
+
+  /**
+   * Run random traffic through a building and let it empty.
+   */
+  private static Building run(DispatchStrategy strategy, long seed) {
+    Building building = new Building(15, 4, 5, FleetLimits.STANDARD, strategy);
+    building.setSweepMode(SweepMode.LOOK);
+    building.startElevatorSystem();
+    Random random = new Random(seed);
+    for (int tick = 0; tick < 600; tick++) {
+      if (random.nextInt(4) == 0) {
+        int start = random.nextInt(15);
+        int end = random.nextInt(14);
+        building.addRequest(new Request(start, end >= start ? end + 1 : end));
+      }
+      building.stepElevatorSystem();
+    }
+    building.stepElevatorSystem(200);
+    return building;
+  }
+
+  /**
+   * The strategy is registered with the ServiceLoader under its name.
+   */
+  @Test
+  public void testRegistered() {
+    assertEquals(RolloutDispatchStrategy.class,
+        DispatchStrategies.byName(RolloutDispatchStrategy.NAME).getClass());
+  }
+
+  /**
+   * Every call is served, and without a time budget the same seed gives the same run.
+   */
+  @Test
+  public void testServesEveryCallReproducibly() {
+    RolloutDispatchStrategy first = strategy(4, Long.MAX_VALUE);
+    RolloutDispatchStrategy second = strategy(4, Long.MAX_VALUE);
+    Building a = run(first, 7);
+    Building b = run(second, 7);
+    assertTrue(a.getElevatorSystemStatus().getUpRequests().isEmpty());
+    assertTrue(a.getElevatorSystemStatus().getDownRequests().isEmpty());
+    assertTrue(first.getRollouts() > 0);
+    assertEquals(first.getRollouts(), second.getRollouts());
+    assertEquals(a.getWaitTimeStatistics().toString(), b.getWaitTimeStatistics().toString());
+  }
+
+  /**
+   * Once the time budget has run out no more rounds are started, but one always runs.
+   */
+  @Test
+  public void testBudgetLimitsRounds() {
+    ForkJoinPool pool = new ForkJoinPool(1);
+    long[] rollouts = new long[2];
+    long[] budgets = {0, Long.MAX_VALUE};
+    for (int i = 0; i < 2; i++) {
+      RolloutDispatchStrategy strategy = strategy(6, budgets[i]);
+      strategy.setPool(pool);
+      Building building = new Building(15, 4, 5, FleetLimits.STANDARD, strategy);
+      building.setSweepMode(SweepMode.LOOK);
+      building.startElevatorSystem();
+      building.addRequest(new Request(7, 2));
+      building.stepElevatorSystem();
+      rollouts[i] = strategy.getRollouts();
+    }
+    pool.shutdown();
+    assertTrue(rollouts[0] > 0);
+    assertEquals(6 * rollouts[0], rollouts[1]);
+  }
+
+  /**
+   * Invalid settings are rejected.
+   */
+  @Test
+  public void testInvalidSettings() {
+    int rejected = 0;
+    for (int i = 0; i < 4; i++) {
+      try {
+        new RolloutDispatchStrategy(i == 0 ? null : new NearestCarDispatchStrategy(),
+            TrafficProfile.LUNCH, i == 1 ? -1 : 0.1, i == 2 ? 0 : 10, i == 3 ? 0 : 1,
+            Long.MAX_VALUE, 0);
+      } catch (IllegalArgumentException e) {
+        rejected++;
+      }
+    }
+    assertEquals(4, rejected);
+  }
+}
@@ -0,0 +1,108 @@
+package building.farm;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import building.Building;
+import building.BuildingReport;
+import building.dispatch.DispatchStrategies;
+import elevator.FleetLimits;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * A JUnit test class for the SimulationFarm class.
+ */
+public class SimulationFarmTest {
+
+  /**
+   * A building of 12 floors with 2 to 4 elevators, given random traffic for 400 steps.
+   */
+  private static final class RandomTraffic implements Scenario {
+    @Override
+    public Building createBuilding(int replication) {
+      return new Building(12, 2 + replication % 3, 5, FleetLimits.STANDARD,
+          DispatchStrategies.byName("eta"));
+    }
+
+    @Override
+    public void run(Building building, SplittableRandom random) {
+      BuildingReport report = building.getElevatorSystemStatus();
+      for (int i = 0; i < report.getNumElevators(); i++) {
+        assertEquals(i, report.getElevatorReports()[i].getElevatorId());
+      }
+      building.startElevatorSystem();
+      for (int step = 0; step < 400; step++) {
+        if (random.nextInt(3) == 0) {
+          int start = random.nextInt(12);
+          int end = random.nextInt(11);
+          building.addRequest(new Request(start, end >= start ? end + 1 : end));
+        }
+        building.stepElevatorSystem();
+      }
+    }
+  }
+
+  /**
+   * The results depend on the seed, not on the size of the pool.
+   */
+  @Test
+  public void testResultsDoNotDependOnPool() {
+    ForkJoinPool one = new ForkJoinPool(1);
+    ForkJoinPool four = new ForkJoinPool(4);
+    try {
+      FarmResult serial = new SimulationFarm(one).run(new RandomTraffic(), 24, 42);
+      FarmResult parallel = new SimulationFarm(four).run(new RandomTraffic(), 24, 42);
+      assertEquals(24, parallel.getReplicationCount());
+      for (int i = 0; i < 24; i++) {
+        assertEquals(serial.getSeed(i), parallel.getSeed(i));
+        assertEquals(serial.getStatistics(i).toString(), parallel.getStatistics(i).toString());
+        assertTrue(parallel.getStatistics(i).getServedCount() > 0);
+      }
+      assertEquals(serial.toString(), parallel.toString());
+    } finally {
+      one.shutdown();
+      four.shutdown();
+    }
+  }
+
+  /**
+   * The pooled statistics hold every replication's calls.
+   */
+  @Test
+  public void testPooledStatistics() {
+    FarmResult result = new SimulationFarm().run(new RandomTraffic(), 5, 7);
+    long served = 0;
+    long total = 0;
+    long max = 0;
+    for (int i = 0; i < 5; i++) {
+      served += result.getStatistics(i).getServedCount();
+      total += result.getStatistics(i).getTotalWait();
+      max = Math.max(max, result.getStatistics(i).getMaxWait());
+    }
+    assertEquals(served, result.getPooledStatistics().getServedCount());
+    assertEquals(total, result.getPooledStatistics().getTotalWait());
+    assertEquals(max, result.getPooledStatistics().getMaxWait());
+  }
+
+  /**
+   * A farm with no replications has empty aggregates.
+   */
+  @Test
+  public void testNoReplications() {
+    FarmResult result = new SimulationFarm().run(new RandomTraffic(), 0, 1);
+    assertEquals(0, result.getReplicationCount());
+    assertEquals(0, result.getMeanAverageWait(), 0);
+    assertEquals(0, result.getAverageWaitStandardDeviation(), 0);
+  }
+
+  /**
+   * A negative number of replications is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeReplications() {
+    new SimulationFarm().run(new RandomTraffic(), -1, 1);
+  }
+}
@@ -0,0 +1,202 @@
+package building.realtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import building.Building;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * A JUnit test class for the RealTimeScheduler class. Most tests drive the schedule with
+ * made-up times instead of starting the scheduler's thread.
+ */
+public class RealTimeSchedulerTest {
+
+  /**
+   * Oversleeping a tick does not push the later ticks back.
+   */
+  @Test
+  public void testNoDrift() {
+    Building building = new Building(10, 2, 3);
+    RealTimeScheduler scheduler = new RealTimeScheduler(building, 1000, 1);
+    scheduler.begin(0);
+    assertEquals(1000, scheduler.runDue(500));
+    assertEquals(0, building.getCurrentTick());
+    assertEquals(2000, scheduler.runDue(1300));
+    assertEquals(3000, scheduler.runDue(2900));
+    assertEquals(2, building.getCurrentTick());
+    assertEquals(0, scheduler.getMissedDeadlines());
+    assertEquals(900, scheduler.getMaxLatenessNanos());
+  }
+
+  /**
+   * The period is the tick length divided by the speed up.
+   */
+  @Test
+  public void testSpeedUp() {
+    Building building = new Building(10, 2, 3);
+    RealTimeScheduler scheduler = new RealTimeScheduler(building, 1_000_000_000L, 100);
+    scheduler.begin(0);
+    assertEquals(20_000_000, scheduler.runDue(10_000_000));
+    assertEquals(1, scheduler.getTicks());
+  }
+
+  /**
+   * Steps taken a period or more late are counted and reported as missed deadlines.
+   */
+  @Test
+  public void testMissedDeadlines() {
+    Building building = new Building(10, 2, 3);
+    RealTimeScheduler scheduler = new RealTimeScheduler(building, 1000, 1);
+    List<Long> lateness = new ArrayList<>();
+    scheduler.addListener(new TickListener() {
+      @Override
+      public void ticked(long tick) {
+      }
+
+      @Override
+      public void deadlineMissed(long tick, long latenessNanos) {
+        lateness.add(latenessNanos);
+      }
+    });
+    scheduler.begin(0);
+    assertEquals(4000, scheduler.runDue(3500));
+    assertEquals(3, scheduler.getTicks());
+    assertEquals(2, scheduler.getMissedDeadlines());
+    assertEquals(List.of(2500L, 1500L), lateness);
+    assertEquals(2500, scheduler.getMaxLatenessNanos());
+  }
+
+  /**
+   * Falling further behind than the catch up limit skips ticks and carries on from now.
+   */
+  @Test
+  public void testSkipsBacklog() {
+    Building building = new Building(10, 2, 3);
+    RealTimeScheduler scheduler = new RealTimeScheduler(building, 1000, 1, 3);
+    scheduler.begin(0);
+    assertEquals(11_000, scheduler.runDue(10_000));
+    assertEquals(3, scheduler.getTicks());
+    assertEquals(7, scheduler.getSkippedTicks());
+    assertEquals(3, building.getCurrentTick());
+    assertEquals(12_000, scheduler.runDue(11_000));
+    assertEquals(4, scheduler.getTicks());
+  }
+
+  /**
+   * Changing the speed up takes effect from the time of the change.
+   */
+  @Test
+  public void testChangeSpeedUp() {
+    Building building = new Building(10, 2, 3);
+    RealTimeScheduler scheduler = new RealTimeScheduler(building, 1000, 1);
+    scheduler.begin(0);
+    assertEquals(2000, scheduler.runDue(1000));
+    scheduler.setSpeedUp(10);
+    assertEquals(1600, scheduler.runDue(1500));
+    assertEquals(1, scheduler.getTicks());
+    assertEquals(1700, scheduler.runDue(1600));
+    assertEquals(2, scheduler.getTicks());
+  }
+
+  /**
+   * Commands run on the scheduler's thread before the steps that are due.
+   */
+  @Test
+  public void testCommandsRunBeforeSteps() throws InterruptedException {
+    Building building = new Building(10, 2, 3);
+    AtomicLong stepped = new AtomicLong();
+    try (RealTimeScheduler scheduler = new RealTimeScheduler(building, 1_000_000L, 1)) {
+      scheduler.addListener(tick -> stepped.incrementAndGet());
+      scheduler.start();
+      scheduler.execute(building::startElevatorSystem);
+      scheduler.execute(() -> building.addRequest(new Request(0, 5)));
+      Thread.sleep(200);
+    }
+    assertTrue(stepped.get() > 0);
+    assertEquals(stepped.get(), building.getCurrentTick());
+    assertEquals(1, building.getWaitTimeStatistics().getServedCount());
+  }
+
+  /**
+   * Every command accepted while another thread stops the scheduler is run, and every one
+   * after is turned away.
+   */
+  @Test
+  public void testStopRunsAcceptedCommands() throws InterruptedException {
+    for (int round = 0; round < 50; round++) {
+      RealTimeScheduler scheduler = new RealTimeScheduler(new Building(10, 2, 3), 1_000_000L, 1);
+      AtomicLong accepted = new AtomicLong();
+      AtomicLong ran = new AtomicLong();
+      scheduler.start();
+      Thread sender = new Thread(() -> {
+        try {
+          while (true) {
+            scheduler.execute(ran::incrementAndGet);
+            accepted.incrementAndGet();
+          }
+        } catch (IllegalStateException e) {
+          // Stopped.
+        }
+      });
+      sender.start();
+      Thread.sleep(1);
+      scheduler.stop();
+      sender.join();
+      assertEquals("round " + round, accepted.get(), ran.get());
+    }
+  }
+
+  /**
+   * A command that throws stops the scheduler and is reported to the listeners.
+   */
+  @Test
+  public void testFailureStops() throws InterruptedException {
+    Building building = new Building(10, 2, 3);
+    RealTimeScheduler scheduler = new RealTimeScheduler(building, 1_000_000L, 1);
+    List<RuntimeException> failures = new ArrayList<>();
+    scheduler.addListener(new TickListener() {
+      @Override
+      public void ticked(long tick) {
+      }
+
+      @Override
+      public void failed(RuntimeException failure) {
+        failures.add(failure);
+      }
+    });
+    scheduler.start();
+    IllegalStateException thrown = new IllegalStateException("broken");
+    scheduler.execute(() -> {
+      throw thrown;
+    });
+    scheduler.stop();
+    assertFalse(scheduler.isRunning());
+    assertSame(thrown, scheduler.getFailure());
+    assertEquals(List.of(thrown), failures);
+  }
+
+  /**
+   * Invalid settings are rejected.
+   */
+  @Test
+  public void testInvalidSettings() {
+    Building building = new Building(10, 2, 3);
+    int rejected = 0;
+    for (int i = 0; i < 5; i++) {
+      try {
+        new RealTimeScheduler(i == 0 ? null : building, i == 1 ? 0 : 1000,
+            i == 2 ? 0 : i == 3 ? Double.NaN : 1, i == 4 ? 0 : 1);
+      } catch (IllegalArgumentException e) {
+        rejected++;
+      }
+    }
+    assertEquals(5, rejected);
+  }
+}
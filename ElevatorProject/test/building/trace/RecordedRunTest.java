@@ -0,0 +1,113 @@
+package building.trace;
+
+import static org.junit.Assert.assertEquals;
+
+import building.Building;
+import building.BuildingReport;
+import building.enums.TrafficProfile;
+import building.traffic.TrafficGenerator;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for the RecordedRun class.
+ */
+public class RecordedRunTest {
+  private Path file;
+  private List<BuildingReport> reports;
+
+  /**
+   * Record a run, flushing part way through a segment so that segments differ in length.
+   */
+  @Before
+  public void setUp() throws IOException {
+    this.file = Files.createTempFile("run", ".elvr");
+    this.reports = new ArrayList<>();
+    Building building = new Building(18, 3, 5);
+    building.startElevatorSystem();
+    TrafficGenerator generator = new TrafficGenerator(TrafficProfile.UP_PEAK, 18, 0.2, 12);
+    try (RunRecorder recorder = new RunRecorder(Files.newOutputStream(this.file), 18, 3, 5,
+        64)) {
+      for (int tick = 0; tick < 2000; tick++) {
+        generator.addNextTick(building);
+        building.stepElevatorSystem();
+        BuildingReport report = building.getElevatorSystemStatus();
+        recorder.record(report);
+        this.reports.add(report);
+        if (tick == 700) {
+          recorder.flush();
+        }
+      }
+    }
+  }
+
+  /**
+   * Delete the recording.
+   */
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(this.file);
+  }
+
+  private void assertReportAt(RecordedRun run, int tick) throws IOException {
+    BuildingReport expected = this.reports.get(tick);
+    BuildingReport actual = run.reportAt(tick);
+    assertEquals("tick " + tick, Arrays.asList(expected.getElevatorReports()),
+        Arrays.asList(actual.getElevatorReports()));
+    assertEquals("up calls at tick " + tick, expected.getUpRequests().toString(),
+        actual.getUpRequests().toString());
+    assertEquals("down calls at tick " + tick, expected.getDownRequests().toString(),
+        actual.getDownRequests().toString());
+  }
+
+  /**
+   * Every tick can be reached in order and at random, forwards and backwards.
+   */
+  @Test
+  public void testReportAt() throws IOException {
+    try (RecordedRun run = new RecordedRun(this.file)) {
+      assertEquals(2000, run.getTickCount());
+      assertEquals(18, run.getNumberOfFloors());
+      assertEquals(3, run.getNumberOfElevators());
+      // 701 ticks in 10 full segments and a short one, then 1299 ticks in 21 segments.
+      assertEquals(11 + 21, run.getKeyframeCount());
+      for (int tick = 0; tick < 2000; tick++) {
+        this.assertReportAt(run, tick);
+      }
+      Random random = new Random(1);
+      for (int i = 0; i < 500; i++) {
+        this.assertReportAt(run, random.nextInt(2000));
+      }
+      this.assertReportAt(run, 1999);
+      this.assertReportAt(run, 0);
+    }
+  }
+
+  /**
+   * A tick that was not recorded is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testTickOutOfRange() throws IOException {
+    try (RecordedRun run = new RecordedRun(this.file)) {
+      run.reportAt(2000);
+    }
+  }
+
+  /**
+   * A recording cut off in the middle of a segment is rejected when it is opened.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testTruncated() throws IOException {
+    byte[] bytes = Files.readAllBytes(this.file);
+    Files.write(this.file, Arrays.copyOf(bytes, bytes.length - 3));
+    new RecordedRun(this.file).close();
+  }
+}
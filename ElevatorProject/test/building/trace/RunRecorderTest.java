@@ -0,0 +1,105 @@
+package building.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import building.Building;
+import building.BuildingReport;
+import building.enums.ElevatorSystemStatus;
+import building.enums.TrafficProfile;
+import building.traffic.TrafficGenerator;
+import elevator.ElevatorReport;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for the RunRecorder and RunReader classes.
+ */
+public class RunRecorderTest {
+
+  /**
+   * Every tick reads back as the building reported it, including ticks where the system
+   * starts and stops.
+   */
+  @Test
+  public void testRoundTrip() throws IOException {
+    Building building = new Building(25, 4, 5);
+    TrafficGenerator generator = new TrafficGenerator(TrafficProfile.LUNCH, 25, 0.3, 6);
+    List<BuildingReport> reports = new ArrayList<>();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (RunRecorder recorder = new RunRecorder(out, 25, 4, 5, 50)) {
+      for (int tick = 0; tick < 1234; tick++) {
+        if (tick == 3) {
+          building.startElevatorSystem();
+        }
+        if (tick == 1100) {
+          building.stopElevatorSystem();
+        }
+        if (tick >= 3 && tick < 1100) {
+          generator.addNextTick(building);
+        }
+        building.stepElevatorSystem();
+        BuildingReport report = building.getElevatorSystemStatus();
+        recorder.record(report);
+        reports.add(report);
+      }
+      assertEquals(1234, recorder.getTicksRecorded());
+    }
+
+    try (RunReader reader = new RunReader(new ByteArrayInputStream(out.toByteArray()))) {
+      assertEquals(25, reader.getNumberOfFloors());
+      assertEquals(4, reader.getNumberOfElevators());
+      for (BuildingReport expected : reports) {
+        assertTrue(reader.next());
+        BuildingReport actual = reader.getReport();
+        assertEquals(expected.getSystemStatus(), actual.getSystemStatus());
+        assertEquals(Arrays.asList(expected.getElevatorReports()),
+            Arrays.asList(actual.getElevatorReports()));
+        assertEquals(expected.getUpRequests().toString(), actual.getUpRequests().toString());
+        assertEquals(expected.getDownRequests().toString(),
+            actual.getDownRequests().toString());
+      }
+      assertFalse(reader.next());
+      assertEquals(1233, reader.getTick());
+    }
+  }
+
+  /**
+   * An idle tick takes a single byte before compression.
+   */
+  @Test
+  public void testIdleTicksAreSmall() throws IOException {
+    Building building = new Building(10, 3, 5);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (RunRecorder recorder = new RunRecorder(out, 10, 3, 5, 100_000)) {
+      for (int tick = 0; tick < 100_000; tick++) {
+        recorder.record(building.getElevatorSystemStatus());
+      }
+    }
+    assertTrue(out.size() < 1000);
+  }
+
+  /**
+   * A report for the wrong number of elevators is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testWrongFleet() throws IOException {
+    try (RunRecorder recorder = new RunRecorder(new ByteArrayOutputStream(), 10, 3, 5, 10)) {
+      recorder.record(new ElevatorReport[2], ElevatorSystemStatus.running);
+    }
+  }
+
+  /**
+   * A stream that is not a recording is rejected.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testNotARecording() throws IOException {
+    new RunReader(new ByteArrayInputStream("ELVT".getBytes())).close();
+  }
+}
@@ -0,0 +1,161 @@
+package building.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for the TraceWriter and TraceReader classes.
+ */
+public class TraceReaderTest {
+  private Path file;
+
+  /**
+   * Create a temporary trace file.
+   */
+  @Before
+  public void setUp() throws IOException {
+    this.file = Files.createTempFile("trace", ".elvt");
+  }
+
+  /**
+   * Delete the temporary trace file.
+   */
+  @After
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(this.file);
+  }
+
+  /**
+   * Calls read back as written, across many small mapped windows.
+   */
+  @Test
+  public void testRoundTrip() throws IOException {
+    Random random = new Random(4);
+    int calls = 5000;
+    long[] ticks = new long[calls];
+    int[] starts = new int[calls];
+    int[] ends = new int[calls];
+    long tick = 0;
+    try (TraceWriter writer = new TraceWriter(Files.newOutputStream(this.file), 300)) {
+      for (int i = 0; i < calls; i++) {
+        tick += random.nextInt(10) == 0 ? random.nextInt(100_000) : random.nextInt(3);
+        int start = random.nextInt(300);
+        int end = random.nextInt(299);
+        ticks[i] = tick;
+        starts[i] = start;
+        ends[i] = end >= start ? end + 1 : end;
+        writer.write(ticks[i], starts[i], ends[i]);
+      }
+      assertEquals(calls, writer.getCount());
+    }
+
+    try (TraceReader reader = new TraceReader(this.file, 64)) {
+      assertEquals(300, reader.getNumberOfFloors());
+      for (int i = 0; i < calls; i++) {
+        assertTrue(reader.next());
+        assertEquals(ticks[i], reader.getTick());
+        assertEquals(starts[i], reader.getStartFloor());
+        assertEquals(ends[i], reader.getEndFloor());
+      }
+      assertFalse(reader.next());
+      assertEquals(calls, reader.getCount());
+    }
+  }
+
+  /**
+   * A trip down more floors than fit in 30 bits reads back as written.
+   */
+  @Test
+  public void testLongTripDown() throws IOException {
+    int start = (1 << 30) + 10;
+    try (TraceWriter writer = new TraceWriter(Files.newOutputStream(this.file),
+        Integer.MAX_VALUE)) {
+      writer.write(1, start, 5);
+      writer.write(2, 5, start);
+    }
+    try (TraceReader reader = new TraceReader(this.file, 64)) {
+      assertTrue(reader.next());
+      assertEquals(start, reader.getStartFloor());
+      assertEquals(5, reader.getEndFloor());
+      assertTrue(reader.next());
+      assertEquals(start, reader.getEndFloor());
+    }
+  }
+
+  /**
+   * A short trip takes three bytes.
+   */
+  @Test
+  public void testCompact() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (TraceWriter writer = new TraceWriter(out, 20)) {
+      writer.flush();
+      int header = out.size();
+      writer.write(5, 10, 9);
+      writer.flush();
+      assertEquals(header + 3, out.size());
+    }
+  }
+
+  /**
+   * A file that is not a trace is rejected.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testNotATrace() throws IOException {
+    Files.write(this.file, "tick,start,end\n".getBytes());
+    new TraceReader(this.file).close();
+  }
+
+  /**
+   * A trace cut off in the middle of a call is reported.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testTruncated() throws IOException {
+    try (TraceWriter writer = new TraceWriter(Files.newOutputStream(this.file), 500)) {
+      writer.write(1_000_000, 400, 3);
+    }
+    byte[] bytes = Files.readAllBytes(this.file);
+    Files.write(this.file, Arrays.copyOf(bytes, bytes.length - 1));
+    try (TraceReader reader = new TraceReader(this.file)) {
+      reader.next();
+    }
+  }
+
+  /**
+   * A call from a negative floor is reported, even when it ends on a floor of the building.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testNegativeStartFloor() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new TraceWriter(out, 10).close();
+    // Tick 0, a start floor of -1 as a ten byte varint, and an end two floors above it.
+    byte[] call = {0, -1, -1, -1, -1, -1, -1, -1, -1, -1, 1, 4};
+    out.write(call);
+    Files.write(this.file, out.toByteArray());
+    try (TraceReader reader = new TraceReader(this.file)) {
+      reader.next();
+    }
+  }
+
+  /**
+   * Calls must be written in tick order.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testOutOfOrder() throws IOException {
+    try (TraceWriter writer = new TraceWriter(new ByteArrayOutputStream(), 10)) {
+      writer.write(5, 1, 2);
+      writer.write(4, 1, 2);
+    }
+  }
+}
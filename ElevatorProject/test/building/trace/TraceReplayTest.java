@@ -0,0 +1,92 @@
+package building.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import building.Building;
+import building.enums.TrafficProfile;
+import building.traffic.TrafficGenerator;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * A JUnit test class for the TraceReplay class.
+ */
+public class TraceReplayTest {
+
+  /**
+   * Replaying a recorded trace leaves the building as adding the calls directly does.
+   */
+  @Test
+  public void testReplayMatchesDirect() throws IOException {
+    Path file = Files.createTempFile("replay", ".elvt");
+    try {
+      TrafficGenerator generator = new TrafficGenerator(TrafficProfile.LUNCH, 15, 0.1, 8);
+      List<List<Request>> ticks = new ArrayList<>();
+      long calls = 0;
+      try (TraceWriter writer = new TraceWriter(Files.newOutputStream(file), 15)) {
+        for (long tick = 0; tick < 3000; tick++) {
+          List<Request> arrivals = generator.nextTick();
+          for (Request request : arrivals) {
+            writer.write(tick, request);
+            calls++;
+          }
+          ticks.add(arrivals);
+        }
+      }
+      int lastTick = ticks.size() - 1;
+      while (ticks.get(lastTick).isEmpty()) {
+        lastTick--;
+      }
+
+      Building direct = new Building(15, 3, 5);
+      direct.startElevatorSystem();
+      for (int tick = 0; tick <= lastTick; tick++) {
+        for (Request request : ticks.get(tick)) {
+          direct.addRequest(request);
+        }
+        if (tick < lastTick) {
+          direct.stepElevatorSystem();
+        }
+      }
+
+      Building replayed = new Building(15, 3, 5);
+      replayed.startElevatorSystem();
+      try (TraceReader reader = new TraceReader(file)) {
+        TraceReplay replay = new TraceReplay(reader, replayed);
+        assertEquals(calls, replay.replay());
+        assertTrue(replay.isFinished());
+      }
+      assertEquals(lastTick, replayed.getCurrentTick());
+      assertEquals(direct.getWaitTimeStatistics().toString(),
+          replayed.getWaitTimeStatistics().toString());
+      assertEquals(direct.getElevatorSystemStatus().getUpRequests().toString(),
+          replayed.getElevatorSystemStatus().getUpRequests().toString());
+      assertEquals(direct.getElevatorSystemStatus().getDownRequests().toString(),
+          replayed.getElevatorSystemStatus().getDownRequests().toString());
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  /**
+   * A trace for a building of another size is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testFloorsMustMatch() throws IOException {
+    Path file = Files.createTempFile("replay", ".elvt");
+    try {
+      new TraceWriter(Files.newOutputStream(file), 12).close();
+      try (TraceReader reader = new TraceReader(file)) {
+        new TraceReplay(reader, new Building(10, 2, 5));
+      }
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
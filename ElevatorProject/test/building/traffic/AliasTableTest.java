@@ -0,0 +1,48 @@
+package building.traffic;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+/**
+ * A JUnit test class for the AliasTable class.
+ */
+public class AliasTableTest {
+
+  /**
+   * Each index is drawn in proportion to its weight, and a zero weight is never drawn.
+   */
+  @Test
+  public void testSamplesInProportion() {
+    double[] weights = {1, 0, 2, 7};
+    AliasTable table = new AliasTable(weights);
+    assertEquals(4, table.size());
+    SplittableRandom random = new SplittableRandom(3);
+    int draws = 200_000;
+    int[] counts = new int[weights.length];
+    for (int i = 0; i < draws; i++) {
+      counts[table.sample(random)]++;
+    }
+    assertEquals(0, counts[1]);
+    assertEquals(0.1, (double) counts[0] / draws, 0.005);
+    assertEquals(0.2, (double) counts[2] / draws, 0.005);
+    assertEquals(0.7, (double) counts[3] / draws, 0.005);
+  }
+
+  /**
+   * Weights that are all zero are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testAllZeroWeights() {
+    new AliasTable(new double[] {0, 0});
+  }
+
+  /**
+   * Negative weights are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeWeight() {
+    new AliasTable(new double[] {1, -1});
+  }
+}
@@ -0,0 +1,152 @@
+package building.traffic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import building.AdmissionControl;
+import building.Building;
+import building.enums.AdmissionPolicy;
+import building.enums.TrafficProfile;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.Test;
+import scanerzus.Request;
+
+/**
+ * A JUnit test class for the TrafficGenerator class.
+ */
+public class TrafficGeneratorTest {
+
+  /**
+   * The same seed produces the same calls.
+   */
+  @Test
+  public void testReproducible() {
+    TrafficGenerator first = new TrafficGenerator(TrafficProfile.LUNCH, 20, 0.7, 11);
+    TrafficGenerator second = new TrafficGenerator(TrafficProfile.LUNCH, 20, 0.7, 11);
+    for (int tick = 0; tick < 1000; tick++) {
+      assertEquals(first.nextTick().toString(), second.nextTick().toString());
+    }
+    assertEquals(1000, first.getTick());
+  }
+
+  /**
+   * The mean number of calls per tick is the arrival rate, and no call starts and ends on
+   * the same floor.
+   */
+  @Test
+  public void testArrivalRate() {
+    TrafficGenerator generator = new TrafficGenerator(TrafficProfile.INTER_FLOOR, 10, 2.5, 5);
+    int ticks = 40_000;
+    long calls = 0;
+    for (int tick = 0; tick < ticks; tick++) {
+      for (Request request : generator.nextTick()) {
+        assertNotEquals(request.getStartFloor(), request.getEndFloor());
+        calls++;
+      }
+    }
+    assertEquals(2.5, (double) calls / ticks, 0.05);
+  }
+
+  /**
+   * Up-peak calls mostly leave the lobby, down-peak calls mostly return to it.
+   */
+  @Test
+  public void testPeakProfiles() {
+    TrafficGenerator up = new TrafficGenerator(TrafficProfile.UP_PEAK, 15, 1, 1);
+    TrafficGenerator down = new TrafficGenerator(TrafficProfile.DOWN_PEAK, 15, 1, 1);
+    int fromLobby = 0;
+    int toLobby = 0;
+    int draws = 20_000;
+    for (int i = 0; i < draws; i++) {
+      if (up.nextRequest().getStartFloor() == 0) {
+        fromLobby++;
+      }
+      if (down.nextRequest().getEndFloor() == 0) {
+        toLobby++;
+      }
+    }
+    assertEquals(0.85, (double) fromLobby / draws, 0.02);
+    assertEquals(0.85, (double) toLobby / draws, 0.02);
+  }
+
+  /**
+   * A custom matrix only produces the trips it has weight for.
+   */
+  @Test
+  public void testCustomMatrix() {
+    double[][] weights = new double[4][4];
+    weights[1][3] = 1;
+    TrafficGenerator generator = new TrafficGenerator(weights, 1, new SplittableRandom(2));
+    for (int i = 0; i < 100; i++) {
+      Request request = generator.nextRequest();
+      assertEquals(1, request.getStartFloor());
+      assertEquals(3, request.getEndFloor());
+    }
+  }
+
+  /**
+   * The generated calls can be added straight to a running building.
+   */
+  @Test
+  public void testDrivesBuilding() {
+    Building building = new Building(12, 3, 5);
+    building.startElevatorSystem();
+    TrafficGenerator generator = new TrafficGenerator(TrafficProfile.UP_PEAK, 12, 0.2, 9);
+    long added = 0;
+    for (int tick = 0; tick < 2000; tick++) {
+      added += generator.addNextTick(building);
+      building.stepElevatorSystem();
+    }
+    assertTrue(added > 0);
+    assertTrue(building.getWaitTimeStatistics().getServedCount() > 0);
+  }
+
+  /**
+   * Calls that admission control turns away are not counted as added.
+   */
+  @Test
+  public void testCountsOnlyAdmittedCalls() {
+    Building building = new Building(12, 3, 5);
+    building.setAdmissionControl(new AdmissionControl(2, 4, AdmissionPolicy.REJECT));
+    building.startElevatorSystem();
+    TrafficGenerator generator = new TrafficGenerator(TrafficProfile.UP_PEAK, 12, 3, 9);
+    long added = 0;
+    for (int tick = 0; tick < 20; tick++) {
+      added += generator.addNextTick(building);
+    }
+    assertTrue(building.getRejectedCalls() > 0);
+    assertEquals(building.getBacklog(), added);
+  }
+
+  /**
+   * A trip from a floor to itself is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testDiagonalRejected() {
+    double[][] weights = new double[3][3];
+    weights[1][1] = 1;
+    new TrafficGenerator(weights, 1, new SplittableRandom(1));
+  }
+
+  /**
+   * A negative rate is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeRate() {
+    new TrafficGenerator(TrafficProfile.LUNCH, 10, -1, 1);
+  }
+
+  /**
+   * A rate of zero produces no calls.
+   */
+  @Test
+  public void testZeroRate() {
+    TrafficGenerator generator = new TrafficGenerator(TrafficProfile.LUNCH, 10, 0, 1);
+    for (int tick = 0; tick < 100; tick++) {
+      List<Request> arrivals = generator.nextTick();
+      assertTrue(arrivals.isEmpty());
+    }
+  }
+}
@@ -3,8 +3,10 @@ package elevator;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import building.enums.Direction;
+import building.enums.SweepMode;
 import java.util.ArrayList;
 import java.util.List;
 import org.junit.Before;
@@ -107,6 +109,292 @@ public class ElevatorTest {
     new Elevator(30, 2);
   }
 
+  /**
+   * High rise limits allow elevators in buildings taller than 30 floors,
+   * and their reports only list the requested floors.
+   */
+  @Test
+  public void elevatorHighRise() {
+    System.out.println("Testing: elevatorHighRise");
+    Elevator elevator = new Elevator(200, 5, FleetLimits.HIGH_RISE);
+    assertEquals(200, elevator.getMaxFloor());
+    elevator.start();
+    List<Request> requests = new ArrayList<>();
+    requests.add(new Request(0, 150));
+    elevator.processRequests(requests);
+    assertEquals("[0|^|C  ]< 0 150>", elevator.toString());
+  }
+
+  /**
+   * A LOOK elevator parks once it has no stops, takes requests where it is parked,
+   * and turns around as soon as there are no stops ahead.
+   */
+  @Test
+  public void elevatorLookParksAndReversesAtLastStop() {
+    System.out.println("Testing: elevatorLookParksAndReversesAtLastStop");
+    Elevator elevator = new Elevator(10, 5);
+    elevator.setSweepMode(SweepMode.LOOK);
+    assertEquals(SweepMode.LOOK, elevator.getSweepMode());
+    elevator.start();
+    // wait at the bottom, then park there as there is nowhere to go.
+    for (int i = 0; i < 6; i++) {
+      elevator.step();
+    }
+    assertEquals(0, elevator.getCurrentFloor());
+    assertEquals(Direction.STOPPED, elevator.getDirection());
+    assertTrue(elevator.isTakingRequests());
+
+    List<Request> requests = new ArrayList<>();
+    requests.add(new Request(0, 3));
+    elevator.processRequests(requests);
+    // the destination only becomes a stop once the rider is on board.
+    assertEquals(1, elevator.getFloorRequestSet().count());
+    elevator.step();
+    assertFalse(elevator.isDoorClosed());
+    assertTrue(elevator.getFloorRequestSet().contains(3));
+    // three steps with the door open, three floors up, then open at 3.
+    for (int i = 0; i < 7; i++) {
+      elevator.step();
+    }
+    assertEquals(3, elevator.getCurrentFloor());
+    assertFalse(elevator.isDoorClosed());
+    for (int i = 0; i < 4; i++) {
+      elevator.step();
+    }
+    // parked on floor 3 instead of running on to the top.
+    assertEquals(3, elevator.getCurrentFloor());
+    assertEquals(Direction.STOPPED, elevator.getDirection());
+    assertTrue(elevator.isTakingRequests());
+
+    requests.clear();
+    requests.add(new Request(5, 1));
+    elevator.processRequests(requests);
+    assertFalse(elevator.isTakingRequests());
+    elevator.step();
+    elevator.step();
+    assertEquals(5, elevator.getCurrentFloor());
+    elevator.step();
+    assertFalse(elevator.isDoorClosed());
+    assertTrue(elevator.getFloorRequestSet().contains(1));
+    for (int i = 0; i < 4; i++) {
+      elevator.step();
+    }
+    // no stops above 5, so the elevator turned around at once.
+    assertEquals(Direction.DOWN, elevator.getDirection());
+    assertEquals(4, elevator.getCurrentFloor());
+  }
+
+  /**
+   * A moving LOOK elevator with only stops behind it turns around without
+   * running to the end of the building.
+   */
+  @Test
+  public void elevatorLookTurnsAroundForStopsBehind() {
+    System.out.println("Testing: elevatorLookTurnsAroundForStopsBehind");
+    Elevator elevator = new Elevator(10, 5);
+    elevator.setSweepMode(SweepMode.LOOK);
+    elevator.start();
+    List<Request> requests = new ArrayList<>();
+    requests.add(new Request(3, 1));
+    elevator.processRequests(requests);
+    assertEquals(Direction.UP, elevator.getDirection());
+    // three floors up, then the door opens at 3 and the rider boards.
+    for (int i = 0; i < 4; i++) {
+      elevator.step();
+    }
+    assertEquals(3, elevator.getCurrentFloor());
+    assertFalse(elevator.isDoorClosed());
+    assertTrue(elevator.getFloorRequestSet().contains(1));
+    for (int i = 0; i < 4; i++) {
+      elevator.step();
+    }
+    assertEquals(2, elevator.getCurrentFloor());
+    assertEquals(Direction.DOWN, elevator.getDirection());
+  }
+
+  /**
+   * Merging requests into a moving elevator keeps its earlier stops, and a later batch
+   * at the end of the run is added to the stops left over from the sweep.
+   */
+  @Test
+  public void elevatorMergeRequestsKeepsEarlierStops() {
+    System.out.println("Testing: elevatorMergeRequestsKeepsEarlierStops");
+    Elevator elevator = new Elevator(10, 5);
+    elevator.start();
+    List<Request> requests = new ArrayList<>();
+    requests.add(new Request(0, 3));
+    elevator.processRequests(requests);
+    for (int i = 0; i < 6; i++) {
+      elevator.step();
+    }
+    assertEquals(2, elevator.getCurrentFloor());
+
+    List<Request> more = new ArrayList<>();
+    more.add(new Request(5, 8));
+    more.add(new Request(1, 0));
+    elevator.mergeRequests(more);
+    FloorRequestSet stops = elevator.getFloorRequestSet();
+    assertEquals("{1, 3, 5, 8}", stops.toString());
+
+    // run to the top; the pick up at 1 is left for the way down.
+    for (int i = 0; i < 20; i++) {
+      elevator.step();
+    }
+    assertEquals(9, elevator.getCurrentFloor());
+    assertTrue(elevator.isTakingRequests());
+    assertEquals("{1}", elevator.getFloorRequestSet().toString());
+
+    requests.clear();
+    requests.add(new Request(9, 4));
+    elevator.processRequests(requests);
+    assertEquals("{1, 4, 9}", elevator.getFloorRequestSet().toString());
+    assertEquals(Direction.DOWN, elevator.getDirection());
+  }
+
+  /**
+   * The passengers given to an elevator count as committed riders from when they are
+   * merged until the door opens at their destination.
+   */
+  @Test
+  public void elevatorCountsCommittedRiders() {
+    System.out.println("Testing: elevatorCountsCommittedRiders");
+    Elevator elevator = new Elevator(10, 5);
+    elevator.start();
+    List<Request> requests = new ArrayList<>();
+    requests.add(new Request(0, 3));
+    elevator.processRequests(requests);
+    assertEquals(1, elevator.getCommittedRiders());
+    for (int i = 0; i < 6; i++) {
+      elevator.step();
+    }
+    assertEquals(2, elevator.getCurrentFloor());
+
+    List<Request> more = new ArrayList<>();
+    more.add(new Request(5, 8));
+    elevator.mergeRequests(more, new int[] {2});
+    assertEquals(3, elevator.getCommittedRiders());
+    assertEquals(3, elevator.getElevatorStatus().getCommittedRiders());
+
+    // the first rider gets off at 3, the other two at 8
+    elevator.step();
+    elevator.step();
+    assertEquals(3, elevator.getCurrentFloor());
+    assertEquals(2, elevator.getCommittedRiders());
+    for (int i = 0; i < 20 && elevator.getCurrentFloor() != 8; i++) {
+      elevator.step();
+    }
+    elevator.step();
+    assertFalse(elevator.isDoorClosed());
+    assertEquals(0, elevator.getCommittedRiders());
+  }
+
+  /**
+   * Test requests whose passengers do not fit besides the committed riders are refused
+   * without changing the elevator.
+   */
+  @Test
+  public void elevatorMergeRequestsThrowsWhenFull() {
+    System.out.println("Testing: elevatorMergeRequestsThrowsWhenFull");
+    Elevator elevator = new Elevator(10, 3);
+    elevator.start();
+    List<Request> requests = new ArrayList<>();
+    requests.add(new Request(0, 3));
+    elevator.processRequests(requests);
+    List<Request> more = new ArrayList<>();
+    more.add(new Request(5, 8));
+    try {
+      elevator.mergeRequests(more, new int[] {3});
+      fail("Four passengers should not fit in the elevator.");
+    } catch (IllegalStateException e) {
+      assertEquals(1, elevator.getCommittedRiders());
+      assertEquals("{0, 3}", elevator.getFloorRequestSet().toString());
+    }
+  }
+
+  /**
+   * Test requests cannot be merged into an elevator that is out of service.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void elevatorMergeRequestsThrowsWhenOutOfService() {
+    System.out.println("Testing: elevatorMergeRequestsThrowsWhenOutOfService");
+    List<Request> requests = new ArrayList<>();
+    requests.add(new Request(2, 4));
+    new Elevator(10, 5).mergeRequests(requests);
+  }
+
+  /**
+   * Advancing an elevator over the steps before its next event gives the same state
+   * as stepping it.
+   */
+  @Test
+  public void elevatorAdvanceMatchesStep() {
+    System.out.println("Testing: elevatorAdvanceMatchesStep");
+    Elevator stepped = new Elevator(10, 5);
+    Elevator advanced = new Elevator(10, 5);
+    List<Request> requests = new ArrayList<>();
+    requests.add(new Request(0, 7));
+    for (Elevator elevator : new Elevator[] {stepped, advanced}) {
+      elevator.start();
+      elevator.processRequests(requests);
+    }
+    for (int events = 0; events < 7; events++) {
+      long steps = advanced.stepsUntilNextEvent();
+      assertEquals(stepped.stepsUntilNextEvent(), steps);
+      for (long i = 0; i < steps; i++) {
+        stepped.step();
+      }
+      advanced.advance(steps);
+      assertEquals(stepped.getCurrentFloor(), advanced.getCurrentFloor());
+      assertEquals(stepped.getElevatorStatus().toString(),
+          advanced.getElevatorStatus().toString());
+      stepped.step();
+      advanced.step();
+    }
+    // back at the bottom, taking requests, after going up to 7 and to the top.
+    assertEquals(0, advanced.getCurrentFloor());
+    assertTrue(advanced.isTakingRequests());
+  }
+
+  /**
+   * Test an elevator cannot advance past its next event.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void elevatorAdvancePastEventThrows() {
+    System.out.println("Testing: elevatorAdvancePastEventThrows");
+    Elevator elevator = new Elevator(10, 5);
+    elevator.start();
+    elevator.advance(elevator.stepsUntilNextEvent() + 1);
+  }
+
+  /**
+   * Test the sweep mode cannot be null.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void elevatorSweepModeCannotBeNull() {
+    System.out.println("Testing: elevatorSweepModeCannotBeNull");
+    new Elevator(10, 5).setSweepMode(null);
+  }
+
+  /**
+   * Test the constructor exceptions.
+   * The floor limit applies to high rise elevators too.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void elevatorConstructorThrowsExceptionAboveHighRiseLimit() {
+    System.out.println("Testing: elevatorConstructorThrowsExceptionAboveHighRiseLimit");
+    new Elevator(FleetLimits.HIGH_RISE.getMaxFloors() + 1, 5, FleetLimits.HIGH_RISE);
+  }
+
+  /**
+   * Test the fleet limits exceptions.
+   * No limits may allow more floors than fit in 16 bits.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void fleetLimitsThrowExceptionAboveMaxFloors() {
+    System.out.println("Testing: fleetLimitsThrowExceptionAboveMaxFloors");
+    new FleetLimits(FleetLimits.MAX_FLOORS + 1, 10);
+  }
+
   /**
    * Test the constructor exceptions.
    * Occupancy must be greater than or equal to 3
@@ -171,6 +459,25 @@ public class ElevatorTest {
 
   }
 
+  /**
+   * Test the constructor that takes the id from the building.
+   */
+  @Test
+  public void elevatorIdFromBuilding() {
+    System.out.println("Testing: elevatorIdFromBuilding");
+
+    assertEquals(7, new Elevator(7, 10, 5, FleetLimits.STANDARD).getElevatorId());
+  }
+
+  /**
+   * Test that a negative id is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void elevatorNegativeIdThrows() {
+    System.out.println("Testing: elevatorNegativeIdThrows");
+    new Elevator(-1, 10, 5, FleetLimits.STANDARD);
+  }
+
 
   /**
    * Test that the elevator starts out of service.
@@ -288,6 +595,30 @@ public class ElevatorTest {
     }
   }
 
+  /**
+   * Reports and floor request arrays are copies that do not change as the elevator moves.
+   */
+  @Test
+  public void elevatorReportDoesNotAliasFloorRequests() {
+    System.out.println("Testing: elevatorReportDoesNotAliasFloorRequests");
+    Elevator elevator = new Elevator(10, 5);
+    elevator.start();
+    List<Request> singleRequest = new ArrayList<>();
+    singleRequest.add(new Request(0, 1));
+    elevator.processRequests(singleRequest);
+
+    ElevatorReport report = elevator.getElevatorStatus();
+    elevator.getFloorRequests()[5] = true;
+    elevator.step();
+
+    assertEquals(2, report.getPendingStopCount());
+    assertTrue(report.getFloorRequests()[0]);
+    assertFalse(elevator.getFloorRequests()[0]);
+    assertFalse(elevator.getFloorRequests()[5]);
+    assertEquals(1, elevator.getFloorRequestSet().count());
+    assertEquals(1, elevator.getNextStop());
+  }
+
   @Test
   public void elevatorProcessRequest2() {
     System.out.println("Testing: elevatorProcessRequest2");
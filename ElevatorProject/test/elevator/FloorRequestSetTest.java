@@ -0,0 +1,111 @@
+package elevator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the bitmask backed set of requested floors.
+ */
+public class FloorRequestSetTest {
+
+  FloorRequestSet set;
+
+  /**
+   * Set up a set for a 130 floor building, which needs three words.
+   */
+  @Before
+  public void setUp() {
+    set = new FloorRequestSet(130);
+  }
+
+  @Test
+  public void addRemoveAndContains() {
+    set.add(0);
+    set.add(64);
+    set.add(129);
+    assertTrue(set.contains(0));
+    assertTrue(set.contains(64));
+    assertTrue(set.contains(129));
+    assertFalse(set.contains(1));
+    assertFalse(set.contains(130));
+    assertEquals(3, set.count());
+
+    set.remove(64);
+    assertFalse(set.contains(64));
+    assertEquals(2, set.count());
+  }
+
+  @Test
+  public void clear() {
+    set.add(3);
+    set.add(100);
+    set.clear();
+    assertTrue(set.isEmpty());
+    assertEquals(0, set.count());
+  }
+
+  @Test
+  public void nextAboveAndBelow() {
+    set.add(5);
+    set.add(63);
+    set.add(64);
+    set.add(128);
+
+    assertEquals(5, set.nextAbove(-1));
+    assertEquals(63, set.nextAbove(5));
+    assertEquals(64, set.nextAbove(63));
+    assertEquals(128, set.nextAbove(64));
+    assertEquals(-1, set.nextAbove(128));
+
+    assertEquals(128, set.nextBelow(130));
+    assertEquals(64, set.nextBelow(128));
+    assertEquals(63, set.nextBelow(64));
+    assertEquals(5, set.nextBelow(63));
+    assertEquals(-1, set.nextBelow(5));
+  }
+
+  @Test
+  public void countBetween() {
+    set.add(2);
+    set.add(63);
+    set.add(64);
+    set.add(129);
+    assertEquals(4, set.countBetween(0, 129));
+    assertEquals(2, set.countBetween(3, 64));
+    assertEquals(1, set.countBetween(64, 64));
+    assertEquals(0, set.countBetween(3, 62));
+    assertEquals(0, set.countBetween(10, 5));
+  }
+
+  @Test
+  public void booleanArrayRoundTrip() {
+    boolean[] floors = {false, true, false, true};
+    FloorRequestSet fromArray = FloorRequestSet.fromBooleanArray(floors);
+    assertEquals(2, fromArray.count());
+    assertArrayEquals(floors, fromArray.toBooleanArray());
+    assertEquals("{1, 3}", fromArray.toString());
+  }
+
+  @Test
+  public void copyIsIndependent() {
+    set.add(7);
+    FloorRequestSet copy = set.copy();
+    assertEquals(set, copy);
+    assertEquals(set.hashCode(), copy.hashCode());
+
+    copy.add(8);
+    assertFalse(set.contains(8));
+    assertNotEquals(set, copy);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void addOutsideBuilding() {
+    set.add(130);
+  }
+}